@@ -0,0 +1,171 @@
+package com.infreej.moment_canvas.domain.ai.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.ai.dto.ReplicateDto;
+import com.infreej.moment_canvas.domain.ai.service.ReplicatePredictionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replicate Prediction 생명주기를 흉내내는 로컬 스텁 서버
+ * - replicate-stub 프로필에서만 등록된다. (예: SPRING_PROFILES_ACTIVE=default,replicate-stub)
+ * - starting -> processing -> succeeded 순서로 상태가 바뀌며, webhook 이 지정되면 완료 시 서명된 webhook 을 보낸다.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/stub/replicate")
+@Profile(ReplicateStubController.PROFILE)
+public class ReplicateStubController {
+
+    public static final String PROFILE = "replicate-stub";
+
+    private final ReplicatePredictionService replicatePredictionService;
+    private final ObjectMapper objectMapper;
+
+    private final RestClient restClient = RestClient.create();
+
+    // 생성된 Prediction 목록 (id -> 상태)
+    private final Map<String, StubPrediction> predictions = new ConcurrentHashMap<>();
+
+    @Value("${spring.ai.replicate.stub.latency-millis:3000}")
+    private long latencyMillis;
+
+
+    @PostMapping("/v1/models/{owner}/{model}/predictions")
+    public ReplicateDto.ReplicateResponse createPrediction(@PathVariable String owner, @PathVariable String model,
+                                                           @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                           @RequestBody ReplicateDto.ReplicateRequest request) throws InterruptedException {
+
+        String id = UUID.randomUUID().toString().replace("-", "");
+        String fileBaseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().path("/stub/replicate/files/").toUriString();
+
+        predictions.put(id, new StubPrediction(id, Instant.now(), fileBaseUrl, false));
+        log.info("[Stub] Prediction 생성. id: {}, model: {}/{}, webhook: {}", id, owner, model, request.webhook());
+
+        // webhook 이 있다면 완료 시점에 전송
+        if (request.webhook() != null) {
+            CompletableFuture.runAsync(() -> sendWebhook(id, request.webhook()),
+                    CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+        }
+
+        // Prefer: wait(=초) 라면 완료까지 대기 (대기 시간이 지정되었다면 그 시간까지만)
+        if (prefer != null && prefer.startsWith("wait")) {
+            long waitMillis = prefer.startsWith("wait=") ? Long.parseLong(prefer.substring("wait=".length()).strip()) * 1000 : latencyMillis;
+            Thread.sleep(Math.min(latencyMillis, waitMillis));
+        }
+
+        return toResponse(predictions.get(id));
+    }
+
+
+    @GetMapping("/v1/predictions/{id}")
+    public ReplicateDto.ReplicateResponse getPrediction(@PathVariable String id) {
+        return toResponse(findPrediction(id));
+    }
+
+
+    @PostMapping("/v1/predictions/{id}/cancel")
+    public ReplicateDto.ReplicateResponse cancelPrediction(@PathVariable String id) {
+        StubPrediction canceled = findPrediction(id).cancel();
+        predictions.put(id, canceled);
+        return toResponse(canceled);
+    }
+
+
+    // 생성 결과 이미지 (id 별로 색이 다른 단색 PNG)
+    @GetMapping(value = "/files/{id}.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public byte[] getFile(@PathVariable String id) throws IOException {
+        BufferedImage image = new BufferedImage(320, 180, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(id.hashCode() & 0xFFFFFF));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+
+    private void sendWebhook(String id, String webhookUrl) {
+        try {
+            String body = objectMapper.writeValueAsString(toResponse(findPrediction(id)));
+            String webhookId = "msg_" + UUID.randomUUID();
+            String timestamp = String.valueOf(Instant.now().getEpochSecond());
+            String signature = "v1," + Base64.getEncoder().encodeToString(
+                    replicatePredictionService.sign(webhookId + "." + timestamp + "." + body));
+
+            restClient.post()
+                    .uri(webhookUrl)
+                    .header("webhook-id", webhookId)
+                    .header("webhook-timestamp", timestamp)
+                    .header("webhook-signature", signature)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body)
+                    .retrieve()
+                    .toBodilessEntity();
+
+            log.info("[Stub] webhook 전송 완료. id: {}", id);
+        } catch (Exception e) {
+            log.warn("[Stub] webhook 전송 실패. id: {}, message: {}", id, e.getMessage());
+        }
+    }
+
+
+    // 경과 시간에 따라 상태 계산
+    private ReplicateDto.ReplicateResponse toResponse(StubPrediction prediction) {
+
+        if (prediction.canceled()) {
+            return new ReplicateDto.ReplicateResponse(prediction.id(), null, "canceled", null);
+        }
+
+        long elapsed = Duration.between(prediction.createdAt(), Instant.now()).toMillis();
+        if (elapsed < latencyMillis / 3) {
+            return new ReplicateDto.ReplicateResponse(prediction.id(), null, "starting", null);
+        }
+        if (elapsed < latencyMillis) {
+            return new ReplicateDto.ReplicateResponse(prediction.id(), null, "processing", null);
+        }
+        return new ReplicateDto.ReplicateResponse(prediction.id(), List.of(prediction.fileBaseUrl() + prediction.id() + ".png"), "succeeded", null);
+    }
+
+
+    private StubPrediction findPrediction(String id) {
+        StubPrediction prediction = predictions.get(id);
+        if (prediction == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return prediction;
+    }
+
+
+    private record StubPrediction(String id, Instant createdAt, String fileBaseUrl, boolean canceled) {
+        StubPrediction cancel() {
+            return new StubPrediction(id, createdAt, fileBaseUrl, true);
+        }
+    }
+}
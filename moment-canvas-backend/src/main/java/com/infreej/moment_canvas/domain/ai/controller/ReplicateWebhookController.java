@@ -0,0 +1,32 @@
+package com.infreej.moment_canvas.domain.ai.controller;
+
+import com.infreej.moment_canvas.domain.ai.service.ReplicatePredictionService;
+import com.infreej.moment_canvas.global.annotation.SetSuccess;
+import com.infreej.moment_canvas.global.code.SuccessCode;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Replicate", description = "Replicate webhook API")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/v1")
+@ConditionalOnProperty(name = "spring.ai.provider", havingValue = "replicate")
+public class ReplicateWebhookController {
+
+    private final ReplicatePredictionService replicatePredictionService;
+
+
+    @SetSuccess(SuccessCode.COMMON_SUCCESS)
+    @Operation(summary = "Replicate webhook 수신", description = "Replicate가 이미지 생성 완료 시 호출하는 API 입니다. \n - webhook-signature 헤더로 서명을 검증합니다.")
+    @PostMapping("/replicate/webhook")
+    public void receiveWebhook(@RequestHeader(value = "webhook-id", required = false) String webhookId,
+                               @RequestHeader(value = "webhook-timestamp", required = false) String timestamp,
+                               @RequestHeader(value = "webhook-signature", required = false) String signature,
+                               @RequestBody String body) {
+
+        replicatePredictionService.handleWebhook(webhookId, timestamp, signature, body);
+    }
+}
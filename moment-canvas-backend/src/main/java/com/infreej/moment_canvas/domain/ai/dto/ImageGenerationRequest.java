@@ -0,0 +1,27 @@
+package com.infreej.moment_canvas.domain.ai.dto;
+
+import com.infreej.moment_canvas.domain.ai.entity.PromptMode;
+import com.infreej.moment_canvas.domain.user.entity.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * AiService 에 이미지 생성을 요청하기 위한 Request
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ImageGenerationRequest {
+
+    private final String systemPersona; // 이미지를 생성하는 프롬프트 AI가 가지는 인격
+    private final String userRequest; // 최종적으로 프롬프트 AI 에게 요청되는 내용
+    private final String promptCacheKey; // 프롬프트 캐시 키 (null 이면 캐시를 사용하지 않음)
+    private final Role role; // 요청한 유저의 권한 (AI 호출 대기열 우선순위)
+    private final PromptMode promptMode; // 프롬프트 생성 방식 (null 이면 STANDARD)
+    private final PromptTemplateInput templateInput; // 템플릿 프롬프트 입력값 (FAST 또는 LLM 지연, 장애 시 사용)
+
+    public boolean isFast() {
+        return promptMode == PromptMode.FAST;
+    }
+}
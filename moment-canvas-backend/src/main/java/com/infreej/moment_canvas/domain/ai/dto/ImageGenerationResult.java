@@ -0,0 +1,18 @@
+package com.infreej.moment_canvas.domain.ai.dto;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * AiService 이미지 생성 결과
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ImageGenerationResult {
+
+    private final String imageUrl; // 생성된 이미지 URL
+    private final ImageProvider provider; // 이미지를 생성한 제공자
+}
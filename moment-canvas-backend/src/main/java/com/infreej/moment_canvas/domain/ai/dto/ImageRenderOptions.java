@@ -0,0 +1,107 @@
+package com.infreej.moment_canvas.domain.ai.dto;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageSize;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.ai.image.ImageOptions;
+
+/**
+ * 이미지 생성 옵션 (비율, 품질, 크기, 생성 단계 수)
+ * - ImagePrompt 에 담겨 제공자에게 전달된다.
+ * - Replicate 는 모든 값을 사용하고, OpenAI 는 비율에 맞는 width, height 만 사용한다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ImageRenderOptions implements ImageOptions {
+
+    public static final String DEFAULT_ASPECT_RATIO = "16:9";
+    public static final int DEFAULT_QUALITY = 80;
+    public static final ImageSize DEFAULT_SIZE = ImageSize.LARGE;
+
+    // 미리보기 이미지 설정 (작은 크기, 낮은 품질, 적은 생성 단계)
+    private static final int PREVIEW_QUALITY = 50;
+    private static final int PREVIEW_INFERENCE_STEPS = 2;
+
+    private final String aspectRatio; // "1:1", "16:9", "2:3" 등
+    private final int quality; // 1 ~ 100
+    private final ImageSize size;
+    private final Integer inferenceSteps; // 생성 단계 수 (null 이면 모델 기본값)
+
+
+    /**
+     * 요청 값으로 최종 이미지 옵션 생성 (값이 없으면 기본값)
+     */
+    public static ImageRenderOptions from(DiaryImageGenerateRequest diaryImageGenerateRequest) {
+        return ImageRenderOptions.builder()
+                .aspectRatio(diaryImageGenerateRequest.getAspectRatio() == null ? DEFAULT_ASPECT_RATIO : diaryImageGenerateRequest.getAspectRatio())
+                .quality(diaryImageGenerateRequest.getQuality() == null ? DEFAULT_QUALITY : diaryImageGenerateRequest.getQuality())
+                .size(diaryImageGenerateRequest.getSize() == null ? DEFAULT_SIZE : diaryImageGenerateRequest.getSize())
+                .build();
+    }
+
+
+    /**
+     * 최종 이미지와 같은 비율의 미리보기 이미지 옵션 생성
+     */
+    public ImageRenderOptions toPreview() {
+        return ImageRenderOptions.builder()
+                .aspectRatio(aspectRatio)
+                .quality(PREVIEW_QUALITY)
+                .size(ImageSize.SMALL)
+                .inferenceSteps(PREVIEW_INFERENCE_STEPS)
+                .build();
+    }
+
+
+    public static ImageRenderOptions defaults() {
+        return ImageRenderOptions.builder()
+                .aspectRatio(DEFAULT_ASPECT_RATIO)
+                .quality(DEFAULT_QUALITY)
+                .size(DEFAULT_SIZE)
+                .build();
+    }
+
+
+    // ==================== ImageOptions (OpenAI 용) ====================
+
+    // DALL-E 3 가 지원하는 크기(1024x1024, 1792x1024, 1024x1792) 중 비율에 가장 가까운 값
+    @Override
+    public Integer getWidth() {
+        return orientation() > 0 ? 1792 : 1024;
+    }
+
+    @Override
+    public Integer getHeight() {
+        return orientation() < 0 ? 1792 : 1024;
+    }
+
+    @Override
+    public Integer getN() {
+        return null;
+    }
+
+    @Override
+    public String getModel() {
+        return null;
+    }
+
+    @Override
+    public String getResponseFormat() {
+        return null;
+    }
+
+    @Override
+    public String getStyle() {
+        return null;
+    }
+
+
+    // 가로가 길면 양수, 세로가 길면 음수, 정사각형이면 0
+    private int orientation() {
+        String[] ratio = aspectRatio.split(":");
+        return Integer.compare(Integer.parseInt(ratio[0]), Integer.parseInt(ratio[1]));
+    }
+}
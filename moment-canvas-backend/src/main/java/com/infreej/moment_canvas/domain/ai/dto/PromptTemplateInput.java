@@ -0,0 +1,28 @@
+package com.infreej.moment_canvas.domain.ai.dto;
+
+import com.infreej.moment_canvas.domain.user.entity.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * LLM 없이 템플릿으로 이미지 프롬프트를 만들기 위한 입력값
+ * - 금지어를 가리지 않은 원문을 담는다. 템플릿으로 만들기 전에 PromptSafetyFilter.screenTemplate 으로 검사(거절)한다.
+ * - 스타일은 TemplatePromptCompiler 의 스타일 목록에 있는 값만 허용한다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class PromptTemplateInput {
+
+    private final String title; // 일기 제목
+    private final String content; // 일기 본문
+    private final Integer mood; // 기분 (1 = 나쁨 / 5 = 좋음)
+    private final String style; // 그림 스타일
+    private final String option; // 추가 요청사항
+    private final LocalDate birthday; // 작성자 생년월일
+    private final Gender gender; // 작성자 성별
+    private final String persona; // 작성자 특징
+}
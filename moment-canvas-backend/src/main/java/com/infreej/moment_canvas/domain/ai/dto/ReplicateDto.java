@@ -1,22 +1,46 @@
 package com.infreej.moment_canvas.domain.ai.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class ReplicateDto {
 
-    public record ReplicateRequest(ReplicateInput input) {}
+    @JsonInclude(JsonInclude.Include.NON_NULL) // webhook 미사용 시 필드 자체를 보내지 않는다.
+    public record ReplicateRequest(
+            ReplicateInput input,
+            String webhook, // 생성 완료 시 Replicate가 호출할 주소 (비동기 방식)
+            List<String> webhook_events_filter // webhook을 받을 이벤트 ("completed" 등)
+    ) {
+        public ReplicateRequest(ReplicateInput input) {
+            this(input, null, null);
+        }
+    }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL) // 값이 없는 옵션은 모델 기본값 사용
     public record ReplicateInput(
             String prompt,
             String aspect_ratio, // "1:1", "16:9", "2:3" 등
             String output_format, // "webp", "jpg"
             int output_quality,
-            boolean go_fast // Flux.1 Schnell 전용 옵션
+            boolean go_fast, // Flux.1 Schnell 전용 옵션
+            String megapixels, // "1", "0.25"
+            Integer num_inference_steps // 생성 단계 수 (1~4, 적을수록 빠르다)
     ) {}
 
     public record ReplicateResponse(
             String id,
             List<String> output,
-            String status
-    ) {}
+            String status, // starting, processing, succeeded, failed, canceled
+            Object error // 실패 시 에러 내용
+    ) {
+        // 더 이상 상태가 바뀌지 않는 종료 상태인지 여부
+        public boolean isTerminal() {
+            return "succeeded".equals(status) || "failed".equals(status) || "canceled".equals(status);
+        }
+
+        public boolean isSucceeded() {
+            return "succeeded".equals(status) && output != null && !output.isEmpty();
+        }
+    }
 }
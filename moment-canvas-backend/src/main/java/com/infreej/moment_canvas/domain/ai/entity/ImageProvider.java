@@ -0,0 +1,9 @@
+package com.infreej.moment_canvas.domain.ai.entity;
+
+/**
+ * 이미지 생성 API 제공자
+ */
+public enum ImageProvider {
+    REPLICATE, // Replicate Flux.1 Schnell
+    OPENAI // OpenAI DALL-E 3
+}
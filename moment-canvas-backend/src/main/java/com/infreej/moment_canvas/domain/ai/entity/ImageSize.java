@@ -0,0 +1,16 @@
+package com.infreej.moment_canvas.domain.ai.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 생성할 이미지 크기
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageSize {
+    SMALL("0.25"), // 약 0.25 메가픽셀 (미리보기, 빠른 생성)
+    LARGE("1"); // 약 1 메가픽셀
+
+    private final String megapixels; // Replicate Flux.1 Schnell 의 megapixels 입력값
+}
@@ -0,0 +1,9 @@
+package com.infreej.moment_canvas.domain.ai.entity;
+
+/**
+ * 이미지 프롬프트 생성 방식
+ */
+public enum PromptMode {
+    STANDARD, // LLM 으로 생성 (지연, 장애 시 템플릿으로 대체)
+    FAST // LLM 호출 없이 템플릿으로 생성 (빠름)
+}
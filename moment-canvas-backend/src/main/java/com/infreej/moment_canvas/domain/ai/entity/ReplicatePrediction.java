@@ -0,0 +1,29 @@
+package com.infreej.moment_canvas.domain.ai.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+
+import java.time.LocalDateTime;
+
+/**
+ * 완료를 기다리는 Replicate Prediction 과 이미지 생성 작업의 연결 정보
+ * - webhook 또는 폴링으로 완료가 확인되면 삭제된다.
+ * - 만료 시간 1시간
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@RedisHash(value = "replicatePrediction", timeToLive = 3600)
+public class ReplicatePrediction {
+
+    @Id
+    private String predictionId; // Replicate Prediction ID
+    private String jobId; // 이미지 생성 작업 ID
+    private LocalDateTime createdAt; // Prediction 생성 시각 (폴링 대상 판단용)
+    private Long deadlineAt; // 작업의 처리 제한 시각 (epoch millis, 지나면 Prediction 을 취소한다.)
+}
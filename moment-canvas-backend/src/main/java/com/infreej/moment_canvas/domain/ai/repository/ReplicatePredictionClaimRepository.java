@@ -0,0 +1,12 @@
+package com.infreej.moment_canvas.domain.ai.repository;
+
+import java.util.Optional;
+
+public interface ReplicatePredictionClaimRepository {
+
+    /**
+     * Prediction 연결 정보를 꺼내면서 삭제 (한 번만 성공한다.)
+     * @return 연결된 이미지 생성 작업 ID (없거나 이미 처리되었다면 empty)
+     */
+    public Optional<String> claimJobId(String predictionId);
+}
@@ -0,0 +1,46 @@
+package com.infreej.moment_canvas.domain.ai.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ReplicatePrediction(@RedisHash) 를 꺼내면서 삭제하는 저장소
+ * - findById 후 delete 는 webhook 과 폴링 스케줄러가 동시에 같은 Prediction 을 처리할 수 있으므로 Lua 로 한 번에 처리한다.
+ */
+@RequiredArgsConstructor
+public class ReplicatePredictionClaimRepositoryImpl implements ReplicatePredictionClaimRepository {
+
+    // ReplicatePrediction 의 @RedisHash 값
+    static final String KEYSPACE = "replicatePrediction";
+
+    private static final RedisScript<String> CLAIM_SCRIPT = createScript();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+
+    @Override
+    public Optional<String> claimJobId(String predictionId) {
+        String key = KEYSPACE + ":" + predictionId;
+        return Optional.ofNullable(stringRedisTemplate.execute(
+                CLAIM_SCRIPT,
+                List.of(key, KEYSPACE, key + ":phantom"),
+                "jobId",
+                predictionId
+        ));
+    }
+
+
+    private static RedisScript<String> createScript() {
+        DefaultRedisScript<String> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/claim-hash.lua")));
+        script.setResultType(String.class);
+        return script;
+    }
+}
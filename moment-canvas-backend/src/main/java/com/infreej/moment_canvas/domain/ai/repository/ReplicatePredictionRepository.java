@@ -0,0 +1,7 @@
+package com.infreej.moment_canvas.domain.ai.repository;
+
+import com.infreej.moment_canvas.domain.ai.entity.ReplicatePrediction;
+import org.springframework.data.repository.CrudRepository;
+
+public interface ReplicatePredictionRepository extends CrudRepository<ReplicatePrediction, String>, ReplicatePredictionClaimRepository {
+}
@@ -0,0 +1,326 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.user.entity.Role;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * AI 호출 동시 실행 수 제한 (Bulkhead)
+ * - 동시에 실행할 수 있는 AI 호출 수(슬롯)를 제한하고, 나머지는 대기열에서 기다린다.
+ * - 대기열은 권한 우선순위(ADMIN, VIP > USER) 순, 같은 우선순위라면 먼저 온 순서로 슬롯을 받는다.
+ * - 예상 대기 시간이 최대 대기 시간을 넘으면 대기열에 넣지 않고 바로 거절한다.
+ *   소요 시간은 호출 종류(프롬프트 생성, 이미지 생성, Prediction 생성 요청)별로 따로 평균을 내고,
+ *   실행 중인 호출과 앞선 대기자의 종류에 맞는 평균으로 예상 대기 시간을 계산한다.
+ * - 요청의 처리 제한 시각(Deadline)까지 남은 시간이 더 짧다면 그 시간만큼만 기다린다.
+ */
+@Slf4j
+@Component
+public class AiBulkhead {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparingInt(Waiter::priority).reversed().thenComparingLong(Waiter::sequence));
+
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+
+    private int availableSlots;
+    private long sequence;
+    private final Map<CallType, Double> averageServiceMillis = new EnumMap<>(CallType.class); // 호출 종류별 최근 소요 시간 (지수 이동 평균)
+    private final Map<CallType, Integer> running = new EnumMap<>(CallType.class); // 호출 종류별 실행 중인 호출 수
+
+    private final MeterRegistry meterRegistry;
+    private final Counter expectedWaitRejectedCounter;
+    private final Counter timeoutRejectedCounter;
+
+    public AiBulkhead(MeterRegistry meterRegistry,
+                      @Value("${spring.ai.bulkhead.max-concurrent:8}") int maxConcurrent,
+                      @Value("${spring.ai.bulkhead.max-wait-millis:30000}") long maxWaitMillis,
+                      @Value("${spring.ai.bulkhead.initial-service-millis:15000}") long initialServiceMillis,
+                      @Value("${spring.ai.bulkhead.initial-prompt-service-millis:5000}") long initialPromptServiceMillis,
+                      @Value("${spring.ai.bulkhead.initial-submit-service-millis:2000}") long initialSubmitServiceMillis) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.availableSlots = maxConcurrent;
+        this.averageServiceMillis.put(CallType.RENDER, (double) initialServiceMillis);
+        this.averageServiceMillis.put(CallType.PROMPT, (double) initialPromptServiceMillis);
+        this.averageServiceMillis.put(CallType.SUBMIT, (double) initialSubmitServiceMillis);
+        for (CallType type : CallType.values()) {
+            this.running.put(type, 0);
+        }
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("ai.bulkhead.queue.depth", this, AiBulkhead::queueDepth)
+                .description("AI 호출 대기열 길이").register(meterRegistry);
+        Gauge.builder("ai.bulkhead.active", this, AiBulkhead::activeCount)
+                .description("실행 중인 AI 호출 수").register(meterRegistry);
+        this.expectedWaitRejectedCounter = Counter.builder("ai.bulkhead.rejected").tag("reason", "expected-wait")
+                .description("예상 대기 시간 초과로 거절된 AI 호출 수").register(meterRegistry);
+        this.timeoutRejectedCounter = Counter.builder("ai.bulkhead.rejected").tag("reason", "timeout")
+                .description("대기 시간 초과로 거절된 AI 호출 수").register(meterRegistry);
+    }
+
+
+    /**
+     * 슬롯을 받아 작업을 실행하고, 끝나면 슬롯을 반환하는 메서드
+     * @param role 요청한 유저의 권한 (대기열 우선순위)
+     * @param type 호출 종류 (예상 대기 시간 계산에 사용하는 소요 시간 평균)
+     * @param task AI 호출 작업
+     * @return 작업 결과
+     */
+    public <T> T execute(Role role, CallType type, Supplier<T> task) {
+
+        acquire(role, type);
+
+        long startTime = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            release(type, System.nanoTime() - startTime, true);
+        }
+    }
+
+
+    /**
+     * 빈 슬롯이 있고 기다리는 요청이 없을 때만 작업을 실행하는 메서드 (대기하지 않는다.)
+     * - 사용자 요청보다 먼저 슬롯을 차지하면 안 되는 백그라운드 작업(프롬프트 미리 생성 등)에 사용한다.
+     * - 사용자 요청과 입력이 다르므로(미리보기 등) 소요 시간은 평균에 반영하지 않는다.
+     * @param type 호출 종류
+     * @param task AI 호출 작업
+     * @return 작업 결과 (슬롯이 없어 실행하지 않았다면 empty)
+     */
+    public <T> Optional<T> tryExecute(CallType type, Supplier<T> task) {
+
+        lock.lock();
+        try {
+            if (availableSlots <= 0 || !waiters.isEmpty()) {
+                return Optional.empty();
+            }
+            availableSlots--;
+            running.merge(type, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            return Optional.ofNullable(task.get());
+        } finally {
+            release(type, System.nanoTime() - startTime, false);
+        }
+    }
+
+
+    // 슬롯 획득 (없으면 우선순위 대기열에서 대기)
+    private void acquire(Role role, CallType type) {
+
+        long startTime = System.nanoTime();
+        int priority = priorityOf(role);
+
+        // 처리 제한 시각까지 남은 시간이 더 짧다면 그만큼만 기다린다.
+        long waitLimitMillis = Deadline.remainingMillis(maxWaitMillis);
+        ErrorCode rejectCode = waitLimitMillis < maxWaitMillis ? ErrorCode.COMMON_DEADLINE_EXCEEDED : ErrorCode.AI_CAPACITY_EXCEEDED;
+
+        lock.lock();
+        try {
+            // 빈 슬롯이 있고 기다리는 요청이 없다면 바로 실행
+            if (availableSlots > 0 && waiters.isEmpty()) {
+                availableSlots--;
+                running.merge(type, 1, Integer::sum);
+                recordWait(role, startTime);
+                return;
+            }
+
+            // 예상 대기 시간이 최대 대기 시간을 넘는다면 바로 거절
+            long expectedWaitMillis = expectedWaitMillis(priority, type);
+            if (expectedWaitMillis > waitLimitMillis) {
+                expectedWaitRejectedCounter.increment();
+                log.warn("AI 호출 대기열 초과로 요청 거절. role: {}, type: {}, 예상 대기 시간: {}ms, 최대 대기 시간: {}ms, 대기열: {}", role, type, expectedWaitMillis, waitLimitMillis, waiters.size());
+                throw new BusinessException(rejectCode);
+            }
+
+            Waiter waiter = new Waiter(priority, type, sequence++, lock.newCondition());
+            waiters.add(waiter);
+
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(waitLimitMillis);
+            try {
+                while (!waiter.granted) {
+                    if (remainingNanos <= 0) {
+                        waiters.remove(waiter);
+                        timeoutRejectedCounter.increment();
+                        log.warn("AI 호출 대기 시간 초과로 요청 거절. role: {}, 대기 시간: {}ms", role, waitLimitMillis);
+                        throw new BusinessException(rejectCode);
+                    }
+                    remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                // 이미 슬롯을 넘겨받았다면 다음 대기자에게 돌려준다.
+                if (waiter.granted) {
+                    running.merge(type, -1, Integer::sum);
+                    handOver();
+                } else {
+                    waiters.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ErrorCode.AI_CAPACITY_EXCEEDED);
+            }
+
+            recordWait(role, startTime);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // 슬롯 반환 (대기자가 있다면 가장 우선순위가 높은 대기자에게 바로 넘겨준다.)
+    private void release(CallType type, long serviceNanos, boolean sample) {
+        lock.lock();
+        try {
+            if (sample) {
+                averageServiceMillis.merge(type, TimeUnit.NANOSECONDS.toMillis(serviceNanos) * 0.2, (average, weighted) -> average * 0.8 + weighted);
+            }
+            running.merge(type, -1, Integer::sum);
+            handOver();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // lock 을 잡은 상태에서 호출 (슬롯을 넘겨받은 대기자는 실행 중인 호출로 센다.)
+    private void handOver() {
+        Waiter next = waiters.poll();
+        if (next == null) {
+            availableSlots++;
+            return;
+        }
+        next.granted = true;
+        running.merge(next.type, 1, Integer::sum);
+        next.condition.signal();
+    }
+
+
+    /**
+     * 예상 대기 시간 계산 (lock 을 잡은 상태에서 호출)
+     * - 실행 중인 호출 중 하나가 끝나는 시간 + 나보다 먼저 슬롯을 받을 대기자들의 소요 시간을 슬롯 수로 나눈다.
+     * - 실행 중인 호출이 끝나는 시간은 실행 중인 호출 종류별 평균의 평균으로 본다.
+     */
+    private long expectedWaitMillis(int priority, CallType type) {
+
+        double runningMillis = 0;
+        int runningCount = 0;
+        for (Map.Entry<CallType, Integer> entry : running.entrySet()) {
+            runningMillis += entry.getValue() * averageServiceMillis.get(entry.getKey());
+            runningCount += entry.getValue();
+        }
+        double nextSlotMillis = runningCount > 0 ? runningMillis / runningCount : averageServiceMillis.get(type);
+
+        double aheadMillis = waiters.stream()
+                .filter(waiter -> waiter.priority >= priority)
+                .mapToDouble(waiter -> averageServiceMillis.get(waiter.type))
+                .sum();
+        return (long) ((nextSlotMillis + aheadMillis) / maxConcurrent);
+    }
+
+
+    // 호출 종류별 소요 시간 평균 (ms)
+    long averageServiceMillis(CallType type) {
+        lock.lock();
+        try {
+            return Math.round(averageServiceMillis.get(type));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void recordWait(Role role, long startTime) {
+        Timer.builder("ai.bulkhead.wait")
+                .description("AI 호출 슬롯 대기 시간")
+                .tag("role", String.valueOf(role))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+
+    private int priorityOf(Role role) {
+        if (role == Role.ADMIN || role == Role.VIP) {
+            return 1;
+        }
+        return 0;
+    }
+
+
+    private int queueDepth() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private int activeCount() {
+        lock.lock();
+        try {
+            return maxConcurrent - availableSlots;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * AI 호출 종류 (종류마다 소요 시간이 크게 달라 평균을 따로 낸다.)
+     */
+    public enum CallType {
+        PROMPT, // 프롬프트 생성 (LLM)
+        RENDER, // 이미지 생성 (완료까지 대기)
+        SUBMIT // Prediction 생성 요청 (완료를 기다리지 않는다.)
+    }
+
+
+    // 대기 중인 요청
+    private static class Waiter {
+
+        private final int priority;
+        private final CallType type;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(int priority, CallType type, long sequence, Condition condition) {
+            this.priority = priority;
+            this.type = type;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        private int priority() {
+            return priority;
+        }
+
+        private long sequence() {
+            return sequence;
+        }
+    }
+}
@@ -1,7 +1,23 @@
 package com.infreej.moment_canvas.domain.ai.service;
 
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationResult;
+import com.infreej.moment_canvas.domain.ai.dto.ImageRenderOptions;
+import com.infreej.moment_canvas.domain.user.entity.Role;
+
+import java.time.Duration;
+import java.util.Optional;
+
 public interface AiService {
 
-    public String generateImage(String systemPersona, String userRequest);
+    public String generateImagePrompt(ImageGenerationRequest imageGenerationRequest);
+
+    public boolean pregenerateImagePrompt(ImageGenerationRequest imageGenerationRequest, Duration ttl);
+
+    public ImageGenerationResult renderImage(String prompt, ImageRenderOptions options, Role role);
+
+    public Optional<ImageGenerationResult> renderPreview(String prompt, ImageRenderOptions options);
+
+    public String requestImagePrediction(String prompt, ImageRenderOptions options, Role role);
 
 }
@@ -1,20 +1,28 @@
 package com.infreej.moment_canvas.domain.ai.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationResult;
+import com.infreej.moment_canvas.domain.ai.dto.ImageRenderOptions;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryPromptJsonRequest;
+import com.infreej.moment_canvas.domain.user.entity.Role;
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.exception.OpenAiException;
+import com.infreej.moment_canvas.global.util.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.image.*;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.TransientDataAccessException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -22,22 +30,55 @@ import org.springframework.web.client.ResourceAccessException;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * 이미지 생성 파이프라인의 AI 단계 (프롬프트 생성 → 이미지 생성)
+ * - 단계마다 재시도 정책이 따로 적용된다. 이미지 생성 단계를 재시도해도 이미 끝난 프롬프트 생성(LLM)은 다시 호출하지 않는다.
+ * - 재시도 횟수와 대기 시간은 spring.ai.stage.{prompt|render}.* 로 설정한다.
+ * - 프롬프트 생성은 FAST 모드이거나 LLM 이 지연 예산을 넘기거나 실패하면 템플릿 프롬프트(TemplatePromptCompiler)로 대신한다.
+ *   템플릿 프롬프트는 LLM 의 안전성 판정이 없으므로, 만들기 전에 금지어 검사(거절)를 거친다.
+ * - 재시도마다 요청의 처리 제한 시각(Deadline)을 확인하고, 지났다면 더 시도하지 않고 COMMON_DEADLINE_EXCEEDED 로 실패한다.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AiServiceImpl implements AiService{
 
-    private final ImageModel imageModel;
+    private final RoutingImageModel routingImageModel;
     private final ChatModel chatModel;
-    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ReplicatePredictionService> replicatePredictionServiceProvider;
+    private final ImagePromptCache imagePromptCache;
+    private final PromptOutputParser promptOutputParser;
+    private final AiBulkhead aiBulkhead;
+    private final TemplatePromptCompiler templatePromptCompiler;
+    private final PromptSafetyFilter promptSafetyFilter;
+    private final MeterRegistry meterRegistry;
+    @Qualifier("promptModelExecutor")
+    private final ThreadPoolTaskExecutor promptModelExecutor;
+
+    @Value("${spring.ai.fast-prompt.llm-budget-millis:8000}")
+    private long llmBudgetMillis; // LLM 프롬프트 생성 지연 예산 (0 이하라면 예산 없이 기다림)
+
+    @Value("${spring.ai.fast-prompt.fallback-enabled:true}")
+    private boolean fallbackEnabled; // LLM 지연, 실패 시 템플릿 프롬프트 사용 여부
 
 
     /**
-     * OpenAI API를 이용해, 이미지를 생성하는 메서드
-     * @param systemPersona 이미지를 생성하는 프롬프트 AI가 가지는 인격
-     * @param userRequest 최종적으로 프롬프트 AI 에게 요청되는 내용
-     * @return 생성된 이미지의 URL
+     * [프롬프트 생성 단계] 이미지를 생성하기 위한 영문 프롬프트를 생성하는 메서드
+     * - FAST 모드라면 LLM 을 호출하지 않고 템플릿으로 바로 만든다.
+     * - LLM 호출 한 번으로 영문 프롬프트와 안전성 판정(safetyStatus)을 구조화된 응답(DiaryPromptJsonRequest)으로 받는다.
+     * - 같은 입력으로 생성된 결과가 캐시에 있다면 LLM 을 호출하지 않는다. (정책 위반 판정도 캐시되어 같은 입력은 바로 거절된다.)
+     * - LLM 이 지연 예산 안에 응답하지 않으면 템플릿 프롬프트를 반환한다. (LLM 호출은 계속 진행되어 결과가 캐시에 저장된다.)
+     * - 응답을 해석할 수 없다면 복구를 먼저 시도하고, 그래도 실패하면 재시도한다.
+     * - 동시 실행 수가 제한되며, 슬롯이 없으면 권한 우선순위에 따라 대기한다. (재시도마다 다시 대기)
+     * @param imageGenerationRequest 프롬프트 AI 의 인격, 요청 내용, 프롬프트 캐시 키, 권한, 프롬프트 생성 방식
+     * @return 이미지 생성용 영문 프롬프트
      */
     @Retryable(
             retryFor = {
@@ -48,86 +89,286 @@ public class AiServiceImpl implements AiService{
                     // 서버 측 문제 (5xx 에러)
                     HttpServerErrorException.class,
                     // 요청 과다 (429 에러)
-                    HttpClientErrorException.TooManyRequests.class
+                    HttpClientErrorException.TooManyRequests.class,
+                    // 응답 JSON 해석 실패 (복구 실패)
+                    OpenAiException.class
             },
-            maxAttempts = 3, // 최대 재시도 횟수
+            maxAttemptsExpression = "${spring.ai.stage.prompt.max-attempts:3}", // 최대 재시도 횟수
             backoff = @Backoff(
-                    delay = 1000, // 최소 대기 시간
-                    maxDelay = 5000, // 최대 대기 시간
+                    delayExpression = "${spring.ai.stage.prompt.delay-millis:500}", // 최소 대기 시간
+                    maxDelayExpression = "${spring.ai.stage.prompt.max-delay-millis:2000}", // 최대 대기 시간
                     random = true // 랜덤 간격 재시도
-            )
+            ),
+            recover = "recoverGenerateImagePrompt"
     )
     @Override
-    public String generateImage(String systemPersona, String userRequest) {
+    public String generateImagePrompt(ImageGenerationRequest imageGenerationRequest) {
+
+        Deadline.check();
+
+        // FAST 모드 (LLM 호출 없음)
+        if (imageGenerationRequest.isFast()) {
+            return compileTemplatePrompt(imageGenerationRequest, "fast");
+        }
 
-//        log.info("시스템 프롬프트: {}", systemPersona);
+        // 캐시 조회
+        String cacheKey = imageGenerationRequest.getPromptCacheKey();
+        DiaryPromptJsonRequest promptObject = imagePromptCache.get(cacheKey)
+                .flatMap(promptOutputParser::parseCached)
+                .orElse(null);
+
+        if (promptObject != null) {
+            countPromptSource("cache", "none");
+        } else {
+            promptObject = callPromptModelWithinBudget(imageGenerationRequest);
+            if (promptObject == null) {
+                return compileTemplatePrompt(imageGenerationRequest, "budget");
+            }
+            countPromptSource("llm", "none");
+        }
+
+        // 정책 위반 검증 (false일 경우 위반)
+        if (!promptObject.isSafetyStatus()) {
+            log.warn("안전한 이미지 생성을 위해 포함할 수 없는 단어나 표현이 감지되었습니다. userRequest: {}", imageGenerationRequest.getUserRequest());
+            throw new BusinessException(ErrorCode.IMAGE_POLICY_VIOLATION);
+        }
+
+        log.info("이미지 생성 프롬프트: {}", promptObject.getImagePrompt());
+        return promptObject.getImagePrompt();
+    }
 
-        // 이미지 프롬프트 생성 메서드 호출
-        String prompt = generateImagePrompt(systemPersona, userRequest);
 
-        // 현재 사용하지 않음
-//        // JSON으로 역직렬화
-//        DiaryPromptJsonRequest promptObject = StringToJson(prompt);
-//        // 정책 위반 검증 (false일 경우 위반)
-//        if(!promptObject.isSafetyStatus()) {
-//            log.warn("안전한 이미지 생성을 위해 포함할 수 없는 단어나 표현이 감지되었습니다. userPrompt: {}", userRequest);
-//            throw new BusinessException(ErrorCode.IMAGE_POLICY_VIOLATION);
-//        }
+    /**
+     * 지연 예산 안에서 LLM 프롬프트 생성 결과를 기다리는 메서드
+     * - LLM 호출은 별도 스레드 풀에서 실행되고, 완료되면 예산 초과 여부와 상관없이 결과를 캐시에 저장한다.
+     * - 예산을 넘겼거나 스레드 풀이 가득 찼다면 null 을 반환한다. (템플릿 대체 불가 시에는 끝까지 기다린다.)
+     * - LLM 호출 중 발생한 예외는 그대로 던져 재시도 정책이 적용되도록 한다.
+     */
+    private DiaryPromptJsonRequest callPromptModelWithinBudget(ImageGenerationRequest imageGenerationRequest) {
 
-        ImagePrompt imagePrompt = new ImagePrompt(prompt); // ImagePrompt 객체 생성
+        boolean canFallback = fallbackEnabled && imageGenerationRequest.getTemplateInput() != null;
+        if (!canFallback || llmBudgetMillis <= 0) {
+            return callPromptModelAndCache(imageGenerationRequest);
+        }
 
-        ImageResponse imageResponse = imageModel.call(imagePrompt); // API 호출
+        CompletableFuture<DiaryPromptJsonRequest> future;
+        try {
+            // 예산을 넘겨 계속 진행되는 LLM 호출도 처리 제한 시각이 지나면 취소된다.
+            future = CompletableFuture.supplyAsync(Deadline.wrap(() -> callPromptModelAndCache(imageGenerationRequest)), promptModelExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("프롬프트 생성 스레드 풀이 가득 찼습니다. 템플릿 프롬프트로 대신합니다.");
+            return null;
+        }
 
-        String imageUrl;
         try {
-            imageUrl = imageResponse.getResult().getOutput().getUrl();
-        } catch (NullPointerException e) {
-            log.error("이미지 생성에 실패했습니다. message: {}", e.getMessage());
+            return future.get(Deadline.remainingMillis(llmBudgetMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("LLM 프롬프트 생성이 지연 예산({}ms)을 넘겼습니다. 템플릿 프롬프트로 대신합니다.", llmBudgetMillis);
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+        }
+    }
+
+
+    // LLM 으로 프롬프트 생성 후 캐시에 저장
+    private DiaryPromptJsonRequest callPromptModelAndCache(ImageGenerationRequest imageGenerationRequest) {
+        DiaryPromptJsonRequest promptObject = aiBulkhead.execute(imageGenerationRequest.getRole(), AiBulkhead.CallType.PROMPT, () -> callPromptModel(imageGenerationRequest));
+        imagePromptCache.put(imageGenerationRequest.getPromptCacheKey(), promptOutputParser.toJson(promptObject));
+        return promptObject;
+    }
+
+
+    // 템플릿 프롬프트 생성 (reason: fast, budget, failure), 금지어가 있다면 IMAGE_POLICY_VIOLATION
+    private String compileTemplatePrompt(ImageGenerationRequest imageGenerationRequest, String reason) {
+        if (imageGenerationRequest.getTemplateInput() == null) {
             throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
         }
+        promptSafetyFilter.screenTemplate(imageGenerationRequest.getTemplateInput());
+        String prompt = templatePromptCompiler.compile(imageGenerationRequest.getTemplateInput());
+        countPromptSource("template", reason);
+        log.info("템플릿 이미지 생성 프롬프트 ({}): {}", reason, prompt);
+        return prompt;
+    }
 
-        log.info("생성된 이미지 URL: {}", imageUrl);
-        return imageUrl;
+
+    private void countPromptSource(String source, String reason) {
+        meterRegistry.counter("ai.prompt.source", "source", source, "reason", reason).increment();
     }
 
 
     /**
-     * 이미지를 생성하기 위한 영문 프롬프트를 생성하는 메서드
-     * @param systemPersona 이미지를 생성하는 프롬프트 AI가 가지는 인격
-     * @param userRequest 최종적으로 프롬프트 AI 에게 요청되는 내용
-     * @return 이미지 생성용 영문 프롬프트
+     * [프롬프트 미리 생성] AI 호출 슬롯이 비어 있을 때만 프롬프트를 생성해 캐시에 저장하는 메서드 (재시도, 대기 없음)
+     * - 사용자 요청이 기다리고 있다면 실행하지 않으므로, 백그라운드 작업이 사용자 요청을 늦추지 않는다.
+     * - 정책 위반 판정도 그대로 저장해, 이후 같은 입력의 요청은 LLM 호출 없이 거절된다.
+     * @param imageGenerationRequest 프롬프트 AI 의 인격, 요청 내용, 프롬프트 캐시 키, 권한
+     * @param ttl 캐시 보관 기간
+     * @return 생성 여부 (슬롯이 없어 실행하지 않았다면 false)
      */
-    private String generateImagePrompt(String systemPersona, String userRequest) {
+    @Override
+    public boolean pregenerateImagePrompt(ImageGenerationRequest imageGenerationRequest, Duration ttl) {
 
+        Optional<DiaryPromptJsonRequest> promptObject = aiBulkhead.tryExecute(AiBulkhead.CallType.PROMPT, () -> callPromptModel(imageGenerationRequest));
+        promptObject.ifPresent(result -> imagePromptCache.put(imageGenerationRequest.getPromptCacheKey(), promptOutputParser.toJson(result), ttl));
+        return promptObject.isPresent();
+    }
+
+
+    // 이미지 생성 프롬프트 조합 (LLM 호출, 응답 형식: DiaryPromptJsonRequest)
+    private DiaryPromptJsonRequest callPromptModel(ImageGenerationRequest imageGenerationRequest) {
         ChatClient chatClient = ChatClient.builder(chatModel).build();
 
-        // 이미지 생성 프롬프트 조합
-        String prompt = chatClient.prompt()
-                .system(systemPersona)
-                .user(userRequest)
+        String content = chatClient.prompt()
+                .system(imageGenerationRequest.getSystemPersona() + "\n\n" + promptOutputParser.getFormat())
+                .user(imageGenerationRequest.getUserRequest())
+                .options(promptOutputParser.getChatOptions())
                 .call()
                 .content();
 
-        log.info("이미지 생성 JSON 프롬프트: {}", prompt);
-        return prompt;
+        return promptOutputParser.parse(content);
     }
 
 
     /**
-     * LLM이 생성한 이미지 프롬프트의 JSON을 역직렬화하기 위한 메서드
-     * 현재 사용하지 않음
+     * [이미지 생성 단계] 완성된 프롬프트로 이미지를 생성하는 메서드
+     * - 동시 실행 수가 제한되며, 슬롯이 없으면 권한 우선순위에 따라 대기한다. (재시도마다 다시 대기)
+     * @param prompt 이미지 생성용 영문 프롬프트 (프롬프트 생성 단계의 결과)
+     * @param options 이미지 비율, 품질, 크기 (미리보기 / 최종 이미지)
+     * @param role 요청한 유저의 권한
+     * @return 생성된 이미지의 URL 과 이미지를 생성한 제공자
      */
-    private DiaryPromptJsonRequest StringToJson(String prompt) {
+    @Retryable(
+            retryFor = {
+                    ResourceAccessException.class,
+                    SocketTimeoutException.class,
+                    IOException.class,
+                    HttpServerErrorException.class,
+                    HttpClientErrorException.TooManyRequests.class
+            },
+            maxAttemptsExpression = "${spring.ai.stage.render.max-attempts:3}",
+            backoff = @Backoff(
+                    delayExpression = "${spring.ai.stage.render.delay-millis:1000}",
+                    maxDelayExpression = "${spring.ai.stage.render.max-delay-millis:5000}",
+                    random = true
+            ),
+            recover = "recoverRenderImage"
+    )
+    @Override
+    public ImageGenerationResult renderImage(String prompt, ImageRenderOptions options, Role role) {
 
-        DiaryPromptJsonRequest promptObject;
+        Deadline.check();
 
-        try {
-            promptObject = objectMapper.readValue(prompt, DiaryPromptJsonRequest.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        return aiBulkhead.execute(role, AiBulkhead.CallType.RENDER, () -> {
+            ImagePrompt imagePrompt = new ImagePrompt(prompt, options); // ImagePrompt 객체 생성
+
+            // API 호출 (장애 시 다른 제공자로 전환)
+            RoutingImageModel.RoutedImageResponse routedImageResponse = routingImageModel.route(imagePrompt);
+            ImageResponse imageResponse = routedImageResponse.imageResponse();
+
+            String imageUrl;
+            try {
+                imageUrl = imageResponse.getResult().getOutput().getUrl();
+            } catch (NullPointerException e) {
+                log.error("이미지 생성에 실패했습니다. message: {}", e.getMessage());
+                throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+            }
+
+            log.info("생성된 이미지 URL: {}, provider: {}", imageUrl, routedImageResponse.provider());
+            return ImageGenerationResult.builder()
+                    .imageUrl(imageUrl)
+                    .provider(routedImageResponse.provider())
+                    .build();
+        });
+    }
+
+
+    /**
+     * [이미지 생성 단계 - 미리보기] 최종 이미지와 동시에 작은 미리보기 이미지를 생성하는 메서드
+     * - 재시도 없이 한 번만 호출한다. (실패해도 최종 이미지 생성에는 영향이 없다.)
+     * - 동시 실행 슬롯이 남아 있을 때만 호출하고, 없다면 기다리지 않고 미리보기를 생략한다.
+     * @param prompt 이미지 생성용 영문 프롬프트 (프롬프트 생성 단계의 결과)
+     * @param options 최종 이미지 옵션 (같은 비율의 미리보기 옵션으로 바꿔 사용)
+     * @return 미리보기 이미지의 URL 과 제공자 (미리보기를 만들 수 없는 상태라면 empty)
+     */
+    @Override
+    public Optional<ImageGenerationResult> renderPreview(String prompt, ImageRenderOptions options) {
+
+        Deadline.check();
+
+        Optional<RoutingImageModel.RoutedImageResponse> preview = aiBulkhead.tryExecute(AiBulkhead.CallType.RENDER,
+                () -> routingImageModel.preview(new ImagePrompt(prompt, options.toPreview())).orElse(null));
+
+        return preview
+                .filter(routedImageResponse -> routedImageResponse.imageResponse().getResult() != null)
+                .map(routedImageResponse -> ImageGenerationResult.builder()
+                        .imageUrl(routedImageResponse.imageResponse().getResult().getOutput().getUrl())
+                        .provider(routedImageResponse.provider())
+                        .build());
+    }
+
+
+    /**
+     * [이미지 생성 단계 - webhook 방식] 이미지 생성을 요청만 하고 완료를 기다리지 않는 메서드
+     * - Prediction 을 만들고 바로 반환한다. 결과는 webhook 또는 폴링으로 전달된다.
+     * @param prompt 이미지 생성용 영문 프롬프트 (프롬프트 생성 단계의 결과)
+     * @param options 이미지 비율, 품질, 크기
+     * @param role 요청한 유저의 권한
+     * @return Replicate Prediction ID
+     */
+    @Retryable(
+            retryFor = {
+                    ResourceAccessException.class,
+                    SocketTimeoutException.class,
+                    IOException.class,
+                    HttpServerErrorException.class,
+                    HttpClientErrorException.TooManyRequests.class
+            },
+            maxAttemptsExpression = "${spring.ai.stage.render.max-attempts:3}",
+            backoff = @Backoff(
+                    delayExpression = "${spring.ai.stage.render.delay-millis:1000}",
+                    maxDelayExpression = "${spring.ai.stage.render.max-delay-millis:5000}",
+                    random = true
+            ),
+            recover = "recoverRequestImagePrediction"
+    )
+    @Override
+    public String requestImagePrediction(String prompt, ImageRenderOptions options, Role role) {
+
+        Deadline.check();
+
+        ReplicatePredictionService replicatePredictionService = replicatePredictionServiceProvider.getIfAvailable();
+        if (replicatePredictionService == null) {
+            log.error("webhook 방식은 Replicate 사용 시에만 지원됩니다.");
+            throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
         }
-        return promptObject;
 
+        // Prediction 생성 (완료를 기다리지 않음)
+        String predictionId = aiBulkhead.execute(role, AiBulkhead.CallType.SUBMIT, () -> replicatePredictionService.submit(prompt, options));
+
+        log.info("Replicate Prediction 생성. predictionId: {}", predictionId);
+        return predictionId;
+    }
+
+
+    /**
+     * 프롬프트 생성 최종 실패 시 실행 메서드 (정책 위반이 아니라면 템플릿 프롬프트로 대신)
+     */
+    @Recover
+    public String recoverGenerateImagePrompt(Throwable t, ImageGenerationRequest imageGenerationRequest) {
+        log.error("[Recover] 프롬프트 생성 재시도 최종 실패. 원인: {}, systemPersona: {}, userRequest: {}", t.getMessage(), imageGenerationRequest.getSystemPersona(), imageGenerationRequest.getUserRequest());
+
+        // 정책 위반은 템플릿으로 우회하지 않고, 처리 제한 시각이 지났다면 이미지 생성도 할 수 없으므로 그대로 실패한다.
+        boolean policyViolation = t instanceof BusinessException businessException && businessException.getErrorCode() == ErrorCode.IMAGE_POLICY_VIOLATION;
+        if (fallbackEnabled && !policyViolation && !isDeadlineExceeded() && imageGenerationRequest.getTemplateInput() != null) {
+            return compileTemplatePrompt(imageGenerationRequest, "failure");
+        }
+        throw toBusinessException(t);
     }
 
 
@@ -135,9 +376,36 @@ public class AiServiceImpl implements AiService{
      * 이미지 생성 최종 실패 시 실행 메서드
      */
     @Recover
-    public String recoverGenerateImage(Throwable t, String systemPersona, String userRequest) {
-        log.error("[Recover] 이미지 생성 작업 재시도 최종 실패. 원인: {}, systemPersona: {}, userRequest: {}", t.getMessage(), systemPersona, userRequest);
-        throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+    public ImageGenerationResult recoverRenderImage(Throwable t, String prompt, ImageRenderOptions options, Role role) {
+        log.error("[Recover] 이미지 생성 재시도 최종 실패. 원인: {}, prompt: {}", t.getMessage(), prompt);
+        throw toBusinessException(t);
+    }
+
+
+    /**
+     * 이미지 생성 요청 최종 실패 시 실행 메서드
+     */
+    @Recover
+    public String recoverRequestImagePrediction(Throwable t, String prompt, ImageRenderOptions options, Role role) {
+        log.error("[Recover] 이미지 생성 요청 재시도 최종 실패. 원인: {}, prompt: {}", t.getMessage(), prompt);
+        throw toBusinessException(t);
+    }
+
+
+    // 처리 제한 시각이 지나 취소된 호출은 제한 시각 초과, 대기열 초과 등 원인이 명확한 예외는 그대로 전달
+    private BusinessException toBusinessException(Throwable t) {
+        if (isDeadlineExceeded()) {
+            return new BusinessException(ErrorCode.COMMON_DEADLINE_EXCEEDED);
+        }
+        if (t instanceof BusinessException businessException) {
+            return businessException;
+        }
+        return new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+    }
+
+
+    private boolean isDeadlineExceeded() {
+        return Deadline.current().map(Deadline::isExpired).orElse(false);
     }
 
 
@@ -0,0 +1,189 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * LLM 이 생성한 이미지 프롬프트 캐시 (Redis)
+ * - 키: 입력값(시스템 페르소나 + 요청 내용) 해시 + 유저/일기 버전
+ * - 일기나 유저 페르소나가 바뀌면 버전을 올려 이전 캐시를 더 이상 사용하지 않는다. (이전 값은 TTL 로 만료)
+ * - Redis 장애 시에는 캐시 없이 동작한다.
+ */
+@Slf4j
+@Component
+public class ImagePromptCache {
+
+    private static final String PROMPT_KEY_PREFIX = "imagePrompt:";
+    private static final String USER_VERSION_KEY_PREFIX = "imagePromptVersion:user:";
+    private static final String DIARY_VERSION_KEY_PREFIX = "imagePromptVersion:diary:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${spring.ai.prompt-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.ai.prompt-cache.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    public ImagePromptCache(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.hitCounter = Counter.builder("ai.prompt.cache").tag("result", "hit")
+                .description("이미지 프롬프트 캐시 적중 횟수").register(meterRegistry);
+        this.missCounter = Counter.builder("ai.prompt.cache").tag("result", "miss")
+                .description("이미지 프롬프트 캐시 미적중 횟수").register(meterRegistry);
+    }
+
+
+    /**
+     * 캐시 키 생성 메서드
+     * @param userId 유저 PK
+     * @param diaryId 일기 PK
+     * @param promptInput 프롬프트 생성에 사용되는 모든 입력값을 이어붙인 문자열
+     * @return 캐시 키 (캐시 비활성화 또는 Redis 장애 시 null)
+     */
+    public String createKey(long userId, long diaryId, String promptInput) {
+
+        if (!enabled) {
+            return null;
+        }
+
+        try {
+            // 유저, 일기 버전을 한 번에 조회
+            List<String> versions = stringRedisTemplate.opsForValue()
+                    .multiGet(List.of(USER_VERSION_KEY_PREFIX + userId, DIARY_VERSION_KEY_PREFIX + diaryId));
+
+            String userVersion = versionOf(versions, 0);
+            String diaryVersion = versionOf(versions, 1);
+
+            return PROMPT_KEY_PREFIX + userId + ":" + diaryId + ":v" + userVersion + "." + diaryVersion + ":" + sha256(promptInput);
+        } catch (Exception e) {
+            log.warn("프롬프트 캐시 키 생성 실패. 캐시 없이 진행합니다. message: {}", e.getMessage());
+            return null;
+        }
+    }
+
+
+    /**
+     * 캐시 조회 (적중/미적중 횟수 기록)
+     */
+    public Optional<String> get(String key) {
+
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        try {
+            String prompt = stringRedisTemplate.opsForValue().get(key);
+            if (prompt != null) {
+                hitCounter.increment();
+                log.info("프롬프트 캐시 적중. key: {}", key);
+                return Optional.of(prompt);
+            }
+        } catch (Exception e) {
+            log.warn("프롬프트 캐시 조회 실패. message: {}", e.getMessage());
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+
+    /**
+     * 캐시 저장
+     */
+    public void put(String key, String prompt) {
+        put(key, prompt, Duration.ofSeconds(ttlSeconds));
+    }
+
+
+    /**
+     * 보관 기간을 지정해 캐시 저장 (미리 생성한 프롬프트 등)
+     */
+    public void put(String key, String prompt, Duration ttl) {
+
+        if (key == null || prompt == null) {
+            return;
+        }
+
+        try {
+            stringRedisTemplate.opsForValue().set(key, prompt, ttl);
+        } catch (Exception e) {
+            log.warn("프롬프트 캐시 저장 실패. message: {}", e.getMessage());
+        }
+    }
+
+
+    /**
+     * 캐시에 값이 있는지 확인 (적중/미적중 횟수는 기록하지 않는다.)
+     */
+    public boolean contains(String key) {
+
+        if (key == null) {
+            return false;
+        }
+
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(key));
+        } catch (Exception e) {
+            log.warn("프롬프트 캐시 조회 실패. message: {}", e.getMessage());
+            return false;
+        }
+    }
+
+
+    /**
+     * 유저 페르소나 변경 시 해당 유저의 프롬프트 캐시 무효화
+     */
+    public void invalidateUser(long userId) {
+        increaseVersion(USER_VERSION_KEY_PREFIX + userId);
+    }
+
+
+    /**
+     * 일기 변경 시 해당 일기의 프롬프트 캐시 무효화
+     */
+    public void invalidateDiary(long diaryId) {
+        increaseVersion(DIARY_VERSION_KEY_PREFIX + diaryId);
+    }
+
+
+    private void increaseVersion(String versionKey) {
+        try {
+            stringRedisTemplate.opsForValue().increment(versionKey);
+        } catch (Exception e) {
+            log.warn("프롬프트 캐시 무효화 실패. key: {}, message: {}", versionKey, e.getMessage());
+        }
+    }
+
+
+    private String versionOf(List<String> versions, int index) {
+        if (versions == null || versions.size() <= index || versions.get(index) == null) {
+            return "0";
+        }
+        return versions.get(index);
+    }
+
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
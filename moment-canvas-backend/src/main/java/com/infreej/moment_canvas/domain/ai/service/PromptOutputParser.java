@@ -0,0 +1,160 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryPromptJsonRequest;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.OpenAiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 프롬프트 생성 단계의 구조화된 응답(DiaryPromptJsonRequest) 변환기
+ * - LLM 호출 한 번으로 영문 이미지 프롬프트와 안전성 판정을 함께 받는다. (별도 moderation 호출 없음)
+ * - JSON Schema 를 응답 형식(OpenAI structured output)으로 지정하고, 같은 형식 안내를 시스템 프롬프트에도 붙인다.
+ * - 해석에 실패하면 코드 블록, 앞뒤 설명, 끝 쉼표를 정리하는 복구를 먼저 시도하고, 그래도 실패할 때만 재호출(재시도)한다.
+ * - 결과는 ai.prompt.parse 메트릭(outcome 태그)으로 확인할 수 있다.
+ */
+@Slf4j
+@Component
+public class PromptOutputParser {
+
+    private static final Pattern CODE_FENCE = Pattern.compile("^```[a-zA-Z]*\\s*|\\s*```$");
+    private static final Pattern TRAILING_COMMA = Pattern.compile(",\\s*([}\\]])");
+
+    private final BeanOutputConverter<DiaryPromptJsonRequest> converter = new BeanOutputConverter<>(DiaryPromptJsonRequest.class);
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final OpenAiChatOptions chatOptions;
+
+    public PromptOutputParser(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.ai.prompt-output.native-schema:true}") boolean nativeSchema) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.chatOptions = OpenAiChatOptions.builder()
+                .responseFormat(nativeSchema
+                        ? new ResponseFormat(ResponseFormat.Type.JSON_SCHEMA, converter.getJsonSchema())
+                        : new ResponseFormat(ResponseFormat.Type.JSON_OBJECT, null))
+                .build();
+    }
+
+
+    /**
+     * 시스템 프롬프트에 붙일 응답 형식 안내 (JSON Schema)
+     */
+    public String getFormat() {
+        return converter.getFormat();
+    }
+
+
+    /**
+     * 응답 형식이 지정된 LLM 호출 옵션
+     */
+    public OpenAiChatOptions getChatOptions() {
+        return chatOptions;
+    }
+
+
+    /**
+     * LLM 응답을 DiaryPromptJsonRequest 로 변환 (실패 시 복구 후 다시 변환)
+     * @param content LLM 응답 본문
+     * @return 이미지 프롬프트와 안전성 판정
+     * @throws OpenAiException 복구 후에도 해석할 수 없거나 이미지 프롬프트가 비어 있는 경우 (재시도 대상)
+     */
+    public DiaryPromptJsonRequest parse(String content) {
+
+        Optional<DiaryPromptJsonRequest> parsed = convert(content);
+        if (parsed.isPresent()) {
+            count("parsed");
+            return parsed.get();
+        }
+
+        Optional<DiaryPromptJsonRequest> repaired = convert(repair(content));
+        if (repaired.isPresent()) {
+            count("repaired");
+            log.info("프롬프트 응답 JSON 복구 성공");
+            return repaired.get();
+        }
+
+        count("failed");
+        log.warn("프롬프트 응답을 해석할 수 없습니다. content: {}", content);
+        throw new OpenAiException(ErrorCode.AI_INVALID_RESPONSE, "프롬프트 응답 JSON 해석 실패");
+    }
+
+
+    /**
+     * 캐시에 저장된 값 변환 (형식이 다르면 empty, 복구하지 않는다.)
+     */
+    public Optional<DiaryPromptJsonRequest> parseCached(String cached) {
+        return convert(cached);
+    }
+
+
+    /**
+     * 캐시에 저장할 값 (JSON)
+     */
+    public String toJson(DiaryPromptJsonRequest diaryPromptJsonRequest) {
+        try {
+            return objectMapper.writeValueAsString(diaryPromptJsonRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    // 이미지 프롬프트가 있는 경우만 성공으로 본다.
+    private Optional<DiaryPromptJsonRequest> convert(String content) {
+
+        if (content == null || content.isBlank()) {
+            return Optional.empty();
+        }
+
+        try {
+            DiaryPromptJsonRequest result = converter.convert(content);
+            if (result == null || result.getImagePrompt() == null || result.getImagePrompt().isBlank()) {
+                return Optional.empty();
+            }
+            return Optional.of(result);
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+
+    // 자주 발생하는 형식 오류 정리 (코드 블록, JSON 앞뒤 설명, 끝 쉼표), 잘린 JSON 은 복구하지 않는다. (재시도 대상)
+    String repair(String content) {
+
+        if (content == null) {
+            return null;
+        }
+
+        String repaired = CODE_FENCE.matcher(content.strip()).replaceAll("");
+
+        int start = repaired.indexOf('{');
+        int end = repaired.lastIndexOf('}');
+        if (start >= 0 && end > start) {
+            repaired = repaired.substring(start, end + 1);
+        }
+
+        return TRAILING_COMMA.matcher(repaired).replaceAll("$1");
+    }
+
+
+    private void count(String outcome) {
+        Counter.builder("ai.prompt.parse")
+                .description("프롬프트 생성 응답 해석 결과 (parsed, repaired, failed)")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,157 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.PromptTemplateInput;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.AhoCorasickMatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 이미지 생성 입력(일기 내용, 추가 요청사항) 로컬 안전 필터
+ * - LLM, 이미지 생성 API 를 호출하기 전에 금지어 목록을 Aho-Corasick 매처로 한 번에 검사한다. (긴 일기도 수 밀리초 이내)
+ * - 금지어가 있다면 reject(요청 거절) 또는 sanitize(금지어를 * 로 가린 뒤 진행) 중 설정된 방식으로 처리한다.
+ * - 템플릿 프롬프트는 LLM 의 안전성 판정(safetyStatus)을 받지 않으므로, 설정과 상관없이 금지어가 있다면 거절한다.
+ * - 결과는 ai.safety.filter 메트릭(source, outcome 태그)으로 확인할 수 있다.
+ */
+@Slf4j
+@Component
+public class PromptSafetyFilter {
+
+    private final AhoCorasickMatcher matcher;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Action contentAction;
+    private final Action optionAction;
+
+    public PromptSafetyFilter(MeterRegistry meterRegistry,
+                              @Value("${spring.ai.safety-filter.enabled:true}") boolean enabled,
+                              @Value("${spring.ai.safety-filter.terms-location:classpath:safety/blocked-terms.txt}") Resource termsLocation,
+                              @Value("${spring.ai.safety-filter.content-action:SANITIZE}") Action contentAction,
+                              @Value("${spring.ai.safety-filter.option-action:REJECT}") Action optionAction) throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.contentAction = contentAction;
+        this.optionAction = optionAction;
+        this.matcher = AhoCorasickMatcher.of(readTerms(termsLocation));
+        log.info("이미지 생성 안전 필터 금지어 {}개 로드. content: {}, option: {}", matcher.size(), contentAction, optionAction);
+    }
+
+
+    /**
+     * 일기 제목, 내용 검사 (기본: 금지어를 가리고 진행)
+     * @return 검사를 통과한(또는 가려진) 본문
+     */
+    public String screenContent(String text) {
+        return screen(text, contentAction, "content");
+    }
+
+
+    /**
+     * 사용자가 입력한 스타일, 추가 요청사항 검사 (기본: 거절)
+     * @return 검사를 통과한(또는 가려진) 본문
+     */
+    public String screenOption(String text) {
+        return screen(text, optionAction, "option");
+    }
+
+
+    /**
+     * 템플릿 프롬프트 입력값 검사 (항상 거절)
+     * - FAST 모드, LLM 지연 예산 초과, LLM 실패 시 템플릿으로 프롬프트를 만들기 전에 호출한다.
+     */
+    public void screenTemplate(PromptTemplateInput input) {
+        screen(input.getTitle(), Action.REJECT, "template");
+        screen(input.getContent(), Action.REJECT, "template");
+        screen(input.getOption(), Action.REJECT, "template");
+        screen(input.getPersona(), Action.REJECT, "template");
+    }
+
+
+    private String screen(String text, Action action, String source) {
+
+        if (!enabled || text == null) {
+            return text;
+        }
+
+        List<AhoCorasickMatcher.Match> matches = matcher.findAll(text);
+        if (matches.isEmpty()) {
+            count(source, "pass");
+            return text;
+        }
+
+        if (action == Action.REJECT) {
+            count(source, "rejected");
+            log.warn("안전한 이미지 생성을 위해 포함할 수 없는 단어가 감지되었습니다. source: {}, terms: {}", source, terms(matches));
+            throw new BusinessException(ErrorCode.IMAGE_POLICY_VIOLATION);
+        }
+
+        count(source, "sanitized");
+        log.info("이미지 생성 입력에서 금지어를 가렸습니다. source: {}, terms: {}", source, terms(matches));
+        return mask(text, matches);
+    }
+
+
+    // 일치한 구간의 문자를 * 로 변경 (공백은 유지)
+    private String mask(String text, List<AhoCorasickMatcher.Match> matches) {
+        char[] chars = text.toCharArray();
+        for (AhoCorasickMatcher.Match match : matches) {
+            for (int i = match.start(); i < match.end(); i++) {
+                if (!Character.isWhitespace(chars[i])) {
+                    chars[i] = '*';
+                }
+            }
+        }
+        return new String(chars);
+    }
+
+
+    private List<String> terms(List<AhoCorasickMatcher.Match> matches) {
+        return matches.stream().map(AhoCorasickMatcher.Match::term).distinct().toList();
+    }
+
+
+    private static List<String> readTerms(Resource resource) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String term = line.strip();
+                if (!term.isEmpty() && !term.startsWith("#")) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+
+    private void count(String source, String outcome) {
+        Counter.builder("ai.safety.filter")
+                .description("이미지 생성 입력 안전 필터 결과 (pass, sanitized, rejected)")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    /**
+     * 금지어가 있을 때 처리 방식
+     */
+    public enum Action {
+        REJECT, // 요청 거절 (IMAGE_POLICY_VIOLATION)
+        SANITIZE // 금지어를 가리고 진행
+    }
+}
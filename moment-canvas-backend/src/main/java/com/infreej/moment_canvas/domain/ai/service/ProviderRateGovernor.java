@@ -0,0 +1,421 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.global.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 외부 AI 제공자(Replicate, OpenAI) 호출 속도 조절기 (모든 서버가 Redis 로 상태를 공유)
+ * - 호출 전에 제공자 버킷(호스트 + 엔드포인트 + 읽기/쓰기)의 토큰을 받고, 토큰이 없다면 보내지 않고 이 서버에서 기다린다.
+ * - 429 응답의 Retry-After 동안은 모든 서버가 호출을 멈추고, 허용 속도를 줄인다. 성공하면 상한까지 조금씩 늘린다. (AIMD)
+ * - 응답의 rate limit 헤더(X-RateLimit-Limit, x-ratelimit-limit-requests 등)로 허용 속도 상한과, 남은 호출 수가 0 일 때 멈출 시간을 배운다.
+ * - 최대 대기 시간(또는 요청의 남은 시간) 안에 토큰을 받지 못하면 호출하지 않고 429 예외를 던진다. (재시도, 다른 제공자 전환은 기존 정책을 따른다.)
+ *   조회(GET, 생성 결과 폴링 등)는 이미 비용을 낸 작업의 결과이므로 더 오래(read-max-wait-millis) 기다린다.
+ * - BYPASS_ATTRIBUTE 가 붙은 요청(Prediction 취소 등 비용을 줄이는 호출)은 속도를 조절하지 않는다.
+ * - withoutWaiting 으로 감싼 쓰기 호출(미리보기 등 생략해도 되는 호출)은 토큰이 없다면 기다리지 않고 바로 거절한다.
+ * - Redis 장애 시에는 호출을 허용한다.
+ */
+@Slf4j
+@Component
+public class ProviderRateGovernor implements ClientHttpRequestInterceptor {
+
+    private static final String KEY_PREFIX = "providerRate:";
+
+    // 요청 속성(RestClient.attribute)으로 지정하면 속도 조절 없이 바로 보낸다.
+    public static final String BYPASS_ATTRIBUTE = ProviderRateGovernor.class.getName() + ".bypass";
+
+    // 이 서버에서 호출을 보내지 않고 거절했을 때의 429 상태 메시지 (제공자가 보낸 429 와 구분)
+    static final String REJECTED_STATUS_TEXT = "Too Many Requests (provider rate governor)";
+
+    // 현재 스레드의 쓰기 호출은 토큰을 기다리지 않는다. (withoutWaiting)
+    private static final ThreadLocal<Boolean> NO_WAIT = ThreadLocal.withInitial(() -> false);
+
+    // API 버전 경로 (v1 등)
+    private static final Pattern VERSION_SEGMENT = Pattern.compile("v\\d+(\\.\\d+)?");
+
+    private static final RedisScript<List> PROVIDER_RATE_SCRIPT = createScript();
+
+    // "6m0s", "1.5s", "20ms" 형식의 reset 값
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final double initialRatePerMillis;
+    private final double minRatePerMillis;
+    private final double maxRatePerMillis;
+    private final double increasePerMillis;
+    private final double decreaseFactor;
+    private final int burst;
+    private final long windowMillis;
+    private final long defaultRetryAfterMillis;
+    private final long maxWaitMillis;
+    private final long readMaxWaitMillis;
+    private final long stateTtlMillis;
+
+    // Redis 를 매번 조회하지 않도록 이 서버가 알고 있는 호출 중단 시각 (버킷 -> epoch millis)
+    private final Map<String, Long> localBlockedUntil = new ConcurrentHashMap<>();
+
+    public ProviderRateGovernor(StringRedisTemplate stringRedisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.ai.rate-governor.enabled:true}") boolean enabled,
+                                @Value("${spring.ai.rate-governor.initial-rate-per-second:5}") double initialRatePerSecond,
+                                @Value("${spring.ai.rate-governor.min-rate-per-second:0.2}") double minRatePerSecond,
+                                @Value("${spring.ai.rate-governor.max-rate-per-second:50}") double maxRatePerSecond,
+                                @Value("${spring.ai.rate-governor.increase-per-second:0.1}") double increasePerSecond,
+                                @Value("${spring.ai.rate-governor.decrease-factor:0.5}") double decreaseFactor,
+                                @Value("${spring.ai.rate-governor.burst:5}") int burst,
+                                @Value("${spring.ai.rate-governor.window-millis:60000}") long windowMillis,
+                                @Value("${spring.ai.rate-governor.default-retry-after-millis:1000}") long defaultRetryAfterMillis,
+                                @Value("${spring.ai.rate-governor.max-wait-millis:10000}") long maxWaitMillis,
+                                @Value("${spring.ai.rate-governor.read-max-wait-millis:60000}") long readMaxWaitMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialRatePerMillis = initialRatePerSecond / 1000.0;
+        this.minRatePerMillis = minRatePerSecond / 1000.0;
+        this.maxRatePerMillis = maxRatePerSecond / 1000.0;
+        this.increasePerMillis = increasePerSecond / 1000.0;
+        this.decreaseFactor = decreaseFactor;
+        this.burst = burst;
+        this.windowMillis = windowMillis;
+        this.defaultRetryAfterMillis = defaultRetryAfterMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.readMaxWaitMillis = readMaxWaitMillis;
+        this.stateTtlMillis = Math.max(windowMillis, TimeUnit.MINUTES.toMillis(10));
+    }
+
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+
+        if (!enabled || Boolean.TRUE.equals(request.getAttributes().get(BYPASS_ATTRIBUTE))) {
+            return execution.execute(request, body);
+        }
+
+        String bucket = bucketOf(request);
+        // 조회는 이미 비용을 낸 작업의 결과이므로 withoutWaiting 이어도 기다린다.
+        acquire(bucket, request.getMethod() == HttpMethod.GET ? readMaxWaitMillis : NO_WAIT.get() ? 0 : maxWaitMillis);
+
+        ClientHttpResponse response = execution.execute(request, body);
+        observe(bucket, response.getStatusCode().value(), response.getHeaders());
+        return response;
+    }
+
+
+    /**
+     * 호출 토큰을 받을 때까지 이 서버에서 기다리는 메서드
+     * - 최대 대기 시간(요청의 남은 시간이 더 짧다면 남은 시간) 안에 받을 수 없다면 429 예외를 던진다.
+     */
+    private void acquire(String bucket, long maxWaitMillis) throws InterruptedIOException {
+
+        long startTime = System.nanoTime();
+        long waitLimitMillis = Deadline.remainingMillis(maxWaitMillis);
+        boolean held = false;
+
+        while (true) {
+            long waitMillis = localWaitMillis(bucket);
+            if (waitMillis == 0) {
+                waitMillis = tryAcquire(bucket);
+                if (waitMillis == 0) {
+                    break;
+                }
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            if (elapsedMillis + waitMillis > waitLimitMillis) {
+                count(bucket, "rejected");
+                log.warn("제공자 호출 속도 제한으로 요청을 보내지 않습니다. bucket: {}, 필요한 대기 시간: {}ms", bucket, waitMillis);
+                throw tooManyRequests(waitMillis);
+            }
+
+            held = true;
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("제공자 호출 대기 중 인터럽트");
+            }
+        }
+
+        if (held) {
+            count(bucket, "held");
+            Timer.builder("ai.provider.rate.wait")
+                    .description("제공자 호출 속도 제한으로 이 서버에서 기다린 시간")
+                    .tag("bucket", bucket)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+
+    // Redis 토큰 요청 (0 이면 허용, 0 보다 크면 다시 시도할 때까지 남은 시간)
+    private long tryAcquire(String bucket) {
+        try {
+            List<?> result = stringRedisTemplate.execute(
+                    PROVIDER_RATE_SCRIPT,
+                    List.of(KEY_PREFIX + bucket),
+                    "acquire",
+                    String.valueOf(initialRatePerMillis),
+                    String.valueOf(burst),
+                    String.valueOf(stateTtlMillis)
+            );
+
+            if (result == null || result.size() < 2) {
+                return 0;
+            }
+            boolean allowed = ((Number) result.get(0)).longValue() == 1;
+            return allowed ? 0 : Math.max(1, ((Number) result.get(1)).longValue());
+        } catch (Exception e) {
+            log.warn("제공자 호출 속도 확인 실패. 요청을 허용합니다. bucket: {}, message: {}", bucket, e.getMessage());
+            return 0;
+        }
+    }
+
+
+    /**
+     * 응답 결과를 공유 상태에 반영하는 메서드
+     * - 429: Retry-After(없으면 기본값) 동안 모든 서버의 호출을 멈추고 허용 속도를 줄인다.
+     * - 그 외: rate limit 헤더로 허용 속도 상한을 배우고, 남은 호출 수가 0 이라면 reset 까지 호출을 멈춘다.
+     */
+    private void observe(String bucket, int status, HttpHeaders headers) {
+
+        boolean throttled = status == HttpStatus.TOO_MANY_REQUESTS.value();
+        long blockMillis = throttled ? retryAfterMillis(headers).orElse(defaultRetryAfterMillis) : 0;
+
+        Long remaining = parseLong(firstHeader(headers, "x-ratelimit-remaining-requests", "X-RateLimit-Remaining"));
+        if (!throttled && remaining != null && remaining <= 0) {
+            blockMillis = resetMillis(firstHeader(headers, "x-ratelimit-reset-requests", "X-RateLimit-Reset"));
+        }
+
+        Long limit = parseLong(firstHeader(headers, "x-ratelimit-limit-requests", "X-RateLimit-Limit"));
+        String learnedRate = limit == null || limit <= 0 ? "" : String.valueOf((double) limit / windowMillis);
+
+        if (throttled) {
+            count(bucket, "throttled");
+            log.warn("제공자 호출 제한(429) 응답. bucket: {}, 호출 중단: {}ms", bucket, blockMillis);
+        }
+        if (blockMillis > 0) {
+            localBlockedUntil.merge(bucket, System.currentTimeMillis() + blockMillis, Math::max);
+        }
+
+        try {
+            stringRedisTemplate.execute(
+                    PROVIDER_RATE_SCRIPT,
+                    List.of(KEY_PREFIX + bucket),
+                    "observe",
+                    String.valueOf(initialRatePerMillis),
+                    String.valueOf(stateTtlMillis),
+                    throttled ? "1" : "0",
+                    String.valueOf(Math.max(0, blockMillis)),
+                    learnedRate,
+                    String.valueOf(decreaseFactor),
+                    String.valueOf(throttled || status < 400 ? increasePerMillis : 0),
+                    String.valueOf(minRatePerMillis),
+                    String.valueOf(maxRatePerMillis)
+            );
+        } catch (Exception e) {
+            log.warn("제공자 호출 결과 반영 실패. bucket: {}, message: {}", bucket, e.getMessage());
+        }
+    }
+
+
+    // 이 서버가 알고 있는 호출 중단 시각까지 남은 시간
+    private long localWaitMillis(String bucket) {
+        Long blockedUntil = localBlockedUntil.get(bucket);
+        if (blockedUntil == null) {
+            return 0;
+        }
+        long waitMillis = blockedUntil - System.currentTimeMillis();
+        if (waitMillis <= 0) {
+            localBlockedUntil.remove(bucket, blockedUntil);
+            return 0;
+        }
+        return waitMillis;
+    }
+
+
+    /**
+     * 버킷: 호스트 + 엔드포인트 + 읽기(GET)/쓰기
+     * - 제공자는 엔드포인트(모델)별로 제한을 따로 둔다. (OpenAI chat 과 images, Replicate 모델별 생성과 prediction 조회)
+     */
+    String bucketOf(HttpRequest request) {
+        String host = request.getURI().getHost();
+        return (host == null ? "unknown" : host) + ":" + endpointOf(request.getURI().getPath()) + ":" + (request.getMethod() == HttpMethod.GET ? "read" : "write");
+    }
+
+
+    // 버전 경로를 뺀 첫 번째 경로 (models 는 models/{owner}/{name} 까지, prediction id 등 요청마다 다른 값은 제외)
+    static String endpointOf(String path) {
+
+        List<String> segments = path == null ? List.of() : Arrays.stream(path.split("/")).filter(segment -> !segment.isEmpty()).toList();
+        int start = !segments.isEmpty() && VERSION_SEGMENT.matcher(segments.get(0)).matches() ? 1 : 0;
+        if (segments.size() <= start) {
+            return "root";
+        }
+
+        String resource = segments.get(start);
+        if ("models".equals(resource) && segments.size() >= start + 3) {
+            return String.join("/", segments.subList(start, start + 3));
+        }
+        return resource;
+    }
+
+
+    // Retry-After: 초 또는 HTTP 날짜
+    Optional<Long> retryAfterMillis(HttpHeaders headers) {
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((long) (Double.parseDouble(retryAfter.strip()) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter.strip(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Optional.of(Math.max(0, Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt).toMillis()));
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+
+    // reset: 남은 초, epoch 초, 또는 "6m0s" 형식 (해석할 수 없다면 기본값)
+    long resetMillis(String reset) {
+        if (reset == null || reset.isBlank()) {
+            return defaultRetryAfterMillis;
+        }
+        String value = reset.strip();
+        try {
+            double seconds = Double.parseDouble(value);
+            if (seconds > 1_000_000_000L) {
+                return Math.max(0, (long) (seconds * 1000) - System.currentTimeMillis());
+            }
+            return (long) (seconds * 1000);
+        } catch (NumberFormatException e) {
+            long millis = 0;
+            Matcher matcher = DURATION_PART.matcher(value);
+            while (matcher.find()) {
+                double amount = Double.parseDouble(matcher.group(1));
+                millis += switch (matcher.group(2)) {
+                    case "h" -> (long) (amount * 3_600_000);
+                    case "m" -> (long) (amount * 60_000);
+                    case "s" -> (long) (amount * 1000);
+                    default -> (long) amount;
+                };
+            }
+            return millis > 0 ? millis : defaultRetryAfterMillis;
+        }
+    }
+
+
+    private String firstHeader(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+
+    private Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.strip());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+
+    // 보내지 않은 호출을 실제 429 응답과 같은 방식으로 처리하기 위한 예외
+    private HttpClientErrorException tooManyRequests(long waitMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis))));
+        return HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, REJECTED_STATUS_TEXT, headers, new byte[0], null);
+    }
+
+
+    /**
+     * 현재 스레드의 쓰기 호출이 토큰을 기다리지 않도록 하고 작업을 실행하는 메서드
+     * - 토큰이 없다면 호출을 보내지 않고 바로 429 예외를 던진다. (isRejectedLocally 로 구분)
+     * @param task 제공자 호출 작업
+     * @return 작업 결과
+     */
+    public static <T> T withoutWaiting(Supplier<T> task) {
+
+        boolean previous = NO_WAIT.get();
+        NO_WAIT.set(true);
+        try {
+            return task.get();
+        } finally {
+            NO_WAIT.set(previous);
+        }
+    }
+
+
+    /**
+     * 제공자가 아닌 이 서버의 속도 조절기가 호출을 보내지 않고 거절한 예외인지 확인 (제공자 장애가 아님)
+     */
+    public static boolean isRejectedLocally(Throwable e) {
+        return e instanceof HttpClientErrorException.TooManyRequests tooManyRequests
+                && REJECTED_STATUS_TEXT.equals(tooManyRequests.getStatusText());
+    }
+
+
+    private void count(String bucket, String outcome) {
+        Counter.builder("ai.provider.rate")
+                .description("제공자 호출 속도 조절 결과 (held: 기다린 뒤 호출, rejected: 호출하지 않음, throttled: 429 응답)")
+                .tag("bucket", bucket)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    private static RedisScript<List> createScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/provider-rate.lua")));
+        script.setResultType(List.class);
+        return script;
+    }
+}
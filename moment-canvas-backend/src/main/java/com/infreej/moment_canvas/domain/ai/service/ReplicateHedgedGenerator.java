@@ -0,0 +1,307 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ReplicateDto;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replicate 이미지 생성 헤징(hedged request)
+ * - 이미지 생성이 최근 소요 시간의 p90 을 넘기면 같은 입력으로 Prediction 을 하나 더 만들고, 먼저 끝난 결과를 사용한다.
+ * - 진 쪽 Prediction 은 Replicate 취소 API 로 바로 취소해 비용을 줄인다.
+ * - 소요 시간은 이긴 쪽뿐 아니라, 지거나 취소된 원래 Prediction 도 취소 시점까지의 시간으로 기록한다. (느린 요청이 p90 에서 빠지지 않도록)
+ * - 상태 조회 실패(5xx, 타임아웃)는 Prediction 마다 max-poll-errors 번 연속될 때까지 다음 폴링에서 다시 조회한다.
+ *   한 Prediction 이 실패하면 남은 Prediction 으로 계속 기다리고, 헤징 전에 조회를 포기했다면 바로 헤징한다. 모두 실패했을 때만 실패로 처리한다.
+ * - 헤징 전에 원래 Prediction 이 failed 로 끝났다면 같은 입력으로 다시 만들어도 실패하므로 헤징하지 않고 바로 실패로 처리한다.
+ * - 헤징 예산: 일반 요청마다 budget-ratio 만큼 토큰이 쌓이고 헤징 1회에 토큰 1개를 쓴다. (추가 호출 비율을 budget-ratio 이하로 제한)
+ * - 최대 대기 시간은 요청의 처리 제한 시각(Deadline)까지 남은 시간으로 줄어들고, 넘기면 진행 중인 Prediction 을 모두 취소한다.
+ * - 결과는 ai.image.hedge 메트릭(outcome 태그)으로 확인할 수 있다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.ai.provider", havingValue = "replicate")
+public class ReplicateHedgedGenerator {
+
+    private final ReplicatePredictionClient replicatePredictionClient;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final int minSamples;
+    private final long initialDelayMillis;
+    private final long minDelayMillis;
+    private final double budgetRatio;
+    private final double maxBudget;
+    private final long pollIntervalMillis;
+    private final int maxPollErrors;
+    private final long maxWaitMillis;
+
+    // 최근 성공한 Prediction 소요 시간 (원형 버퍼)
+    private final long[] latencies;
+    private int latencyCount;
+    private int latencyIndex;
+
+    private double budget; // 남은 헤징 토큰
+
+    public ReplicateHedgedGenerator(ReplicatePredictionClient replicatePredictionClient,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${spring.ai.replicate.hedging.enabled:false}") boolean enabled,
+                                    @Value("${spring.ai.replicate.hedging.percentile:0.9}") double percentile,
+                                    @Value("${spring.ai.replicate.hedging.window-size:100}") int windowSize,
+                                    @Value("${spring.ai.replicate.hedging.min-samples:20}") int minSamples,
+                                    @Value("${spring.ai.replicate.hedging.initial-delay-millis:10000}") long initialDelayMillis,
+                                    @Value("${spring.ai.replicate.hedging.min-delay-millis:2000}") long minDelayMillis,
+                                    @Value("${spring.ai.replicate.hedging.budget-ratio:0.1}") double budgetRatio,
+                                    @Value("${spring.ai.replicate.hedging.max-budget:10}") double maxBudget,
+                                    @Value("${spring.ai.replicate.hedging.poll-interval-millis:500}") long pollIntervalMillis,
+                                    @Value("${spring.ai.replicate.hedging.max-poll-errors:3}") int maxPollErrors,
+                                    @Value("${spring.ai.replicate.hedging.max-wait-millis:60000}") long maxWaitMillis) {
+        this.replicatePredictionClient = replicatePredictionClient;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.initialDelayMillis = initialDelayMillis;
+        this.minDelayMillis = minDelayMillis;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxPollErrors = maxPollErrors;
+        this.maxWaitMillis = maxWaitMillis;
+        this.latencies = new long[windowSize];
+        this.budget = maxBudget;
+
+        Gauge.builder("ai.image.hedge.delay", this, ReplicateHedgedGenerator::hedgeDelayMillis)
+                .description("헤징 요청을 보내기까지 기다리는 시간(ms, 최근 소요 시간의 p90)").register(meterRegistry);
+    }
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * 헤징을 적용해 이미지를 생성하는 메서드
+     * - Prediction 을 만든 뒤 완료될 때까지 상태를 확인하고, 헤징 시점이 지나면 예산 안에서 하나를 더 만든다.
+     * @param input 모델 입력값
+     * @return 먼저 성공한 Prediction
+     */
+    public ReplicateDto.ReplicateResponse generate(ReplicateDto.ReplicateInput input) {
+
+        long startTime = System.nanoTime();
+        long hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeDelayMillis());
+        long waitLimitMillis = Deadline.remainingMillis(maxWaitMillis);
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(waitLimitMillis);
+        depositBudget();
+
+        // 진행 중인 Prediction (predictionId -> 생성 시각), Prediction 별 연속 조회 실패 횟수
+        Map<String, Long> running = new LinkedHashMap<>();
+        Map<String, Integer> pollErrors = new HashMap<>();
+        String primaryId = create(input, running);
+        boolean hedgeDecided = false; // 헤징 여부를 결정했는지 (한 번만 결정)
+        boolean hedged = false; // 실제로 헤징 요청을 보냈는지
+        RuntimeException lastPollError = null; // 마지막으로 포기한 Prediction 의 조회 실패 (모두 실패 시 그대로 전달)
+
+        try {
+            while (true) {
+                TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+
+                for (String predictionId : running.keySet().toArray(String[]::new)) {
+                    ReplicateDto.ReplicateResponse prediction;
+                    try {
+                        prediction = replicatePredictionClient.getPrediction(predictionId);
+                        pollErrors.remove(predictionId);
+                    } catch (HttpClientErrorException.TooManyRequests e) {
+                        // 조회 속도 제한은 Prediction 실패가 아니므로 다음 폴링에서 다시 조회한다.
+                        log.debug("Replicate Prediction 조회 속도 제한. predictionId: {}", predictionId);
+                        continue;
+                    } catch (RuntimeException e) {
+                        // 일시적인 조회 실패는 다음 폴링에서 다시 조회하고, 연속으로 실패하면 그 Prediction 만 포기한다.
+                        int errors = pollErrors.merge(predictionId, 1, Integer::sum);
+                        log.warn("Replicate Prediction 조회 실패. predictionId: {}, 연속 실패: {}/{}, message: {}", predictionId, errors, maxPollErrors, e.getMessage());
+                        if (errors >= maxPollErrors) {
+                            running.remove(predictionId);
+                            cancel(predictionId);
+                            lastPollError = e;
+                        }
+                        continue;
+                    }
+                    if (prediction == null || !prediction.isTerminal()) {
+                        continue;
+                    }
+
+                    if (prediction.isSucceeded()) {
+                        long createdAt = running.remove(predictionId);
+                        recordLatency(System.nanoTime() - createdAt);
+                        cancelAll(running, primaryId);
+                        count(!hedged ? "no-hedge" : primaryId.equals(predictionId) ? "primary-won" : "hedge-won");
+                        return prediction;
+                    }
+
+                    log.warn("Replicate Prediction 실패. predictionId: {}, status: {}, error: {}", predictionId, prediction.status(), prediction.error());
+                    running.remove(predictionId);
+                    lastPollError = null;
+
+                    // 헤징 전에 원래 Prediction 이 실패했다면 헤징하지 않는다. (입력 문제라면 헤징도 실패한다.)
+                    if (!hedgeDecided && primaryId.equals(predictionId)) {
+                        count("failed");
+                        throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+                    }
+                }
+
+                long elapsedNanos = System.nanoTime() - startTime;
+
+                // 헤징 시점이 지났거나 헤징 전에 원래 Prediction 의 조회를 포기했다면 예산 안에서 Prediction 하나 더 생성
+                if (!hedgeDecided && (elapsedNanos >= hedgeDelayNanos || running.isEmpty())) {
+                    hedgeDecided = true;
+                    if (tryAcquireBudget()) {
+                        hedged = hedge(input, running, primaryId, elapsedNanos);
+                    } else {
+                        count("budget-exhausted");
+                    }
+                }
+
+                if (running.isEmpty()) {
+                    count("failed");
+                    if (lastPollError != null) {
+                        throw lastPollError;
+                    }
+                    throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+                }
+
+                if (elapsedNanos >= maxWaitNanos) {
+                    log.warn("Replicate 이미지 생성 최대 대기 시간({}ms) 초과. predictions: {}", waitLimitMillis, running.keySet());
+                    cancelAll(running, primaryId);
+                    count("timeout");
+                    if (waitLimitMillis < maxWaitMillis) {
+                        throw new BusinessException(ErrorCode.COMMON_DEADLINE_EXCEEDED);
+                    }
+                    // 제공자 지연 (서킷 실패로 기록되고 다른 제공자로 전환된다.)
+                    throw new ResourceAccessException("Replicate 이미지 생성 최대 대기 시간(" + waitLimitMillis + "ms) 초과");
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll(running, primaryId);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+        } catch (RuntimeException e) {
+            cancelAll(running, primaryId);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Prediction 생성부터 완료(또는 취소)까지 걸린 시간 기록 (p90 계산용)
+     */
+    public void recordLatency(long elapsedNanos) {
+        synchronized (latencies) {
+            latencies[latencyIndex] = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            latencyIndex = (latencyIndex + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+        }
+    }
+
+
+    // 헤징 요청을 보내기까지 기다리는 시간 (샘플이 부족하면 초기값 사용)
+    long hedgeDelayMillis() {
+        long[] samples;
+        synchronized (latencies) {
+            if (latencyCount < minSamples) {
+                return initialDelayMillis;
+            }
+            samples = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile * samples.length) - 1;
+        return Math.max(minDelayMillis, samples[Math.max(0, index)]);
+    }
+
+
+    private String create(ReplicateDto.ReplicateInput input, Map<String, Long> running) {
+        ReplicateDto.ReplicateResponse prediction = replicatePredictionClient.createPrediction(input, null, false);
+        if (prediction == null || prediction.id() == null) {
+            log.error("Replicate Prediction 생성 실패");
+            throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+        }
+        running.put(prediction.id(), System.nanoTime());
+        return prediction.id();
+    }
+
+
+    // 헤징 요청 생성 (실패해도 진행 중인 Prediction 은 계속 기다린다.)
+    private boolean hedge(ReplicateDto.ReplicateInput input, Map<String, Long> running, String primaryId, long elapsedNanos) {
+        try {
+            String hedgeId = create(input, running);
+            log.info("이미지 생성 지연으로 헤징 요청. primary: {}, hedge: {}, 경과 시간: {}ms", primaryId, hedgeId, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("헤징 요청 생성 실패. primary: {}, message: {}", primaryId, e.getMessage());
+            count("hedge-failed");
+            return false;
+        }
+    }
+
+
+    // 진 쪽(또는 남은) Prediction 취소 (실패해도 결과에는 영향 없음, 원래 Prediction 은 취소 시점까지의 소요 시간을 기록)
+    private void cancelAll(Map<String, Long> running, String primaryId) {
+        Long primaryCreatedAt = running.get(primaryId);
+        if (primaryCreatedAt != null) {
+            recordLatency(System.nanoTime() - primaryCreatedAt);
+        }
+        running.keySet().forEach(this::cancel);
+        running.clear();
+    }
+
+
+    // 처리 제한 시각이 지난 뒤에도 취소 요청은 보내야 하므로 제한 시각 없이 호출한다.
+    private void cancel(String predictionId) {
+        Deadline.runWithout(() -> {
+            try {
+                replicatePredictionClient.cancelPrediction(predictionId);
+                log.info("Replicate Prediction 취소. predictionId: {}", predictionId);
+            } catch (Exception e) {
+                log.warn("Replicate Prediction 취소 실패. predictionId: {}, message: {}", predictionId, e.getMessage());
+            }
+        });
+    }
+
+
+    private synchronized void depositBudget() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+
+    private synchronized boolean tryAcquireBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+
+    private void count(String outcome) {
+        Counter.builder("ai.image.hedge")
+                .description("이미지 생성 헤징 결과 (no-hedge, primary-won, hedge-won, budget-exhausted, hedge-failed, failed, timeout)")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,44 +1,30 @@
 package com.infreej.moment_canvas.domain.ai.service;
 
+import com.infreej.moment_canvas.domain.ai.dto.ImageRenderOptions;
 import com.infreej.moment_canvas.domain.ai.dto.ReplicateDto;
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.Deadline;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.image.*;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Primary;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestClient;
-import org.springframework.http.MediaType;
+import org.springframework.web.client.ResourceAccessException;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-@Primary
+@RequiredArgsConstructor
 @ConditionalOnProperty(name = "spring.ai.provider", havingValue = "replicate")
 public class ReplicateImageModel implements ImageModel {
 
-    private final RestClient restClient;
-
-    @Value("${spring.ai.replicate.api-token}")
-    private String apiToken;
-
-    public ReplicateImageModel(RestClient.Builder builder) {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000); // 연결 타임아웃 10초
-        factory.setReadTimeout(60000);    // 읽기 타임아웃 60초 (이미지 생성 대기 시간 고려)
-
-        this.restClient = builder
-                .requestFactory(factory) // factory를 사용하라고 명시
-                .baseUrl("https://api.replicate.com/v1") // API 기본 주소 설정
-                .build();
-    }
+    private final ReplicatePredictionClient replicatePredictionClient;
+    private final ReplicateHedgedGenerator replicateHedgedGenerator;
 
     
     /**
@@ -51,41 +37,27 @@ public class ReplicateImageModel implements ImageModel {
 
         log.info("Replicate 이미지 생성 시도");
 
-        // 프롬프트 추출 (ImagePrompt 에서 String 내용물 추출)
-        String finalPrompt = request.getInstructions().get(0).getText();
-
-        // 이미지 비율 설정
-        String aspectRatio = "16:9";
-
-        // Replicate 요청 객체 생성
-        ReplicateDto.ReplicateInput replicateInput = new ReplicateDto.ReplicateInput(
-                finalPrompt, // 프롬프트
-                aspectRatio, // 이미지 비율
-                "webp", // 트래픽 비용 절감을 위해 webp 사용
-                80, // 퀄리티 80 (충분함)
-                true // go_fast: true (Schnell 모델 속도 최적화)
-        );
-
-        ReplicateDto.ReplicateRequest replicateRequest = new ReplicateDto.ReplicateRequest(replicateInput);
+        ReplicateDto.ReplicateInput replicateInput = createInput(request);
 
-        log.info("Replicate Flux.1 이미지 생성 요청. Prompt: {}", finalPrompt);
+        log.info("Replicate Flux.1 이미지 생성 요청. Prompt: {}", replicateInput.prompt());
 
         try {
-            // API 호출 (동기 방식)
-            ReplicateDto.ReplicateResponse replicateResponse = restClient.post()
-                    .uri("/models/black-forest-labs/flux-schnell/predictions") // 모델명(주소)으로 API 호출
-                    .header("Authorization", "Bearer " + apiToken) // JWT 토큰 첨부
-                    .header("Prefer", "wait") // 생성 완료까지 대기 (동기 방식)
-                    .contentType(MediaType.APPLICATION_JSON) // 보내는 데이터가 JSON 형식임을 명시
-                    .body(replicateRequest)
-                    .retrieve()// 전송
-                    // 에러 디버깅을 위한 핸들러
-                    .onStatus(status -> status.is4xxClientError(), (req, res) -> {
-                        // 429 Too Many Requests 발생 가능성 있음
-                        String errorBody = new String(res.getBody().readAllBytes());
-                        log.error("Replicate API 4xx Error: Code={}, Body={}", res.getStatusCode(), errorBody);
-                    })
-                    .body(ReplicateDto.ReplicateResponse.class); // 받은 응답은 해당 클래스 객체로 자동 변환된다.
+            // 미리보기(생성 단계 수 지정)는 소요 시간 분포가 달라 헤징과 소요 시간 기록에서 제외
+            boolean fullRender = replicateInput.num_inference_steps() == null;
+
+            ReplicateDto.ReplicateResponse replicateResponse;
+            if (fullRender && replicateHedgedGenerator.isEnabled()) {
+                // 헤징 방식 (오래 걸리면 Prediction 을 하나 더 만들어 먼저 끝난 결과 사용)
+                replicateResponse = replicateHedgedGenerator.generate(replicateInput);
+            } else {
+                // API 호출 (동기 방식)
+                long startTime = System.nanoTime();
+                replicateResponse = replicatePredictionClient.createPrediction(replicateInput, null, true);
+                cancelIfUnfinished(replicateResponse);
+                if (fullRender) {
+                    replicateHedgedGenerator.recordLatency(System.nanoTime() - startTime);
+                }
+            }
 
 
             // 응답 변환 (ReplicateResponse -> Spring AI ImageResponse)
@@ -101,7 +73,14 @@ public class ReplicateImageModel implements ImageModel {
 
             return new ImageResponse(generations);
 
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
+        } catch (BusinessException | HttpClientErrorException.TooManyRequests | ResourceAccessException e) {
+            // 429, 타임아웃은 재시도 대상 (재시도는 ProviderRateGovernor 가 Retry-After 까지 보류한다.)
+            throw e;
+        } catch (HttpServerErrorException e) {
+            // 5xx 는 제공자 장애로 그대로 전달한다. (서킷 실패로 기록되고 다른 제공자로 전환)
+            log.error("Replicate 호출 중 서버 에러 발생: {}", e.getResponseBodyAsString());
+            throw e;
+        } catch (HttpClientErrorException e) {
             log.error("Replicate 호출 중 HTTP 에러 발생: {}", e.getResponseBodyAsString());
             throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
         } catch (Exception e) {
@@ -109,4 +88,76 @@ public class ReplicateImageModel implements ImageModel {
             throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
         }
     }
-}
\ No newline at end of file
+
+
+    /**
+     * 이미지 생성 요청만 보내고 완료를 기다리지 않는 메서드 (webhook 방식)
+     * - 결과는 webhook 또는 폴링 스케줄러를 통해 전달된다.
+     * @param request 이미지 프롬프트
+     * @param webhookUrl 완료 시 호출될 webhook 주소 (null 이면 폴링으로만 확인)
+     * @return 생성된 Prediction ID
+     */
+    public String submit(ImagePrompt request, String webhookUrl) {
+
+        ReplicateDto.ReplicateInput replicateInput = createInput(request);
+
+        log.info("Replicate Flux.1 이미지 생성 요청 (webhook). Prompt: {}", replicateInput.prompt());
+
+        ReplicateDto.ReplicateResponse replicateResponse = replicatePredictionClient.createPrediction(replicateInput, webhookUrl, false);
+
+        if (replicateResponse == null || replicateResponse.id() == null) {
+            log.error("Replicate Prediction 생성 실패");
+            throw new BusinessException(ErrorCode.IMAGE_GENERATED_ERROR);
+        }
+
+        return replicateResponse.id();
+    }
+
+
+    // 대기 시간(Prefer: wait) 안에 끝나지 않은 Prediction 은 취소한다. (결과를 기다릴 요청이 없으므로)
+    private void cancelIfUnfinished(ReplicateDto.ReplicateResponse replicateResponse) {
+
+        if (replicateResponse == null || replicateResponse.id() == null || replicateResponse.isTerminal()) {
+            return;
+        }
+
+        log.warn("Replicate Prediction 이 대기 시간 안에 끝나지 않아 취소합니다. predictionId: {}", replicateResponse.id());
+        Deadline.runWithout(() -> {
+            try {
+                replicatePredictionClient.cancelPrediction(replicateResponse.id());
+            } catch (Exception e) {
+                log.warn("Replicate Prediction 취소 실패. predictionId: {}, message: {}", replicateResponse.id(), e.getMessage());
+            }
+        });
+
+        boolean deadlineExceeded = Deadline.current().map(Deadline::isExpired).orElse(false);
+        if (deadlineExceeded) {
+            throw new BusinessException(ErrorCode.COMMON_DEADLINE_EXCEEDED);
+        }
+        // 제공자 지연 (서킷 실패로 기록되고 다른 제공자로 전환된다.)
+        throw new ResourceAccessException("Replicate Prediction 대기 시간 초과. predictionId: " + replicateResponse.id());
+    }
+
+
+    // Replicate 요청 입력값 생성 (옵션이 없다면 기본값 사용)
+    private ReplicateDto.ReplicateInput createInput(ImagePrompt request) {
+
+        // 프롬프트 추출 (ImagePrompt 에서 String 내용물 추출)
+        String finalPrompt = request.getInstructions().get(0).getText();
+
+        ImageRenderOptions options = request.getOptions() instanceof ImageRenderOptions imageRenderOptions
+                ? imageRenderOptions
+                : ImageRenderOptions.defaults();
+
+        // Replicate 요청 객체 생성
+        return new ReplicateDto.ReplicateInput(
+                finalPrompt, // 프롬프트
+                options.getAspectRatio(), // 이미지 비율
+                "webp", // 트래픽 비용 절감을 위해 webp 사용
+                options.getQuality(), // 퀄리티
+                true, // go_fast: true (Schnell 모델 속도 최적화)
+                options.getSize().getMegapixels(), // 이미지 크기
+                options.getInferenceSteps() // 생성 단계 수 (미리보기는 적게)
+        );
+    }
+}
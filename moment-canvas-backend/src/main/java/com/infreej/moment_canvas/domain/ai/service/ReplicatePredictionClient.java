@@ -0,0 +1,109 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ReplicateDto;
+import com.infreej.moment_canvas.global.util.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Replicate Prediction API 호출 전용 클라이언트
+ * - 동기(Prefer: wait) 생성, 비동기(webhook) 생성, 상태 조회, 취소를 담당한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.ai.provider", havingValue = "replicate")
+public class ReplicatePredictionClient {
+
+    // Flux.1 Schnell 모델 prediction 생성 주소
+    private static final String MODEL_PREDICTION_PATH = "/models/black-forest-labs/flux-schnell/predictions";
+
+    // Prefer: wait 로 기다릴 수 있는 최대 시간 (Replicate 제한 1~60초)
+    private static final long MAX_WAIT_SECONDS = 60;
+
+    private final RestClient restClient;
+
+    @Value("${spring.ai.replicate.api-token}")
+    private String apiToken;
+
+    /**
+     * builder 에는 커넥션 풀과 타임아웃이 적용되어 있다. (HttpClientConfig)
+     */
+    public ReplicatePredictionClient(RestClient.Builder builder,
+                                     @Value("${spring.ai.replicate.base-url:https://api.replicate.com/v1}") String baseUrl) {
+        this.restClient = builder
+                .baseUrl(baseUrl) // API 기본 주소 설정 (로컬 테스트 시 스텁 서버 주소)
+                .build();
+    }
+
+
+    /**
+     * Prediction 생성 메서드
+     * @param input 모델 입력값
+     * @param webhookUrl 완료 시 호출될 webhook 주소 (null 이면 webhook 미사용)
+     * @param wait true 라면 생성 완료까지 대기 (동기 방식, 요청의 처리 제한 시각까지 남은 시간만큼만 대기)
+     * @return 생성된 Prediction (wait=false 이거나 대기 시간 안에 끝나지 않았다면 진행 중 상태)
+     */
+    public ReplicateDto.ReplicateResponse createPrediction(ReplicateDto.ReplicateInput input, String webhookUrl, boolean wait) {
+
+        ReplicateDto.ReplicateRequest replicateRequest = (webhookUrl == null)
+                ? new ReplicateDto.ReplicateRequest(input)
+                : new ReplicateDto.ReplicateRequest(input, webhookUrl, List.of("completed"));
+
+        RestClient.RequestBodySpec request = restClient.post()
+                .uri(MODEL_PREDICTION_PATH) // 모델명(주소)으로 API 호출
+                .header("Authorization", "Bearer " + apiToken) // JWT 토큰 첨부
+                .contentType(MediaType.APPLICATION_JSON); // 보내는 데이터가 JSON 형식임을 명시
+
+        if (wait) {
+            // 생성 완료까지 대기 (동기 방식, 처리 제한 시각까지 남은 시간만큼만)
+            long waitSeconds = Math.max(1, Math.min(MAX_WAIT_SECONDS, Deadline.remainingMillis(MAX_WAIT_SECONDS * 1000) / 1000));
+            request = request.header("Prefer", "wait=" + waitSeconds);
+        }
+
+        return request
+                .body(replicateRequest)
+                .retrieve()// 전송
+                // 에러 디버깅을 위한 핸들러
+                .onStatus(status -> status.is4xxClientError(), (req, res) -> {
+                    // 429 Too Many Requests 발생 가능성 있음 (Retry-After 헤더를 포함한 예외로 재시도, 속도 조절에 사용)
+                    byte[] errorBody = res.getBody().readAllBytes();
+                    log.error("Replicate API 4xx Error: Code={}, Body={}", res.getStatusCode(), new String(errorBody, StandardCharsets.UTF_8));
+                    throw HttpClientErrorException.create(res.getStatusCode(), res.getStatusText(), res.getHeaders(), errorBody, StandardCharsets.UTF_8);
+                })
+                .body(ReplicateDto.ReplicateResponse.class); // 받은 응답은 해당 클래스 객체로 자동 변환된다.
+    }
+
+
+    /**
+     * Prediction 상태 조회 메서드 (webhook 누락 시 폴링 용도)
+     */
+    public ReplicateDto.ReplicateResponse getPrediction(String predictionId) {
+        return restClient.get()
+                .uri("/predictions/{id}", predictionId)
+                .header("Authorization", "Bearer " + apiToken)
+                .retrieve()
+                .body(ReplicateDto.ReplicateResponse.class);
+    }
+
+
+    /**
+     * Prediction 취소 메서드
+     * - 비용을 줄이는 호출이므로 호출 속도 조절을 기다리지 않는다.
+     */
+    public void cancelPrediction(String predictionId) {
+        restClient.post()
+                .uri("/predictions/{id}/cancel", predictionId)
+                .attribute(ProviderRateGovernor.BYPASS_ATTRIBUTE, true)
+                .header("Authorization", "Bearer " + apiToken)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
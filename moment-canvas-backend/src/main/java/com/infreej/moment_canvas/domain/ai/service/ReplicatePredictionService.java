@@ -0,0 +1,301 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.ai.dto.ImageRenderOptions;
+import com.infreej.moment_canvas.domain.ai.dto.ReplicateDto;
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.ai.entity.ReplicatePrediction;
+import com.infreej.moment_canvas.domain.ai.repository.ReplicatePredictionRepository;
+import com.infreej.moment_canvas.domain.diary.service.ImageJobService;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+/**
+ * Replicate Prediction 비동기(webhook) 처리 서비스
+ * - Prediction 생성 후 스레드를 점유하지 않고, webhook 또는 폴링 스케줄러로 완료를 확인한다.
+ * - Prediction ID 는 Replicate 가 생성 응답으로 정하므로, 연결 정보 등록 전에 webhook 이 먼저 도착할 수 있다.
+ *   이 경우 결과를 잠시 보관해 두고 등록할 때 반영한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.ai.provider", havingValue = "replicate")
+public class ReplicatePredictionService {
+
+    private final ReplicateImageModel replicateImageModel;
+    private final RoutingImageModel routingImageModel;
+    private final ReplicatePredictionClient replicatePredictionClient;
+    private final ReplicatePredictionRepository replicatePredictionRepository;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ImageJobService imageJobService;
+
+    @Value("${spring.ai.replicate.prediction-mode:wait}")
+    private String predictionMode;
+
+    @Value("${spring.ai.replicate.webhook-url:}")
+    private String webhookUrl;
+
+    @Value("${spring.ai.replicate.webhook-secret:}")
+    private String webhookSecret;
+
+    @Value("${spring.ai.replicate.poll-after-millis:15000}")
+    private long pollAfterMillis;
+
+    @Value("${spring.ai.replicate.prediction-max-age-millis:300000}")
+    private long predictionMaxAgeMillis;
+
+    // webhook 서명 시각 허용 오차 (재전송 공격 방지)
+    private static final Duration WEBHOOK_TOLERANCE = Duration.ofMinutes(5);
+
+    // 등록 전에 도착한 webhook 결과 (predictionId -> 본문)
+    private static final String EARLY_RESULT_KEY_PREFIX = "replicatePredictionResult:";
+    private static final Duration EARLY_RESULT_TTL = Duration.ofMinutes(10);
+
+
+    // webhook 방식 사용 여부
+    public boolean isWebhookMode() {
+        return "webhook".equalsIgnoreCase(predictionMode);
+    }
+
+
+    // 새 작업을 webhook 방식으로 보낼 수 있는지 여부 (Replicate 서킷이 열려 있다면 동기 방식으로 다른 제공자를 사용)
+    public boolean isWebhookAvailable() {
+        return isWebhookMode() && routingImageModel.isAvailable(ImageProvider.REPLICATE);
+    }
+
+
+    /**
+     * 이미지 생성 요청 (완료를 기다리지 않음)
+     * @param prompt 이미지 생성용 영문 프롬프트
+     * @param options 이미지 비율, 품질, 크기
+     * @return Prediction ID
+     */
+    public String submit(String prompt, ImageRenderOptions options) {
+        return replicateImageModel.submit(new ImagePrompt(prompt, options), webhookUrl.isBlank() ? null : webhookUrl);
+    }
+
+
+    /**
+     * Prediction 과 이미지 생성 작업 연결 정보 저장
+     * - 등록 전에 webhook 이 먼저 도착했다면 보관된 결과를 바로 반영한다.
+     * - 저장에 실패하면 결과를 받을 곳이 없으므로 Prediction 을 취소한다.
+     * @param deadlineAt 작업의 처리 제한 시각 (epoch millis, null 이면 최대 대기 시간만 적용)
+     */
+    public void register(String predictionId, String jobId, Long deadlineAt) {
+
+        try {
+            replicatePredictionRepository.save(ReplicatePrediction.builder()
+                    .predictionId(predictionId)
+                    .jobId(jobId)
+                    .createdAt(LocalDateTime.now())
+                    .deadlineAt(deadlineAt)
+                    .build());
+        } catch (RuntimeException e) {
+            log.error("Replicate Prediction 등록 실패로 취소합니다. predictionId: {}, jobId: {}", predictionId, jobId);
+            cancelQuietly(predictionId);
+            throw e;
+        }
+
+        String earlyResult = stringRedisTemplate.opsForValue().getAndDelete(EARLY_RESULT_KEY_PREFIX + predictionId);
+        if (earlyResult != null) {
+            log.info("등록 전에 도착한 webhook 결과를 반영합니다. predictionId: {}, jobId: {}", predictionId, jobId);
+            applyResult(readPrediction(earlyResult, predictionId));
+        }
+    }
+
+
+    /**
+     * Replicate webhook 처리 메서드
+     * - 서명 검증 후 결과를 작업에 기록하고 바로 응답한다. (저장 단계는 작업 큐에서 진행하므로 응답이 늦어져 재전송되지 않는다.)
+     * @param webhookId webhook-id 헤더
+     * @param timestamp webhook-timestamp 헤더 (epoch seconds)
+     * @param signature webhook-signature 헤더 ("v1,<base64>" 가 공백으로 구분되어 여러 개 올 수 있다)
+     * @param body 원본 요청 본문 (서명 검증을 위해 가공하지 않은 문자열)
+     */
+    public void handleWebhook(String webhookId, String timestamp, String signature, String body) {
+
+        verifySignature(webhookId, timestamp, signature, body);
+
+        ReplicateDto.ReplicateResponse prediction = readPrediction(body, webhookId);
+
+        log.info("Replicate webhook 수신. predictionId: {}, status: {}", prediction.id(), prediction.status());
+        if (!applyResult(prediction) && prediction.isTerminal() && prediction.id() != null) {
+            // 아직 등록되지 않은 Prediction (생성 응답보다 webhook 이 먼저 도착), 등록할 때 반영한다.
+            stringRedisTemplate.opsForValue().set(EARLY_RESULT_KEY_PREFIX + prediction.id(), body, EARLY_RESULT_TTL);
+        }
+    }
+
+
+    /**
+     * webhook 누락에 대비한 폴링 스케줄러
+     * - 일정 시간이 지나도 완료되지 않은 Prediction 만 조회한다.
+     * - 최대 대기 시간 또는 작업의 처리 제한 시각을 넘긴 Prediction 은 취소하고 작업을 실패 처리한다.
+     */
+    @Scheduled(fixedDelayString = "${spring.ai.replicate.poll-interval-millis:5000}")
+    public void pollPendingPredictions() {
+
+        if (!isWebhookMode()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        StreamSupport.stream(replicatePredictionRepository.findAll().spliterator(), false)
+                .filter(Objects::nonNull) // 만료된 항목은 null 로 조회될 수 있다.
+                .filter(pending -> isDeadlineExceeded(pending) || pending.getCreatedAt().plus(Duration.ofMillis(pollAfterMillis)).isBefore(now))
+                .forEach(pending -> pollPrediction(pending, now));
+    }
+
+
+    private void pollPrediction(ReplicatePrediction pending, LocalDateTime now) {
+
+        String predictionId = pending.getPredictionId();
+
+        try {
+            // 작업의 처리 제한 시각 초과 시 취소 (클라이언트가 더 이상 기다리지 않는다.)
+            if (isDeadlineExceeded(pending)) {
+                log.warn("이미지 생성 작업의 처리 제한 시각이 지나 Replicate Prediction 을 취소합니다. predictionId: {}", predictionId);
+                replicatePredictionClient.cancelPrediction(predictionId);
+                imageJobService.failPrediction(predictionId, ErrorCode.COMMON_DEADLINE_EXCEEDED);
+                return;
+            }
+
+            // 최대 대기 시간 초과 시 취소
+            if (pending.getCreatedAt().plus(Duration.ofMillis(predictionMaxAgeMillis)).isBefore(now)) {
+                log.warn("Replicate Prediction 최대 대기 시간 초과로 취소합니다. predictionId: {}", predictionId);
+                replicatePredictionClient.cancelPrediction(predictionId);
+                imageJobService.failPrediction(predictionId, ErrorCode.IMAGE_GENERATED_ERROR);
+                return;
+            }
+
+            ReplicateDto.ReplicateResponse prediction = replicatePredictionClient.getPrediction(predictionId);
+            if (prediction != null) {
+                applyResult(prediction);
+            }
+        } catch (Exception e) {
+            log.warn("Replicate Prediction 폴링 실패. predictionId: {}, message: {}", predictionId, e.getMessage());
+        }
+    }
+
+
+    private boolean isDeadlineExceeded(ReplicatePrediction pending) {
+        return pending.getDeadlineAt() != null && pending.getDeadlineAt() <= System.currentTimeMillis();
+    }
+
+
+    // 종료된 Prediction 결과를 작업에 반영 (반영했다면 true, 진행 중이거나 등록된 작업이 없다면 false)
+    private boolean applyResult(ReplicateDto.ReplicateResponse prediction) {
+
+        if (!prediction.isTerminal()) {
+            return false;
+        }
+
+        if (prediction.isSucceeded()) {
+            return imageJobService.completePrediction(prediction.id(), prediction.output().get(0));
+        }
+        log.error("Replicate Prediction 실패. predictionId: {}, status: {}, error: {}", prediction.id(), prediction.status(), prediction.error());
+        return imageJobService.failPrediction(prediction.id(), ErrorCode.IMAGE_GENERATED_ERROR);
+    }
+
+
+    private ReplicateDto.ReplicateResponse readPrediction(String body, String id) {
+        try {
+            return objectMapper.readValue(body, ReplicateDto.ReplicateResponse.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Replicate webhook 본문을 읽을 수 없습니다. id: {}", id);
+            throw new BusinessException(ErrorCode.COMMON_BAD_REQUEST);
+        }
+    }
+
+
+    private void cancelQuietly(String predictionId) {
+        try {
+            replicatePredictionClient.cancelPrediction(predictionId);
+        } catch (Exception e) {
+            log.warn("Replicate Prediction 취소 실패. predictionId: {}, message: {}", predictionId, e.getMessage());
+        }
+    }
+
+
+    /**
+     * webhook 서명 검증
+     * - 서명 대상: "{webhook-id}.{webhook-timestamp}.{body}"
+     * - 키: webhook-secret 에서 "whsec_" 접두사를 제거하고 base64 디코딩한 값 (HMAC-SHA256)
+     */
+    private void verifySignature(String webhookId, String timestamp, String signature, String body) {
+
+        if (webhookSecret.isBlank()) {
+            log.error("webhook-secret 이 설정되지 않아 Replicate webhook 을 처리할 수 없습니다.");
+            throw new BusinessException(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+        }
+
+        if (webhookId == null || timestamp == null || signature == null) {
+            throw new BusinessException(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+        }
+
+        // 오래된 요청 거부
+        try {
+            Instant sentAt = Instant.ofEpochSecond(Long.parseLong(timestamp));
+            if (Duration.between(sentAt, Instant.now()).abs().compareTo(WEBHOOK_TOLERANCE) > 0) {
+                log.warn("Replicate webhook 시각이 허용 범위를 벗어났습니다. webhookId: {}", webhookId);
+                throw new BusinessException(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+            }
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+        }
+
+        byte[] expected = sign(webhookId + "." + timestamp + "." + body);
+
+        for (String candidate : signature.split(" ")) {
+            String[] parts = candidate.split(",", 2);
+            try {
+                if (parts.length == 2 && MessageDigest.isEqual(expected, Base64.getDecoder().decode(parts[1]))) {
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                // base64 형식이 아닌 서명은 무시
+            }
+        }
+
+        log.warn("Replicate webhook 서명이 일치하지 않습니다. webhookId: {}", webhookId);
+        throw new BusinessException(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+    }
+
+
+    /**
+     * webhook 서명 생성 (로컬 스텁 서버와 검증 로직이 함께 사용)
+     */
+    public byte[] sign(String content) {
+        try {
+            String secret = webhookSecret.startsWith("whsec_") ? webhookSecret.substring("whsec_".length()) : webhookSecret;
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256"));
+            return mac.doFinal(content.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.error("webhook 서명 생성 실패", e);
+            throw new BusinessException(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+        }
+    }
+}
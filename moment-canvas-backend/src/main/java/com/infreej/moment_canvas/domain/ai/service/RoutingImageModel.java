@@ -0,0 +1,260 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.image.ImageModel;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.openai.OpenAiImageModel;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 이미지 생성 제공자(Replicate, OpenAI)를 서킷 브레이커 뒤에 두고 장애 시 다른 제공자로 넘기는 ImageModel
+ * - spring.ai.provider 로 지정한 제공자를 먼저 사용하고, 실패하거나 서킷이 열려 있으면 다음 제공자로 넘어간다.
+ * - 최근 호출의 실패율 또는 느린 호출 비율이 기준을 넘으면 서킷이 열리고, 일정 시간 후 일부 요청으로 회복 여부를 확인한다. (half-open)
+ * - 제공자 장애(5xx, 타임아웃/연결 실패, 429)만 서킷 실패로 기록하고 다른 제공자로 넘어간다.
+ *   그 외의 실패(4xx, 정책 위반 등 BusinessException)는 요청의 문제이므로 서킷에 기록하지 않고 바로 던진다.
+ * - 서킷 상태는 resilience4j.circuitbreaker.* 메트릭으로 확인할 수 있다.
+ */
+@Slf4j
+@Component
+@Primary
+public class RoutingImageModel implements ImageModel {
+
+    // 사용 순서대로 정렬된 제공자 목록
+    private final Map<ImageProvider, ImageModel> providers = new LinkedHashMap<>();
+    private final Map<ImageProvider, CircuitBreaker> circuitBreakers = new LinkedHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RoutingImageModel(ObjectProvider<ReplicateImageModel> replicateImageModelProvider,
+                             ObjectProvider<OpenAiImageModel> openAiImageModelProvider,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.ai.provider:openai}") String primaryProvider,
+                             @Value("${spring.ai.image-routing.failover-enabled:true}") boolean failoverEnabled,
+                             @Value("${spring.ai.image-routing.failure-rate-threshold:50}") float failureRateThreshold,
+                             @Value("${spring.ai.image-routing.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+                             @Value("${spring.ai.image-routing.slow-call-duration-millis:30000}") long slowCallDurationMillis,
+                             @Value("${spring.ai.image-routing.sliding-window-size:10}") int slidingWindowSize,
+                             @Value("${spring.ai.image-routing.minimum-number-of-calls:5}") int minimumNumberOfCalls,
+                             @Value("${spring.ai.image-routing.wait-in-open-millis:30000}") long waitInOpenMillis,
+                             @Value("${spring.ai.image-routing.half-open-calls:2}") int halfOpenCalls) {
+        this.meterRegistry = meterRegistry;
+
+        // 기본 제공자를 먼저 등록
+        ReplicateImageModel replicateImageModel = replicateImageModelProvider.getIfAvailable();
+        OpenAiImageModel openAiImageModel = openAiImageModelProvider.getIfAvailable();
+        if ("replicate".equalsIgnoreCase(primaryProvider)) {
+            register(ImageProvider.REPLICATE, replicateImageModel);
+            if (failoverEnabled) register(ImageProvider.OPENAI, openAiImageModel);
+        } else {
+            register(ImageProvider.OPENAI, openAiImageModel);
+            if (failoverEnabled) register(ImageProvider.REPLICATE, replicateImageModel);
+        }
+
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMillis))
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenMillis))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+
+        providers.keySet().forEach(provider -> {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("image-" + provider.name().toLowerCase());
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("이미지 생성 제공자 서킷 상태 변경. provider: {}, {}", provider, event.getStateTransition()));
+            circuitBreakers.put(provider, circuitBreaker);
+        });
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+
+        log.info("이미지 생성 제공자 순서: {}", providers.keySet());
+    }
+
+
+    @Override
+    public ImageResponse call(ImagePrompt request) {
+        return route(request).imageResponse();
+    }
+
+
+    /**
+     * 사용 가능한 제공자 순서대로 이미지 생성을 시도하는 메서드
+     * @param request 이미지 프롬프트
+     * @return 이미지 생성 결과와 이를 생성한 제공자
+     */
+    public RoutedImageResponse route(ImagePrompt request) {
+
+        RuntimeException lastException = null;
+
+        for (Map.Entry<ImageProvider, ImageModel> entry : providers.entrySet()) {
+            ImageProvider provider = entry.getKey();
+            CircuitBreaker circuitBreaker = circuitBreakers.get(provider);
+
+            // 서킷이 열려 있다면 호출하지 않고 다음 제공자로
+            if (!circuitBreaker.tryAcquirePermission()) {
+                log.info("서킷이 열려 있어 다음 제공자로 넘어갑니다. provider: {}", provider);
+                count(provider, "not-permitted");
+                continue;
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                ImageResponse imageResponse = entry.getValue().call(request);
+                circuitBreaker.onSuccess(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                count(provider, "success");
+                return new RoutedImageResponse(provider, imageResponse);
+            } catch (RuntimeException e) {
+                if (!isProviderFailure(e)) {
+                    // 다른 제공자로 보내도 같은 결과이므로 전환하지 않는다.
+                    circuitBreaker.releasePermission();
+                    count(provider, "rejected");
+                    throw e;
+                }
+                circuitBreaker.onError(System.nanoTime() - startTime, TimeUnit.NANOSECONDS, e);
+                count(provider, "failure");
+                log.warn("이미지 생성 제공자 호출 실패. provider: {}, message: {}", provider, e.getMessage());
+                lastException = e;
+            }
+        }
+
+        // 모든 제공자가 실패한 경우 마지막 예외를 그대로 전달 (재시도 판단에 사용)
+        if (lastException != null) {
+            throw lastException;
+        }
+
+        log.error("사용 가능한 이미지 생성 제공자가 없습니다.");
+        throw new BusinessException(ErrorCode.AI_SERVICE_UNAVAILABLE);
+    }
+
+
+    /**
+     * 미리보기 이미지를 생성하는 메서드
+     * - 생성 단계를 줄여 값싸게 만들 수 있는 Replicate 가 기본 제공자일 때만 생성한다. (OpenAI 는 최종 이미지와 비용이 같다.)
+     * - 기본 제공자의 서킷이 닫혀 있지 않다면(다른 제공자로 전환 중) 생성하지 않는다.
+     * - 같은 제공자 호출이므로 결과를 최종 이미지와 같은 서킷에 기록하고, 실패해도 다른 제공자로 넘기지 않는다.
+     * - 호출 속도 조절기의 토큰을 기다리지 않는다. (속도 조절기가 보내지 않고 거절한 경우는 서킷에 기록하지 않는다.)
+     * @param request 미리보기 이미지 프롬프트
+     * @return 미리보기 이미지 생성 결과 (생성하지 않았다면 empty)
+     */
+    public Optional<RoutedImageResponse> preview(ImagePrompt request) {
+
+        ImageProvider provider = ImageProvider.REPLICATE;
+        CircuitBreaker circuitBreaker = circuitBreakers.get(provider);
+        if (providers.isEmpty() || providers.keySet().iterator().next() != provider
+                || circuitBreaker.getState() != CircuitBreaker.State.CLOSED
+                || !circuitBreaker.tryAcquirePermission()) {
+            count(provider, "preview-skipped");
+            return Optional.empty();
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            ImageResponse imageResponse = ProviderRateGovernor.withoutWaiting(() -> providers.get(provider).call(request));
+            circuitBreaker.onSuccess(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            count(provider, "preview");
+            return Optional.of(new RoutedImageResponse(provider, imageResponse));
+        } catch (RuntimeException e) {
+            if (!isProviderFailure(e) || ProviderRateGovernor.isRejectedLocally(e)) {
+                circuitBreaker.releasePermission();
+                count(provider, "preview-rejected");
+            } else {
+                circuitBreaker.onError(System.nanoTime() - startTime, TimeUnit.NANOSECONDS, e);
+                count(provider, "preview-failure");
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * 제공자의 서킷이 호출을 허용하는 상태인지 확인 (OPEN 이 아니면 허용)
+     */
+    public boolean isAvailable(ImageProvider provider) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(provider);
+        return circuitBreaker != null && circuitBreaker.getState() != CircuitBreaker.State.OPEN
+                && circuitBreaker.getState() != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+
+    /**
+     * 제공자 장애인지 확인하는 메서드 (서킷 실패 기록과 다른 제공자 전환 대상)
+     * - 5xx, 429, 타임아웃/연결 실패 (Spring AI 는 5xx 를 TransientAiException, 4xx 를 "상태 코드 - 본문" 형식의 NonTransientAiException 으로 던진다.)
+     */
+    static boolean isProviderFailure(Throwable e) {
+
+        if (e instanceof BusinessException) {
+            return false;
+        }
+        if (e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests
+                || e instanceof ResourceAccessException
+                || e instanceof TransientAiException) {
+            return true;
+        }
+        if (e instanceof NonTransientAiException && e.getMessage() != null
+                && e.getMessage().startsWith(HttpStatus.TOO_MANY_REQUESTS.value() + " ")) {
+            return true;
+        }
+
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private void register(ImageProvider provider, ImageModel imageModel) {
+        if (imageModel != null) {
+            providers.put(provider, imageModel);
+        }
+    }
+
+
+    private void count(ImageProvider provider, String outcome) {
+        Counter.builder("ai.image.provider.calls")
+                .description("이미지 생성 제공자 호출 결과")
+                .tag("provider", provider.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    /**
+     * 이미지 생성 결과와 이를 생성한 제공자
+     */
+    public record RoutedImageResponse(ImageProvider provider, ImageResponse imageResponse) {
+    }
+}
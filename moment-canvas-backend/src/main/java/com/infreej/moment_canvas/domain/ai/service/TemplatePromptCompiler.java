@@ -0,0 +1,191 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.PromptTemplateInput;
+import com.infreej.moment_canvas.domain.user.entity.Gender;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.AhoCorasickMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LLM 호출 없이 템플릿으로 영문 이미지 프롬프트를 만드는 컴파일러 (외부 호출 없음, 같은 입력이면 같은 결과)
+ * - 일기 제목, 본문, 추가 요청사항, 작성자 특징에서 키워드 사전(prompt/keywords.txt)의 단어를 찾아 영문 장면 묘사로 바꾼다.
+ * - 기분(1~5)은 조명과 색감, 스타일은 화풍 묘사로 바꾸고, 작성자의 나이와 성별로 주인공을 묘사한다.
+ * - 입력 원문은 프롬프트에 넣지 않는다. 스타일도 목록(STYLES)에 있는 값만 허용한다.
+ * - FAST 모드 요청과, LLM 이 지연 예산을 넘기거나 실패했을 때의 대체 프롬프트로 사용한다.
+ */
+@Slf4j
+@Component
+public class TemplatePromptCompiler {
+
+    private static final int MAX_KEYWORDS = 8;
+
+    // 이미지 생성 화면의 스타일 (id, 한글 이름 모두 허용)
+    private static final Map<String, String> STYLES = Map.ofEntries(
+            Map.entry("watercolor", "a soft watercolor painting with gentle bleeding colors and paper texture"),
+            Map.entry("수채화", "a soft watercolor painting with gentle bleeding colors and paper texture"),
+            Map.entry("colored_pencil", "a warm colored pencil drawing like a childhood picture diary"),
+            Map.entry("색연필화", "a warm colored pencil drawing like a childhood picture diary"),
+            Map.entry("ghibli_style", "a hand-drawn Japanese animation style scene with lush, dreamy backgrounds"),
+            Map.entry("지브리 풍", "a hand-drawn Japanese animation style scene with lush, dreamy backgrounds"),
+            Map.entry("anime", "a delicate shoujo manga illustration with warm, emotional linework"),
+            Map.entry("순정 만화", "a delicate shoujo manga illustration with warm, emotional linework"),
+            Map.entry("digital_painting", "a polished digital painting with clean, refined coloring"),
+            Map.entry("디지털 아트", "a polished digital painting with clean, refined coloring"),
+            Map.entry("line_drawing", "a clean ink pen line drawing with minimal shading"),
+            Map.entry("펜 드로잉", "a clean ink pen line drawing with minimal shading"),
+            Map.entry("sketch", "a rough graphite pencil sketch with visible pencil texture"),
+            Map.entry("연필 스케치", "a rough graphite pencil sketch with visible pencil texture"),
+            Map.entry("realistic", "a photorealistic photograph with natural detail"),
+            Map.entry("실사", "a photorealistic photograph with natural detail"),
+            Map.entry("3d_render", "a cute 3D toy-like render with soft studio lighting"),
+            Map.entry("3D 렌더링", "a cute 3D toy-like render with soft studio lighting"),
+            Map.entry("pop_art", "a bold pop art illustration with strong comic-style colors"),
+            Map.entry("팝아트", "a bold pop art illustration with strong comic-style colors"),
+            Map.entry("cyberpunk", "a dreamy cyberpunk scene glowing with neon signs"),
+            Map.entry("사이버펑크", "a dreamy cyberpunk scene glowing with neon signs")
+    );
+
+    // 기분(1~5)별 조명, 색감
+    private static final String[] MOODS = {
+            "dim, moody lighting with a muted, cool color palette",
+            "soft overcast light with calm, desaturated colors",
+            "gentle natural light with balanced, harmonious colors",
+            "bright, pleasant light with fresh, cheerful colors",
+            "warm golden light with a vibrant, glowing color palette"
+    };
+
+    private final AhoCorasickMatcher keywordMatcher;
+    private final Map<String, String> keywords;
+
+    public TemplatePromptCompiler(@Value("${spring.ai.fast-prompt.keywords-location:classpath:prompt/keywords.txt}") Resource keywordsLocation) throws IOException {
+        this.keywords = readKeywords(keywordsLocation);
+        this.keywordMatcher = AhoCorasickMatcher.of(keywords.keySet());
+        log.info("템플릿 프롬프트 키워드 {}개 로드", keywords.size());
+    }
+
+
+    /**
+     * 이미지 생성 화면의 스타일 목록에 있는지 확인 (지정하지 않았다면 통과)
+     * @throws BusinessException 목록에 없는 스타일 (IMAGE_STYLE_NOT_SUPPORTED)
+     */
+    public static void checkStyle(String style) {
+        if (style != null && !style.isBlank() && !STYLES.containsKey(style.strip())) {
+            throw new BusinessException(ErrorCode.IMAGE_STYLE_NOT_SUPPORTED);
+        }
+    }
+
+
+    /**
+     * 템플릿으로 영문 이미지 프롬프트 생성
+     * @param input 안전 필터를 거친 일기, 작성자 정보
+     * @return 이미지 생성용 영문 프롬프트
+     */
+    public String compile(PromptTemplateInput input) {
+
+        // 1. 장면 키워드 (제목 → 본문 → 추가 요청사항 순, 중복 제외)
+        Set<String> scene = new LinkedHashSet<>();
+        collectKeywords(input.getTitle(), scene);
+        collectKeywords(input.getContent(), scene);
+        collectKeywords(input.getOption(), scene);
+
+        // 2. 주인공 묘사 (나이, 성별, 특징)
+        Set<String> traits = new LinkedHashSet<>();
+        collectKeywords(input.getPersona(), traits);
+        traits.removeAll(scene);
+
+        StringBuilder prompt = new StringBuilder();
+        prompt.append(styleOf(input.getStyle())).append(" of ");
+        prompt.append(scene.isEmpty() ? "a quiet, everyday moment from a personal diary" : String.join(", ", limit(scene)));
+        prompt.append(", featuring ").append(characterOf(input.getBirthday(), input.getGender())).append(" as the main character");
+        if (!traits.isEmpty()) {
+            prompt.append(" associated with ").append(String.join(", ", limit(traits)));
+        }
+        prompt.append(". ").append(capitalize(moodOf(input.getMood()))).append(". ");
+        prompt.append("Cohesive composition with a clear focal point, emotionally resonant, highly detailed, no text or letters.");
+
+        return prompt.toString();
+    }
+
+
+    private void collectKeywords(String text, Set<String> phrases) {
+        for (AhoCorasickMatcher.Match match : keywordMatcher.findAll(text)) {
+            phrases.add(keywords.get(match.term()));
+        }
+    }
+
+
+    private List<String> limit(Set<String> phrases) {
+        return new ArrayList<>(phrases).subList(0, Math.min(phrases.size(), MAX_KEYWORDS));
+    }
+
+
+    private String styleOf(String style) {
+        if (style == null || style.isBlank()) {
+            return "a beautiful illustration";
+        }
+        checkStyle(style);
+        return STYLES.get(style.strip());
+    }
+
+
+    private String moodOf(Integer mood) {
+        int index = mood == null ? 2 : Math.max(1, Math.min(5, mood)) - 1;
+        return MOODS[index];
+    }
+
+
+    private String characterOf(LocalDate birthday, Gender gender) {
+
+        String person = gender == Gender.MALE ? "man" : gender == Gender.FEMALE ? "woman" : "person";
+        if (birthday == null) {
+            return "a " + person;
+        }
+
+        int age = Period.between(birthday, LocalDate.now()).getYears();
+        if (age < 13) {
+            return gender == Gender.MALE ? "a little boy" : gender == Gender.FEMALE ? "a little girl" : "a child";
+        }
+        if (age < 20) {
+            return gender == Gender.MALE ? "a teenage boy" : gender == Gender.FEMALE ? "a teenage girl" : "a teenager";
+        }
+        return "a " + person + " in their " + (Math.min(age, 80) / 10 * 10) + "s";
+    }
+
+
+    private String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+
+    private static Map<String, String> readKeywords(Resource resource) throws IOException {
+        Map<String, String> keywords = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('=');
+                if (line.isBlank() || line.strip().startsWith("#") || separator <= 0) {
+                    continue;
+                }
+                keywords.put(line.substring(0, separator).strip(), line.substring(separator + 1).strip());
+            }
+        }
+        return keywords;
+    }
+}
@@ -4,10 +4,14 @@ import com.infreej.moment_canvas.domain.diary.dto.request.DiaryFindRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryCreateRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryUpdateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.response.DiaryImageCandidateResponse;
 import com.infreej.moment_canvas.domain.diary.dto.response.DiaryResponse;
 import com.infreej.moment_canvas.domain.diary.dto.response.DiarySummaryResponse;
+import com.infreej.moment_canvas.domain.diary.dto.response.ImageJobResponse;
 import com.infreej.moment_canvas.domain.diary.service.DiaryService;
+import com.infreej.moment_canvas.domain.diary.service.ImageJobService;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageDownloadRequest;
+import com.infreej.moment_canvas.global.annotation.RateLimit;
 import com.infreej.moment_canvas.global.annotation.SetSuccess;
 import com.infreej.moment_canvas.global.annotation.TimeCheck;
 import com.infreej.moment_canvas.global.code.SuccessCode;
@@ -16,9 +20,12 @@ import com.infreej.moment_canvas.global.security.CustomUserDetails;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -31,6 +38,7 @@ import java.util.List;
 public class DiaryController {
 
     private final DiaryService diaryService;
+    private final ImageJobService imageJobService;
 
 
     @SetSuccess(SuccessCode.DIARY_CREATED)
@@ -87,18 +95,57 @@ public class DiaryController {
     }
 
 
-    @Operation(summary = "일기 이미지 생성", security = @SecurityRequirement(name = "JWT"), description = "OpenAI API를 사용하는 일기 이미지 생성 API 입니다.")
+    @Operation(summary = "일기 이미지 생성 작업 접수", security = @SecurityRequirement(name = "JWT"), description = "일기 이미지 생성 작업을 접수하고 jobId를 즉시 반환하는 API 입니다. \n - 진행 상황은 작업 상태 조회 API 또는 SSE 구독 API로 확인합니다. \n - 같은 내용으로 생성 중인 작업이 있거나, 같은 Idempotency-Key 로 접수된 작업이 있다면 그 작업을 반환합니다. \n - progressive 가 true 라면 작은 미리보기 이미지(previewUrl)를 먼저 전달한 뒤 최종 이미지를 생성합니다. \n - candidateCount(1~4) 만큼 같은 프롬프트로 이미지 후보를 동시에 생성합니다. (요청 횟수 제한은 후보 개수만큼 차감되며, 기존 작업을 반환하는 요청은 차감되지 않습니다.) \n - promptMode 가 FAST 라면 LLM 없이 템플릿으로 프롬프트를 만들어 더 빠르게 생성합니다.")
     @TimeCheck
-    @SetSuccess(SuccessCode.IMAGE_GENERATED)
+    @RateLimit(name = "image-generate", permits = "#diaryImageGenerateRequest.resolveCandidateCount()",
+            skip = "@imageJobServiceImpl.isDuplicate(#customUserDetails.user.userId, #diaryImageGenerateRequest, #idempotencyKey)")
+    @SetSuccess(SuccessCode.IMAGE_JOB_ACCEPTED)
     @PostMapping("/diary/image-generate")
-    public String generateDiaryImage(@AuthenticationPrincipal CustomUserDetails customUserDetails, @RequestBody DiaryImageGenerateRequest diaryImageGenerateRequest) {
+    public ImageJobResponse generateDiaryImage(@AuthenticationPrincipal CustomUserDetails customUserDetails, @RequestBody @Valid DiaryImageGenerateRequest diaryImageGenerateRequest,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
-        return diaryService.generateDiaryImage(customUserDetails.getUser().getUserId(), diaryImageGenerateRequest);
+        return imageJobService.submit(customUserDetails.getUser().getUserId(), diaryImageGenerateRequest, idempotencyKey);
+    }
+
+
+    @SetSuccess(SuccessCode.IMAGE_JOB_SUCCESS)
+    @Operation(summary = "일기 이미지 생성 작업 상태 조회", security = @SecurityRequirement(name = "JWT"), description = "이미지 생성 작업의 진행 단계와 결과를 조회하는 API 입니다. \n - status: PENDING, PROMPT_BUILT, IMAGE_REQUESTED, PREVIEW_READY, COMPLETED, FAILED")
+    @GetMapping("/diary/image-generate/{jobId}")
+    public ImageJobResponse findImageJob(@AuthenticationPrincipal CustomUserDetails customUserDetails, @PathVariable String jobId) {
+
+        return imageJobService.findJob(customUserDetails.getUser().getUserId(), jobId);
+    }
+
+
+    @Operation(summary = "일기 이미지 생성 작업 재시도", security = @SecurityRequirement(name = "JWT"), description = "실패한 이미지 생성 작업을 다시 진행하는 API 입니다. \n - 이미 끝난 단계(프롬프트 생성, 이미지 생성)는 다시 실행하지 않고 실패한 단계부터 이어서 진행합니다.")
+    @RateLimit(name = "image-generate", permits = "@imageJobServiceImpl.retryRenderCount(#customUserDetails.user.userId, #jobId)")
+    @SetSuccess(SuccessCode.IMAGE_JOB_ACCEPTED)
+    @PostMapping("/diary/image-generate/{jobId}/retry")
+    public ImageJobResponse retryImageJob(@AuthenticationPrincipal CustomUserDetails customUserDetails, @PathVariable String jobId) {
+
+        return imageJobService.retry(customUserDetails.getUser().getUserId(), jobId);
+    }
+
+
+    @Operation(summary = "일기 이미지 생성 작업 진행 상황 구독", security = @SecurityRequirement(name = "JWT"), description = "이미지 생성 작업의 진행 단계를 Server-Sent Events로 전달하는 API 입니다. \n - 이벤트 이름은 진행 단계(status)와 같습니다.")
+    @GetMapping(value = "/diary/image-generate/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeImageJob(@AuthenticationPrincipal CustomUserDetails customUserDetails, @PathVariable String jobId) {
+
+        return imageJobService.subscribe(customUserDetails.getUser().getUserId(), jobId);
+    }
+
+
+    @SetSuccess(SuccessCode.IMAGE_CANDIDATE_SUCCESS)
+    @Operation(summary = "일기 이미지 후보 목록 조회", security = @SecurityRequirement(name = "JWT"), description = "보관 기간 내에 생성된 일기 이미지 후보 목록을 최신순으로 조회하는 API 입니다. \n - 이미지 저장 API 에 candidateId 를 보내면 새로 생성하지 않고 후보 이미지를 저장합니다.")
+    @GetMapping("/diary/{diaryId}/image-candidates")
+    public List<DiaryImageCandidateResponse> findImageCandidates(@AuthenticationPrincipal CustomUserDetails customUserDetails, @PathVariable long diaryId) {
+
+        return diaryService.findImageCandidates(customUserDetails.getUser().getUserId(), diaryId);
     }
 
 
     @SetSuccess(SuccessCode.IMAGE_CREATED)
-    @Operation(summary = "생성된 일기 이미지 저장", security = @SecurityRequirement(name = "JWT"), description = "일기 저장 API 입니다.")
+    @Operation(summary = "생성된 일기 이미지 저장", security = @SecurityRequirement(name = "JWT"), description = "일기 저장 API 입니다. \n - candidateId 가 있다면 imageUrl 대신 해당 이미지 후보를 저장합니다. (생성 시점에 저장된 후보라면 다운로드 없이 바로 반영)")
     @PostMapping("/diary/{diaryId}/image-save")
     public DiaryResponse saveDiaryImage(@AuthenticationPrincipal CustomUserDetails customUserDetails, @PathVariable long diaryId, @RequestBody ImageDownloadRequest imageDownloadRequest) throws IOException {
 
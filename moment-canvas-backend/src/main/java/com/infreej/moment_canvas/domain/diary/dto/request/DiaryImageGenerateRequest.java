@@ -1,10 +1,18 @@
 package com.infreej.moment_canvas.domain.diary.dto.request;
 
+import com.infreej.moment_canvas.domain.ai.dto.ImageRenderOptions;
+import com.infreej.moment_canvas.domain.ai.entity.ImageSize;
+import com.infreej.moment_canvas.domain.ai.entity.PromptMode;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.Objects;
+
 /**
  * 일기 이미지를 생성하기 위한 Request
  */
@@ -17,4 +25,37 @@ public class DiaryImageGenerateRequest {
     private long diaryId; // 일기 정보를 꺼내기 위한 PK
     private String style; // 이미지 스타일
     private String option; // 추가 요청 사항
+
+    @Pattern(regexp = "^(1:1|16:9|21:9|3:2|2:3|4:5|5:4|3:4|4:3|9:16|9:21)$",
+            message = "이미지 비율은 1:1, 16:9, 21:9, 3:2, 2:3, 4:5, 5:4, 3:4, 4:3, 9:16, 9:21 중 하나여야 합니다.")
+    private String aspectRatio; // 이미지 비율 (기본 16:9)
+    @Min(value = 1, message = "이미지 품질은 1~100 사이여야 합니다.")
+    @Max(value = 100, message = "이미지 품질은 1~100 사이여야 합니다.")
+    private Integer quality; // 이미지 품질 (기본 80)
+    private ImageSize size; // 이미지 크기 (기본 LARGE)
+    private boolean progressive; // true 라면 작은 미리보기 이미지를 먼저 생성해 전달한 뒤 최종 이미지를 생성
+    @Min(value = 1, message = "이미지 후보 개수는 1~4 사이여야 합니다.")
+    @Max(value = 4, message = "이미지 후보 개수는 1~4 사이여야 합니다.")
+    private Integer candidateCount; // 같은 프롬프트로 생성할 이미지 후보 개수 (기본 1)
+    private PromptMode promptMode; // 프롬프트 생성 방식 (기본 STANDARD, FAST 는 LLM 없이 템플릿으로 생성)
+
+    // 기본값이 적용된 이미지 후보 개수
+    public int resolveCandidateCount() {
+        return candidateCount == null ? 1 : candidateCount;
+    }
+
+    // 같은 이미지 생성 요청인지 비교하기 위한 값 (기본값이 적용된 옵션 기준)
+    public String fingerprint() {
+        ImageRenderOptions imageRenderOptions = ImageRenderOptions.from(this);
+        return String.join("\n",
+                String.valueOf(diaryId),
+                Objects.toString(style, ""),
+                Objects.toString(option, ""),
+                imageRenderOptions.getAspectRatio(),
+                String.valueOf(imageRenderOptions.getQuality()),
+                imageRenderOptions.getSize().name(),
+                String.valueOf(progressive),
+                String.valueOf(resolveCandidateCount()),
+                String.valueOf(promptMode == null ? PromptMode.STANDARD : promptMode));
+    }
 }
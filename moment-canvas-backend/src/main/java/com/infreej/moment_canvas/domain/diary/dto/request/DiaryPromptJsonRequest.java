@@ -1,18 +1,32 @@
 package com.infreej.moment_canvas.domain.diary.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+/**
+ * 프롬프트 생성 단계의 LLM 구조화된 응답
+ * - 이 클래스로 만든 JSON Schema 를 응답 형식으로 지정한다. (OpenAI structured output 은 모든 필드가 required 여야 한다.)
+ */
 @Getter
 @NoArgsConstructor
 public class DiaryPromptJsonRequest {
+    @JsonProperty(required = true)
     private boolean safetyStatus; // 이미지 생성 정책에 위배되는 내용이 있는지 여부 (true라면 생성 가능)
+    @JsonProperty(required = true)
     private double reasoningFactualWeight; // 묘사의 사실성 가중치
+    @JsonProperty(required = true)
     private double reasoningEmotionalWeight; // 감정성 가중치
+    @JsonProperty(required = true)
     private double reasoningMetaphorWeight; // 은유성 가중치
-    private String ruleFactual; //
-    private String ruleEmotional;
-    private String ruleMetaphor;
+    @JsonProperty(required = true)
+    private String ruleFactual; // 사실적 요소 묘사 방법
+    @JsonProperty(required = true)
+    private String ruleEmotional; // 감정 묘사 방법
+    @JsonProperty(required = true)
+    private String ruleMetaphor; // 은유 묘사 방법
+    @JsonProperty(required = true)
     private String userFeedback; // 왜 이런 그림이 나왔는지 해석
+    @JsonProperty(required = true)
     private String imagePrompt; // 최종 이미지 프롬프트
 }
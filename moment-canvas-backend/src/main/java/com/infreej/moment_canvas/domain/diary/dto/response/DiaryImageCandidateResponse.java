@@ -0,0 +1,37 @@
+package com.infreej.moment_canvas.domain.diary.dto.response;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.diary.entity.DiaryImageCandidate;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 일기 이미지 후보 Response
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DiaryImageCandidateResponse {
+
+    private Long candidateId; // 후보 PK (이미지 저장 시 사용)
+    private String jobId; // 이미지를 생성한 작업 ID
+    private String imageUrl; // 생성된 이미지 URL
+    private String savedImageName; // 저장소에 저장된 이미지 이름 (생성 시점에 저장하지 못했다면 null)
+    private ImageProvider provider; // 이미지를 생성한 제공자
+    private LocalDateTime createdAt; // 생성 시각
+
+    // Dto 변환 메서드
+    public static DiaryImageCandidateResponse from(DiaryImageCandidate candidate) {
+        return DiaryImageCandidateResponse.builder()
+                .candidateId(candidate.getCandidateId())
+                .jobId(candidate.getJobId())
+                .imageUrl(candidate.getImageUrl())
+                .savedImageName(candidate.getSavedImageName())
+                .provider(candidate.getProvider())
+                .createdAt(candidate.getCreatedAt())
+                .build();
+    }
+}
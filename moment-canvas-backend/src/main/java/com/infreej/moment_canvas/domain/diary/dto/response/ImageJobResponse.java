@@ -0,0 +1,44 @@
+package com.infreej.moment_canvas.domain.diary.dto.response;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import com.infreej.moment_canvas.domain.diary.entity.ImageJobStatus;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 이미지 생성 작업 상태 응답 Response
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImageJobResponse {
+
+    private String jobId; // 작업 고유번호
+    private Long diaryId; // 일기 PK
+    private ImageJobStatus status; // 진행 단계
+    private String previewUrl; // 미리보기 이미지 URL (progressive 요청 시)
+    private String imageUrl; // 생성된 이미지 URL (완료 시)
+    private ImageProvider provider; // 이미지를 생성한 제공자 (완료 시)
+    private List<String> imageUrls; // 생성된 이미지 후보 URL 목록 (완료 시)
+    private List<Long> candidateIds; // 이미지 후보 PK 목록 (완료 시, 이미지 저장 시 사용)
+    private String errorCode; // 실패 코드 (실패 시)
+
+    // Dto 변환 메서드
+    public static ImageJobResponse from(ImageGenerationJob job) {
+        return ImageJobResponse.builder()
+                .jobId(job.getJobId())
+                .diaryId(job.getDiaryId())
+                .status(job.getStatus())
+                .previewUrl(job.getPreviewUrl())
+                .imageUrl(job.getImageUrl())
+                .provider(job.getProvider())
+                .imageUrls(job.getImageUrls())
+                .candidateIds(job.getCandidateIds())
+                .errorCode(job.getErrorCode())
+                .build();
+    }
+}
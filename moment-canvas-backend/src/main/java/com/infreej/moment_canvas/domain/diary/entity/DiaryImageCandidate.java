@@ -0,0 +1,51 @@
+package com.infreej.moment_canvas.domain.diary.entity;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.global.entity.BaseTimeEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * 일기 이미지 후보
+ * - 이미지 생성 작업에서 만든 이미지를 일기별로 보관해, 다시 생성하지 않고 이전 이미지 중 하나를 저장할 수 있게 한다.
+ * - 생성 시점에 저장소에 저장한 후보는 이미지 저장 시 선택만 반영한다. (생성 제공자의 URL 을 다시 받지 않는다.)
+ * - 보관 기간이 지나면 삭제된다. 선택되지 않은 후보의 저장소 이미지도 함께 삭제된다. (DiaryImageCandidateCleaner)
+ */
+@Entity
+@Table(name = "diary_image_candidates", indexes = @Index(name = "idx_diary_image_candidates_diary", columnList = "diary_id, created_at"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+public class DiaryImageCandidate extends BaseTimeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long candidateId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "diary_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE) // 일기 영구 삭제 시 함께 삭제
+    private Diary diary;
+
+    @Column(nullable = false, length = 36)
+    private String jobId; // 이미지를 생성한 작업 ID
+
+    @Column(nullable = false, length = 1000)
+    private String imageUrl; // 생성된 이미지 URL
+
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    private ImageProvider provider; // 이미지를 생성한 제공자
+
+    private String orgImageName; // 원본 이미지명 (생성 시점에 저장소에 저장한 경우에만 존재)
+
+    private String savedImageName; // 저장소에 저장된 이미지명 (생성 시점에 저장한 경우에만 존재)
+
+    // 생성 시점에 저장소에 저장된 후보인지 여부 (이미지 저장 시 다시 다운로드하지 않는다.)
+    public boolean isStored() {
+        return savedImageName != null;
+    }
+}
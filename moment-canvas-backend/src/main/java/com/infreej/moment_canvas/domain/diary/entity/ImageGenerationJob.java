@@ -0,0 +1,137 @@
+package com.infreej.moment_canvas.domain.diary.entity;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.ai.entity.ImageSize;
+import com.infreej.moment_canvas.domain.ai.entity.PromptMode;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.user.entity.Role;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 비동기 이미지 생성 작업 상태
+ * - 여러 서버가 같은 작업을 조회할 수 있도록 Redis에 저장한다.
+ * - 끝난 단계의 결과(프롬프트, 이미지 URL)를 체크포인트로 저장해, 재시도 시 실패한 단계부터 이어서 진행한다.
+ * - 만료 시간 1시간
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@RedisHash(value = "imageGenerationJob", timeToLive = 3600)
+public class ImageGenerationJob {
+
+    @Id
+    private String jobId; // 작업 고유번호 (UUID)
+    private Long userId; // 요청한 유저 PK
+    private Long diaryId; // 대상 일기 PK
+    private ImageJobStatus status; // 진행 단계
+    private String imageUrl; // 생성된 이미지 URL (이미지 생성 단계 이후 존재, 후보가 여러 개라면 첫 번째 후보)
+    private ImageProvider provider; // 이미지를 생성한 제공자 (이미지 생성 단계 이후 존재)
+    private List<String> imageUrls; // 생성된 이미지 후보 URL 목록
+    private List<ImageProvider> providers; // 이미지 후보별 제공자
+    private List<Long> candidateIds; // 저장된 이미지 후보 PK 목록 (저장 단계 이후 존재, 이미지 저장 시 사용)
+    private String errorCode; // 실패 코드 (FAILED 일 때만 존재)
+    private Long deadlineAt; // 처리 제한 시각 (epoch millis, 접수/재시도 요청의 Deadline, 없으면 제한 없음)
+
+    // 재시도 시 요청을 다시 만들기 위한 원본 요청 값
+    private String style; // 이미지 스타일
+    private String option; // 추가 요청 사항
+    private String aspectRatio; // 이미지 비율
+    private Integer quality; // 이미지 품질
+    private ImageSize size; // 이미지 크기
+    private boolean progressive; // 미리보기 이미지 생성 여부
+    private Integer candidateCount; // 이미지 후보 개수
+    private PromptMode promptMode; // 프롬프트 생성 방식
+
+    // 체크포인트 (끝난 단계의 결과)
+    private String prompt; // 프롬프트 생성 단계 결과
+    private Role role; // 요청한 유저의 권한 (이미지 생성 단계의 대기열 우선순위)
+    private String previewUrl; // 미리보기 이미지 URL (progressive 요청일 때만 존재)
+
+    // 실행권 (claim-job-run.lua 가 기록, save 해도 지워지지 않도록 필드로 둔다.)
+    private String runToken; // 실행 중인 소비자의 토큰
+    private Long runLeaseUntil; // 실행권 만료 시각 (epoch millis, 소비자가 멈추면 이 시각 이후 다른 소비자가 선점)
+
+    // 진행 단계 변경 메서드
+    public void updateStatus(ImageJobStatus status) {
+        this.status = status;
+    }
+
+    // 프롬프트 생성 단계 완료 (체크포인트 저장)
+    public void checkpointPrompt(String prompt, Role role) {
+        this.status = ImageJobStatus.PROMPT_BUILT;
+        this.prompt = prompt;
+        this.role = role;
+    }
+
+    // 미리보기 이미지 생성 완료 (최종 이미지는 계속 생성 중)
+    public void checkpointPreview(String previewUrl) {
+        this.status = ImageJobStatus.PREVIEW_READY;
+        this.previewUrl = previewUrl;
+    }
+
+    // 이미지 생성 단계 완료 (체크포인트 저장, 아직 COMPLETED 는 아니다.)
+    public void checkpointImage(String imageUrl, ImageProvider provider) {
+        checkpointImages(List.of(new ImageGenerationResult(imageUrl, provider)));
+    }
+
+    // 이미지 후보 생성 단계 완료 (체크포인트 저장, 아직 COMPLETED 는 아니다.)
+    public void checkpointImages(List<ImageGenerationResult> results) {
+        this.imageUrl = results.get(0).getImageUrl();
+        this.provider = results.get(0).getProvider();
+        this.imageUrls = new ArrayList<>();
+        this.providers = new ArrayList<>();
+        results.forEach(result -> {
+            this.imageUrls.add(result.getImageUrl());
+            this.providers.add(result.getProvider());
+        });
+    }
+
+    // 작업 완료 메서드 (저장 단계)
+    public void complete(List<Long> candidateIds) {
+        this.status = ImageJobStatus.COMPLETED;
+        this.candidateIds = candidateIds;
+    }
+
+    // 작업을 만든 원본 요청
+    public DiaryImageGenerateRequest toGenerateRequest() {
+        return new DiaryImageGenerateRequest(diaryId, style, option, aspectRatio, quality, size, progressive, candidateCount, promptMode);
+    }
+
+    // 같은 일기, 스타일, 추가 요청사항, 이미지 옵션의 요청인지 여부
+    public boolean isSameRequest(DiaryImageGenerateRequest diaryImageGenerateRequest) {
+        return toGenerateRequest().fingerprint().equals(diaryImageGenerateRequest.fingerprint());
+    }
+
+    public boolean hasPrompt() {
+        return this.prompt != null;
+    }
+
+    public boolean hasImage() {
+        return this.imageUrl != null;
+    }
+
+    // 체크포인트에 저장된 이미지 후보 URL 목록 (이전 버전 작업은 imageUrl 하나)
+    public List<String> getImageUrls() {
+        return imageUrls != null ? imageUrls : imageUrl != null ? List.of(imageUrl) : List.of();
+    }
+
+    public List<ImageProvider> getProviders() {
+        return providers != null ? providers : provider != null ? List.of(provider) : List.of();
+    }
+
+    // 작업 실패 메서드
+    public void fail(String errorCode) {
+        this.status = ImageJobStatus.FAILED;
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,18 @@
+package com.infreej.moment_canvas.domain.diary.entity;
+
+/**
+ * 이미지 생성 작업의 진행 단계
+ */
+public enum ImageJobStatus {
+    PENDING, // 작업 접수
+    PROMPT_BUILT, // 이미지 프롬프트 생성 완료
+    IMAGE_REQUESTED, // 이미지 생성 모델에 요청
+    PREVIEW_READY, // 미리보기 이미지 생성 완료 (최종 이미지 생성 중)
+    COMPLETED, // 이미지 생성 완료
+    FAILED; // 실패
+
+    // 더 이상 상태가 바뀌지 않는 종료 상태인지 여부
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
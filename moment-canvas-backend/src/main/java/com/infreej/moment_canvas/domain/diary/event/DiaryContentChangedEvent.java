@@ -0,0 +1,9 @@
+package com.infreej.moment_canvas.domain.diary.event;
+
+/**
+ * 일기 내용이 작성/수정되었음을 알리는 이벤트 (트랜잭션 커밋 후 처리)
+ * @param userId 작성자 PK
+ * @param diaryId 일기 PK
+ */
+public record DiaryContentChangedEvent(long userId, long diaryId) {
+}
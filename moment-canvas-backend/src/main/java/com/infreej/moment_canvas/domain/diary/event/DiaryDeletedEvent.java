@@ -0,0 +1,12 @@
+package com.infreej.moment_canvas.domain.diary.event;
+
+import java.util.List;
+
+/**
+ * 일기가 영구 삭제되었음을 알리는 이벤트 (트랜잭션 커밋 후 처리)
+ * - 이미지 후보는 DB 에서 함께 삭제(ON DELETE CASCADE)되므로, 저장소에 남은 후보 이미지 파일을 커밋 후 삭제한다.
+ * @param diaryId 일기 PK
+ * @param candidateImageNames 저장소에 저장된 이미지 후보 파일명 목록
+ */
+public record DiaryDeletedEvent(long diaryId, List<String> candidateImageNames) {
+}
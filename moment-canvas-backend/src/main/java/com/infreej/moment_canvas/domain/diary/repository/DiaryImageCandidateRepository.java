@@ -0,0 +1,37 @@
+package com.infreej.moment_canvas.domain.diary.repository;
+
+import com.infreej.moment_canvas.domain.diary.entity.DiaryImageCandidate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface DiaryImageCandidateRepository extends JpaRepository<DiaryImageCandidate, Long> {
+
+    // 보관 기간 내의 일기 이미지 후보 목록을 최신순으로 조회 (본인 일기만)
+    List<DiaryImageCandidate> findAllByDiary_DiaryIdAndDiary_User_UserIdAndCreatedAtAfterOrderByCreatedAtDesc(Long diaryId, Long userId, LocalDateTime after);
+
+    // 보관 기간 내의 일기 이미지 후보 1개 조회 (본인 일기만)
+    Optional<DiaryImageCandidate> findByCandidateIdAndDiary_DiaryIdAndDiary_User_UserIdAndCreatedAtAfter(Long candidateId, Long diaryId, Long userId, LocalDateTime after);
+
+    // 보관 기간이 지났고 저장소에 이미지를 저장해 둔 후보 목록 (일기의 이미지로 선택되지 않은 파일 정리용)
+    @Query("SELECT c FROM DiaryImageCandidate c JOIN FETCH c.diary WHERE c.createdAt < :threshold AND c.savedImageName IS NOT NULL")
+    List<DiaryImageCandidate> findAllStoredCreatedBefore(LocalDateTime threshold);
+
+    // 일기의 후보 중 저장소에 이미지를 저장해 둔 파일명 목록 (일기 영구 삭제 시 파일 정리용)
+    @Query("SELECT c.savedImageName FROM DiaryImageCandidate c WHERE c.diary.diaryId = :diaryId AND c.savedImageName IS NOT NULL")
+    List<String> findAllSavedImageNamesByDiaryId(Long diaryId);
+
+    // 후보로 보관된 파일명 목록 (후보로 보관되지 못한 파일 정리 시 제외할 대상)
+    @Query("SELECT c.savedImageName FROM DiaryImageCandidate c WHERE c.savedImageName IN :savedImageNames")
+    List<String> findAllSavedImageNamesIn(Collection<String> savedImageNames);
+
+    // 보관 기간이 지난 후보 삭제
+    @Modifying
+    @Query("DELETE FROM DiaryImageCandidate c WHERE c.createdAt < :threshold")
+    int deleteAllCreatedBefore(LocalDateTime threshold);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,4 +30,8 @@ public interface DiaryRepository extends JpaRepository<Diary, Long> {
     // 특정 날짜에 삭제하지 않은 일기가 있는지 여부
     boolean existsByUser_UserIdAndTargetDateAndIsDeleted(Long userId, LocalDate targetDate, YesOrNo isDeleted);
 
+    // 일기 이미지로 사용 중인 파일명 목록 (후보로 보관되지 못한 파일 정리 시 제외할 대상)
+    @Query("SELECT d.savedDiaryImageName FROM Diary d WHERE d.savedDiaryImageName IN :savedImageNames")
+    List<String> findAllSavedDiaryImageNamesIn(Collection<String> savedImageNames);
+
 }
@@ -0,0 +1,28 @@
+package com.infreej.moment_canvas.domain.diary.repository;
+
+public interface ImageGenerationJobCheckpointRepository {
+
+    /**
+     * 이미지 생성 중인 작업에 미리보기 이미지를 기록 (작업 전체를 다시 저장하지 않는다.)
+     * @return 기록 여부 (작업이 없거나 이미 최종 이미지가 생성되었다면 false)
+     */
+    public boolean checkpointPreview(String jobId, String previewUrl);
+
+    /**
+     * 실행권 선점 (같은 토큰으로 다시 호출하면 유지 시간 연장)
+     * @return 선점 여부 (작업이 없거나 이미 끝났거나 다른 소비자가 실행 중이라면 false)
+     */
+    public boolean claimRun(String jobId, String runToken, long leaseMillis);
+
+    /**
+     * 실행권 반환 (토큰이 같을 때만)
+     */
+    public void releaseRun(String jobId, String runToken);
+
+    /**
+     * 실패한 작업을 체크포인트부터 다시 진행하도록 대기 상태로 변경 (실행권도 함께 해제)
+     * @param deadlineAt 재시도 요청의 처리 제한 시각 (없으면 null)
+     * @return 변경 여부 (작업이 없거나 실패 상태가 아니라면 false, 동시에 들어온 재시도 요청 중 하나만 true)
+     */
+    public boolean retry(String jobId, Long deadlineAt);
+}
@@ -0,0 +1,85 @@
+package com.infreej.moment_canvas.domain.diary.repository;
+
+import com.infreej.moment_canvas.domain.diary.entity.ImageJobStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+
+/**
+ * ImageGenerationJob(@RedisHash) 의 일부 필드만 바꾸는 저장소
+ * - 미리보기 이미지는 최종 이미지와 동시에 생성되므로, findById 후 save 하면 최종 이미지 체크포인트를 덮어쓸 수 있다.
+ * - 실행권 선점, 재시도 상태 변경도 조회와 변경 사이에 다른 요청이 끼어들지 않도록 Lua 스크립트로 처리한다.
+ */
+@RequiredArgsConstructor
+public class ImageGenerationJobCheckpointRepositoryImpl implements ImageGenerationJobCheckpointRepository {
+
+    // ImageGenerationJob 의 @RedisHash 값
+    static final String KEYSPACE = "imageGenerationJob";
+
+    private static final RedisScript<Long> CHECKPOINT_PREVIEW_SCRIPT = createScript("scripts/checkpoint-preview.lua");
+    private static final RedisScript<Long> CLAIM_RUN_SCRIPT = createScript("scripts/claim-job-run.lua");
+    private static final RedisScript<Long> RELEASE_RUN_SCRIPT = createScript("scripts/release-job-run.lua");
+    private static final RedisScript<Long> RETRY_SCRIPT = createScript("scripts/retry-job.lua");
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+
+    @Override
+    public boolean checkpointPreview(String jobId, String previewUrl) {
+        Long result = stringRedisTemplate.execute(
+                CHECKPOINT_PREVIEW_SCRIPT,
+                List.of(KEYSPACE + ":" + jobId),
+                ImageJobStatus.IMAGE_REQUESTED.name(),
+                ImageJobStatus.PREVIEW_READY.name(),
+                previewUrl
+        );
+        return Long.valueOf(1).equals(result);
+    }
+
+
+    @Override
+    public boolean claimRun(String jobId, String runToken, long leaseMillis) {
+        Long result = stringRedisTemplate.execute(
+                CLAIM_RUN_SCRIPT,
+                List.of(KEYSPACE + ":" + jobId),
+                runToken,
+                String.valueOf(leaseMillis),
+                ImageJobStatus.COMPLETED.name(),
+                ImageJobStatus.FAILED.name()
+        );
+        return Long.valueOf(1).equals(result);
+    }
+
+
+    @Override
+    public void releaseRun(String jobId, String runToken) {
+        stringRedisTemplate.execute(RELEASE_RUN_SCRIPT, List.of(KEYSPACE + ":" + jobId), runToken);
+    }
+
+
+    @Override
+    public boolean retry(String jobId, Long deadlineAt) {
+        Long result = stringRedisTemplate.execute(
+                RETRY_SCRIPT,
+                List.of(KEYSPACE + ":" + jobId),
+                ImageJobStatus.FAILED.name(),
+                ImageJobStatus.PENDING.name(),
+                ImageJobStatus.PROMPT_BUILT.name(),
+                deadlineAt == null ? "" : String.valueOf(deadlineAt)
+        );
+        return Long.valueOf(1).equals(result);
+    }
+
+
+    private static RedisScript<Long> createScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
@@ -0,0 +1,7 @@
+package com.infreej.moment_canvas.domain.diary.repository;
+
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import org.springframework.data.repository.CrudRepository;
+
+public interface ImageGenerationJobRepository extends CrudRepository<ImageGenerationJob, String>, ImageGenerationJobCheckpointRepository {
+}
@@ -0,0 +1,114 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.diary.entity.DiaryImageCandidate;
+import com.infreej.moment_canvas.domain.diary.event.DiaryDeletedEvent;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryImageCandidateRepository;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryRepository;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 일기 이미지 후보 파일 정리
+ * - 보관 기간이 지난 후보를 삭제하고, 생성 시점에 저장소에 저장해 둔 후보 이미지 중 일기의 이미지로 선택되지 않은 파일도 함께 삭제한다.
+ * - 저장소 삭제는 후보 삭제가 커밋된 뒤에 한다. (삭제 중에 DB 커넥션을 잡지 않고, 롤백되면 파일을 지우지 않는다.)
+ * - 저장소에 저장했지만 작업이 실패하거나 서버가 종료되어 후보로 보관되지 못한 파일도 삭제한다. (StoredCandidateImageTracker)
+ * - 일기가 영구 삭제되어 함께 삭제된 후보의 파일도 커밋 후 삭제한다.
+ * - 파일 삭제에 실패하면 로그만 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryImageCandidateCleaner {
+
+    private final DiaryImageCandidateRepository diaryImageCandidateRepository;
+    private final DiaryRepository diaryRepository;
+    private final ImageService imageService;
+    private final StoredCandidateImageTracker storedCandidateImageTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.image-candidate.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${app.image-candidate.orphan-grace-minutes:10}")
+    private long orphanGraceMinutes; // 저장 후 이 시간이 지나도 후보로 보관되지 않은 파일은 실패한 작업의 파일로 본다.
+
+
+    @Scheduled(fixedDelayString = "${app.image-candidate.cleanup-interval-millis:600000}")
+    public void deleteExpiredCandidates() {
+
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+
+        // 후보 삭제 (선택되지 않은 후보의 파일명만 모아 둔다.)
+        List<String> unselectedImageNames = transactionTemplate.execute(status -> {
+            List<String> savedImageNames = diaryImageCandidateRepository.findAllStoredCreatedBefore(threshold).stream()
+                    .filter(candidate -> !candidate.getSavedImageName().equals(candidate.getDiary().getSavedDiaryImageName()))
+                    .map(DiaryImageCandidate::getSavedImageName)
+                    .toList();
+
+            int deleted = diaryImageCandidateRepository.deleteAllCreatedBefore(threshold);
+            if (deleted > 0) {
+                log.info("보관 기간이 지난 일기 이미지 후보 삭제. count: {}", deleted);
+            }
+            return savedImageNames;
+        });
+
+        // 커밋 후 파일 삭제
+        deleteFiles(unselectedImageNames);
+
+        deleteOrphanedFiles();
+    }
+
+
+    /**
+     * 일기 영구 삭제가 커밋된 뒤 함께 삭제된 후보의 파일을 삭제한다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDiaryDeleted(DiaryDeletedEvent event) {
+        deleteFiles(event.candidateImageNames());
+    }
+
+
+    // 후보로 보관되지 못한 파일 삭제 (후보나 일기 이미지로 사용 중인 파일은 등록만 해제한다.)
+    private void deleteOrphanedFiles() {
+
+        List<String> trackedImageNames = storedCandidateImageTracker.findTrackedBefore(System.currentTimeMillis() - orphanGraceMinutes * 60_000);
+        if (trackedImageNames.isEmpty()) {
+            return;
+        }
+
+        Set<String> orphanedImageNames = new HashSet<>(trackedImageNames);
+        diaryImageCandidateRepository.findAllSavedImageNamesIn(trackedImageNames).forEach(orphanedImageNames::remove);
+        diaryRepository.findAllSavedDiaryImageNamesIn(trackedImageNames).forEach(orphanedImageNames::remove);
+
+        if (!orphanedImageNames.isEmpty()) {
+            log.info("후보로 보관되지 못한 이미지 파일 삭제. count: {}", orphanedImageNames.size());
+        }
+        deleteFiles(orphanedImageNames);
+        storedCandidateImageTracker.untrack(trackedImageNames);
+    }
+
+
+    private void deleteFiles(Iterable<String> savedImageNames) {
+        for (String savedImageName : savedImageNames) {
+            try {
+                imageService.deleteImage(savedImageName, ImageType.Diary);
+            } catch (IOException | RuntimeException e) {
+                log.warn("이미지 후보 파일 삭제 실패. savedImageName: {}, message: {}", savedImageName, e.getMessage());
+            }
+        }
+    }
+}
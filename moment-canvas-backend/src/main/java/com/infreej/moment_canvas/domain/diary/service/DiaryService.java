@@ -1,11 +1,15 @@
 package com.infreej.moment_canvas.domain.diary.service;
 
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryCreateRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryUpdateRequest;
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.diary.dto.response.DiaryImageCandidateResponse;
 import com.infreej.moment_canvas.domain.diary.dto.response.DiaryResponse;
 import com.infreej.moment_canvas.domain.diary.dto.response.DiarySummaryResponse;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageDownloadRequest;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
 import com.infreej.moment_canvas.global.entity.YesOrNo;
 
 import java.io.IOException;
@@ -26,7 +30,11 @@ public interface DiaryService {
 
     public void recover(long userId, long diaryId);
 
-    public String generateDiaryImage(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest);
+    public ImageGenerationRequest createImageGenerationRequest(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest);
+
+    public List<Long> saveImageCandidates(long userId, long diaryId, String jobId, List<String> imageUrls, List<ImageProvider> providers, List<ImageSaveRequest> storedImages);
+
+    public List<DiaryImageCandidateResponse> findImageCandidates(long userId, long diaryId);
 
     public DiaryResponse diaryImageSave(long userId, long diaryId, ImageDownloadRequest imageDownloadRequest) throws IOException;
 
@@ -1,14 +1,24 @@
 package com.infreej.moment_canvas.domain.diary.service;
 
-import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
-import com.infreej.moment_canvas.domain.ai.service.AiService;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.dto.PromptTemplateInput;
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.ai.service.ImagePromptCache;
+import com.infreej.moment_canvas.domain.ai.service.PromptSafetyFilter;
+import com.infreej.moment_canvas.domain.ai.service.TemplatePromptCompiler;
 import com.infreej.moment_canvas.domain.diary.dto.projection.DiaryContent;
 import com.infreej.moment_canvas.domain.diary.dto.projection.DiarySummary;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryCreateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
 import com.infreej.moment_canvas.domain.diary.dto.request.DiaryUpdateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.response.DiaryImageCandidateResponse;
 import com.infreej.moment_canvas.domain.diary.dto.response.DiaryResponse;
 import com.infreej.moment_canvas.domain.diary.dto.response.DiarySummaryResponse;
 import com.infreej.moment_canvas.domain.diary.entity.Diary;
+import com.infreej.moment_canvas.domain.diary.entity.DiaryImageCandidate;
+import com.infreej.moment_canvas.domain.diary.event.DiaryContentChangedEvent;
+import com.infreej.moment_canvas.domain.diary.event.DiaryDeletedEvent;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryImageCandidateRepository;
 import com.infreej.moment_canvas.domain.diary.repository.DiaryRepository;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageDownloadRequest;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
@@ -19,15 +29,21 @@ import com.infreej.moment_canvas.domain.user.repository.UserRepository;
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.entity.YesOrNo;
 import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.Deadline;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,14 +53,24 @@ import java.util.stream.Collectors;
 public class DiaryServiceImpl implements DiaryService{
 
     private final DiaryRepository diaryRepository;
+    private final DiaryImageCandidateRepository diaryImageCandidateRepository;
     private final UserRepository userRepository;
     private final ImageService imageService;
-    private final AiService aiService;
+    private final ImagePromptCache imagePromptCache;
+    private final PromptSafetyFilter promptSafetyFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
 
     @Value("${diary.image.persona}")
     private String imageSystemPersona;
 
+    @Value("${app.image-candidate.retention-minutes:60}")
+    private long candidateRetentionMinutes;
+
+    @Value("${app.image-candidate.allow-client-url:true}")
+    private boolean allowClientImageUrl; // candidateId 없이 클라이언트가 보낸 이미지 URL 저장 허용 여부
+
     /**
      * 일기 저장
      * @param diaryCreateRequest DiaryCreateRequest
@@ -63,10 +89,13 @@ public class DiaryServiceImpl implements DiaryService{
             throw new BusinessException(ErrorCode.DIARY_DUPLICATE);
         }
 
-        // 유저를 넣고 Entity로 변환
-        Diary diary = diaryCreateRequest.toEntity(user);
+        // 유저를 넣고 Entity로 변환 후 저장
+        Diary diary = diaryRepository.save(diaryCreateRequest.toEntity(user));
 
-        return DiaryResponse.from(diaryRepository.save(diary));
+        // 커밋 후 이미지 프롬프트 미리 생성 (설정 시)
+        applicationEventPublisher.publishEvent(new DiaryContentChangedEvent(userId, diary.getDiaryId()));
+
+        return DiaryResponse.from(diary);
     }
 
 
@@ -133,6 +162,10 @@ public class DiaryServiceImpl implements DiaryService{
                 diaryUpdateRequest.getTargetDate()
         );
 
+        // 내용이 바뀌었으므로 이전에 생성된 이미지 프롬프트 캐시 무효화
+        imagePromptCache.invalidateDiary(diary.getDiaryId());
+        applicationEventPublisher.publishEvent(new DiaryContentChangedEvent(userId, diary.getDiaryId()));
+
         return DiaryResponse.from(diary);
     }
 
@@ -152,8 +185,10 @@ public class DiaryServiceImpl implements DiaryService{
                 .orElseThrow(() -> new BusinessException(ErrorCode.DIARY_NOT_FOUND));
         
         if(diary.getIsDeleted().equals(YesOrNo.Y)) {
-            // 이미 논리 삭제 상태라면 영구 삭제
+            // 이미 논리 삭제 상태라면 영구 삭제 (이미지 후보는 DB 에서 함께 삭제되므로 파일은 커밋 후 삭제)
+            List<String> candidateImageNames = diaryImageCandidateRepository.findAllSavedImageNamesByDiaryId(diaryId);
             diaryRepository.delete(diary);
+            applicationEventPublisher.publishEvent(new DiaryDeletedEvent(diaryId, candidateImageNames));
         } else {
             // 논리 삭제 상태가 아니라면 논리 삭제
             diary.updateDiaryDeleted();
@@ -180,14 +215,15 @@ public class DiaryServiceImpl implements DiaryService{
 
 
     /**
-     * 일기 이미지 생성 메서드
-     * - DB를 조회하고 이미지 생성 메서드를 호출한다
+     * 프롬프트 AI 에게 전달할 요청 생성 메서드 (이미지 생성 파이프라인의 첫 단계 입력)
+     * - 유저 특징과 일기 내용을 조회해 템플릿에 채우고, 같은 입력에 대한 프롬프트 캐시 키를 만든다.
+     * - 외부 호출 전에 일기 내용과 추가 요청사항을 로컬 안전 필터로 검사한다. (금지어가 있다면 거절하거나 가린다.)
+     * - 이후 LLM, 이미지 생성 API 호출은 1분 이상 걸릴 수 있으므로 트랜잭션을 걸지 않는다. (조회는 각각 짧은 읽기 트랜잭션으로 끝난다.)
      * @param diaryImageGenerateRequest PK 및 사용자가 입력한 이미지 스타일, 추가 요청사항
-     * @return generateImage를 통해 반환된 이미지 URL
+     * @return 프롬프트 AI 의 인격, 요청 내용, 프롬프트 캐시 키, 권한, 템플릿 프롬프트 입력값
      */
     @Override
-    @Transactional
-    public String generateDiaryImage(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest) {
+    public ImageGenerationRequest createImageGenerationRequest(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest) {
 
         // 유저 특징 조회
         UserCharacteristic userCharacteristic = userRepository.findByUserId(userId)
@@ -198,8 +234,14 @@ public class DiaryServiceImpl implements DiaryService{
         DiaryContent diaryContent = diaryRepository.findDiaryContentByDiaryIdAndUser_UserId(diaryImageGenerateRequest.getDiaryId(), userId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.DIARY_NOT_FOUND));
 
-        // prompt 생성 AI의 persona
-        String systemPersona = imageSystemPersona;
+        // 스타일은 이미지 생성 화면의 목록에 있는 값만 허용
+        TemplatePromptCompiler.checkStyle(diaryImageGenerateRequest.getStyle());
+
+        // 로컬 안전 필터 (유료 LLM, 이미지 생성 API 호출 전)
+        String title = promptSafetyFilter.screenContent(diaryContent.getTitle());
+        String content = promptSafetyFilter.screenContent(diaryContent.getContent());
+        String style = promptSafetyFilter.screenOption(diaryImageGenerateRequest.getStyle());
+        String option = promptSafetyFilter.screenOption(diaryImageGenerateRequest.getOption());
 
         String userRequestTemplate = """
                 아래 정보를 바탕으로 이미지 생성 프롬프트를 만들어 주세요.
@@ -216,45 +258,166 @@ public class DiaryServiceImpl implements DiaryService{
         String userRequest = String.format(
                 userRequestTemplate, // 템플릿
                 // 일기 정보 (DB에서 조회)
-                diaryContent.getTitle(),
-                diaryContent.getContent(),
+                title,
+                content,
                 diaryContent.getMood(),
                 // 이미지 생성 정보 (클라이언트로 부터 Request로 받음)
-                diaryImageGenerateRequest.getStyle(),
-                diaryImageGenerateRequest.getOption(),
+                style,
+                option,
                 // 사용자 정보 (DB에서 조회)
                 userCharacteristic.getBirthday(),
                 userCharacteristic.getGender(),
                 userCharacteristic.getPersona()
         );
 
-        return aiService.generateImage(systemPersona, userRequest);
+        // 시스템 페르소나와 요청 내용이 같다면 같은 프롬프트를 재사용한다.
+        String promptCacheKey = imagePromptCache.createKey(userId, diaryImageGenerateRequest.getDiaryId(), imageSystemPersona + "\n" + userRequest);
+
+        return ImageGenerationRequest.builder()
+                .systemPersona(imageSystemPersona)
+                .userRequest(userRequest)
+                .promptCacheKey(promptCacheKey)
+                .role(userCharacteristic.getRole())
+                .promptMode(diaryImageGenerateRequest.getPromptMode())
+                // 템플릿 경로는 LLM 의 안전성 판정이 없으므로, 가리기 전의 원문을 넘겨 금지어가 있다면 거절되도록 한다.
+                .templateInput(PromptTemplateInput.builder()
+                        .title(diaryContent.getTitle())
+                        .content(diaryContent.getContent())
+                        .mood(diaryContent.getMood())
+                        .style(style)
+                        .option(diaryImageGenerateRequest.getOption())
+                        .birthday(userCharacteristic.getBirthday())
+                        .gender(userCharacteristic.getGender())
+                        .persona(userCharacteristic.getPersona())
+                        .build())
+                .build();
+    }
+
+
+    /**
+     * 이미지 생성 작업에서 만든 이미지 후보를 일기에 보관하는 메서드 (이미지 생성 작업의 저장 단계)
+     * @param jobId 이미지를 생성한 작업 ID
+     * @param imageUrls 생성된 이미지 URL 목록
+     * @param providers 이미지별 제공자 (imageUrls 와 같은 순서)
+     * @param storedImages 생성 시점에 저장소에 저장한 이미지 (imageUrls 와 같은 순서, 저장하지 않았거나 실패했다면 null)
+     * @return 저장된 후보 PK 목록 (imageUrls 와 같은 순서)
+     */
+    @Override
+    @Transactional
+    public List<Long> saveImageCandidates(long userId, long diaryId, String jobId, List<String> imageUrls, List<ImageProvider> providers, List<ImageSaveRequest> storedImages) {
+
+        Diary diary = diaryRepository.findByDiaryIdAndUser_UserId(diaryId, userId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.DIARY_NOT_FOUND));
+
+        List<DiaryImageCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < imageUrls.size(); i++) {
+            ImageSaveRequest storedImage = storedImages != null && i < storedImages.size() ? storedImages.get(i) : null;
+            candidates.add(DiaryImageCandidate.builder()
+                    .diary(diary)
+                    .jobId(jobId)
+                    .imageUrl(imageUrls.get(i))
+                    .provider(i < providers.size() ? providers.get(i) : null)
+                    .orgImageName(storedImage == null ? null : storedImage.getOrgImageName())
+                    .savedImageName(storedImage == null ? null : storedImage.getSavedImageName())
+                    .build());
+        }
+
+        return diaryImageCandidateRepository.saveAll(candidates).stream()
+                .map(DiaryImageCandidate::getCandidateId)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * 보관 기간 내의 일기 이미지 후보 목록 조회 (최신순)
+     * @param diaryId 일기 고유번호
+     * @return List<DiaryImageCandidateResponse>
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DiaryImageCandidateResponse> findImageCandidates(long userId, long diaryId) {
+
+        // 일치하지 않을 경우 403이 아닌 404를 응답하기 때문에 보안적으로 더 안전하다.
+        diaryRepository.findByDiaryIdAndUser_UserId(diaryId, userId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.DIARY_NOT_FOUND));
+
+        return diaryImageCandidateRepository.findAllByDiary_DiaryIdAndDiary_User_UserIdAndCreatedAtAfterOrderByCreatedAtDesc(diaryId, userId, candidateRetentionThreshold())
+                .stream()
+                .map(DiaryImageCandidateResponse::from)
+                .collect(Collectors.toList());
     }
 
 
     /**
      * 일기 이미지를 DB에 저장(업데이트)하는 메서드
      * - imageSaveRequest의 imageUrl과 imageType만 채워진 상태
+     * - candidateId 가 있다면 보관 중인 이미지 후보를 저장한다. (새로 생성하지 않고 이전 후보 중 하나를 선택)
+     * - 생성 시점에 저장소에 저장된 후보라면 다운로드 없이 선택만 반영한다.
+     * - 클라이언트가 보낸 imageUrl 은 app.image-candidate.allow-client-url 이 true 일 때만 받는다.
+     * - 이미지 다운로드(외부 호출) 중에는 커넥션을 잡지 않고, 다운로드가 끝난 뒤 짧은 쓰기 트랜잭션으로 반영한다.
      * @param diaryId 일기 고유번호
      * @param imageDownloadRequest 일기 저장에 필요한 데이터
      * @return DiaryResponse
      */
     @Override
-    @Transactional
     public DiaryResponse diaryImageSave(long userId, long diaryId, ImageDownloadRequest imageDownloadRequest) throws IOException {
 
-        // 일기 조회(현재 접속된 사용자의 일기 중 diaryId가 일치하는 것을 찾는다.)
+        // 일기 존재 여부 확인 (없는 일기라면 다운로드 전에 404)
         // 일치하지 않을 경우 403이 아닌 404를 응답하기 때문에 보안적으로 더 안전하다.
-        Diary diary = diaryRepository.findByDiaryIdAndUser_UserId(diaryId, userId)
+        diaryRepository.findByDiaryIdAndUser_UserId(diaryId, userId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.DIARY_NOT_FOUND));
 
-        // org, saved가 채워져서 반환된다.
-        ImageSaveRequest imageSaveRequest = imageService.downloadUrlImage(imageDownloadRequest);
+        // 이미지 후보를 선택한 경우 후보의 이미지 사용 (보관 기간이 지났거나 다른 일기의 후보라면 404)
+        ImageSaveRequest imageSaveRequest = null;
+        if (imageDownloadRequest.getCandidateId() != null) {
+            DiaryImageCandidate candidate = diaryImageCandidateRepository
+                    .findByCandidateIdAndDiary_DiaryIdAndDiary_User_UserIdAndCreatedAtAfter(imageDownloadRequest.getCandidateId(), diaryId, userId, candidateRetentionThreshold())
+                    .orElseThrow(() -> new BusinessException(ErrorCode.IMAGE_CANDIDATE_NOT_FOUND));
+
+            if (candidate.isStored()) {
+                imageSaveRequest = new ImageSaveRequest(candidate.getOrgImageName(), candidate.getSavedImageName());
+            } else {
+                imageDownloadRequest.setImageUrl(candidate.getImageUrl());
+            }
+        } else if (!allowClientImageUrl) {
+            throw new BusinessException(ErrorCode.IMAGE_CANDIDATE_REQUIRED);
+        }
 
-        // 일기 이미지 업데이트
-        diary.updateDiaryImage(imageSaveRequest.getOrgImageName(), imageSaveRequest.getSavedImageName());
+        // org, saved가 채워져서 반환된다. (요청의 처리 제한 시각이 지나면 다운로드를 중단한다.)
+        if (imageSaveRequest == null) {
+            imageSaveRequest = downloadImage(imageDownloadRequest);
+        }
+        ImageSaveRequest selectedImage = imageSaveRequest;
 
-        return DiaryResponse.from(diary);
+        // 일기 이미지 업데이트 (다운로드 중 변경되었을 수 있으므로 다시 조회한다.)
+        return transactionTemplate.execute(status -> {
+            Diary diary = diaryRepository.findByDiaryIdAndUser_UserId(diaryId, userId)
+                    .orElseThrow(() -> new BusinessException(ErrorCode.DIARY_NOT_FOUND));
+
+            diary.updateDiaryImage(selectedImage.getOrgImageName(), selectedImage.getSavedImageName());
+
+            return DiaryResponse.from(diary);
+        });
+    }
+
+
+    // 이미지 URL 다운로드 (요청의 처리 제한 시각이 지나면 중단)
+    private ImageSaveRequest downloadImage(ImageDownloadRequest imageDownloadRequest) throws IOException {
+
+        Deadline.check();
+        try {
+            return imageService.downloadUrlImage(imageDownloadRequest);
+        } catch (InterruptedIOException e) {
+            if (Deadline.current().map(Deadline::isExpired).orElse(false)) {
+                throw new BusinessException(ErrorCode.COMMON_DEADLINE_EXCEEDED);
+            }
+            throw e;
+        }
+    }
+
+    // 이 시각 이후에 만들어진 후보만 보관 중인 것으로 본다.
+    private LocalDateTime candidateRetentionThreshold() {
+        return LocalDateTime.now().minusMinutes(candidateRetentionMinutes);
     }
 
     @Override
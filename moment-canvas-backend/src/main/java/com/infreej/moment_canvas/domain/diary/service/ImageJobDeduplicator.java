@@ -0,0 +1,188 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 중복 이미지 생성 요청 제거 (Redis)
+ * - 같은 유저가 같은 일기, 스타일, 추가 요청사항, 이미지 옵션으로 생성 중인 작업이 있다면 새 작업을 만들지 않고 그 작업을 함께 사용한다. (single-flight)
+ * - Idempotency-Key 헤더가 같은 요청은 일정 시간 동안 처음 접수된 작업을 그대로 돌려준다. (완료된 결과 재사용)
+ * - 여러 서버가 같은 키를 보므로 서버가 달라도 중복 요청이 하나로 합쳐진다.
+ * - Redis 장애 시에는 중복 제거 없이 새 작업을 만든다.
+ */
+@Slf4j
+@Component
+public class ImageJobDeduplicator {
+
+    private static final String IN_FLIGHT_KEY_PREFIX = "imageJob:inFlight:";
+    private static final String IDEMPOTENCY_KEY_PREFIX = "imageJob:idempotency:";
+
+    private static final RedisScript<Long> COMPARE_AND_DELETE_SCRIPT = createScript();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Counter inFlightCounter;
+    private final Counter idempotencyCounter;
+
+    @Value("${app.image-job.in-flight-ttl-seconds:600}")
+    private long inFlightTtlSeconds;
+
+    @Value("${app.image-job.idempotency-ttl-seconds:3600}")
+    private long idempotencyTtlSeconds;
+
+    public ImageJobDeduplicator(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.inFlightCounter = Counter.builder("image.job.deduplicated").tag("reason", "in-flight")
+                .description("진행 중인 같은 작업으로 합쳐진 요청 수").register(meterRegistry);
+        this.idempotencyCounter = Counter.builder("image.job.deduplicated").tag("reason", "idempotency-key")
+                .description("Idempotency-Key 로 재사용된 요청 수").register(meterRegistry);
+    }
+
+
+    /**
+     * 새 작업 ID 로 요청을 선점하는 메서드
+     * @param userId 유저 PK
+     * @param diaryImageGenerateRequest 이미지 생성 요청
+     * @param idempotencyKey Idempotency-Key 헤더 값 (없으면 null)
+     * @param jobId 새로 만들 작업 ID
+     * @return 선점에 성공했다면 jobId, 같은 요청의 작업이 이미 있다면 그 작업의 ID
+     */
+    public String claim(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey, String jobId) {
+
+        try {
+            Duration idempotencyTtl = Duration.ofSeconds(idempotencyTtlSeconds);
+
+            // 1. 같은 Idempotency-Key 로 접수된 작업
+            String idempotencyRedisKey = idempotencyKey(userId, idempotencyKey);
+            if (idempotencyRedisKey != null
+                    && !Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(idempotencyRedisKey, jobId, idempotencyTtl))) {
+                String existingJobId = stringRedisTemplate.opsForValue().get(idempotencyRedisKey);
+                if (existingJobId != null) {
+                    idempotencyCounter.increment();
+                    return existingJobId;
+                }
+            }
+
+            // 2. 진행 중인 같은 요청의 작업
+            String inFlightRedisKey = inFlightKey(userId, diaryImageGenerateRequest);
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(inFlightRedisKey, jobId, Duration.ofSeconds(inFlightTtlSeconds)))) {
+                String existingJobId = stringRedisTemplate.opsForValue().get(inFlightRedisKey);
+                if (existingJobId != null) {
+                    // Idempotency-Key 도 진행 중인 작업을 가리키도록 변경
+                    if (idempotencyRedisKey != null) {
+                        stringRedisTemplate.opsForValue().set(idempotencyRedisKey, existingJobId, idempotencyTtl);
+                    }
+                    inFlightCounter.increment();
+                    return existingJobId;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("이미지 생성 중복 요청 확인 실패. 새 작업으로 진행합니다. message: {}", e.getMessage());
+        }
+
+        return jobId;
+    }
+
+
+    /**
+     * 같은 Idempotency-Key 로 접수되었거나 진행 중인 같은 요청의 작업 ID 를 조회하는 메서드 (키를 선점하지 않는다.)
+     * - 요청 횟수 제한 차감 전에 기존 작업을 돌려줄 요청인지 확인하는 데 사용한다.
+     * @return 기존 작업 ID (없거나 Redis 장애라면 empty)
+     */
+    public Optional<String> find(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey) {
+
+        try {
+            String idempotencyRedisKey = idempotencyKey(userId, idempotencyKey);
+            String existingJobId = idempotencyRedisKey == null ? null : stringRedisTemplate.opsForValue().get(idempotencyRedisKey);
+            if (existingJobId == null) {
+                existingJobId = stringRedisTemplate.opsForValue().get(inFlightKey(userId, diaryImageGenerateRequest));
+            }
+            return Optional.ofNullable(existingJobId);
+        } catch (Exception e) {
+            log.warn("이미지 생성 중복 요청 조회 실패. message: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * 키가 만료된 작업을 가리키는 경우 새 작업 ID 로 덮어쓰는 메서드
+     */
+    public void reassign(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey, String jobId) {
+
+        try {
+            String idempotencyRedisKey = idempotencyKey(userId, idempotencyKey);
+            if (idempotencyRedisKey != null) {
+                stringRedisTemplate.opsForValue().set(idempotencyRedisKey, jobId, Duration.ofSeconds(idempotencyTtlSeconds));
+            }
+            String inFlightRedisKey = inFlightKey(userId, diaryImageGenerateRequest);
+            stringRedisTemplate.opsForValue().set(inFlightRedisKey, jobId, Duration.ofSeconds(inFlightTtlSeconds));
+        } catch (Exception e) {
+            log.warn("이미지 생성 중복 요청 키 변경 실패. jobId: {}, message: {}", jobId, e.getMessage());
+        }
+    }
+
+
+    /**
+     * 작업이 끝나면 진행 중 표시를 해제하는 메서드
+     * - 이후 같은 내용의 요청은 새 이미지를 생성한다. (Idempotency-Key 는 만료될 때까지 유지)
+     */
+    public void release(ImageGenerationJob job) {
+
+        try {
+            String inFlightRedisKey = inFlightKey(job.getUserId(), job.toGenerateRequest());
+            stringRedisTemplate.execute(COMPARE_AND_DELETE_SCRIPT, List.of(inFlightRedisKey), job.getJobId());
+        } catch (Exception e) {
+            log.warn("이미지 생성 진행 중 표시 해제 실패. jobId: {}, message: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+
+    private String inFlightKey(Long userId, DiaryImageGenerateRequest diaryImageGenerateRequest) {
+        return IN_FLIGHT_KEY_PREFIX + userId + ":" + diaryImageGenerateRequest.getDiaryId() + ":" + sha256(diaryImageGenerateRequest.fingerprint());
+    }
+
+
+    // 헤더 값의 길이에 상관없이 키 길이를 일정하게 유지하기 위해 해시한다.
+    private String idempotencyKey(long userId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        return IDEMPOTENCY_KEY_PREFIX + userId + ":" + sha256(idempotencyKey);
+    }
+
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static RedisScript<Long> createScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/compare-and-delete.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
@@ -0,0 +1,80 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 이미지 생성 작업 큐 (Redis Streams)
+ * - 접수된 작업은 jobId 만 스트림에 기록되고, 작업 소비자(ImageJobWorker)가 consumer group 으로 나누어 처리한다.
+ * - 스트림은 Redis 에 남으므로 웹 서버가 재배포되어도 접수된 작업은 사라지지 않는다.
+ * - 여러 번 실패한 작업은 dead letter 스트림에 기록한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageJobQueue {
+
+    public static final String STREAM_KEY = "imageJob:stream";
+    public static final String DEAD_LETTER_KEY = "imageJob:dead";
+    public static final String CONSUMER_GROUP = "image-workers";
+    public static final String JOB_ID_FIELD = "jobId";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.image-job.queue.max-length:100000}")
+    private long maxLength;
+
+    @Value("${app.image-job.queue.dead-letter-max-length:10000}")
+    private long deadLetterMaxLength;
+
+
+    /**
+     * 작업을 큐에 넣는 메서드
+     * - Redis 에 기록하지 못하면 예외가 그대로 전달된다. (호출한 쪽에서 작업을 실패 처리)
+     * @return 스트림 레코드 ID
+     */
+    public RecordId enqueue(String jobId) {
+
+        RecordId recordId = stringRedisTemplate.opsForStream().add(
+                StreamRecords.newRecord()
+                        .in(STREAM_KEY)
+                        .ofMap(Map.of(JOB_ID_FIELD, jobId))
+        );
+
+        // 처리가 끝난 레코드도 스트림에 남으므로 길이를 제한한다. (대략적인 길이로 잘라 비용을 줄인다.)
+        stringRedisTemplate.opsForStream().trim(STREAM_KEY, maxLength, true);
+
+        log.debug("이미지 생성 작업 큐 등록. jobId: {}, recordId: {}", jobId, recordId);
+        return recordId;
+    }
+
+
+    /**
+     * 실패한 작업을 dead letter 스트림에 기록하는 메서드 (운영 확인 용도)
+     * @param reason 실패 이유 (에러 코드 또는 재전달 횟수 초과)
+     * @param deliveryCount 작업이 소비자에게 전달된 횟수
+     */
+    public void deadLetter(String jobId, String reason, long deliveryCount) {
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(JOB_ID_FIELD, jobId == null ? "" : jobId);
+        fields.put("reason", reason);
+        fields.put("deliveryCount", String.valueOf(deliveryCount));
+        fields.put("failedAt", String.valueOf(System.currentTimeMillis()));
+
+        try {
+            stringRedisTemplate.opsForStream().add(StreamRecords.newRecord().in(DEAD_LETTER_KEY).ofMap(fields));
+            stringRedisTemplate.opsForStream().trim(DEAD_LETTER_KEY, deadLetterMaxLength, true);
+        } catch (Exception e) {
+            log.warn("dead letter 기록 실패. jobId: {}, reason: {}, message: {}", jobId, reason, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.response.ImageJobResponse;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ImageJobService {
+
+    public ImageJobResponse submit(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey);
+
+    public boolean isDuplicate(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey);
+
+    public ImageJobResponse findJob(long userId, String jobId);
+
+    public SseEmitter subscribe(long userId, String jobId);
+
+    public ImageJobResponse retry(long userId, String jobId);
+
+    public int retryRenderCount(long userId, String jobId);
+
+    public void runJob(String jobId);
+
+    public void renewRunLeases();
+
+    public void failJob(String jobId, ErrorCode errorCode);
+
+    public boolean completePrediction(String predictionId, String imageUrl);
+
+    public boolean failPrediction(String predictionId, ErrorCode errorCode);
+}
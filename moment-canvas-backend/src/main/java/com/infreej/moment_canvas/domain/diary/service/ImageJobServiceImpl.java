@@ -0,0 +1,724 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationResult;
+import com.infreej.moment_canvas.domain.ai.dto.ImageRenderOptions;
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.ai.repository.ReplicatePredictionRepository;
+import com.infreej.moment_canvas.domain.ai.service.AiService;
+import com.infreej.moment_canvas.domain.ai.service.PromptSafetyFilter;
+import com.infreej.moment_canvas.domain.ai.service.ReplicatePredictionService;
+import com.infreej.moment_canvas.domain.ai.service.TemplatePromptCompiler;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.response.ImageJobResponse;
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import com.infreej.moment_canvas.domain.diary.entity.ImageJobStatus;
+import com.infreej.moment_canvas.domain.diary.repository.ImageGenerationJobRepository;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageDownloadRequest;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.domain.user.entity.Role;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.Deadline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageJobServiceImpl implements ImageJobService {
+
+    private final DiaryService diaryService;
+    private final AiService aiService;
+    private final PromptSafetyFilter promptSafetyFilter;
+    private final ImageJobDeduplicator imageJobDeduplicator;
+    private final ImageGenerationJobRepository imageGenerationJobRepository;
+    private final ReplicatePredictionRepository replicatePredictionRepository;
+    private final ObjectProvider<ReplicatePredictionService> replicatePredictionServiceProvider;
+    private final ImageJobQueue imageJobQueue;
+    private final ImageService imageService;
+    private final StoredCandidateImageTracker storedCandidateImageTracker;
+
+    @Qualifier("imageRenderExecutor")
+    private final ThreadPoolTaskExecutor imageRenderExecutor;
+
+    // 이 서버에 연결된 SSE 구독자 목록 (jobId -> emitters)
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    // 구독자에게 마지막으로 전송한 진행 단계 (중복 전송 방지)
+    private final Map<String, ImageJobStatus> lastSentStatus = new ConcurrentHashMap<>();
+
+    // 이 서버에서 실행 중인 작업의 실행 토큰 (jobId -> runToken, 실행권 연장 대상)
+    private final Map<String, String> runTokens = new ConcurrentHashMap<>();
+
+    @Value("${app.image-job.sse-timeout-millis:180000}")
+    private long sseTimeoutMillis;
+
+    @Value("${app.image-candidate.persist-on-generate:true}")
+    private boolean persistOnGenerate; // 저장 단계에서 후보 이미지를 저장소에 미리 저장할지 여부
+
+    @Value("${app.image-job.queue.consumer.claim-idle-millis:90000}")
+    private long claimIdleMillis;
+
+    @Value("${app.image-job.queue.consumer.claim-interval-millis:30000}")
+    private long claimIntervalMillis;
+
+
+    /**
+     * 이미지 생성 작업 접수 메서드
+     * - 작업을 저장하고 작업 큐(Redis Streams)에 넣은 뒤 즉시 jobId를 반환한다. 실제 생성은 작업 소비자(ImageJobWorker)가 진행한다.
+     * - 같은 요청의 작업이 진행 중이거나, 같은 Idempotency-Key 로 접수된 작업이 있다면 새 작업을 만들지 않고 그 작업을 반환한다.
+     * - 작업을 먼저 저장한 뒤 중복 요청 키를 선점한다. 키가 가리키는 작업은 항상 조회할 수 있으므로,
+     *   동시에 들어온 같은 요청이 작업을 찾지 못해 두 번째 (유료) 생성을 시작하지 않는다.
+     * @param diaryImageGenerateRequest PK 및 사용자가 입력한 이미지 스타일, 추가 요청사항
+     * @param idempotencyKey Idempotency-Key 헤더 값 (없으면 null)
+     * @return 접수된 작업 정보
+     */
+    @Override
+    public ImageJobResponse submit(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey) {
+
+        // 사용자가 입력한 스타일, 추가 요청사항은 작업 접수 전에 검사 (목록에 없는 스타일, 거절 설정 시 바로 400)
+        TemplatePromptCompiler.checkStyle(diaryImageGenerateRequest.getStyle());
+        promptSafetyFilter.screenOption(diaryImageGenerateRequest.getStyle());
+        promptSafetyFilter.screenOption(diaryImageGenerateRequest.getOption());
+
+        String jobId = UUID.randomUUID().toString();
+        ImageGenerationJob job = ImageGenerationJob.builder()
+                .jobId(jobId)
+                .userId(userId)
+                .diaryId(diaryImageGenerateRequest.getDiaryId())
+                .status(ImageJobStatus.PENDING)
+                .style(diaryImageGenerateRequest.getStyle())
+                .option(diaryImageGenerateRequest.getOption())
+                .aspectRatio(diaryImageGenerateRequest.getAspectRatio())
+                .quality(diaryImageGenerateRequest.getQuality())
+                .size(diaryImageGenerateRequest.getSize())
+                .progressive(diaryImageGenerateRequest.isProgressive())
+                .candidateCount(diaryImageGenerateRequest.resolveCandidateCount())
+                .promptMode(diaryImageGenerateRequest.getPromptMode())
+                .deadlineAt(currentDeadlineAt())
+                .build();
+        imageGenerationJobRepository.save(job); // 큐에 넣기 전까지는 실행되지 않는다.
+
+        // 중복 요청 확인
+        String claimedJobId = imageJobDeduplicator.claim(userId, diaryImageGenerateRequest, idempotencyKey, jobId);
+        if (!claimedJobId.equals(jobId)) {
+            ImageGenerationJob existingJob = imageGenerationJobRepository.findById(claimedJobId).orElse(null);
+            if (existingJob != null && existingJob.getUserId() != null && existingJob.getUserId() == userId) {
+                // 선점하지 못한 작업은 큐에 넣지 않고 삭제
+                imageGenerationJobRepository.deleteById(jobId);
+
+                // 같은 Idempotency-Key 로 다른 내용을 요청한 경우
+                if (!existingJob.isSameRequest(diaryImageGenerateRequest)) {
+                    throw new BusinessException(ErrorCode.IMAGE_IDEMPOTENCY_KEY_MISMATCH);
+                }
+                log.info("같은 요청의 작업을 재사용합니다. jobId: {}, status: {}", claimedJobId, existingJob.getStatus());
+                return ImageJobResponse.from(existingJob);
+            }
+
+            // 키가 만료된 작업을 가리키는 경우 새 작업으로 교체
+            imageJobDeduplicator.reassign(userId, diaryImageGenerateRequest, idempotencyKey, jobId);
+        }
+
+        try {
+            imageJobQueue.enqueue(job.getJobId());
+        } catch (RuntimeException e) {
+            // 작업 큐에 기록하지 못한 경우 (Redis 장애)
+            log.warn("이미지 생성 작업을 큐에 넣지 못했습니다. jobId: {}, message: {}", job.getJobId(), e.getMessage());
+            job.fail(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR.getCode());
+            imageGenerationJobRepository.save(job);
+            imageJobDeduplicator.release(job);
+            throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+        }
+
+        log.info("이미지 생성 작업 접수. jobId: {}, diaryId: {}", job.getJobId(), job.getDiaryId());
+        return ImageJobResponse.from(job);
+    }
+
+
+    /**
+     * 기존 작업을 돌려줄 요청인지 여부 (접수 요청의 요청 횟수 제한 차감 전 확인)
+     * - 같은 Idempotency-Key 로 접수되었거나 진행 중인 같은 요청의 작업이 있다면, 접수 요청은 새 이미지를 생성하지 않으므로 토큰을 사용하지 않는다.
+     */
+    @Override
+    public boolean isDuplicate(long userId, DiaryImageGenerateRequest diaryImageGenerateRequest, String idempotencyKey) {
+
+        return imageJobDeduplicator.find(userId, diaryImageGenerateRequest, idempotencyKey)
+                .flatMap(imageGenerationJobRepository::findById)
+                .filter(job -> job.getUserId() != null && job.getUserId() == userId)
+                .isPresent();
+    }
+
+
+    /**
+     * 이미지 생성 작업 상태 조회
+     * - 다른 유저의 작업이라면 403이 아닌 404를 응답한다.
+     */
+    @Override
+    public ImageJobResponse findJob(long userId, String jobId) {
+        return ImageJobResponse.from(findOwnedJob(userId, jobId));
+    }
+
+
+    /**
+     * 이미지 생성 작업 진행 상황 구독 (Server-Sent Events)
+     * - 구독 즉시 현재 상태를 한 번 전송하고, 이후 단계가 바뀔 때마다 전송한다.
+     */
+    @Override
+    public SseEmitter subscribe(long userId, String jobId) {
+
+        ImageGenerationJob job = findOwnedJob(userId, jobId);
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+
+        // 이미 끝난 작업이라면 결과만 보내고 종료
+        if (job.getStatus().isTerminal()) {
+            sendEvent(emitter, job);
+            emitter.complete();
+            return emitter;
+        }
+
+        // 마지막 구독자가 끊기면서 목록을 지우는 것과 겹치지 않도록 목록 생성과 추가를 한 번에 처리한다.
+        emitters.compute(jobId, (key, subscribers) -> {
+            List<SseEmitter> list = subscribers == null ? new CopyOnWriteArrayList<>() : subscribers;
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> removeEmitter(jobId, emitter));
+        emitter.onTimeout(() -> removeEmitter(jobId, emitter));
+        emitter.onError(e -> removeEmitter(jobId, emitter));
+
+        sendEvent(emitter, job);
+        return emitter;
+    }
+
+
+    /**
+     * 실패한 이미지 생성 작업 재시도
+     * - 체크포인트(프롬프트, 이미지 URL)가 있다면 해당 단계는 건너뛰고, 실패한 단계부터 다시 진행한다.
+     * - 실패 상태 확인과 대기 상태 변경을 한 번에 처리하고, 변경에 성공한 요청만 큐에 넣는다. (동시에 들어온 재시도는 한 번만 실행)
+     */
+    @Override
+    public ImageJobResponse retry(long userId, String jobId) {
+
+        ImageGenerationJob job = findOwnedJob(userId, jobId);
+        if (job.getStatus() != ImageJobStatus.FAILED || !imageGenerationJobRepository.retry(jobId, currentDeadlineAt())) {
+            throw new BusinessException(ErrorCode.IMAGE_JOB_NOT_RETRYABLE);
+        }
+
+        try {
+            imageJobQueue.enqueue(jobId);
+        } catch (RuntimeException e) {
+            log.warn("이미지 생성 작업을 큐에 넣지 못했습니다. jobId: {}, message: {}", jobId, e.getMessage());
+            failQuietly(jobId, ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+            throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+        }
+
+        ImageGenerationJob retriedJob = findOwnedJob(userId, jobId);
+        log.info("이미지 생성 작업 재시도 접수. jobId: {}, 프롬프트 체크포인트: {}, 이미지 체크포인트: {}", jobId, retriedJob.hasPrompt(), retriedJob.hasImage());
+        return ImageJobResponse.from(retriedJob);
+    }
+
+
+    /**
+     * 재시도로 다시 생성할 이미지 수 (재시도 요청의 요청 횟수 제한 차감용)
+     * - 이미지 체크포인트가 있다면 저장 단계만 다시 진행하므로 1, 없다면 후보 개수
+     * - 작업이 없거나 다른 사용자의 작업이라면 1 (재시도 요청에서 404 로 처리된다.)
+     */
+    @Override
+    public int retryRenderCount(long userId, String jobId) {
+
+        return imageGenerationJobRepository.findById(jobId)
+                .filter(job -> job.getUserId() != null && job.getUserId() == userId)
+                .filter(job -> !job.hasImage())
+                .map(job -> job.getCandidateCount() == null ? 1 : job.getCandidateCount())
+                .orElse(1);
+    }
+
+
+    /**
+     * 작업 실행 메서드 (작업 소비자(ImageJobWorker)가 imageGenerationExecutor 스레드에서 실행)
+     * - 프롬프트 생성 → 이미지 생성 → 저장 단계로 진행하며, 단계마다 재시도 정책이 따로 적용된다.
+     * - 끝난 단계의 결과는 작업에 체크포인트로 저장하고, 이미 결과가 있는 단계는 건너뛴다.
+     * - progressive 요청이라면 최종 이미지 전에 작은 미리보기 이미지를 먼저 생성해 구독자에게 전달한다.
+     * - 후보가 여러 개라면 같은 프롬프트로 후보를 동시에 생성하고, 일부만 성공해도 성공한 후보로 완료한다.
+     * - 접수 요청의 제한 시각(Deadline)을 이어받아, 각 단계는 남은 시간만큼만 진행하고 제한 시각이 지나면 실패 처리한다.
+     * - 큐에서 다시 전달된 작업이 이미 끝났다면 실행하지 않는다.
+     * - 시작 전에 실행권을 선점해, 같은 작업이 큐에 두 번 들어가도 한 소비자만 실행한다. (선점하지 못하면 실행하지 않는다.)
+     *   실행권은 실행 중에 연장하고, 소비자가 멈추면 큐에서 다시 가져가기 전에 만료된다.
+     * - webhook 방식은 Prediction 완료 시 이미지 체크포인트와 함께 다시 큐에 들어오고, 저장 단계만 진행한다.
+     */
+    @Override
+    public void runJob(String jobId) {
+
+        String runToken = UUID.randomUUID().toString();
+        if (!imageGenerationJobRepository.claimRun(jobId, runToken, runLeaseMillis())) {
+            log.info("이미 끝났거나 다른 소비자가 실행 중인 작업입니다. jobId: {}", jobId);
+            return;
+        }
+
+        runTokens.put(jobId, runToken);
+        try {
+            runClaimedJob(jobId, runToken);
+        } finally {
+            runTokens.remove(jobId, runToken);
+            releaseRunQuietly(jobId, runToken);
+        }
+    }
+
+
+    /**
+     * 실행 중인 작업의 실행권 연장 (작업 소비자가 처리 중인 작업의 idle 시간을 갱신할 때 함께 호출)
+     */
+    @Override
+    public void renewRunLeases() {
+        runTokens.forEach((jobId, runToken) -> {
+            try {
+                imageGenerationJobRepository.claimRun(jobId, runToken, runLeaseMillis());
+            } catch (RuntimeException e) {
+                log.warn("작업 실행권 연장 실패. jobId: {}, message: {}", jobId, e.getMessage());
+            }
+        });
+    }
+
+
+    // 실행권을 선점한 작업 실행
+    private void runClaimedJob(String jobId, String runToken) {
+
+        ImageGenerationJob job = imageGenerationJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            log.warn("만료되었거나 존재하지 않는 작업입니다. jobId: {}", jobId);
+            return;
+        }
+        if (job.getStatus().isTerminal()) {
+            log.info("이미 끝난 작업입니다. jobId: {}, status: {}", jobId, job.getStatus());
+            return;
+        }
+
+        Deadline deadline = job.getDeadlineAt() == null ? null : Deadline.at(job.getDeadlineAt());
+        try (Deadline.Scope ignored = Deadline.open(deadline)) {
+            // 큐에서 기다리는 동안 제한 시각이 지났다면 시작하지 않는다.
+            Deadline.check();
+
+            String prompt = job.getPrompt();
+            Role role = job.getRole();
+            DiaryImageGenerateRequest diaryImageGenerateRequest = job.toGenerateRequest();
+            ImageRenderOptions imageRenderOptions = ImageRenderOptions.from(diaryImageGenerateRequest);
+
+            // 1. 프롬프트 생성 단계
+            if (!job.hasPrompt()) {
+                ImageGenerationRequest imageGenerationRequest = diaryService.createImageGenerationRequest(job.getUserId(), diaryImageGenerateRequest);
+
+                String builtPrompt = aiService.generateImagePrompt(imageGenerationRequest);
+                prompt = builtPrompt;
+                role = imageGenerationRequest.getRole();
+
+                Role requestRole = role;
+                updateJob(jobId, savedJob -> savedJob.checkpointPrompt(builtPrompt, requestRole));
+            }
+
+            // 2. 이미지 생성 단계
+            if (!job.hasImage()) {
+                Deadline.check();
+                updateJob(jobId, savedJob -> savedJob.updateStatus(ImageJobStatus.IMAGE_REQUESTED));
+
+                // 미리보기 이미지 (최종 이미지와 동시에 생성하고, 실패해도 최종 이미지 생성은 계속한다.)
+                if (job.isProgressive() && job.getPreviewUrl() == null) {
+                    renderPreview(jobId, prompt, imageRenderOptions);
+                }
+
+                // 후보가 여러 개라면 동시에 생성 (webhook 방식은 후보 1개일 때만 사용)
+                int candidateCount = diaryImageGenerateRequest.resolveCandidateCount();
+                if (candidateCount > 1) {
+                    List<ImageGenerationResult> results = renderCandidates(jobId, prompt, imageRenderOptions, role, candidateCount);
+                    updateJob(jobId, savedJob -> savedJob.checkpointImages(results));
+                } else {
+                    // webhook 방식: Prediction 만 생성하고 스레드를 반환한다. 완료는 webhook/폴링이 처리한다.
+                    // (Replicate 서킷이 열려 있다면 동기 방식으로 다른 제공자를 사용한다.)
+                    ReplicatePredictionService replicatePredictionService = replicatePredictionServiceProvider.getIfAvailable();
+                    if (replicatePredictionService != null && replicatePredictionService.isWebhookAvailable()) {
+                        String predictionId = aiService.requestImagePrediction(prompt, imageRenderOptions, role);
+                        // 완료 처리가 큐에 넣은 작업을 바로 선점할 수 있도록 연결 전에 실행권을 반환한다.
+                        runTokens.remove(jobId, runToken);
+                        releaseRunQuietly(jobId, runToken);
+                        replicatePredictionService.register(predictionId, jobId, job.getDeadlineAt());
+                        return;
+                    }
+
+                    ImageGenerationResult result = aiService.renderImage(prompt, imageRenderOptions, role);
+                    updateJob(jobId, savedJob -> savedJob.checkpointImage(result.getImageUrl(), result.getProvider()));
+                }
+            }
+
+            // 3. 저장 단계
+            completeJob(jobId);
+            log.info("이미지 생성 작업 완료. jobId: {}", jobId);
+
+        } catch (BusinessException e) {
+            log.warn("이미지 생성 작업 실패. jobId: {}, code: {}", jobId, e.getErrorCode().getCode());
+            updateJob(jobId, savedJob -> savedJob.fail(e.getErrorCode().getCode()));
+        } catch (Exception e) {
+            log.error("이미지 생성 작업 중 알 수 없는 에러 발생. jobId: {}", jobId, e);
+            updateJob(jobId, savedJob -> savedJob.fail(ErrorCode.IMAGE_GENERATED_ERROR.getCode()));
+        }
+    }
+
+
+    /**
+     * 같은 프롬프트로 이미지 후보를 동시에 생성하는 메서드
+     * - 후보마다 imageRenderExecutor 에서 이미지 생성 단계(재시도 정책 포함)를 따로 실행한다.
+     * - 실패한 후보는 제외하고, 모든 후보가 실패했을 때만 첫 번째 실패를 던진다.
+     * @return 성공한 후보 목록 (요청 순서)
+     */
+    private List<ImageGenerationResult> renderCandidates(String jobId, String prompt, ImageRenderOptions imageRenderOptions, Role role, int candidateCount) {
+
+        List<CompletableFuture<ImageGenerationResult>> futures = new ArrayList<>();
+        for (int i = 0; i < candidateCount; i++) {
+            try {
+                // 후보 생성 스레드에도 작업의 제한 시각을 적용
+                futures.add(CompletableFuture.supplyAsync(Deadline.wrap(() -> aiService.renderImage(prompt, imageRenderOptions, role)), imageRenderExecutor));
+            } catch (TaskRejectedException e) {
+                // 후보 생성 큐가 가득 찬 경우 해당 후보만 실패로 처리
+                futures.add(CompletableFuture.failedFuture(new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR)));
+            }
+        }
+
+        List<ImageGenerationResult> results = new ArrayList<>();
+        RuntimeException firstFailure = null;
+        for (CompletableFuture<ImageGenerationResult> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+                log.warn("이미지 후보 생성 실패. jobId: {}, message: {}", jobId, cause.getMessage());
+                if (firstFailure == null) {
+                    firstFailure = cause;
+                }
+            }
+        }
+
+        if (results.isEmpty()) {
+            throw firstFailure;
+        }
+
+        log.info("이미지 후보 생성 완료. jobId: {}, 성공: {}/{}", jobId, results.size(), candidateCount);
+        return results;
+    }
+
+
+    /**
+     * 저장 단계: 생성된 이미지를 저장소에 저장하고 일기의 이미지 후보로 보관한 뒤 작업을 완료한다.
+     * - 이미지를 미리 저장해 두므로, 사용자가 후보를 선택해 저장할 때는 다운로드 없이 선택만 반영한다.
+     */
+    private void completeJob(String jobId) {
+
+        ImageGenerationJob job = imageGenerationJobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.IMAGE_JOB_NOT_FOUND));
+
+        List<ImageSaveRequest> storedImages = persistOnGenerate ? storeCandidates(jobId, job.getImageUrls()) : null;
+        List<Long> candidateIds = diaryService.saveImageCandidates(job.getUserId(), job.getDiaryId(), jobId, job.getImageUrls(), job.getProviders(), storedImages);
+
+        // 후보로 보관되었으므로 정리 대상에서 제외 (실패했다면 남은 파일은 DiaryImageCandidateCleaner 가 삭제한다.)
+        if (storedImages != null) {
+            storedCandidateImageTracker.untrack(storedImages.stream().filter(Objects::nonNull).map(ImageSaveRequest::getSavedImageName).toList());
+        }
+        updateJob(jobId, savedJob -> savedJob.complete(candidateIds));
+    }
+
+
+    /**
+     * 생성된 이미지 후보를 저장소에 저장하는 메서드
+     * - 후보마다 imageRenderExecutor 에서 동시에 다운로드한다.
+     * - 저장에 실패한 후보는 null 로 두고, 해당 후보는 기존처럼 사용자가 선택할 때 URL 에서 다운로드한다.
+     * @return 저장된 이미지 목록 (imageUrls 와 같은 순서)
+     */
+    private List<ImageSaveRequest> storeCandidates(String jobId, List<String> imageUrls) {
+
+        List<CompletableFuture<ImageSaveRequest>> futures = new ArrayList<>();
+        for (String imageUrl : imageUrls) {
+            try {
+                futures.add(CompletableFuture.supplyAsync(Deadline.wrap(() -> storeCandidate(imageUrl)), imageRenderExecutor));
+            } catch (TaskRejectedException e) {
+                futures.add(CompletableFuture.completedFuture(null));
+            }
+        }
+
+        List<ImageSaveRequest> storedImages = new ArrayList<>();
+        for (CompletableFuture<ImageSaveRequest> future : futures) {
+            try {
+                storedImages.add(future.join());
+            } catch (CompletionException e) {
+                log.warn("이미지 후보 저장 실패. 선택 시 URL 에서 다운로드합니다. jobId: {}, message: {}", jobId, e.getCause().getMessage());
+                storedImages.add(null);
+            }
+        }
+        return storedImages;
+    }
+
+
+    // 저장하자마자 정리 대상으로 등록 (후보로 보관되기 전에 작업이 끝나도 파일이 남지 않도록)
+    private ImageSaveRequest storeCandidate(String imageUrl) {
+        try {
+            ImageSaveRequest storedImage = imageService.downloadUrlImage(new ImageDownloadRequest(imageUrl, ImageType.Diary));
+            storedCandidateImageTracker.track(storedImage.getSavedImageName());
+            return storedImage;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+
+    /**
+     * 미리보기 이미지를 imageRenderExecutor 에서 생성하는 메서드 (작은 크기, 적은 생성 단계)
+     * - 최종 이미지 생성을 기다리게 하지 않도록 결과를 기다리지 않는다.
+     * - 최종 이미지가 먼저 생성되었다면 기록하지 않는다. (작업 전체를 다시 저장하지 않고 미리보기 필드만 바꾼다.)
+     */
+    private void renderPreview(String jobId, String prompt, ImageRenderOptions imageRenderOptions) {
+        try {
+            CompletableFuture.supplyAsync(Deadline.wrap(() -> aiService.renderPreview(prompt, imageRenderOptions)), imageRenderExecutor)
+                    .whenComplete((preview, e) -> {
+                        if (e != null) {
+                            log.warn("미리보기 이미지 생성 실패. jobId: {}, message: {}", jobId, e.getMessage());
+                            return;
+                        }
+                        preview.ifPresent(result -> checkpointPreview(jobId, result.getImageUrl()));
+                    });
+        } catch (TaskRejectedException e) {
+            log.info("이미지 생성 큐가 가득 차 미리보기 이미지를 생략합니다. jobId: {}", jobId);
+        }
+    }
+
+
+    private void checkpointPreview(String jobId, String previewUrl) {
+        try {
+            if (imageGenerationJobRepository.checkpointPreview(jobId, previewUrl)) {
+                imageGenerationJobRepository.findById(jobId).ifPresent(this::publish);
+                log.info("미리보기 이미지 생성 완료. jobId: {}", jobId);
+            }
+        } catch (Exception e) {
+            log.warn("미리보기 이미지 기록 실패. jobId: {}, message: {}", jobId, e.getMessage());
+        }
+    }
+
+
+    /**
+     * Replicate Prediction 완료 처리 (webhook 또는 폴링에서 호출)
+     * - 연결 정보를 꺼내면서 삭제하므로, webhook 과 폴링이 겹쳐도 한 번만 처리된다.
+     * - 이미지 URL 을 체크포인트로 저장하고 작업을 다시 큐에 넣는다. 저장 단계(다운로드, 저장소, DB)는 작업 소비자가 진행하므로
+     *   webhook 요청 스레드는 제공자나 저장소 지연을 기다리지 않는다.
+     * - 연결 정보를 꺼낸 뒤에는 폴링이 다시 확인하지 않으므로, 어떤 예외로 끝나도 작업을 실패 처리한다. (중복 요청 키도 함께 해제)
+     * @return 처리 여부 (이미 처리되었거나 아직 등록되지 않은 Prediction 이라면 false)
+     */
+    @Override
+    public boolean completePrediction(String predictionId, String imageUrl) {
+
+        String jobId = replicatePredictionRepository.claimJobId(predictionId).orElse(null);
+        if (jobId == null) {
+            log.info("이미 처리되었거나 아직 등록되지 않은 Prediction 입니다. predictionId: {}", predictionId);
+            return false;
+        }
+
+        try {
+            updateJob(jobId, job -> job.checkpointImage(imageUrl, ImageProvider.REPLICATE));
+            imageJobQueue.enqueue(jobId);
+        } catch (RuntimeException e) {
+            // Redis 장애: 재시도하면 체크포인트부터 진행한다.
+            log.error("이미지 생성 결과를 기록하지 못했습니다. jobId: {}, predictionId: {}", jobId, predictionId, e);
+            failQuietly(jobId, ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+            return true;
+        }
+        log.info("이미지 생성 완료, 저장 단계를 큐에 넣었습니다. jobId: {}, predictionId: {}", jobId, predictionId);
+        return true;
+    }
+
+
+    /**
+     * Replicate Prediction 실패 처리 (webhook 또는 폴링에서 호출)
+     * @return 처리 여부 (이미 처리되었거나 아직 등록되지 않은 Prediction 이라면 false)
+     */
+    @Override
+    public boolean failPrediction(String predictionId, ErrorCode errorCode) {
+
+        String jobId = replicatePredictionRepository.claimJobId(predictionId).orElse(null);
+        if (jobId == null) {
+            return false;
+        }
+
+        updateJob(jobId, job -> job.fail(errorCode.getCode()));
+        log.warn("이미지 생성 작업 실패. jobId: {}, predictionId: {}", jobId, predictionId);
+        return true;
+    }
+
+
+    /**
+     * 작업 실패 처리 (작업 큐에서 재전달 횟수를 넘긴 경우)
+     */
+    @Override
+    public void failJob(String jobId, ErrorCode errorCode) {
+        updateJob(jobId, job -> {
+            if (!job.getStatus().isTerminal()) {
+                job.fail(errorCode.getCode());
+            }
+        });
+    }
+
+
+    // 실행권 반환 (실패해도 만료 시각이 지나면 다른 소비자가 선점한다.)
+    private void releaseRunQuietly(String jobId, String runToken) {
+        try {
+            imageGenerationJobRepository.releaseRun(jobId, runToken);
+        } catch (RuntimeException e) {
+            log.warn("작업 실행권 반환 실패. jobId: {}, message: {}", jobId, e.getMessage());
+        }
+    }
+
+
+    // 실행권 유지 시간 (연장 주기보다 길고, 멈춘 작업을 큐에서 다시 가져가는 시간보다 연장 주기만큼 짧게)
+    private long runLeaseMillis() {
+        return Math.max(claimIdleMillis - claimIntervalMillis, claimIntervalMillis * 2);
+    }
+
+
+    // 작업 실패 처리 (실패 처리마저 실패하면 중복 요청 키는 TTL 이 지나야 해제된다.)
+    private void failQuietly(String jobId, ErrorCode errorCode) {
+        try {
+            updateJob(jobId, job -> job.fail(errorCode.getCode()));
+        } catch (RuntimeException e) {
+            log.error("이미지 생성 작업 실패 처리 실패. jobId: {}, message: {}", jobId, e.getMessage());
+        }
+    }
+
+
+    /**
+     * 작업 상태를 변경하고 이 서버의 구독자에게 알린다.
+     */
+    private void updateJob(String jobId, Consumer<ImageGenerationJob> change) {
+
+        ImageGenerationJob job = imageGenerationJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            log.warn("만료되었거나 존재하지 않는 작업입니다. jobId: {}", jobId);
+            return;
+        }
+
+        change.accept(job);
+        imageGenerationJobRepository.save(job);
+
+        // 끝난 작업은 더 이상 같은 요청과 합치지 않는다.
+        if (job.getStatus().isTerminal()) {
+            imageJobDeduplicator.release(job);
+        }
+
+        publish(job);
+    }
+
+
+    /**
+     * 다른 서버에서 진행 중인 작업의 상태를 구독자에게 전달하기 위한 스케줄러
+     * - 구독자가 없다면 아무것도 하지 않는다.
+     */
+    @Scheduled(fixedDelayString = "${app.image-job.sse-poll-millis:1000}")
+    public void pushRemoteUpdates() {
+
+        for (String jobId : emitters.keySet()) {
+            imageGenerationJobRepository.findById(jobId).ifPresentOrElse(
+                    this::publish,
+                    () -> completeAll(jobId) // 만료된 작업
+            );
+        }
+    }
+
+
+    // 마지막으로 보낸 상태와 다를 때만 전송
+    private void publish(ImageGenerationJob job) {
+
+        String jobId = job.getJobId();
+        List<SseEmitter> subscribers = emitters.get(jobId);
+        if (subscribers == null || job.getStatus() == lastSentStatus.get(jobId)) {
+            return;
+        }
+
+        lastSentStatus.put(jobId, job.getStatus());
+        subscribers.forEach(emitter -> sendEvent(emitter, job));
+
+        if (job.getStatus().isTerminal()) {
+            completeAll(jobId);
+        } else if (!emitters.containsKey(jobId)) {
+            // 전송하는 동안 마지막 구독자가 끊긴 경우
+            lastSentStatus.remove(jobId);
+        }
+    }
+
+
+    private void sendEvent(SseEmitter emitter, ImageGenerationJob job) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(job.getStatus().name())
+                    .data(ImageJobResponse.from(job)));
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트가 연결을 끊은 경우
+            emitter.completeWithError(e);
+        }
+    }
+
+
+    private void completeAll(String jobId) {
+        List<SseEmitter> subscribers = emitters.remove(jobId);
+        lastSentStatus.remove(jobId);
+        if (subscribers != null) {
+            subscribers.forEach(SseEmitter::complete);
+        }
+    }
+
+
+    // 마지막 구독자가 끊기면 목록과 전송 상태를 지워, 더 이상 이 작업의 상태를 조회하지 않는다.
+    private void removeEmitter(String jobId, SseEmitter emitter) {
+        emitters.computeIfPresent(jobId, (key, subscribers) -> {
+            subscribers.remove(emitter);
+            if (!subscribers.isEmpty()) {
+                return subscribers;
+            }
+            lastSentStatus.remove(jobId);
+            return null;
+        });
+    }
+
+
+    // 현재 요청의 제한 시각 (DeadlineFilter 가 설정)
+    private Long currentDeadlineAt() {
+        return Deadline.current().map(Deadline::getExpiresAtMillis).orElse(null);
+    }
+
+
+    // 작업 조회 (본인 작업이 아니라면 404)
+    private ImageGenerationJob findOwnedJob(long userId, String jobId) {
+        ImageGenerationJob job = imageGenerationJobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.IMAGE_JOB_NOT_FOUND));
+
+        if (job.getUserId() == null || job.getUserId() != userId) {
+            throw new BusinessException(ErrorCode.IMAGE_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,386 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import com.infreej.moment_canvas.domain.diary.entity.ImageJobStatus;
+import com.infreej.moment_canvas.domain.diary.repository.ImageGenerationJobRepository;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이미지 생성 작업 소비자 (Redis Streams consumer group)
+ * - 큐(ImageJobQueue)에서 작업을 읽어 imageGenerationExecutor 에서 실행하고, 끝나면 ACK 한다.
+ * - 동시에 처리하는 작업 수만큼만 읽으므로, 처리하지 못할 작업을 가져가 다른 소비자의 몫을 막지 않는다.
+ * - 처리 중인 작업은 claim-interval 마다 idle 시간을 갱신한다. 소비자가 처리 중에 종료되어 갱신이 멈춘 작업은
+ *   claim-idle-millis 뒤 다른 소비자가 가져가 체크포인트부터 다시 실행한다. (작업의 처리 제한 시각이 지나기 전에 가져간다.)
+ * - 재전달 횟수를 넘긴 작업과 실패로 끝난 작업은 dead letter 스트림에 기록한다.
+ * - 종료 시에는 새 작업을 읽지 않고, 진행 중인 작업이 끝날 때까지 기다린다. (graceful drain)
+ * - app.image-job.queue.consumer.enabled=false 인 서버(web 프로필)는 작업을 접수만 하고 실행하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.image-job.queue.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class ImageJobWorker implements SmartLifecycle {
+
+    private final ImageJobService imageJobService;
+    private final ImageJobQueue imageJobQueue;
+    private final ImageGenerationJobRepository imageGenerationJobRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier("imageGenerationExecutor")
+    private final ThreadPoolTaskExecutor imageGenerationExecutor;
+
+    @Value("${app.image-job.queue.consumer.concurrency:16}")
+    private int concurrency;
+
+    @Value("${app.image-job.queue.consumer.block-millis:2000}")
+    private long blockMillis;
+
+    @Value("${app.image-job.queue.consumer.claim-idle-millis:90000}")
+    private long claimIdleMillis;
+
+    @Value("${app.image-job.queue.consumer.claim-interval-millis:30000}")
+    private long claimIntervalMillis;
+
+    @Value("${app.image-job.queue.consumer.max-deliveries:3}")
+    private long maxDeliveries;
+
+    @Value("${app.image-job.queue.consumer.drain-timeout-millis:60000}")
+    private long drainTimeoutMillis;
+
+    // 이 서버의 소비자 이름 (재시작하면 새 이름을 사용하고, 이전 이름의 미처리 작업은 다른 소비자가 가져간다.)
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    // 이 소비자가 처리 중인 작업 레코드 (idle 시간 갱신 대상)
+    private final Set<RecordId> inFlight = ConcurrentHashMap.newKeySet();
+
+    private Semaphore permits;
+    private Thread readerThread;
+    private volatile boolean running;
+
+
+    @Override
+    public void start() {
+        permits = new Semaphore(concurrency);
+        running = true;
+        readerThread = new Thread(this::readLoop, "image-job-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        if (claimIdleMillis < claimIntervalMillis * 2) {
+            log.warn("claim-idle-millis({}ms)가 claim-interval-millis({}ms)의 2배보다 짧아, 처리 중인 작업을 다른 소비자가 가져갈 수 있습니다.", claimIdleMillis, claimIntervalMillis);
+        }
+        log.info("이미지 생성 작업 소비자 시작. consumer: {}, concurrency: {}", consumerName, concurrency);
+    }
+
+
+    /**
+     * 새 작업을 읽지 않고, 진행 중인 작업이 끝날 때까지 기다린다.
+     * - 제한 시간 안에 끝나지 않은 작업은 ACK 되지 않은 채로 남고, idle 시간 갱신이 멈추므로 claim-idle-millis 뒤 다른 소비자가 이어서 처리한다.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            readerThread.join(blockMillis + 1000);
+            if (permits.tryAcquire(concurrency, drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                permits.release(concurrency);
+                log.info("이미지 생성 작업 소비자 종료. 진행 중인 작업을 모두 마쳤습니다. consumer: {}", consumerName);
+            } else {
+                log.warn("이미지 생성 작업 소비자 종료. 끝나지 않은 작업 {}건은 다른 소비자가 이어서 처리합니다. consumer: {}",
+                        concurrency - permits.availablePermits(), consumerName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+
+    // 작업 스레드 풀보다 먼저 멈추도록 (웹 서버 종료 단계와 같은 시점)
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+
+    /**
+     * 작업 읽기 반복 (image-job-reader 스레드)
+     * - 남은 처리 가능 수만큼만 읽고, 새 작업이 없다면 block-millis 동안 기다린다.
+     */
+    private void readLoop() {
+
+        boolean groupReady = false;
+
+        while (running) {
+            try {
+                if (!groupReady) {
+                    createGroupIfAbsent();
+                    groupReady = true;
+                }
+
+                // 처리할 자리가 생길 때까지 대기
+                if (!permits.tryAcquire(blockMillis, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                int available = permits.availablePermits() + 1;
+                permits.release();
+
+                List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                        Consumer.from(ImageJobQueue.CONSUMER_GROUP, consumerName),
+                        StreamReadOptions.empty().count(available).block(Duration.ofMillis(blockMillis)),
+                        StreamOffset.create(ImageJobQueue.STREAM_KEY, ReadOffset.lastConsumed())
+                );
+
+                if (records != null) {
+                    records.forEach(this::dispatch);
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Redis 장애, consumer group 삭제 등: 잠시 뒤 group 확인부터 다시 시도
+                log.warn("이미지 생성 작업 읽기 실패. 잠시 뒤 다시 시도합니다. message: {}", e.getMessage());
+                groupReady = false;
+                sleepQuietly(blockMillis);
+            }
+        }
+    }
+
+
+    /**
+     * 읽은 작업을 imageGenerationExecutor 에서 실행하는 메서드
+     * - 실행 자리를 잡지 못하면 ACK 하지 않고 남겨 두어 나중에 다시 가져간다.
+     */
+    private void dispatch(MapRecord<String, Object, Object> record) {
+
+        Object jobId = record.getValue().get(ImageJobQueue.JOB_ID_FIELD);
+        if (jobId == null) {
+            log.warn("jobId 가 없는 작업 레코드입니다. recordId: {}", record.getId());
+            acknowledge(record.getId());
+            return;
+        }
+
+        if (!permits.tryAcquire()) {
+            log.warn("처리할 자리가 없어 작업을 나중에 다시 처리합니다. jobId: {}", jobId);
+            return;
+        }
+
+        inFlight.add(record.getId());
+        try {
+            imageGenerationExecutor.execute(() -> {
+                try {
+                    process(record.getId(), jobId.toString());
+                } finally {
+                    inFlight.remove(record.getId());
+                    permits.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(record.getId());
+            permits.release();
+            log.warn("이미지 생성 작업 스레드 풀이 가득 찼습니다. 작업을 나중에 다시 처리합니다. jobId: {}", jobId);
+        }
+    }
+
+
+    /**
+     * 작업 실행 후 ACK
+     * - 작업 실행 중 처리되지 않은 예외가 발생하면 ACK 하지 않는다. (재전달 대상)
+     * - 실패로 끝난 작업은 dead letter 스트림에 기록한다. (사용자가 재시도하면 새로 큐에 들어간다.)
+     */
+    private void process(RecordId recordId, String jobId) {
+
+        try {
+            imageJobService.runJob(jobId);
+        } catch (Exception e) {
+            log.error("이미지 생성 작업 실행 중 처리되지 않은 예외 발생. 재전달을 기다립니다. jobId: {}", jobId, e);
+            count("error");
+            return;
+        }
+
+        ImageGenerationJob job = imageGenerationJobRepository.findById(jobId).orElse(null);
+        if (job != null && job.getStatus() == ImageJobStatus.FAILED) {
+            imageJobQueue.deadLetter(jobId, job.getErrorCode(), 1);
+            count("dead");
+        } else {
+            count("processed");
+        }
+
+        acknowledge(recordId);
+    }
+
+
+    /**
+     * ACK 되지 않은 채 오래 남은 작업 처리 (다른 소비자가 처리 중에 종료된 경우)
+     * - 먼저 이 소비자가 처리 중인 작업의 idle 시간을 갱신해, 오래 걸리는 작업을 다른 소비자가 가져가지 않도록 한다.
+     * - 재전달 횟수를 넘긴 작업은 실패 처리 후 dead letter 스트림에 기록하고, 그렇지 않다면 이 소비자가 가져와 실행한다.
+     */
+    @Scheduled(fixedDelayString = "${app.image-job.queue.consumer.claim-interval-millis:30000}")
+    public void reclaimStalled() {
+
+        touchInFlight();
+
+        if (!running) {
+            return;
+        }
+
+        PendingMessages pendingMessages;
+        try {
+            pendingMessages = stringRedisTemplate.opsForStream().pending(ImageJobQueue.STREAM_KEY, ImageJobQueue.CONSUMER_GROUP, Range.unbounded(), 100);
+        } catch (Exception e) {
+            log.debug("미처리 작업 조회 실패. message: {}", e.getMessage());
+            return;
+        }
+
+        for (PendingMessage pendingMessage : pendingMessages) {
+            if (pendingMessage.getElapsedTimeSinceLastDelivery().toMillis() < claimIdleMillis) {
+                continue;
+            }
+
+            if (pendingMessage.getTotalDeliveryCount() >= maxDeliveries) {
+                deadLetterStalled(pendingMessage);
+                continue;
+            }
+
+            if (permits.availablePermits() == 0) {
+                return;
+            }
+
+            List<MapRecord<String, Object, Object>> claimed = stringRedisTemplate.opsForStream().claim(
+                    ImageJobQueue.STREAM_KEY, ImageJobQueue.CONSUMER_GROUP, consumerName,
+                    Duration.ofMillis(claimIdleMillis), pendingMessage.getId()
+            );
+            for (MapRecord<String, Object, Object> record : claimed) {
+                log.info("처리가 멈춘 작업을 가져옵니다. recordId: {}, 이전 소비자: {}, 전달 횟수: {}",
+                        record.getId(), pendingMessage.getConsumerName(), pendingMessage.getTotalDeliveryCount());
+                count("reclaimed");
+                dispatch(record);
+            }
+        }
+    }
+
+
+    /**
+     * 처리 중인 작업의 idle 시간 갱신 (이 소비자에게 다시 claim, JUSTID 라 전달 횟수는 늘지 않는다.)
+     * - 종료 중에도 작업이 끝날 때까지 갱신하고, 서버가 멈추면 갱신도 멈춰 다른 소비자가 가져간다.
+     * - 작업의 실행권도 같은 주기로 연장해, 갱신이 멈추면 다른 소비자가 가져가기 전에 실행권이 만료되도록 한다.
+     */
+    void touchInFlight() {
+
+        imageJobService.renewRunLeases();
+
+        RecordId[] recordIds = inFlight.toArray(RecordId[]::new);
+        if (recordIds.length == 0) {
+            return;
+        }
+
+        try {
+            stringRedisTemplate.execute((RedisCallback<List<RecordId>>) connection -> connection.streamCommands().xClaimJustId(
+                    ImageJobQueue.STREAM_KEY.getBytes(StandardCharsets.UTF_8), ImageJobQueue.CONSUMER_GROUP, consumerName,
+                    XClaimOptions.minIdle(Duration.ZERO).ids(recordIds)));
+        } catch (Exception e) {
+            log.warn("처리 중인 작업의 idle 시간 갱신 실패. count: {}, message: {}", recordIds.length, e.getMessage());
+        }
+    }
+
+
+    // 재전달 횟수를 넘긴 작업: 작업을 실패 처리하고 dead letter 스트림에 기록한 뒤 ACK
+    private void deadLetterStalled(PendingMessage pendingMessage) {
+
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().range(
+                ImageJobQueue.STREAM_KEY, Range.closed(pendingMessage.getIdAsString(), pendingMessage.getIdAsString()));
+
+        String jobId = records == null || records.isEmpty() ? null : String.valueOf(records.get(0).getValue().get(ImageJobQueue.JOB_ID_FIELD));
+        if (jobId != null) {
+            imageJobService.failJob(jobId, ErrorCode.IMAGE_GENERATED_ERROR);
+        }
+
+        imageJobQueue.deadLetter(jobId, "max-deliveries-exceeded", pendingMessage.getTotalDeliveryCount());
+        acknowledge(pendingMessage.getId());
+        count("dead");
+        log.warn("재전달 횟수를 넘긴 작업을 dead letter 로 옮겼습니다. jobId: {}, 전달 횟수: {}", jobId, pendingMessage.getTotalDeliveryCount());
+    }
+
+
+    // consumer group 생성 (스트림이 없다면 함께 생성, 이미 있다면 무시)
+    private void createGroupIfAbsent() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                    ImageJobQueue.STREAM_KEY.getBytes(StandardCharsets.UTF_8), ImageJobQueue.CONSUMER_GROUP, ReadOffset.from("0"), true));
+            log.info("이미지 생성 작업 consumer group 생성. stream: {}, group: {}", ImageJobQueue.STREAM_KEY, ImageJobQueue.CONSUMER_GROUP);
+        } catch (RedisSystemException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+
+    private void acknowledge(RecordId recordId) {
+        try {
+            stringRedisTemplate.opsForStream().acknowledge(ImageJobQueue.STREAM_KEY, ImageJobQueue.CONSUMER_GROUP, recordId);
+        } catch (Exception e) {
+            // ACK 실패 시 재전달되지만, 작업은 체크포인트와 종료 상태 확인으로 중복 실행을 피한다.
+            log.warn("작업 ACK 실패. recordId: {}, message: {}", recordId, e.getMessage());
+        }
+    }
+
+
+    private void count(String outcome) {
+        Counter.builder("image.job.queue")
+                .description("이미지 생성 작업 큐 처리 결과 (processed, dead, reclaimed, error)")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.service.AiService;
+import com.infreej.moment_canvas.domain.ai.service.ImagePromptCache;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.diary.event.DiaryContentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * 일기 작성/수정 직후 기본 스타일의 이미지 프롬프트를 미리 생성해 캐시에 넣는 백그라운드 작업 (선택 기능)
+ * - 프롬프트는 일기 내용과 유저 특징에만 의존하므로, 커밋 시점에 미리 만들어 두면 이후 이미지 생성 요청은 이미지 생성 단계만 진행한다.
+ * - AI 호출 슬롯이 비어 있을 때만 실행하고(사용자 요청 우선), 하루 최대 호출 수를 넘으면 실행하지 않는다.
+ *   슬롯이 없어 호출하지 않았다면 차감한 호출 수를 돌려준다.
+ * - 미리 만든 프롬프트는 일반 캐시보다 짧게 보관해, 사용되지 않은 프롬프트는 빨리 만료된다.
+ * - 결과는 ai.prompt.speculative 메트릭(outcome 태그)으로 확인할 수 있다.
+ */
+@Slf4j
+@Component
+public class SpeculativePromptGenerator {
+
+    private static final String BUDGET_KEY_PREFIX = "speculativePrompt:budget:";
+
+    private final DiaryService diaryService;
+    private final AiService aiService;
+    private final ImagePromptCache imagePromptCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ThreadPoolTaskExecutor speculativePromptExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.ai.speculative-prompt.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.ai.speculative-prompt.default-style:}")
+    private String defaultStyle;
+
+    @Value("${spring.ai.speculative-prompt.default-option:}")
+    private String defaultOption;
+
+    @Value("${spring.ai.speculative-prompt.daily-limit:500}")
+    private long dailyLimit;
+
+    @Value("${spring.ai.speculative-prompt.ttl-seconds:21600}")
+    private long ttlSeconds;
+
+    public SpeculativePromptGenerator(DiaryService diaryService,
+                                      AiService aiService,
+                                      ImagePromptCache imagePromptCache,
+                                      StringRedisTemplate stringRedisTemplate,
+                                      @Qualifier("speculativePromptExecutor") ThreadPoolTaskExecutor speculativePromptExecutor,
+                                      MeterRegistry meterRegistry) {
+        this.diaryService = diaryService;
+        this.aiService = aiService;
+        this.imagePromptCache = imagePromptCache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.speculativePromptExecutor = speculativePromptExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    /**
+     * 일기 작성/수정 트랜잭션이 커밋된 뒤 프롬프트 미리 생성을 예약한다.
+     * - 커밋 전에는 다른 트랜잭션에서 변경된 내용을 읽을 수 없으므로 커밋 후에 실행한다.
+     * - 작업 큐가 가득 찼다면 미리 생성하지 않는다. (이미지 생성 요청 시 평소처럼 생성)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDiaryContentChanged(DiaryContentChangedEvent event) {
+
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            speculativePromptExecutor.execute(() -> generate(event.userId(), event.diaryId()));
+        } catch (TaskRejectedException e) {
+            count("rejected");
+        }
+    }
+
+
+    private void generate(long userId, long diaryId) {
+
+        try {
+            // 이미지 생성 요청 시와 같은 입력(기본 스타일)으로 요청을 만든다. (같은 캐시 키)
+            DiaryImageGenerateRequest diaryImageGenerateRequest = new DiaryImageGenerateRequest(diaryId, defaultStyle, defaultOption, null, null, null, false, null, null);
+            ImageGenerationRequest imageGenerationRequest = diaryService.createImageGenerationRequest(userId, diaryImageGenerateRequest);
+
+            String cacheKey = imageGenerationRequest.getPromptCacheKey();
+            if (cacheKey == null) {
+                return; // 캐시 비활성화 또는 Redis 장애
+            }
+
+            // 같은 내용으로 이미 만들어 둔 프롬프트가 있다면 생략 (연속 수정 시 큐에 쌓인 이전 작업 등)
+            if (imagePromptCache.contains(cacheKey)) {
+                count("cached");
+                return;
+            }
+
+            if (!tryAcquireBudget()) {
+                count("budget-exhausted");
+                return;
+            }
+
+            if (!aiService.pregenerateImagePrompt(imageGenerationRequest, Duration.ofSeconds(ttlSeconds))) {
+                releaseBudget(); // LLM 을 호출하지 않았으므로 돌려준다.
+                count("busy"); // 사용자 요청이 AI 호출 슬롯을 사용 중
+                return;
+            }
+
+            count("generated");
+            log.info("이미지 프롬프트 미리 생성 완료. diaryId: {}", diaryId);
+
+        } catch (Exception e) {
+            count("failed");
+            log.warn("이미지 프롬프트 미리 생성 실패. diaryId: {}, message: {}", diaryId, e.getMessage());
+        }
+    }
+
+
+    // 하루 최대 호출 수 확인 (Redis 장애 시에는 미리 생성하지 않는다.)
+    private boolean tryAcquireBudget() {
+        try {
+            String budgetKey = BUDGET_KEY_PREFIX + LocalDate.now();
+            Long used = stringRedisTemplate.opsForValue().increment(budgetKey);
+            if (used != null && used == 1) {
+                stringRedisTemplate.expire(budgetKey, Duration.ofDays(2));
+            }
+            return used != null && used <= dailyLimit;
+        } catch (Exception e) {
+            log.warn("프롬프트 미리 생성 예산 확인 실패. message: {}", e.getMessage());
+            return false;
+        }
+    }
+
+
+    // 호출하지 않은 만큼 하루 최대 호출 수를 돌려준다.
+    private void releaseBudget() {
+        try {
+            stringRedisTemplate.opsForValue().decrement(BUDGET_KEY_PREFIX + LocalDate.now());
+        } catch (Exception e) {
+            log.warn("프롬프트 미리 생성 예산 반환 실패. message: {}", e.getMessage());
+        }
+    }
+
+
+    private void count(String outcome) {
+        Counter.builder("ai.prompt.speculative")
+                .description("이미지 프롬프트 미리 생성 결과 (generated, cached, budget-exhausted, busy, rejected, failed)")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
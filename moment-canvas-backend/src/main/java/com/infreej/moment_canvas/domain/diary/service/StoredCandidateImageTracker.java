@@ -0,0 +1,58 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 저장소에 미리 저장했지만 아직 일기의 이미지 후보로 보관되지 않은 파일 목록 (Redis sorted set, score: 저장 시각)
+ * - 저장 단계에서 후보 이미지를 저장하자마자 등록하고, 후보로 보관(커밋)된 뒤 해제한다.
+ * - 그 사이 작업이 실패하거나 서버가 종료되어 남은 파일은 DiaryImageCandidateCleaner 가 삭제한다.
+ * - Redis 장애 시에는 로그만 남긴다. (등록하지 못한 파일은 정리되지 않는다.)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoredCandidateImageTracker {
+
+    static final String KEY = "diaryImageCandidate:pending";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+
+    public void track(String savedImageName) {
+        try {
+            stringRedisTemplate.opsForZSet().add(KEY, savedImageName, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("후보 이미지 파일 등록 실패. savedImageName: {}, message: {}", savedImageName, e.getMessage());
+        }
+    }
+
+
+    public void untrack(Collection<String> savedImageNames) {
+        if (savedImageNames.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForZSet().remove(KEY, savedImageNames.toArray());
+        } catch (RuntimeException e) {
+            log.warn("후보 이미지 파일 등록 해제 실패. message: {}", e.getMessage());
+        }
+    }
+
+
+    /**
+     * 지정한 시각 전에 등록되어 아직 해제되지 않은 파일 목록
+     * @param beforeMillis 등록 시각 기준 (epoch millis)
+     */
+    public List<String> findTrackedBefore(long beforeMillis) {
+        Set<String> names = stringRedisTemplate.opsForZSet().rangeByScore(KEY, 0, beforeMillis);
+        return names == null ? List.of() : new ArrayList<>(names);
+    }
+}
@@ -3,6 +3,7 @@ package com.infreej.moment_canvas.domain.email.controller;
 import com.infreej.moment_canvas.domain.email.dto.request.EmailRequest;
 import com.infreej.moment_canvas.domain.email.dto.request.EmailVerificationRequest;
 import com.infreej.moment_canvas.domain.email.service.EmailService;
+import com.infreej.moment_canvas.global.annotation.RateLimit;
 import com.infreej.moment_canvas.global.annotation.SetSuccess;
 import com.infreej.moment_canvas.global.code.SuccessCode;
 import io.swagger.v3.oas.annotations.Operation;
@@ -24,6 +25,7 @@ public class EmailController {
 
     @Operation(summary = "인증 이메일 발송", description = "인증 이메일 발송 API입니다.")
     @PostMapping("/mail-send")
+    @RateLimit(name = "mail-send", capacity = 3, refillPerMinute = 1, key = "#emailRequest.email")
     @SetSuccess(SuccessCode.EMAIL_SEND)
     public void sendVerificationMail(@RequestBody EmailRequest emailRequest) {
 
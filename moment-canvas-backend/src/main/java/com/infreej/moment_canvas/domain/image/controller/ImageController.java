@@ -0,0 +1,63 @@
+package com.infreej.moment_canvas.domain.image.controller;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageVariantPreset;
+import com.infreej.moment_canvas.domain.image.service.ImageVariantService;
+import com.infreej.moment_canvas.global.util.DiskLruCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Tag(name = "Image", description = "이미지 API")
+@RestController
+@RequiredArgsConstructor
+public class ImageController {
+
+    private final ImageVariantService imageVariantService;
+
+
+    /**
+     * 이미지 변환본 조회
+     * - 저장된 이미지명(UUID)과 프리셋이 같다면 내용도 같으므로 1년 동안 캐시하도록 응답한다. (immutable)
+     * - 원본 이미지가 삭제되었다면 변환본이 캐시에 남아 있어도 404 로 응답한다.
+     * - ETag 가 일치하면 변환본을 열거나 만들지 않고 본문 없이 304 로 응답한다.
+     * - 변환본은 열어 둔 스트림으로 보내므로, 보내는 중에 캐시에서 삭제되어도 끝까지 보낼 수 있다.
+     */
+    @Operation(summary = "이미지 변환본 조회", description = "저장된 이미지를 프리셋 크기로 줄인 변환본을 조회하는 API 입니다. \n - preset: thumb(160px), small(480px), medium(960px) \n - folder: diary-images, profile-images \n - 처음 요청 시 변환본을 생성하며, 변환이 밀려 있다면 503 을 응답합니다.")
+    @GetMapping("/images/variants/{preset}/{folder}/{savedImageName}")
+    public ResponseEntity<Resource> findVariant(@PathVariable String preset, @PathVariable String folder, @PathVariable String savedImageName,
+                                                WebRequest webRequest) throws IOException {
+
+        ImageType imageType = ImageType.fromFolderName(folder);
+        ImageVariantPreset imageVariantPreset = ImageVariantPreset.fromPathName(preset);
+        String key = imageVariantService.findVariantKey(imageType, savedImageName, imageVariantPreset);
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+        if (webRequest.checkNotModified(key)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        // 본문은 보낸 뒤 닫힌다.
+        DiskLruCache.Snapshot variant = imageVariantService.openVariant(imageType, savedImageName, imageVariantPreset);
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(key)
+                .contentLength(variant.size())
+                .contentType(MediaTypeFactory.getMediaType(variant.key()).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .body(new InputStreamResource(variant.inputStream()));
+    }
+}
@@ -15,4 +15,9 @@ import lombok.Setter;
 public class ImageDownloadRequest {
     private String imageUrl;
     private ImageType imageType;
+    private Long candidateId; // 이미지 후보 PK (있다면 imageUrl 대신 후보의 이미지를 저장)
+
+    public ImageDownloadRequest(String imageUrl, ImageType imageType) {
+        this(imageUrl, imageType, null);
+    }
 }
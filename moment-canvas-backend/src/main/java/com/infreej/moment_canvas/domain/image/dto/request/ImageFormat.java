@@ -0,0 +1,68 @@
+package com.infreej.moment_canvas.domain.image.dto.request;
+
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.PushbackInputStream;
+
+/**
+ * 업로드를 허용하는 이미지 형식
+ * - 파일명 확장자나 Content-Type 헤더는 클라이언트가 정하므로, 파일 앞부분의 시그니처(magic bytes)로 판단한다.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageFormat {
+
+    JPEG(".jpg", "image/jpeg"),
+    PNG(".png", "image/png"),
+    GIF(".gif", "image/gif"),
+    WEBP(".webp", "image/webp");
+
+    // 판단에 필요한 앞부분 길이 (WEBP: RIFF....WEBP)
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private final String extension;
+    private final String contentType;
+
+
+    /**
+     * 스트림 앞부분으로 형식을 판단하는 메서드
+     * - 읽은 앞부분은 스트림에 되돌려 두므로, 같은 스트림을 그대로 저장하면 된다. (파일을 두 번 읽지 않는다.)
+     * @param in 앞부분을 되돌릴 수 있는 스트림 (버퍼 크기 SIGNATURE_LENGTH 이상)
+     * @return 이미지 형식 (허용하지 않는 형식이라면 400)
+     */
+    public static ImageFormat detect(PushbackInputStream in) throws IOException {
+
+        byte[] signature = in.readNBytes(SIGNATURE_LENGTH);
+        in.unread(signature);
+
+        ImageFormat format = detect(signature);
+        if (format == null) {
+            throw new BusinessException(ErrorCode.IMAGE_EXTENSION_NOT_SUPPORTED);
+        }
+        return format;
+    }
+
+
+    private static ImageFormat detect(byte[] s) {
+
+        if (s.length >= 3 && (s[0] & 0xFF) == 0xFF && (s[1] & 0xFF) == 0xD8 && (s[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if (s.length >= 8 && (s[0] & 0xFF) == 0x89 && s[1] == 'P' && s[2] == 'N' && s[3] == 'G'
+                && s[4] == 0x0D && s[5] == 0x0A && s[6] == 0x1A && s[7] == 0x0A) {
+            return PNG;
+        }
+        if (s.length >= 6 && s[0] == 'G' && s[1] == 'I' && s[2] == 'F' && s[3] == '8' && (s[4] == '7' || s[4] == '9') && s[5] == 'a') {
+            return GIF;
+        }
+        if (s.length >= 12 && s[0] == 'R' && s[1] == 'I' && s[2] == 'F' && s[3] == 'F'
+                && s[8] == 'W' && s[9] == 'E' && s[10] == 'B' && s[11] == 'P') {
+            return WEBP;
+        }
+        return null;
+    }
+}
@@ -1,5 +1,23 @@
 package com.infreej.moment_canvas.domain.image.dto.request;
 
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+
 public enum ImageType {
-    Diary, Profile
+    Diary, Profile;
+
+    // 이미지가 저장되는 폴더명 (diary-images, profile-images)
+    public String getFolderName() {
+        return name().toLowerCase() + "-images";
+    }
+
+    // 폴더명으로 조회 (없는 폴더라면 404)
+    public static ImageType fromFolderName(String folderName) {
+        for (ImageType imageType : values()) {
+            if (imageType.getFolderName().equals(folderName)) {
+                return imageType;
+            }
+        }
+        throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+    }
 }
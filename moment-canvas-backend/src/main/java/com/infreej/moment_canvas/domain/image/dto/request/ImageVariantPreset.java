@@ -0,0 +1,41 @@
+package com.infreej.moment_canvas.domain.image.dto.request;
+
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 이미지 변환본 프리셋
+ * - 클라이언트는 프리셋 이름만 고를 수 있고, 너비/포맷/품질은 서버가 정한다. (임의 크기 요청으로 캐시가 늘어나지 않도록)
+ * - 원본보다 큰 너비는 원본 크기를 유지한다.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageVariantPreset {
+
+    THUMB(160, "jpg", 0.70f), // 달력 칸
+    SMALL(480, "jpg", 0.78f), // 일기 목록 카드
+    MEDIUM(960, "jpg", 0.82f); // 일기 목록 카드 (고해상도 화면)
+
+    private final int width; // 최대 너비 (px)
+    private final String format; // 인코딩 포맷 (ImageIO 포맷 이름)
+    private final float quality; // 인코딩 품질 (0 ~ 1)
+
+
+    // URL 경로의 프리셋 이름 (thumb, small, medium)
+    public String getPathName() {
+        return name().toLowerCase();
+    }
+
+
+    // URL 경로의 프리셋 이름으로 조회 (없는 프리셋이라면 404)
+    public static ImageVariantPreset fromPathName(String pathName) {
+        for (ImageVariantPreset preset : values()) {
+            if (preset.getPathName().equals(pathName)) {
+                return preset;
+            }
+        }
+        throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+    }
+}
@@ -6,10 +6,19 @@ import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface ImageService {
 
     public ImageSaveRequest downloadUrlImage(ImageDownloadRequest imageDownloadRequest) throws IOException;
 
     public ImageSaveRequest saveUploadedImage(MultipartFile file, ImageType imageType) throws IOException;
+
+    public void deleteImage(String savedImageName, ImageType imageType) throws IOException;
+
+    public InputStream openImage(String savedImageName, ImageType imageType) throws IOException;
+
+    public boolean existsImage(String savedImageName, ImageType imageType) throws IOException;
+
+    public void storeImage(String savedImageName, ImageType imageType, InputStream in, long contentLength, String contentType) throws IOException;
 }
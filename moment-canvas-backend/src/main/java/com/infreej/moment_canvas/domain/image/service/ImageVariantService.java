@@ -0,0 +1,15 @@
+package com.infreej.moment_canvas.domain.image.service;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageVariantPreset;
+
+import com.infreej.moment_canvas.global.util.DiskLruCache;
+
+import java.io.IOException;
+
+public interface ImageVariantService {
+
+    public String findVariantKey(ImageType imageType, String savedImageName, ImageVariantPreset preset) throws IOException;
+
+    public DiskLruCache.Snapshot openVariant(ImageType imageType, String savedImageName, ImageVariantPreset preset) throws IOException;
+}
@@ -0,0 +1,253 @@
+package com.infreej.moment_canvas.domain.image.service;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageVariantPreset;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.Deadline;
+import com.infreej.moment_canvas.global.util.DiskLruCache;
+import com.infreej.moment_canvas.global.util.ImageResizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * 저장된 이미지의 크기 변환본(썸네일 등) 제공 서비스
+ * - 변환본은 처음 요청될 때 imageVariantExecutor 에서 만들고, 크기가 제한된 디스크 LRU 캐시에 보관한다.
+ * - 같은 변환본을 동시에 요청하면 변환은 한 번만 하고 모두 그 결과를 기다린다.
+ * - 저장된 이미지명은 UUID 라 내용이 바뀌지 않으므로, 캐시된 변환본은 무효화하지 않는다.
+ *   대신 원본이 삭제되었는지는 findVariantKey 에서 매 요청 확인한다.
+ * - 변환 풀이 가득 찼거나 기다리는 시간이 지나면 503 으로 응답한다. (변환은 계속 진행되어 다음 요청에 사용된다.)
+ * - 변환본은 캐시 잠금 안에서 열어 반환하므로, 응답을 보내는 중에 캐시에서 삭제되어도 끝까지 보낼 수 있다.
+ */
+@Slf4j
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    // 변환이 끝난 뒤 열기 전에 캐시에서 삭제된 경우 다시 변환하는 횟수
+    private static final int MAX_RENDER_ATTEMPTS = 2;
+
+    // UUID + 확장자 (경로 조작 방지)
+    private static final Pattern SAVED_IMAGE_NAME = Pattern.compile("[0-9A-Za-z-]{1,64}\\.[0-9A-Za-z]{1,5}");
+
+    private final ImageService imageService;
+    private final ThreadPoolTaskExecutor imageVariantExecutor;
+    private final DiskLruCache cache;
+    private final long waitMillis;
+
+    // 변환 중인 변환본 (캐시 키 -> 결과)
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter rejectedCounter;
+    private final Timer renderTimer;
+
+    public ImageVariantServiceImpl(ImageService imageService,
+                                   @Qualifier("imageVariantExecutor") ThreadPoolTaskExecutor imageVariantExecutor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.image.variant.cache-dir:${java.io.tmpdir}/moment-canvas/image-variants}") String cacheDir,
+                                   @Value("${app.image.variant.cache-max-bytes:536870912}") long cacheMaxBytes,
+                                   @Value("${app.image.variant.wait-millis:10000}") long waitMillis) throws IOException {
+        this.imageService = imageService;
+        this.imageVariantExecutor = imageVariantExecutor;
+        this.cache = new DiskLruCache(Paths.get(cacheDir), cacheMaxBytes);
+        this.waitMillis = waitMillis;
+
+        this.hitCounter = Counter.builder("image.variant").tag("result", "hit")
+                .description("이미지 변환본 캐시 적중 횟수").register(meterRegistry);
+        this.missCounter = Counter.builder("image.variant").tag("result", "miss")
+                .description("이미지 변환본 캐시 미적중 횟수").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("image.variant").tag("result", "rejected")
+                .description("변환 풀이 가득 차 거절한 횟수").register(meterRegistry);
+        this.renderTimer = Timer.builder("image.variant.render")
+                .description("이미지 변환본 생성 시간").register(meterRegistry);
+    }
+
+
+    /**
+     * 원본 이미지를 확인하고 변환본의 키를 만드는 메서드 (변환본을 열거나 만들지 않는다.)
+     * - 키는 이미지명과 프리셋 설정으로 정해지므로 조건부 요청(ETag)을 변환 없이 확인할 수 있다.
+     * - 원본이 삭제되었다면 캐시에 변환본이 남아 있어도 404 로 응답한다.
+     * @param imageType 이미지 타입
+     * @param savedImageName 저장된 이미지명
+     * @param preset 변환 프리셋
+     * @return 변환본 키 (ETag 로 사용)
+     */
+    @Override
+    public String findVariantKey(ImageType imageType, String savedImageName, ImageVariantPreset preset) throws IOException {
+
+        if (!SAVED_IMAGE_NAME.matcher(savedImageName).matches() || !imageService.existsImage(savedImageName, imageType)) {
+            throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+        }
+        return createKey(imageType, savedImageName, preset);
+    }
+
+
+    /**
+     * 이미지 변환본을 여는 메서드
+     * - 캐시에 있다면 바로 열고, 없다면 변환이 끝날 때까지 최대 wait-millis (요청의 남은 시간이 더 짧다면 남은 시간) 동안 기다린다.
+     * - 변환이 끝난 뒤 열기 전에 캐시에서 삭제되었다면 다시 변환한다.
+     * @param imageType 이미지 타입
+     * @param savedImageName 저장된 이미지명
+     * @param preset 변환 프리셋
+     * @return 열어 둔 변환본 (호출한 쪽에서 닫아야 한다.)
+     */
+    @Override
+    public DiskLruCache.Snapshot openVariant(ImageType imageType, String savedImageName, ImageVariantPreset preset) throws IOException {
+
+        if (!SAVED_IMAGE_NAME.matcher(savedImageName).matches()) {
+            throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+        }
+
+        String key = createKey(imageType, savedImageName, preset);
+        DiskLruCache.Snapshot snapshot = cache.open(key);
+        if (snapshot != null) {
+            hitCounter.increment();
+            return snapshot;
+        }
+        missCounter.increment();
+
+        for (int attempt = 0; attempt < MAX_RENDER_ATTEMPTS; attempt++) {
+            await(key, renderOnce(key, imageType, savedImageName, preset));
+
+            snapshot = cache.open(key);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            log.warn("변환한 이미지가 열기 전에 캐시에서 삭제되었습니다. key: {}", key);
+        }
+        throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+    }
+
+
+    /**
+     * 변환을 시작하거나, 이미 변환 중이라면 그 결과를 반환하는 메서드
+     * - 변환본은 여러 요청이 함께 기다리므로 처음 요청한 요청의 제한 시각을 이어받지 않는다.
+     * - 끝난 변환은 목록에서 뺀다. (이 요청이 시작한 변환만, computeIfAbsent 가 끝난 뒤에 등록)
+     */
+    private CompletableFuture<Path> renderOnce(String key, ImageType imageType, String savedImageName, ImageVariantPreset preset) {
+
+        AtomicReference<CompletableFuture<Path>> created = new AtomicReference<>();
+        CompletableFuture<Path> future;
+        try {
+            future = inFlight.computeIfAbsent(key, k -> {
+                CompletableFuture<Path> render = CompletableFuture.supplyAsync(() -> render(key, imageType, savedImageName, preset), imageVariantExecutor);
+                created.set(render);
+                return render;
+            });
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            log.warn("이미지 변환 풀이 가득 찼습니다. key: {}", key);
+            throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+        }
+
+        if (future == created.get()) {
+            future.whenComplete((path, e) -> inFlight.remove(key, future));
+        }
+        return future;
+    }
+
+
+    private Path await(String key, CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get(Deadline.remainingMillis(waitMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("이미지 변환 대기 시간 초과. key: {}", key);
+            throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IllegalStateException("이미지 변환 실패. key: " + key, e.getCause());
+        }
+    }
+
+
+    /**
+     * 변환본 생성 (imageVariantExecutor 스레드에서 실행)
+     * - 원본을 읽을 때부터 필요한 크기의 2배 정도로 줄여 읽는다. (ImageResizer)
+     * - 임시 파일에 끝까지 쓴 뒤 캐시에 넣는다.
+     */
+    private Path render(String key, ImageType imageType, String savedImageName, ImageVariantPreset preset) {
+
+        long startedAt = System.nanoTime();
+        Path tempFile = null;
+        try {
+            BufferedImage source;
+            try (InputStream in = imageService.openImage(savedImageName, imageType)) {
+                source = ImageResizer.read(in, preset.getWidth(), 0);
+            }
+
+            BufferedImage resized = ImageResizer.resizeToWidth(source, preset.getWidth());
+
+            tempFile = cache.createTempFile();
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                ImageResizer.writeJpeg(resized, preset.getQuality(), out);
+            }
+            Path file = cache.put(key, tempFile);
+
+            log.debug("이미지 변환본 생성. key: {}, {}x{} -> {}x{}, bytes: {}", key,
+                    source.getWidth(), source.getHeight(), resized.getWidth(), resized.getHeight(), Files.size(file));
+            return file;
+
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        } finally {
+            renderTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+
+    // 캐시 파일명 (예: small-480q78-diary-{uuid}.jpg, 프리셋 설정이 바뀌면 다른 파일이 된다.)
+    private String createKey(ImageType imageType, String savedImageName, ImageVariantPreset preset) {
+        String baseName = savedImageName.substring(0, savedImageName.lastIndexOf('.'));
+        return preset.getPathName() + "-" + preset.getWidth() + "q" + Math.round(preset.getQuality() * 100)
+                + "-" + imageType.name().toLowerCase() + "-" + baseName + "." + preset.getFormat();
+    }
+
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("임시 파일 삭제 실패. file: {}", file);
+        }
+    }
+}
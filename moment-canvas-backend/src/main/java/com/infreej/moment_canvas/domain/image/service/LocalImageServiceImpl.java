@@ -5,6 +5,7 @@ import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.DeadlineInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,8 +15,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -30,6 +31,9 @@ public class LocalImageServiceImpl implements ImageService {
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Value("${app.image.download-timeout-millis:30000}")
+    private long downloadTimeoutMillis; // 이미지 다운로드 연결/읽기 타임아웃 (요청의 남은 시간이 더 짧다면 남은 시간)
+
     /**
      * 이미지 URL 다운로드 메서드
      * @param imageDownloadRequest url, type
@@ -53,8 +57,8 @@ public class LocalImageServiceImpl implements ImageService {
         // 경로 및 파일명 생성
         PathInfo pathInfo = createPathInfo(String.valueOf(imageDownloadRequest.getImageType()), orgFileName);
 
-        // URL에서 스트림을 열어 파일을 다운로드 및 저장
-        try (InputStream in = new URL(imageUrl).openStream()) {
+        // URL에서 스트림을 열어 파일을 다운로드 및 저장 (요청의 처리 제한 시각까지만)
+        try (InputStream in = DeadlineInputStream.open(imageUrl, downloadTimeoutMillis)) {
             Files.copy(in, pathInfo.destinationFile, StandardCopyOption.REPLACE_EXISTING);
         }
 
@@ -92,6 +96,83 @@ public class LocalImageServiceImpl implements ImageService {
     }
 
 
+    /**
+     * 저장된 이미지 삭제 (선택되지 않은 이미지 후보 정리 등)
+     * @param savedImageName 저장된 이미지명
+     * @param imageType 이미지 타입
+     */
+    @Override
+    public void deleteImage(String savedImageName, ImageType imageType) throws IOException {
+
+        String purePath = uploadDir.replace("file:", "");
+        String subPath = String.valueOf(imageType).toLowerCase() + "-images/";
+
+        Files.deleteIfExists(Paths.get(purePath, subPath).resolve(Paths.get(savedImageName).getFileName()));
+    }
+
+
+    /**
+     * 저장된 이미지 읽기 (이미지 변환본 생성 등)
+     * @param savedImageName 저장된 이미지명
+     * @param imageType 이미지 타입
+     * @return 이미지 스트림 (호출한 쪽에서 닫는다.)
+     */
+    @Override
+    public InputStream openImage(String savedImageName, ImageType imageType) throws IOException {
+
+        String purePath = uploadDir.replace("file:", "");
+        String subPath = String.valueOf(imageType).toLowerCase() + "-images/";
+
+        try {
+            return Files.newInputStream(Paths.get(purePath, subPath).resolve(Paths.get(savedImageName).getFileName()));
+        } catch (NoSuchFileException e) {
+            throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+        }
+    }
+
+
+    /**
+     * 저장된 이미지가 있는지 확인 (삭제된 이미지의 변환본 응답 방지 등)
+     * @param savedImageName 저장된 이미지명
+     * @param imageType 이미지 타입
+     * @return 이미지 존재 여부
+     */
+    @Override
+    public boolean existsImage(String savedImageName, ImageType imageType) {
+
+        String purePath = uploadDir.replace("file:", "");
+        String subPath = String.valueOf(imageType).toLowerCase() + "-images/";
+
+        return Files.isRegularFile(Paths.get(purePath, subPath).resolve(Paths.get(savedImageName).getFileName()));
+    }
+
+
+    /**
+     * 정해진 이름으로 이미지 저장 (프로필 이미지 정규화 등)
+     * - 임시 파일에 끝까지 쓴 뒤 이름을 바꾸므로, 읽는 쪽은 완성된 파일만 본다.
+     * @param savedImageName 저장할 이미지명
+     * @param imageType 이미지 타입
+     * @param in 이미지 스트림 (호출한 쪽에서 닫는다.)
+     */
+    @Override
+    public void storeImage(String savedImageName, ImageType imageType, InputStream in, long contentLength, String contentType) throws IOException {
+
+        String purePath = uploadDir.replace("file:", "");
+        String subPath = String.valueOf(imageType).toLowerCase() + "-images/";
+
+        Path destinationDirectory = Paths.get(purePath, subPath);
+        Files.createDirectories(destinationDirectory);
+
+        Path tempFile = Files.createTempFile(destinationDirectory, ".upload-", ".tmp");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, destinationDirectory.resolve(Paths.get(savedImageName).getFileName()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+
     /**
      * 디렉토리 생성 및 파일명 생성용 내부 메서드
      * @param imageType 이미지 타입
@@ -1,12 +1,14 @@
 package com.infreej.moment_canvas.domain.image.service;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageDownloadRequest;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.DeadlineInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,7 +18,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.UUID;
 
 @Service
@@ -26,10 +27,14 @@ import java.util.UUID;
 public class S3ImageServiceImpl implements ImageService{
 
     private final AmazonS3 amazonS3;
+    private final S3StreamingUploader s3StreamingUploader;
 
     @Value("${cloud.aws.s3.bucket}")
     private String bucket;
 
+    @Value("${app.image.download-timeout-millis:30000}")
+    private long downloadTimeoutMillis; // 이미지 다운로드 연결/읽기 타임아웃 (요청의 남은 시간이 더 짧다면 남은 시간)
+
     @Override
     public ImageSaveRequest downloadUrlImage(ImageDownloadRequest imageDownloadRequest) throws IOException {
 
@@ -41,12 +46,10 @@ public class S3ImageServiceImpl implements ImageService{
         String savedFileName = UUID.randomUUID() + ".jpg";
         String s3Key = folderName + "/" + savedFileName; // 폴더/파일명 구조
 
-        // URL에서 스트림 열어서 S3로 업로드
-        try (InputStream in = new URL(originalUrl).openStream()) {
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType("image/jpeg");
-
-            amazonS3.putObject(bucket, s3Key, in, metadata);
+        // URL에서 스트림 열어서 S3로 업로드 (요청의 처리 제한 시각까지만)
+        // 길이를 모르는 스트림이므로 SDK 가 전체를 힙에 모으지 않도록 고정 크기 버퍼로 나누어 올린다.
+        try (InputStream in = DeadlineInputStream.open(originalUrl, downloadTimeoutMillis)) {
+            s3StreamingUploader.upload(bucket, s3Key, in, "image/jpeg");
         }
 
         return new ImageSaveRequest(orgFileName, savedFileName);
@@ -77,6 +80,46 @@ public class S3ImageServiceImpl implements ImageService{
         return new ImageSaveRequest(orgFileName, savedFileName);
     }
 
+    @Override
+    public void deleteImage(String savedImageName, ImageType imageType) {
+
+        String folderName = imageType.name().toLowerCase() + "-images";
+        amazonS3.deleteObject(bucket, folderName + "/" + savedImageName);
+    }
+
+    @Override
+    public void storeImage(String savedImageName, ImageType imageType, InputStream in, long contentLength, String contentType) {
+
+        String folderName = imageType.name().toLowerCase() + "-images";
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(contentLength);
+        metadata.setContentType(contentType);
+
+        amazonS3.putObject(bucket, folderName + "/" + savedImageName, in, metadata);
+    }
+
+    @Override
+    public InputStream openImage(String savedImageName, ImageType imageType) {
+
+        String folderName = imageType.name().toLowerCase() + "-images";
+        try {
+            return amazonS3.getObject(bucket, folderName + "/" + savedImageName).getObjectContent();
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean existsImage(String savedImageName, ImageType imageType) {
+
+        String folderName = imageType.name().toLowerCase() + "-images";
+        return amazonS3.doesObjectExist(bucket, folderName + "/" + savedImageName);
+    }
+
     // 파일명 추출 유틸
     private String extractOriginalFileName(String url) {
         String urlWithoutQuery = url.split("\\?")[0];
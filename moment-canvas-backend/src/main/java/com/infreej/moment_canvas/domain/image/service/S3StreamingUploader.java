@@ -0,0 +1,171 @@
+package com.infreej.moment_canvas.domain.image.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.BufferPool;
+import com.infreej.moment_canvas.global.util.Deadline;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 길이를 모르는 스트림을 S3 에 올리는 업로더
+ * - ObjectMetadata 에 길이가 없으면 SDK 가 스트림 전체를 힙에 모은 뒤 업로드하므로, 대신 버퍼 풀의 고정 크기 버퍼로 나누어 올린다.
+ * - 스트림이 버퍼 하나에 들어가면 길이를 알고 있는 단일 PUT 으로, 넘치면 같은 버퍼를 다시 채우며 multipart upload 로 올린다.
+ * - 전송 하나가 쓰는 메모리는 이미지 크기와 관계없이 버퍼 하나(partSize)이다.
+ * - 버퍼는 ByteArrayInputStream 으로 넘기므로 SDK 의 재시도(mark/reset)도 복사 없이 같은 버퍼를 다시 읽는다.
+ */
+@Slf4j
+public class S3StreamingUploader {
+
+    // S3 multipart upload 의 최소 part 크기 (마지막 part 제외)
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final BufferPool bufferPool;
+    private final long bufferWaitMillis;
+
+    /**
+     * @param partSize part 크기 (버퍼 크기, 최소 5MB)
+     * @param maxBuffers 동시에 빌려줄 수 있는 버퍼 수 (동시 전송 수)
+     * @param bufferWaitMillis 버퍼가 모두 사용 중일 때 기다리는 최대 시간
+     */
+    public S3StreamingUploader(AmazonS3 amazonS3, int partSize, int maxBuffers, long bufferWaitMillis) {
+        this.amazonS3 = amazonS3;
+        this.bufferPool = new BufferPool(Math.max(MIN_PART_SIZE, partSize), maxBuffers);
+        this.bufferWaitMillis = bufferWaitMillis;
+    }
+
+
+    /**
+     * 스트림을 끝까지 읽어 S3 에 올리는 메서드 (스트림은 호출한 쪽에서 닫는다.)
+     * @return 올린 바이트 수
+     */
+    public long upload(String bucket, String key, InputStream in, String contentType) throws IOException {
+
+        byte[] buffer = acquireBuffer();
+        try {
+            int length = in.readNBytes(buffer, 0, buffer.length);
+            int next = length < buffer.length ? -1 : in.read();
+
+            // 버퍼 하나에 모두 들어간 경우 (대부분의 이미지)
+            if (next == -1) {
+                putObject(bucket, key, buffer, length, contentType);
+                return length;
+            }
+
+            return multipartUpload(bucket, key, in, contentType, buffer, length, next);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+
+    // 길이를 알고 있는 단일 PUT
+    private void putObject(String bucket, String key, byte[] buffer, int length, String contentType) {
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(length);
+        metadata.setContentType(contentType);
+
+        PutObjectRequest request = new PutObjectRequest(bucket, key, new ByteArrayInputStream(buffer, 0, length), metadata);
+        request.getRequestClientOptions().setReadLimit(length + 1);
+        amazonS3.putObject(request);
+    }
+
+
+    /**
+     * 버퍼를 다시 채우며 part 단위로 올리는 메서드
+     * - 마지막 part 인지 알기 위해 버퍼가 가득 찰 때마다 1바이트를 미리 읽고, 다음 part 의 첫 바이트로 사용한다.
+     * - 실패하면 업로드를 취소해 S3 에 조각이 남지 않도록 한다.
+     */
+    private long multipartUpload(String bucket, String key, InputStream in, String contentType, byte[] buffer, int firstLength, int firstNext) throws IOException {
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        String uploadId = amazonS3.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key, metadata)).getUploadId();
+
+        List<PartETag> partETags = new ArrayList<>();
+        long totalBytes = 0;
+        int length = firstLength;
+        int next = firstNext;
+
+        try {
+            while (true) {
+                boolean lastPart = next == -1;
+                partETags.add(uploadPart(bucket, key, uploadId, partETags.size() + 1, buffer, length, lastPart));
+                totalBytes += length;
+
+                if (lastPart) {
+                    break;
+                }
+
+                buffer[0] = (byte) next;
+                length = 1 + in.readNBytes(buffer, 1, buffer.length - 1);
+                next = length < buffer.length ? -1 : in.read();
+            }
+
+            amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+            log.debug("S3 multipart upload 완료. key: {}, parts: {}, bytes: {}", key, partETags.size(), totalBytes);
+            return totalBytes;
+
+        } catch (IOException | RuntimeException e) {
+            abort(bucket, key, uploadId);
+            throw e;
+        }
+    }
+
+
+    private PartETag uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] buffer, int length, boolean lastPart) {
+
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucket)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withInputStream(new ByteArrayInputStream(buffer, 0, length))
+                .withPartSize(length)
+                .withLastPart(lastPart);
+        request.getRequestClientOptions().setReadLimit(length + 1);
+
+        return amazonS3.uploadPart(request).getPartETag();
+    }
+
+
+    private void abort(String bucket, String key, String uploadId) {
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+        } catch (RuntimeException e) {
+            log.warn("S3 multipart upload 취소 실패. key: {}, uploadId: {}, message: {}", key, uploadId, e.getMessage());
+        }
+    }
+
+
+    // 버퍼가 모두 사용 중이라면 최대 bufferWaitMillis (요청의 남은 시간이 더 짧다면 남은 시간) 동안 기다린다.
+    private byte[] acquireBuffer() throws InterruptedIOException {
+        try {
+            byte[] buffer = bufferPool.acquire(Deadline.remainingMillis(bufferWaitMillis));
+            if (buffer == null) {
+                log.warn("S3 업로드 버퍼가 모두 사용 중입니다. maxBuffers: {}", bufferPool.getMaxBuffers());
+                throw new BusinessException(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("S3 업로드 버퍼 대기 중 인터럽트");
+        }
+    }
+}
@@ -55,7 +55,7 @@ public class UserController {
 
 
     @SetSuccess(SuccessCode.USER_UPDATED)
-    @Operation(summary = "유저 프로필 이미지 변경", security = @SecurityRequirement(name = "JWT"), description = "프로필 이미지 변경 API 입니다.")
+    @Operation(summary = "유저 프로필 이미지 변경", security = @SecurityRequirement(name = "JWT"), description = "프로필 이미지 변경 API 입니다. 원본을 저장하고 바로 응답하며, 처리 후 256/128/64px 정사각형 JPEG({UUID}_{크기}.jpg)로 교체됩니다. (최대 10MB, JPEG/PNG/GIF/WEBP)")
     @PatchMapping(value = "/user/profile-image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public String profileImageUpdate(@AuthenticationPrincipal CustomUserDetails customUserDetails, @RequestParam MultipartFile profileImage) throws IOException {
 
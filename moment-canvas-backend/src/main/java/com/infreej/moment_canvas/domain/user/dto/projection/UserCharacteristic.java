@@ -1,6 +1,7 @@
 package com.infreej.moment_canvas.domain.user.dto.projection;
 
 import com.infreej.moment_canvas.domain.user.entity.Gender;
+import com.infreej.moment_canvas.domain.user.entity.Role;
 
 import java.time.LocalDate;
 
@@ -13,4 +14,5 @@ public interface UserCharacteristic {
     LocalDate getBirthday(); // 생년월일
     Gender getGender(); // 성별 (MALE, FEMALE)
     String getPersona(); // 사용자 특징
+    Role getRole(); // 권한 (AI 호출 대기열 우선순위)
 }
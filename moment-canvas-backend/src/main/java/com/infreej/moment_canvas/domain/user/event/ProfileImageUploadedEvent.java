@@ -0,0 +1,10 @@
+package com.infreej.moment_canvas.domain.user.event;
+
+/**
+ * 프로필 이미지 원본이 업로드되었음을 알리는 이벤트 (트랜잭션 커밋 후 이전 이미지 삭제, 정규화)
+ * @param userId 유저 PK
+ * @param savedImageName 저장된 원본 이미지명
+ * @param previousImageName 이전에 저장된 프로필 이미지명 (없다면 null)
+ */
+public record ProfileImageUploadedEvent(long userId, String savedImageName, String previousImageName) {
+}
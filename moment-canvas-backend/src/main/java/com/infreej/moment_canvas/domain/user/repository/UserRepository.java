@@ -4,6 +4,8 @@ import com.infreej.moment_canvas.domain.user.dto.projection.UserCharacteristic;
 import com.infreej.moment_canvas.domain.user.entity.Provider;
 import com.infreej.moment_canvas.domain.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
@@ -29,4 +31,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // provider와 providerId가 일치하는 유저 정보를 조회한다.
     Optional<User> findByProviderAndProviderId(Provider provider, String providerId);
+
+    // 저장된 프로필 이미지가 expected 일 때만 replacement 로 바꾼다. (그 사이 새 이미지를 올렸다면 0 반환)
+    @Modifying
+    @Query("UPDATE User u SET u.savedProfileImageName = :replacement WHERE u.userId = :userId AND u.savedProfileImageName = :expected")
+    int swapSavedProfileImageName(long userId, String expected, String replacement);
 }
@@ -0,0 +1,211 @@
+package com.infreej.moment_canvas.domain.user.service;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.domain.user.event.ProfileImageUploadedEvent;
+import com.infreej.moment_canvas.domain.user.repository.UserRepository;
+import com.infreej.moment_canvas.global.util.ExifOrientation;
+import com.infreej.moment_canvas.global.util.ImageResizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 업로드된 프로필 이미지 정규화 백그라운드 작업
+ * - 원본(카메라 사진 등)을 정해진 아바타 크기(AVATAR_SIZES)의 정사각형 JPEG 로 줄이고, EXIF 등 메타데이터를 지운다.
+ * - 메타데이터를 지우기 전에 EXIF 방향 정보대로 픽셀을 돌려 둔다.
+ * - 모든 크기를 저장한 뒤, 저장된 프로필 이미지가 아직 그 원본일 때만 가장 큰 크기로 바꾸고 원본을 삭제한다.
+ *   (그 사이 새 이미지를 올렸다면 정규화한 파일을 삭제한다.)
+ * - 실패하면 원본을 그대로 사용한다.
+ * - 새 이미지를 올렸다면 이전 프로필 이미지(정규화된 모든 크기 또는 원본)를 삭제한다.
+ * - 결과는 user.profile-image.normalize 메트릭(outcome 태그)으로 확인할 수 있다.
+ */
+@Slf4j
+@Component
+public class ProfileImageNormalizer {
+
+    // 아바타 크기 (px, 큰 순서), 저장된 이미지명은 가장 큰 크기이고 나머지는 {UUID}_{크기}.jpg 로 저장한다.
+    public static final int[] AVATAR_SIZES = {256, 128, 64};
+
+    // EXIF 방향 정보를 찾기 위해 앞부분을 읽는 최대 길이 (APP0, APP1 등 앞쪽 세그먼트 몇 개)
+    private static final int EXIF_READ_LIMIT = 256 * 1024;
+
+    private final ImageService imageService;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor profileImageExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.profile-image.normalize-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.profile-image.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    public ProfileImageNormalizer(ImageService imageService,
+                                  UserRepository userRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Qualifier("profileImageExecutor") ThreadPoolTaskExecutor profileImageExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.imageService = imageService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.profileImageExecutor = profileImageExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    /**
+     * 원본 저장 트랜잭션이 커밋된 뒤 이전 프로필 이미지 삭제와 정규화를 예약한다.
+     * - 큐가 가득 찼다면 정규화하지 않고(원본 사용) 이전 이미지만 바로 삭제한다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProfileImageUploaded(ProfileImageUploadedEvent event) {
+
+        List<String> previousNames = storedNamesOf(event.previousImageName());
+        try {
+            profileImageExecutor.execute(() -> {
+                deleteAll(previousNames);
+                if (enabled) {
+                    normalize(event.userId(), event.savedImageName());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            if (enabled) {
+                count("rejected");
+            }
+            deleteAll(previousNames);
+        }
+    }
+
+
+    /**
+     * 저장된 프로필 이미지명으로 함께 저장된 파일 목록을 만드는 메서드
+     * - 정규화된 이미지({UUID}_256.jpg)라면 다른 아바타 크기도 포함하고, 정규화 전 원본이라면 그 파일만 포함한다.
+     */
+    static List<String> storedNamesOf(String savedImageName) {
+
+        if (savedImageName == null || savedImageName.isBlank()) {
+            return List.of();
+        }
+
+        String largestSuffix = "_" + AVATAR_SIZES[0] + ".jpg";
+        if (!savedImageName.endsWith(largestSuffix)) {
+            return List.of(savedImageName);
+        }
+
+        String baseName = savedImageName.substring(0, savedImageName.length() - largestSuffix.length());
+        List<String> names = new ArrayList<>();
+        for (int size : AVATAR_SIZES) {
+            names.add(avatarName(baseName, size));
+        }
+        return names;
+    }
+
+
+    private void normalize(long userId, String originalName) {
+
+        String baseName = UUID.randomUUID().toString();
+        List<String> storedNames = new ArrayList<>();
+        try {
+            BufferedImage square = readSquare(originalName);
+
+            // 큰 크기부터 줄여 나가며 저장 (원본보다 큰 크기로 늘리지 않는다.)
+            BufferedImage current = square;
+            for (int size : AVATAR_SIZES) {
+                int side = Math.min(size, square.getWidth());
+                current = ImageResizer.resize(current, side, side);
+                String name = avatarName(baseName, size);
+                store(name, current);
+                storedNames.add(name);
+            }
+
+            // 아직 그 원본을 사용 중일 때만 교체
+            String normalizedName = storedNames.get(0);
+            Integer swapped = transactionTemplate.execute(status -> userRepository.swapSavedProfileImageName(userId, originalName, normalizedName));
+            if (swapped == null || swapped == 0) {
+                count("superseded");
+                deleteAll(storedNames);
+                return;
+            }
+
+            deleteAll(List.of(originalName));
+            count("normalized");
+            log.info("프로필 이미지 정규화 완료. userId: {}, {} -> {}", userId, originalName, normalizedName);
+
+        } catch (Exception e) {
+            count("failed");
+            log.warn("프로필 이미지 정규화 실패. 원본을 사용합니다. userId: {}, message: {}", userId, e.getMessage());
+            deleteAll(storedNames);
+        }
+    }
+
+
+    // 원본을 읽어 방향을 바로잡고 가운데를 정사각형으로 자른다.
+    private BufferedImage readSquare(String originalName) throws IOException {
+
+        try (InputStream in = new BufferedInputStream(imageService.openImage(originalName, ImageType.Profile), EXIF_READ_LIMIT)) {
+            in.mark(EXIF_READ_LIMIT);
+            int orientation = ExifOrientation.read(in, EXIF_READ_LIMIT);
+            in.reset();
+
+            BufferedImage image = ImageResizer.read(in, AVATAR_SIZES[0], AVATAR_SIZES[0]);
+            return ImageResizer.cropSquare(ImageResizer.orient(image, orientation));
+        }
+    }
+
+
+    private void store(String name, BufferedImage image) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageResizer.writeJpeg(image, jpegQuality, out);
+
+        try (InputStream in = new ByteArrayInputStream(out.toByteArray())) {
+            imageService.storeImage(name, ImageType.Profile, in, out.size(), "image/jpeg");
+        }
+    }
+
+
+    // {UUID}_{크기}.jpg
+    private static String avatarName(String baseName, int size) {
+        return baseName + "_" + size + ".jpg";
+    }
+
+
+    private void deleteAll(List<String> names) {
+        for (String name : names) {
+            try {
+                imageService.deleteImage(name, ImageType.Profile);
+            } catch (IOException | RuntimeException e) {
+                log.warn("프로필 이미지 삭제 실패. name: {}, message: {}", name, e.getMessage());
+            }
+        }
+    }
+
+
+    private void count(String outcome) {
+        Counter.builder("user.profile-image.normalize")
+                .description("프로필 이미지 정규화 결과 (normalized, superseded, rejected, failed)")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
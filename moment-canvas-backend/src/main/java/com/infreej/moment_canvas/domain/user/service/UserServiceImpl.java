@@ -1,8 +1,10 @@
 package com.infreej.moment_canvas.domain.user.service;
 
+import com.infreej.moment_canvas.domain.ai.service.ImagePromptCache;
 import com.infreej.moment_canvas.domain.email.entity.EmailVerification;
 import com.infreej.moment_canvas.global.entity.YesOrNo;
 import com.infreej.moment_canvas.domain.email.repository.EmailRepository;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageFormat;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
 import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
 import com.infreej.moment_canvas.domain.image.service.ImageService;
@@ -10,18 +12,24 @@ import com.infreej.moment_canvas.domain.user.dto.request.SignupRequest;
 import com.infreej.moment_canvas.domain.user.dto.request.UpdateRequest;
 import com.infreej.moment_canvas.domain.user.dto.response.UserResponse;
 import com.infreej.moment_canvas.domain.user.entity.User;
+import com.infreej.moment_canvas.domain.user.event.ProfileImageUploadedEvent;
 import com.infreej.moment_canvas.domain.user.repository.UserRepository;
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.PushbackInputStream;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +40,12 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final ImageService imageService;
     private final EmailRepository emailRepository;
+    private final ImagePromptCache imagePromptCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.profile-image.max-bytes:10485760}")
+    private long profileImageMaxBytes; // 업로드할 수 있는 프로필 이미지 최대 크기
 
 
     /**
@@ -112,30 +126,74 @@ public class UserServiceImpl implements UserService {
         // 엔티티 필드 수정
         user.updateUserInfo(updateRequest);
 
+        // 페르소나(생년월일, 성별, 특징)가 바뀌었을 수 있으므로 이미지 프롬프트 캐시 무효화
+        imagePromptCache.invalidateUser(userId);
+
         return UserResponse.from(user);
     }
 
 
     /**
      * 프로필 이미지 업데이터 메서드
+     * - 파일 앞부분의 시그니처(magic bytes)로 이미지 형식을 확인하며 원본을 그대로 저장하고 바로 응답한다.
+     * - 업로드 중에는 DB 커넥션을 잡지 않도록, 원본을 저장한 뒤 짧은 트랜잭션으로 프로필 이미지명만 바꾼다.
+     * - 커밋 후 백그라운드에서 이전 프로필 이미지를 삭제하고, 아바타 크기로 줄이고 메타데이터를 지운 이미지로 바뀐다. (ProfileImageNormalizer)
      * @param userId 유저 PK
      * @param profileImage 업로드된 이미지
-     * @return 저장된 프로필 이미지명
+     * @return 저장된 프로필 이미지명 (정규화 전 원본)
      */
     @Override
-    @Transactional
     public String profileImageUpdate(Long userId, MultipartFile profileImage) throws IOException {
 
-        User user = userRepository.findById(userId)
+        // 유저 존재 여부 확인 (없는 유저라면 업로드 전에 404)
+        userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
 
-        // 로컬에 파일 저장
-        ImageSaveRequest imageSaveRequest = imageService.saveUploadedImage(profileImage, ImageType.Profile);
+        // 빈 파일, 크기 체크
+        if (profileImage.isEmpty()) {
+            log.info("파일이 비어있습니다.");
+            throw new BusinessException(ErrorCode.IMAGE_NOT_FOUND);
+        }
+        if (profileImage.getSize() > profileImageMaxBytes) {
+            throw new BusinessException(ErrorCode.IMAGE_SIZE_EXCEEDED);
+        }
 
-        // 엔티티 수정
-        user.updateUserProfileImage(imageSaveRequest);
+        // 원본 저장 (확장자는 클라이언트가 보낸 파일명이 아닌 실제 형식으로 정한다.)
+        String savedImageName;
+        try (PushbackInputStream in = new PushbackInputStream(profileImage.getInputStream(), ImageFormat.SIGNATURE_LENGTH)) {
+            ImageFormat imageFormat = ImageFormat.detect(in);
+            savedImageName = UUID.randomUUID() + imageFormat.getExtension();
+            imageService.storeImage(savedImageName, ImageType.Profile, in, profileImage.getSize(), imageFormat.getContentType());
+        }
 
-        return imageSaveRequest.getSavedImageName();
+        // 엔티티 수정 (업로드 중 변경되었을 수 있으므로 다시 조회한다.)
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                User user = userRepository.findById(userId)
+                        .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
+                String previousImageName = user.getSavedProfileImageName();
+
+                user.updateUserProfileImage(new ImageSaveRequest(profileImage.getOriginalFilename(), savedImageName));
+
+                // 커밋 후 이전 이미지 삭제, 정규화
+                applicationEventPublisher.publishEvent(new ProfileImageUploadedEvent(userId, savedImageName, previousImageName));
+            });
+        } catch (RuntimeException e) {
+            // 반영되지 않은 원본은 삭제
+            deleteQuietly(savedImageName);
+            throw e;
+        }
+
+        return savedImageName;
+    }
+
+
+    private void deleteQuietly(String savedImageName) {
+        try {
+            imageService.deleteImage(savedImageName, ImageType.Profile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("프로필 이미지 삭제 실패. name: {}, message: {}", savedImageName, e.getMessage());
+        }
     }
 
 
@@ -2,11 +2,13 @@ package com.infreej.moment_canvas.global.advice;
 
 import com.infreej.moment_canvas.global.code.ErrorCode;
 import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.exception.RateLimitExceededException;
 import com.infreej.moment_canvas.global.response.ErrorResponse;
 import com.infreej.moment_canvas.global.util.MessageUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -27,6 +29,17 @@ public class GlobalExceptionHandler {
     }
 
 
+    // 요청 횟수 제한 초과 예외 처리 (Retry-After 헤더 포함)
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex, HttpServletRequest request) {
+        ResponseEntity<ErrorResponse> response = buildErrorResponse(ex.getErrorCode(), request.getRequestURI());
+
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+
     /**
      * OpenAI API 호출 시 발생하는 HTTP 에러 처리
      */
@@ -0,0 +1,32 @@
+package com.infreej.moment_canvas.global.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 요청 횟수 제한 (Redis 토큰 버킷)
+ * - 로그인 사용자는 userId, 비로그인 사용자는 IP 기준으로 제한한다.
+ * - 권한별 한도는 app.rate-limit.{name}.{user|vip|admin|anonymous}.capacity / refill-per-minute 로 설정하며,
+ *   설정이 없다면 아래 기본값을 사용한다.
+ * - 요청 한 번의 비용이 다르다면(이미지 후보 개수 등) permits 에 사용할 토큰 수를 SpEL 로 지정한다.
+ * - 요청자 식별값 외에 함께 제한할 값(대상 이메일 등)이 있다면 key 에 SpEL 로 지정한다. (같은 한도의 버킷을 하나 더 사용한다.)
+ * - 비용이 들지 않는 요청(기존 결과를 돌려주는 재요청 등)은 skip 에 SpEL 조건으로 지정해 토큰을 사용하지 않는다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    String name(); // 제한 정책 이름 (설정 키, Redis 키에 사용)
+
+    int capacity() default 5; // 한 번에 몰아서 보낼 수 있는 최대 요청 수
+
+    int refillPerMinute() default 5; // 1분에 충전되는 요청 수
+
+    String permits() default ""; // 요청 한 번에 사용할 토큰 수 (SpEL, 메서드 인자는 #이름, 빈은 @이름으로 참조, 비어 있으면 1)
+
+    String key() default ""; // 함께 제한할 값 (SpEL, 비어 있으면 요청자 기준으로만 제한)
+
+    String skip() default ""; // 토큰을 사용하지 않을 조건 (SpEL, 토큰 사용 전에 평가, 비어 있으면 항상 사용)
+}
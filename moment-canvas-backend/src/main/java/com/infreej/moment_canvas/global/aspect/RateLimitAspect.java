@@ -0,0 +1,188 @@
+package com.infreej.moment_canvas.global.aspect;
+
+import com.infreej.moment_canvas.global.annotation.RateLimit;
+import com.infreej.moment_canvas.global.exception.RateLimitExceededException;
+import com.infreej.moment_canvas.global.security.CustomUserDetails;
+import com.infreej.moment_canvas.global.util.TokenBucketRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 요청 횟수 제한 Aspect
+ * - @RateLimit 이 붙은 메서드 실행 전에 사용자별 토큰 버킷에서 토큰을 1개(permits 가 있다면 그 값만큼) 사용한다.
+ * - key 가 있다면 그 값(대상 이메일 등) 기준 버킷에서도 토큰을 사용한다. (IP 를 바꿔 가며 보내는 요청도 제한한다.)
+ * - skip 조건이 참이라면 토큰을 사용하지 않는다. (기존 작업을 돌려주는 재요청 등)
+ * - 토큰이 없다면 429 와 Retry-After 를 응답한다.
+ * - 권한별 한도 설정(capacity, refill-per-minute)이 0 이하라면 서버를 시작하지 않는다.
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RateLimitAspect {
+
+    private static final ExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final TokenBucketRateLimiter tokenBucketRateLimiter;
+    private final Environment environment;
+    private final BeanFactory beanFactory;
+
+    // permits, key, skip 표현식 캐시 (표현식 문자열 -> 파싱 결과)
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 권한별 한도 설정 검증 (충전 속도가 0 이하면 토큰 버킷이 대기 시간을 계산할 수 없다.)
+     */
+    @PostConstruct
+    void validateLimits() {
+
+        if (!(environment instanceof ConfigurableEnvironment configurableEnvironment)) {
+            return;
+        }
+
+        for (var propertySource : configurableEnvironment.getPropertySources()) {
+            if (!(propertySource instanceof EnumerablePropertySource<?> enumerable)) {
+                continue;
+            }
+            for (String name : enumerable.getPropertyNames()) {
+                if (name.startsWith("app.rate-limit.") && (name.endsWith(".capacity") || name.endsWith(".refill-per-minute"))) {
+                    Integer value = environment.getProperty(name, Integer.class);
+                    if (value == null || value < 1) {
+                        throw new IllegalStateException("요청 횟수 제한 설정은 1 이상이어야 합니다. " + name + ": " + value);
+                    }
+                }
+            }
+        }
+    }
+
+
+    @Around("@annotation(rateLimit)")
+    public Object checkRateLimit(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+
+        if (!enabled || skip(joinPoint, rateLimit)) {
+            return joinPoint.proceed();
+        }
+
+        // 사용자 식별값, 권한별 정책 키 결정
+        String identifier;
+        String policy;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            identifier = "user:" + userDetails.getUser().getUserId();
+            policy = userDetails.getUser().getRole().name().toLowerCase();
+        } else {
+            identifier = "ip:" + clientIp();
+            policy = "anonymous";
+        }
+
+        // 권한별 한도 (설정이 없으면 어노테이션 기본값)
+        String prefix = "app.rate-limit." + rateLimit.name() + "." + policy + ".";
+        int capacity = environment.getProperty(prefix + "capacity", Integer.class, rateLimit.capacity());
+        int refillPerMinute = environment.getProperty(prefix + "refill-per-minute", Integer.class, rateLimit.refillPerMinute());
+
+        int permits = permits(joinPoint, rateLimit);
+
+        consume(rateLimit, identifier, capacity, refillPerMinute, permits);
+
+        // 추가 제한 키 (대상 이메일 등, 요청자가 바꿀 수 없는 값)
+        String key = key(joinPoint, rateLimit);
+        if (key != null) {
+            consume(rateLimit, "key:" + key, capacity, refillPerMinute, permits);
+        }
+
+        return joinPoint.proceed();
+    }
+
+
+    private void consume(RateLimit rateLimit, String identifier, int capacity, int refillPerMinute, int permits) {
+
+        long retryAfterMillis = tokenBucketRateLimiter.tryConsume(rateLimit.name() + ":" + identifier, capacity, refillPerMinute, permits);
+        if (retryAfterMillis > 0) {
+            long retryAfterSeconds = (retryAfterMillis + 999) / 1000;
+            log.warn("요청 횟수 제한 초과. name: {}, {}, permits: {}, retryAfter: {}s", rateLimit.name(), identifier, permits, retryAfterSeconds);
+            throw new RateLimitExceededException(retryAfterSeconds);
+        }
+    }
+
+
+    // 요청 한 번에 사용할 토큰 수 (표현식이 없거나 1보다 작으면 1)
+    private int permits(ProceedingJoinPoint joinPoint, RateLimit rateLimit) {
+
+        if (rateLimit.permits().isBlank()) {
+            return 1;
+        }
+
+        Integer permits = evaluate(joinPoint, rateLimit.permits(), Integer.class);
+        return permits == null ? 1 : Math.max(1, permits);
+    }
+
+
+    // 토큰을 사용하지 않을 요청인지 여부
+    private boolean skip(ProceedingJoinPoint joinPoint, RateLimit rateLimit) {
+
+        return !rateLimit.skip().isBlank() && Boolean.TRUE.equals(evaluate(joinPoint, rateLimit.skip(), Boolean.class));
+    }
+
+
+    // 추가 제한 키 (표현식이 없거나 값이 비어 있으면 null, 대소문자와 앞뒤 공백은 구분하지 않는다.)
+    private String key(ProceedingJoinPoint joinPoint, RateLimit rateLimit) {
+
+        if (rateLimit.key().isBlank()) {
+            return null;
+        }
+
+        String key = evaluate(joinPoint, rateLimit.key(), String.class);
+        return key == null || key.isBlank() ? null : key.trim().toLowerCase(Locale.ROOT);
+    }
+
+
+    private <T> T evaluate(ProceedingJoinPoint joinPoint, String expression, Class<T> type) {
+
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                null, ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getArgs(), PARAMETER_NAME_DISCOVERER);
+        context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+
+        return expressions.computeIfAbsent(expression, EXPRESSION_PARSER::parseExpression).getValue(context, type);
+    }
+
+
+    // 클라이언트 IP (X-Forwarded-For 는 server.tomcat.remoteip.internal-proxies 에 있는 프록시에서 온 요청일 때만 반영된다.)
+    private String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return "unknown";
+    }
+}
@@ -14,6 +14,8 @@ public enum ErrorCode {
     COMMON_BAD_REQUEST(HttpStatus.BAD_REQUEST, "E0003", "error.common.bad.request"), // 그 외 잘못된 요청
     COMMON_METHOD_NOT_ALLOWED(HttpStatus.METHOD_NOT_ALLOWED, "E0004", "error.common.method.not.allowed"),
     COMMON_TEMPORARY_SERVER_ERROR(HttpStatus.SERVICE_UNAVAILABLE, "E0005", "error.common.temporary.server"),
+    COMMON_TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "E0006", "error.common.too.many.requests"), // 요청 횟수 제한 초과
+    COMMON_DEADLINE_EXCEEDED(HttpStatus.GATEWAY_TIMEOUT, "E0007", "error.common.deadline.exceeded"), // 요청 제한 시간(deadline) 초과
 
 
     // ==================== 인증/인가 에러 (1xxx) ====================
@@ -47,6 +49,12 @@ public enum ErrorCode {
     IMAGE_EXTENSION_NOT_SUPPORTED(HttpStatus.BAD_REQUEST, "E4003", "error.image.extension.not.supported"),
     IMAGE_GENERATED_ERROR(HttpStatus.BAD_REQUEST, "E4003", "error.image.generated.error"),
     IMAGE_POLICY_VIOLATION(HttpStatus.BAD_REQUEST, "E4004", "error.image.policy.violation"),
+    IMAGE_JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "E4005", "error.image.job.not.found"),
+    IMAGE_JOB_NOT_RETRYABLE(HttpStatus.CONFLICT, "E4006", "error.image.job.not.retryable"), // 실패하지 않은 작업 재시도
+    IMAGE_IDEMPOTENCY_KEY_MISMATCH(HttpStatus.UNPROCESSABLE_ENTITY, "E4007", "error.image.idempotency.key.mismatch"), // 같은 Idempotency-Key 로 다른 요청
+    IMAGE_CANDIDATE_NOT_FOUND(HttpStatus.NOT_FOUND, "E4008", "error.image.candidate.not.found"), // 보관 기간이 지났거나 다른 일기의 이미지 후보
+    IMAGE_CANDIDATE_REQUIRED(HttpStatus.BAD_REQUEST, "E4009", "error.image.candidate.required"), // 이미지 URL 대신 후보 PK 로만 저장 가능
+    IMAGE_STYLE_NOT_SUPPORTED(HttpStatus.BAD_REQUEST, "E4010", "error.image.style.not.supported"), // 이미지 생성 화면의 스타일 목록에 없는 스타일
 
     // ==================== AI 관련 에러 (5xxx) ====================
     AI_POLICY_VIOLATION(HttpStatus.BAD_REQUEST, "E5001", "ai.policy.violation"),
@@ -55,6 +63,9 @@ public enum ErrorCode {
     AI_QUOTA_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "E5004", "ai.quota.exceeded"),
     AI_AUTH_ERROR(HttpStatus.UNAUTHORIZED, "E5005", "ai.auth.error"),
     AI_UNKNOWN_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "E5006", "ai.unknown.error"),
+    AI_WEBHOOK_INVALID_SIGNATURE(HttpStatus.UNAUTHORIZED, "E5007", "ai.webhook.invalid.signature"),
+    AI_CAPACITY_EXCEEDED(HttpStatus.SERVICE_UNAVAILABLE, "E5008", "ai.capacity.exceeded"), // AI 호출 대기열 초과
+    AI_INVALID_RESPONSE(HttpStatus.BAD_GATEWAY, "E5009", "ai.invalid.response"), // 구조화된 응답(JSON) 해석 실패
 
     // ==================== ADMIN 관련 에러 (6xxx) ====================
     ADMIN_FORBIDDEN(HttpStatus.FORBIDDEN, "E5001", "admin.forbidden");
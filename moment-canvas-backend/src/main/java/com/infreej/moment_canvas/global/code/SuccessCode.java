@@ -48,6 +48,9 @@ public enum SuccessCode {
     IMAGE_SUCCESS(HttpStatus.OK, "S4003", "success.image.success"),
     IMAGE_UPDATED(HttpStatus.OK, "S4004", "success.image.updated"),
     IMAGE_DELETED(HttpStatus.OK, "S4005", "success.image.deleted"),
+    IMAGE_JOB_ACCEPTED(HttpStatus.ACCEPTED, "S4006", "success.image.job.accepted"),
+    IMAGE_JOB_SUCCESS(HttpStatus.OK, "S4007", "success.image.job.success"),
+    IMAGE_CANDIDATE_SUCCESS(HttpStatus.OK, "S4008", "success.image.candidate.success"),
 
     // ==================== 이메일 관련 성공 (5xxx) ====================
     EMAIL_SEND(HttpStatus.OK, "S5001", "success.email.send"),
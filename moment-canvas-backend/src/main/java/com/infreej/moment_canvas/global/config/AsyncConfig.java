@@ -0,0 +1,157 @@
+package com.infreej.moment_canvas.global.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 요청 스레드(Tomcat)와 분리된 작업용 스레드 풀 설정
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${app.image-job.queue.consumer.concurrency:16}")
+    private int imageJobConcurrency;
+
+    @Value("${app.image-job.render-executor.core-size:8}")
+    private int imageRenderCoreSize;
+
+    @Value("${app.image-job.render-executor.max-size:32}")
+    private int imageRenderMaxSize;
+
+    @Value("${app.image-job.render-executor.queue-capacity:100}")
+    private int imageRenderQueueCapacity;
+
+    @Value("${app.image.variant.executor.max-size:2}")
+    private int imageVariantMaxSize;
+
+    @Value("${app.image.variant.executor.queue-capacity:100}")
+    private int imageVariantQueueCapacity;
+
+    @Value("${app.profile-image.executor.max-size:2}")
+    private int profileImageMaxSize;
+
+    @Value("${app.profile-image.executor.queue-capacity:100}")
+    private int profileImageQueueCapacity;
+
+    @Value("${spring.ai.speculative-prompt.executor.max-size:2}")
+    private int speculativePromptMaxSize;
+
+    @Value("${spring.ai.speculative-prompt.executor.queue-capacity:50}")
+    private int speculativePromptQueueCapacity;
+
+    @Value("${spring.ai.fast-prompt.executor.max-size:16}")
+    private int promptModelMaxSize;
+
+    @Value("${spring.ai.fast-prompt.executor.queue-capacity:100}")
+    private int promptModelQueueCapacity;
+
+    /**
+     * 이미지 생성 작업 전용 스레드 풀
+     * - 외부 AI 호출 대기는 이 풀에서만 일어나므로 요청 스레드가 점유되지 않는다.
+     * - 작업 소비자(ImageJobWorker)가 작업 큐에서 처리할 수 있는 만큼만 읽어 이 풀에 넘긴다.
+     * - 읽은 작업은 바로 실행되어야 하므로 스레드 수를 동시 처리 수와 같게 두고 대기열은 두지 않는다.
+     *   (대기열이 있다면 core 크기만큼만 실행되고 나머지는 대기열에서 기다린다.)
+     */
+    @Bean(name = "imageGenerationExecutor")
+    public ThreadPoolTaskExecutor imageGenerationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageJobConcurrency);
+        executor.setMaxPoolSize(imageJobConcurrency);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("image-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true); // 종료 시 진행 중인 작업은 마무리
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+
+    /**
+     * 이미지 후보 동시 생성 전용 스레드 풀
+     * - 작업 스레드가 후보 생성을 기다리는 동안 같은 풀의 스레드를 모두 차지하지 않도록 작업 풀과 분리한다.
+     */
+    @Bean(name = "imageRenderExecutor")
+    public ThreadPoolTaskExecutor imageRenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageRenderCoreSize);
+        executor.setMaxPoolSize(imageRenderMaxSize);
+        executor.setQueueCapacity(imageRenderQueueCapacity);
+        executor.setThreadNamePrefix("image-render-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+
+    /**
+     * 이미지 변환본(썸네일 등) 생성 전용 스레드 풀
+     * - 디코딩/리사이즈는 CPU 와 메모리를 많이 쓰므로 작게 유지하고, 큐가 가득 차면 요청을 거절(503)한다.
+     */
+    @Bean(name = "imageVariantExecutor")
+    public ThreadPoolTaskExecutor imageVariantExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageVariantMaxSize);
+        executor.setMaxPoolSize(imageVariantMaxSize);
+        executor.setQueueCapacity(imageVariantQueueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.initialize();
+        return executor;
+    }
+
+
+    /**
+     * 프로필 이미지 정규화 전용 스레드 풀
+     * - 업로드 응답은 원본 저장까지만 기다리고, 축소/재인코딩은 이 풀에서 진행한다.
+     * - 큐가 가득 차면 정규화를 건너뛰고 원본을 그대로 사용한다.
+     */
+    @Bean(name = "profileImageExecutor")
+    public ThreadPoolTaskExecutor profileImageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(profileImageMaxSize);
+        executor.setQueueCapacity(profileImageQueueCapacity);
+        executor.setThreadNamePrefix("profile-image-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+
+    /**
+     * 이미지 프롬프트 미리 생성 전용 스레드 풀
+     * - 백그라운드 작업이므로 작게 유지하고, 큐가 가득 차면 미리 생성을 건너뛴다.
+     */
+    @Bean(name = "speculativePromptExecutor")
+    public ThreadPoolTaskExecutor speculativePromptExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(speculativePromptMaxSize);
+        executor.setQueueCapacity(speculativePromptQueueCapacity);
+        executor.setThreadNamePrefix("speculative-prompt-");
+        executor.initialize();
+        return executor;
+    }
+
+
+    /**
+     * LLM 프롬프트 생성 전용 스레드 풀
+     * - 작업 스레드는 지연 예산만큼만 기다리고, 예산을 넘긴 LLM 호출은 이 풀에서 끝까지 진행되어 결과가 캐시된다.
+     * - 큐가 가득 차면 템플릿 프롬프트로 대신한다.
+     */
+    @Bean(name = "promptModelExecutor")
+    public ThreadPoolTaskExecutor promptModelExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(promptModelMaxSize);
+        executor.setQueueCapacity(promptModelQueueCapacity);
+        executor.setThreadNamePrefix("prompt-model-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,93 @@
+package com.infreej.moment_canvas.global.config;
+
+import com.infreej.moment_canvas.global.util.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.Configurable;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 전체 제한 시간(total deadline)을 지원하는 HTTP 클라이언트
+ * - 연결/읽기 타임아웃은 구간별 제한이라, 응답이 조금씩 계속 오면 요청이 끝나지 않을 수 있다.
+ * - 응답을 받기 전에 제한 시간이 지나면 요청을 취소(cancel)해 커넥션을 반환한다.
+ * - 현재 요청의 처리 제한 시각(Deadline)이 더 빠르다면 남은 시간만 기다리고, 이미 지났다면 요청을 보내지 않는다.
+ * - 감싼 클라이언트의 기본 RequestConfig 를 그대로 노출한다. (HttpComponentsClientHttpRequestFactory 는 Configurable 일 때만
+ *   클라이언트의 설정을 요청 설정의 기본값으로 사용하고, 아니라면 기본 설정(RequestConfig.DEFAULT)으로 덮어쓴다.)
+ */
+@Slf4j
+public class DeadlineHttpClient extends CloseableHttpClient implements Configurable {
+
+    private final CloseableHttpClient delegate;
+    private final long totalTimeoutMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public DeadlineHttpClient(CloseableHttpClient delegate, long totalTimeoutMillis) {
+        this.delegate = delegate;
+        this.totalTimeoutMillis = totalTimeoutMillis;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "http-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true); // 정상 완료된 요청의 취소 예약은 바로 제거
+    }
+
+
+    @Override
+    @SuppressWarnings("deprecation") // CloseableHttpResponse 를 그대로 반환받기 위해 사용
+    protected CloseableHttpResponse doExecute(HttpHost target, ClassicHttpRequest request, HttpContext context) throws IOException {
+
+        long timeoutMillis = Deadline.remainingMillis(totalTimeoutMillis > 0 ? totalTimeoutMillis : Long.MAX_VALUE);
+        if (timeoutMillis <= 0) {
+            throw new InterruptedIOException("요청 처리 제한 시각이 지나 HTTP 요청을 보내지 않습니다.");
+        }
+
+        if (timeoutMillis == Long.MAX_VALUE || !(request instanceof HttpUriRequestBase uriRequest)) {
+            return delegate.execute(target, request, context);
+        }
+
+        // 제한 시간이 지나면 요청 취소 (진행 중인 I/O 는 예외로 종료된다.)
+        ScheduledFuture<?> deadline = scheduler.schedule(() -> {
+            log.warn("HTTP 요청 전체 제한 시간 초과로 취소. uri: {}, timeout: {}ms", uriRequest.getRequestUri(), timeoutMillis);
+            uriRequest.cancel();
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            return delegate.execute(target, request, context);
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+
+    @Override
+    public RequestConfig getConfig() {
+        return delegate instanceof Configurable configurable ? configurable.getConfig() : null;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        delegate.close();
+    }
+
+
+    @Override
+    public void close(CloseMode closeMode) {
+        scheduler.shutdownNow();
+        delegate.close(closeMode);
+    }
+}
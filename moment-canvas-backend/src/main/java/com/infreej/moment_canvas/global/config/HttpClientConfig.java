@@ -0,0 +1,110 @@
+package com.infreej.moment_canvas.global.config;
+
+import com.infreej.moment_canvas.domain.ai.service.ProviderRateGovernor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * 외부 AI API(Replicate, OpenAI) 호출용 HTTP 클라이언트 설정
+ * - 커넥션 풀을 사용해 keep-alive 로 연결(TLS 핸드셰이크)을 재사용한다.
+ * - RestClient.Builder 에 적용되므로 ReplicatePredictionClient 와 Spring AI 의 OpenAI ChatModel 이 같은 풀을 사용한다.
+ * - 풀 상태는 httpcomponents.httpclient.pool.* 메트릭(httpclient=ai)으로 확인할 수 있다.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${spring.ai.http-client.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${spring.ai.http-client.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${spring.ai.http-client.connect-timeout-millis:10000}")
+    private long connectTimeoutMillis;
+
+    @Value("${spring.ai.http-client.connection-request-timeout-millis:5000}")
+    private long connectionRequestTimeoutMillis;
+
+    @Value("${spring.ai.http-client.read-timeout-millis:60000}")
+    private long readTimeoutMillis;
+
+    @Value("${spring.ai.http-client.total-timeout-millis:90000}")
+    private long totalTimeoutMillis;
+
+    @Value("${spring.ai.http-client.idle-eviction-millis:30000}")
+    private long idleEvictionMillis;
+
+    @Value("${spring.ai.http-client.time-to-live-millis:300000}")
+    private long timeToLiveMillis;
+
+
+    /**
+     * 커넥션 풀
+     * - 연결 타임아웃, 읽기(소켓) 타임아웃, 커넥션 최대 수명을 설정한다.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager aiConnectionManager(MeterRegistry meterRegistry) {
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute) // 호스트(api.replicate.com, api.openai.com)별 최대 커넥션 수
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        .setTimeToLive(TimeValue.ofMilliseconds(timeToLiveMillis))
+                        .build())
+                .build();
+
+        // 풀 메트릭 등록 (available, leased, pending 커넥션 수)
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "ai").bindTo(meterRegistry);
+
+        return connectionManager;
+    }
+
+
+    /**
+     * 커넥션 풀을 사용하는 HTTP 클라이언트
+     * - 일정 시간 사용하지 않은 커넥션과 만료된 커넥션은 백그라운드에서 정리한다.
+     * - 풀에서 커넥션을 기다리는 시간과 요청 전체 제한 시간을 함께 적용한다.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient aiHttpClient(PoolingHttpClientConnectionManager aiConnectionManager) {
+
+        CloseableHttpClient pooledHttpClient = HttpClients.custom()
+                .setConnectionManager(aiConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMillis))
+                .evictExpiredConnections()
+                .build();
+
+        return new DeadlineHttpClient(pooledHttpClient, totalTimeoutMillis);
+    }
+
+
+    /**
+     * 모든 RestClient.Builder 에 커넥션 풀과 제공자 호출 속도 조절(ProviderRateGovernor)을 적용한다.
+     */
+    @Bean
+    public RestClientCustomizer aiRestClientCustomizer(CloseableHttpClient aiHttpClient, ProviderRateGovernor providerRateGovernor) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(aiHttpClient);
+        return builder -> builder
+                .requestFactory(requestFactory)
+                .requestInterceptor(providerRateGovernor);
+    }
+}
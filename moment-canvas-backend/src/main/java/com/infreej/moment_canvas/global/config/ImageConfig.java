@@ -1,34 +1,41 @@
 package com.infreej.moment_canvas.global.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+import java.nio.file.Paths;
+import java.util.Map;
 
 @Configuration
-public class ImageConfig implements WebMvcConfigurer {
+public class ImageConfig {
 
     // 이미지가 실제로 저장될 로컬 폴더 경로
     @Value("${file.upload-dir}")
     private String uploadDir;
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+    // 이 크기 이상인 이미지는 sendfile(zero-copy)로 전송 (0 이면 사용하지 않음, Tomcat DefaultServlet 기본값과 같은 48KB)
+    @Value("${app.image.serve.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes;
+
 
-        // 클라이언트가 이미지를 요청할 패턴
-        String urlPath = "/images/**";
+    /**
+     * 클라이언트가 이미지를 요청할 패턴 (/images/**) 등록
+     * - 기본 정적 리소스 핸들러 대신 ImageFileHandler 로 전송한다. (immutable 캐시, ETag/304, Range, sendfile)
+     * - 컨트롤러(/images/variants/**)를 먼저 찾고, 없을 때 이 핸들러로 넘어온다.
+     */
+    @Bean
+    public SimpleUrlHandlerMapping imageHandlerMapping(MeterRegistry meterRegistry) {
 
-//        registry.addResourceHandler(urlPath).addResourceLocations(uploadDir);
-        // uploadDir가 "file:"로 시작하지 않으면 붙여주고, 끝에 "/"가 없으면 붙여주는 방어 로직
-        String resourceLocation = uploadDir;
-        if (!resourceLocation.startsWith("file:")) {
-            resourceLocation = "file:" + resourceLocation;
-        }
-        if (!resourceLocation.endsWith("/")) {
-            resourceLocation = resourceLocation + "/";
-        }
+        // uploadDir 의 "file:" 접두사 제거 (끝의 "/" 는 경로로 바꾸면서 정리된다.)
+        String purePath = uploadDir.replace("file:", "");
 
-        registry.addResourceHandler(urlPath)
-                .addResourceLocations(resourceLocation);
+        SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping(
+                Map.of("/images/**", new ImageFileHandler(Paths.get(purePath), sendfileMinBytes, meterRegistry)));
+        handlerMapping.setOrder(Ordered.LOWEST_PRECEDENCE - 2); // 정적 리소스 핸들러(LOWEST_PRECEDENCE - 1)보다 먼저
+        return handlerMapping;
     }
 }
@@ -0,0 +1,240 @@
+package com.infreej.moment_canvas.global.config;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 로컬에 저장된 이미지(/images/{folder}/{savedImageName}) 전송 핸들러
+ * - 저장된 이미지명이 UUID 라면 내용이 바뀌지 않으므로 1년 동안 캐시하도록 응답한다. (immutable)
+ *   그 외의 파일은 매번 재검증(no-cache)하도록 응답한다.
+ * - ETag(크기 + 수정 시각)와 Last-Modified 로 조건부 요청에 304 로 응답한다. (If-Unmodified-Since 가 맞지 않다면 412)
+ * - 하나의 byte 범위(Range) 요청에 206 으로 응답한다. (여러 범위 요청은 전체를 200 으로 응답)
+ * - Tomcat 이 sendfile 을 지원하고 파일이 sendfileMinBytes 이상이라면, 본문을 쓰지 않고 Tomcat 에 파일 경로만 넘겨
+ *   커널이 파일을 소켓으로 바로 보내도록 한다. (zero-copy, 힙을 거치지 않음)
+ *   응답 본문을 바꾸는 필터(압축, 본문 캐싱 등)를 추가한다면 sendfile 을 끄고(sendfileMinBytes = 0) 사용해야 한다.
+ * - 전송 방식은 image.serve 메트릭(transfer 태그)으로 확인할 수 있다.
+ */
+public class ImageFileHandler implements HttpRequestHandler {
+
+    // Tomcat sendfile 요청 속성 (org.apache.catalina.Globals)
+    static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    // {folder}/{savedImageName}, 숨김 파일(업로드 중인 임시 파일 등)과 상위 경로는 허용하지 않는다.
+    private static final Pattern PATH_PATTERN = Pattern.compile("([a-z]+-images)/([0-9A-Za-z_-]{1,64}\\.[0-9A-Za-z]{1,5})");
+
+    // UUID 이미지명 (프로필 이미지 정규화 파일의 _{크기} 포함)
+    private static final Pattern IMMUTABLE_NAME_PATTERN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(_[0-9]+)?\\.[0-9A-Za-z]{1,5}");
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private final Path root;
+    private final long sendfileMinBytes;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param root 이미지 저장 경로 (file.upload-dir)
+     * @param sendfileMinBytes 이 크기 이상일 때 sendfile 로 전송 (0 이면 사용하지 않음)
+     */
+    public ImageFileHandler(Path root, long sendfileMinBytes, MeterRegistry meterRegistry) {
+        this.root = root.toAbsolutePath().normalize();
+        this.sendfileMinBytes = sendfileMinBytes;
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        Path file = resolve((String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE));
+        BasicFileAttributes attributes = file == null ? null : readAttributes(file);
+        if (attributes == null || !attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String fileName = file.getFileName().toString();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String eTag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (IMMUTABLE_NAME_PATTERN.matcher(fileName).matches() ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // If-None-Match, If-Modified-Since (304), If-Match, If-Unmodified-Since (412), ETag/Last-Modified 헤더 설정
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            count(response.getStatus() == HttpServletResponse.SC_PRECONDITION_FAILED ? "precondition-failed" : "not-modified");
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = findRange(request, eTag, lastModified);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = Math.min(range.getRangeEnd(length), length - 1);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(method) || count == 0) {
+            return;
+        }
+
+        if (sendfileMinBytes > 0 && count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+            // 서블릿이 끝난 뒤 Tomcat 이 파일을 소켓으로 바로 보낸다. (end 는 포함하지 않는 위치)
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, end + 1);
+            count("sendfile");
+            return;
+        }
+
+        copy(file, start, count, response);
+        count("copy");
+    }
+
+
+    // 요청 경로를 저장 경로 안의 파일로 바꾼다. (형식이 맞지 않거나 없는 폴더라면 null)
+    private Path resolve(String path) {
+
+        if (path == null) {
+            return null;
+        }
+
+        Matcher matcher = PATH_PATTERN.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String folder = matcher.group(1);
+        for (ImageType imageType : ImageType.values()) {
+            if (imageType.getFolderName().equals(folder)) {
+                return root.resolve(folder).resolve(matcher.group(2));
+            }
+        }
+        return null;
+    }
+
+
+    private BasicFileAttributes readAttributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * 응답할 범위를 찾는 메서드
+     * - 하나의 범위만 처리한다. 없거나, 여러 개이거나, If-Range 가 현재 파일과 맞지 않다면 null (전체 응답)
+     * - 형식이 잘못된 Range 헤더는 무시한다.
+     */
+    private HttpRange findRange(HttpServletRequest request, String eTag, long lastModified) {
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !matchesIfRange(request, eTag, lastModified)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+
+    // If-Range 는 강한 ETag 가 같거나, 날짜가 수정 시각과 같을 때만 범위 요청으로 처리한다.
+    private boolean matchesIfRange(HttpServletRequest request, String eTag, long lastModified) {
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+
+    // sendfile 을 사용할 수 없을 때 (작은 파일, HTTPS 등) 파일 채널에서 응답으로 복사
+    private void copy(Path file, long start, long count, HttpServletResponse response) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break; // 전송 중 파일이 줄어든 경우
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+
+    private void count(String transfer) {
+        Counter.builder("image.serve")
+                .description("로컬 이미지 전송 방식 (sendfile, copy, not-modified, precondition-failed)")
+                .tag("transfer", transfer)
+                .register(meterRegistry)
+                .increment();
+    }
+}
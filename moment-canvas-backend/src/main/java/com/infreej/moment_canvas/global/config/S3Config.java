@@ -2,8 +2,10 @@ package com.infreej.moment_canvas.global.config;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.infreej.moment_canvas.domain.image.service.S3StreamingUploader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,11 +24,43 @@ public class S3Config {
     @Value("${cloud.aws.region.static}")
     private String region;
 
+    // S3 호환 저장소 주소 (비어 있으면 AWS S3 사용, 로컬 MinIO 등으로 측정할 때 지정)
+    @Value("${cloud.aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${app.image.s3-upload.part-size-bytes:5242880}")
+    private int partSizeBytes;
+
+    @Value("${app.image.s3-upload.max-buffers:16}")
+    private int maxBuffers;
+
+    @Value("${app.image.s3-upload.buffer-wait-millis:10000}")
+    private long bufferWaitMillis;
+
     @Bean
     public AmazonS3 amazonS3() {
-        return AmazonS3ClientBuilder.standard()
-                .withRegion(region)
-                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)))
-                .build();
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)));
+
+        // aws-chunked 서명은 chunk 마다 새 버퍼를 할당해 전송량만큼 힙을 쓰므로 HTTPS 에서는 끈다. (본문 서명 대신 TLS 와 MD5 확인)
+        // HTTP 주소에서는 본문 전체를 서명해야 하므로, 되돌려 읽을 수 없는 스트림을 위해 켜 둔다.
+        builder.withChunkedEncodingDisabled(endpoint.isBlank() || endpoint.startsWith("https://"));
+
+        if (endpoint.isBlank()) {
+            builder.withRegion(region);
+        } else {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
+                    .withPathStyleAccessEnabled(true);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 길이를 모르는 스트림(생성된 이미지 URL)을 고정 크기 버퍼로 나누어 올리는 업로더
+     * - 버퍼 메모리는 part-size-bytes * max-buffers 를 넘지 않는다.
+     */
+    @Bean
+    public S3StreamingUploader s3StreamingUploader(AmazonS3 amazonS3) {
+        return new S3StreamingUploader(amazonS3, partSizeBytes, maxBuffers, bufferWaitMillis);
     }
 }
\ No newline at end of file
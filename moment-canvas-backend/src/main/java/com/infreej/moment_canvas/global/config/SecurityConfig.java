@@ -1,5 +1,6 @@
 package com.infreej.moment_canvas.global.config;
 
+import com.infreej.moment_canvas.domain.ai.controller.ReplicateStubController;
 import com.infreej.moment_canvas.global.jwt.JwtFilter;
 import com.infreej.moment_canvas.global.security.oauth.CustomOAuth2UserService;
 import com.infreej.moment_canvas.global.security.oauth.OAuth2LoginSuccessHandler;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -38,6 +40,7 @@ import java.util.Map;
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final Environment environment;
 
     // OAuth2 핸들러와 서비스 주입
     private final CustomOAuth2UserService customOAuth2UserService;
@@ -70,6 +73,9 @@ public class SecurityConfig {
 //                        .requestMatchers("/vip/**").hasAnyRole("ADMIN", "VIP")
                                 .requestMatchers("/images/**", "/oauth2/**", "/v1/token-exchange").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/v1/login", "/v1/mail-send", "/v1/verification-email-code", "/v1/user", "/v1/reissue").permitAll()
+                                .requestMatchers(HttpMethod.POST, "/v1/replicate/webhook").permitAll() // 서명으로 검증
+                                // Replicate 스텁 서버는 replicate-stub 프로필에서만 인증 없이 허용 (그 외에는 컨트롤러도 등록되지 않는다.)
+                                .requestMatchers(request -> isStubEnabled() && request.getRequestURI().startsWith("/stub/")).permitAll()
                                 .anyRequest().authenticated()
                 )
 
@@ -95,6 +101,11 @@ public class SecurityConfig {
     }
 
 
+    private boolean isStubEnabled() {
+        return environment.matchesProfiles(ReplicateStubController.PROFILE);
+    }
+
+
     // 소셜 로그인 요청을 가로채서 커스텀 파라미터를 추가하는 Resolver 반환
     private OAuth2AuthorizationRequestResolver customAuthorizationRequestResolver(ClientRegistrationRepository clientRegistrationRepository) {
         DefaultOAuth2AuthorizationRequestResolver resolver = new DefaultOAuth2AuthorizationRequestResolver(
@@ -0,0 +1,19 @@
+package com.infreej.moment_canvas.global.exception;
+
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import lombok.Getter;
+
+/**
+ * 요청 횟수 제한 초과 예외
+ * - Retry-After 헤더로 전달할 대기 시간(초)을 함께 가진다.
+ */
+@Getter
+public class RateLimitExceededException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super(ErrorCode.COMMON_TOO_MANY_REQUESTS);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
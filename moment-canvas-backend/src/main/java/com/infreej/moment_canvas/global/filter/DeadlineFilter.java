@@ -0,0 +1,57 @@
+package com.infreej.moment_canvas.global.filter;
+
+import com.infreej.moment_canvas.global.util.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 요청마다 처리 제한 시각(Deadline)을 설정하는 필터
+ * - 클라이언트가 X-Request-Timeout 헤더(ms)로 기다릴 수 있는 시간을 보내면 그 값을, 없으면 설정된 기본 예산을 사용한다.
+ * - 헤더 값은 최대 예산을 넘을 수 없다. (클라이언트가 서버 자원을 무한정 점유하지 못하도록)
+ */
+@Slf4j
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    @Value("${app.deadline.default-millis:120000}")
+    private long defaultMillis;
+
+    @Value("${app.deadline.max-millis:300000}")
+    private long maxMillis;
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+
+        Deadline deadline = Deadline.after(resolveTimeoutMillis(request.getHeader(TIMEOUT_HEADER)));
+
+        try (Deadline.Scope ignored = Deadline.open(deadline)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+
+    // 헤더 값이 없거나 잘못되었다면 기본 예산 사용
+    private long resolveTimeoutMillis(String header) {
+        if (header == null || header.isBlank()) {
+            return defaultMillis;
+        }
+        try {
+            long timeoutMillis = Long.parseLong(header.strip());
+            return timeoutMillis > 0 ? Math.min(timeoutMillis, maxMillis) : defaultMillis;
+        } catch (NumberFormatException e) {
+            log.debug("잘못된 {} 헤더 값입니다. value: {}", TIMEOUT_HEADER, header);
+            return defaultMillis;
+        }
+    }
+}
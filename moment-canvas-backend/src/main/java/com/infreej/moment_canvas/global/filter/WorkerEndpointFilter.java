@@ -0,0 +1,35 @@
+package com.infreej.moment_canvas.global.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * worker 프로필 서버의 HTTP 요청 제한
+ * - worker 서버는 이미지 생성 작업 소비자만 실행하므로, 상태 확인(/actuator/**) 외의 API 요청은 404 로 응답한다.
+ * - 로드 밸런서 설정 실수로 API 요청이 worker 로 들어와도 처리하지 않는다.
+ */
+@Component
+@Profile("worker")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkerEndpointFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+
+        if (request.getRequestURI().startsWith("/actuator")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+    }
+}
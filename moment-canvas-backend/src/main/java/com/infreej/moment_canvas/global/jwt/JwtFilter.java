@@ -1,6 +1,7 @@
 package com.infreej.moment_canvas.global.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.ai.controller.ReplicateStubController;
 import com.infreej.moment_canvas.domain.user.entity.Role;
 import com.infreej.moment_canvas.domain.user.entity.User;
 import com.infreej.moment_canvas.global.code.ErrorCode;
@@ -15,6 +16,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -31,6 +33,13 @@ public class JwtFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final ObjectMapper objectMapper;
     private final MessageUtil messageUtil;
+    private final Environment environment;
+
+    // Replicate 스텁 서버는 Replicate API 토큰을 Authorization 헤더로 받으므로 JWT 검증에서 제외 (replicate-stub 프로필에서만)
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/stub/") && environment.matchesProfiles(ReplicateStubController.PROFILE);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
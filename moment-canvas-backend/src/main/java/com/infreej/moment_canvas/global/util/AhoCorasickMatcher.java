@@ -0,0 +1,370 @@
+package com.infreej.moment_canvas.global.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * 여러 단어를 본문 한 번 훑는 것으로 찾는 Aho-Corasick 매처 (생성 후 변경되지 않으므로 여러 스레드에서 공유 가능)
+ * - 대소문자를 구분하지 않고, 문장부호는 건너뛰고 비교한다. (예: "마.약" 도 찾는다.)
+ * - 공백은 영문 단어에서만 건너뛴다. (예: "s e x" 는 찾지만, "모자 살까" 에서 "자살" 은 찾지 않는다.)
+ *   공백이 있는 단어(예: "우리 집")는 본문의 공백(연속된 공백은 하나)과 일치로 본다.
+ * - 영문 단어는 앞뒤가 영문자가 아닐 때만 일치로 본다. (예: "sex" 는 "Essex" 에서 찾지 않는다.)
+ * - 단어 앞에 ^ 를 붙이면 어절 첫머리에서만 일치로 본다. (예: "^성기" 는 "전성기" 에서 찾지 않는다.)
+ * - 본문 길이에 비례한 시간만 걸리고, 검사 중에는 일치 결과 외에 객체를 만들지 않는다.
+ */
+public final class AhoCorasickMatcher {
+
+    private static final int ROOT = 0;
+    private static final char SPACE = ' ';
+
+    // 상태별 전이 (정렬된 문자 배열 + 다음 상태, 이진 탐색)
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    private final int[] output; // 이 상태에서 끝나는 단어 번호 (없으면 -1)
+    private final int[] dictionaryLink; // 실패 링크를 따라가며 만나는, 단어가 끝나는 가장 가까운 상태 (없으면 -1)
+    private final String[] terms;
+    private final boolean[] wordBoundary; // 영문 단어 여부 (앞뒤 경계 확인)
+    private final boolean[] wordStart; // 어절 첫머리에서만 일치 (^ 로 시작하는 단어)
+    private final int[] termLength; // 정규화된 단어 길이
+    private final boolean[] asciiPrefix; // 상태까지의 문자가 모두 영문/숫자인지 여부 (공백을 건너뛸 수 있는 상태)
+
+
+    private AhoCorasickMatcher(char[][] transitionChars, int[][] transitionTargets, int[] failure, int[] output,
+                               int[] dictionaryLink, String[] terms, boolean[] wordBoundary, boolean[] wordStart,
+                               int[] termLength, boolean[] asciiPrefix) {
+        this.transitionChars = transitionChars;
+        this.transitionTargets = transitionTargets;
+        this.failure = failure;
+        this.output = output;
+        this.dictionaryLink = dictionaryLink;
+        this.terms = terms;
+        this.wordBoundary = wordBoundary;
+        this.wordStart = wordStart;
+        this.termLength = termLength;
+        this.asciiPrefix = asciiPrefix;
+    }
+
+
+    /**
+     * 단어 목록으로 매처 생성 (정규화 후 비어 있는 단어와 중복 단어는 제외)
+     * - ^ 로 시작하는 단어는 어절 첫머리에서만 일치로 본다.
+     */
+    public static AhoCorasickMatcher of(Collection<String> words) {
+
+        // 1. trie 구성
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        children.add(new TreeMap<>());
+        outputs.add(-1);
+
+        List<String> termList = new ArrayList<>();
+        List<Boolean> boundaryList = new ArrayList<>();
+        List<Boolean> wordStartList = new ArrayList<>();
+        List<Integer> lengthList = new ArrayList<>();
+        List<Boolean> asciiPrefixList = new ArrayList<>();
+        asciiPrefixList.add(true);
+
+        for (String word : words) {
+            String stripped = word == null ? "" : word.strip();
+            boolean startOnly = stripped.startsWith("^");
+            if (startOnly) {
+                stripped = stripped.substring(1);
+            }
+            String normalized = normalizeTerm(stripped);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+
+            int state = ROOT;
+            for (char c : normalized.toCharArray()) {
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(c, next);
+                    children.add(new TreeMap<>());
+                    outputs.add(-1);
+                    asciiPrefixList.add(asciiPrefixList.get(state) && isAsciiWord(String.valueOf(c)));
+                }
+                state = next;
+            }
+
+            if (outputs.get(state) == -1) {
+                outputs.set(state, termList.size());
+                termList.add(stripped);
+                boundaryList.add(isAsciiWord(normalized));
+                wordStartList.add(startOnly);
+                lengthList.add(normalized.length());
+            }
+        }
+
+        int size = children.size();
+        char[][] transitionChars = new char[size][];
+        int[][] transitionTargets = new int[size][];
+        for (int state = 0; state < size; state++) {
+            TreeMap<Character, Integer> map = children.get(state);
+            transitionChars[state] = new char[map.size()];
+            transitionTargets[state] = new int[map.size()];
+            int i = 0;
+            for (var entry : map.entrySet()) {
+                transitionChars[state][i] = entry.getKey();
+                transitionTargets[state][i] = entry.getValue();
+                i++;
+            }
+        }
+
+        // 2. 실패 링크, 사전 링크 계산 (BFS)
+        int[] failure = new int[size];
+        int[] output = outputs.stream().mapToInt(Integer::intValue).toArray();
+        int[] dictionaryLink = new int[size];
+        Arrays.fill(dictionaryLink, -1);
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+
+                int fallback = failure[state];
+                int next;
+                while ((next = find(transitionChars, transitionTargets, fallback, c)) == -1 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next == -1 || next == child ? ROOT : next;
+                dictionaryLink[child] = output[failure[child]] != -1 ? failure[child] : dictionaryLink[failure[child]];
+                queue.add(child);
+            }
+        }
+
+        boolean[] wordBoundary = new boolean[termList.size()];
+        boolean[] wordStart = new boolean[termList.size()];
+        for (int i = 0; i < wordBoundary.length; i++) {
+            wordBoundary[i] = boundaryList.get(i);
+            wordStart[i] = wordStartList.get(i);
+        }
+        boolean[] asciiPrefix = new boolean[size];
+        for (int state = 0; state < size; state++) {
+            asciiPrefix[state] = asciiPrefixList.get(state);
+        }
+
+        return new AhoCorasickMatcher(transitionChars, transitionTargets, failure, output, dictionaryLink,
+                termList.toArray(String[]::new), wordBoundary, wordStart, lengthList.stream().mapToInt(Integer::intValue).toArray(), asciiPrefix);
+    }
+
+
+    /**
+     * 본문에서 등록된 단어를 모두 찾는 메서드
+     * @param text 검사할 본문 (null 이면 빈 결과)
+     * @return 일치한 단어와 원문 기준 위치 목록 (끝 위치 순)
+     */
+    public List<Match> findAll(CharSequence text) {
+
+        if (text == null || text.isEmpty() || terms.length == 0) {
+            return List.of();
+        }
+
+        List<Match> matches = null;
+        int state = ROOT;
+
+        // 정규화된 문자 위치 -> 원문 위치 (최근 단어 길이만큼만 필요하므로 원형 버퍼로 보관)
+        int window = maxTermLength();
+        int[] positions = new int[window];
+        int normalizedIndex = 0;
+        boolean afterSpace = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char original = text.charAt(i);
+            if (isSpace(original)) {
+                if (afterSpace) {
+                    continue; // 연속된 공백은 하나로 본다.
+                }
+                afterSpace = true;
+
+                // 공백이 있는 단어가 진행 중이라면 공백도 한 글자로 비교한다.
+                int spaced = findSpace(state);
+                if (spaced != -1) {
+                    positions[normalizedIndex % window] = i;
+                    normalizedIndex++;
+                    state = spaced;
+                    continue;
+                }
+
+                // 그 외에는 영문 단어만 공백을 건너뛴다. 한글 등이 포함된 진행 상태는 버리고, 그 뒤쪽의 영문 부분만 이어간다.
+                while (!asciiPrefix[state]) {
+                    state = failure[state];
+                }
+                continue;
+            }
+            char c = normalizeChar(original);
+            if (c == 0) {
+                continue; // 문장부호는 건너뛴다.
+            }
+            afterSpace = false;
+            positions[normalizedIndex % window] = i;
+
+            int next;
+            while ((next = find(transitionChars, transitionTargets, state, c)) == -1 && state != ROOT) {
+                state = failure[state];
+            }
+            state = next == -1 ? ROOT : next;
+
+            for (int matched = output[state] != -1 ? state : dictionaryLink[state]; matched != -1; matched = dictionaryLink[matched]) {
+                int term = output[matched];
+                int start = positions[(normalizedIndex - termLength[term] + 1) % window];
+                boolean boundaryMatched = !wordBoundary[term] || (isBoundary(text, start - 1) && isBoundary(text, i + 1));
+                if (boundaryMatched && (!wordStart[term] || isWordStart(text, start))) {
+                    if (matches == null) {
+                        matches = new ArrayList<>();
+                    }
+                    matches.add(new Match(terms[term], start, i + 1));
+                }
+            }
+            normalizedIndex++;
+        }
+
+        return matches == null ? List.of() : matches;
+    }
+
+
+    /**
+     * 등록된 단어가 하나라도 있는지 여부
+     */
+    public boolean containsAny(CharSequence text) {
+        return !findAll(text).isEmpty();
+    }
+
+
+    public int size() {
+        return terms.length;
+    }
+
+
+    private int maxTermLength() {
+        int max = 1;
+        for (int length : termLength) {
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+
+
+    // 현재 상태 또는 실패 링크를 따라간 상태에서 공백으로 이어지는 상태 (없으면 -1)
+    private int findSpace(int state) {
+        for (int current = state; ; current = failure[current]) {
+            int next = find(transitionChars, transitionTargets, current, SPACE);
+            if (next != -1) {
+                return next;
+            }
+            if (current == ROOT) {
+                return -1;
+            }
+        }
+    }
+
+
+    private static int find(char[][] transitionChars, int[][] transitionTargets, int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index < 0 ? -1 : transitionTargets[state][index];
+    }
+
+
+    // 비교용 문자 (건너뛸 문자라면 0)
+    private static char normalizeChar(char c) {
+        // 자주 나오는 문자(영문 소문자, 숫자, 한글 음절)는 바로 반환
+        if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || (c >= '가' && c <= '힣')) {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        if (isSpace(c)) {
+            return 0;
+        }
+        int type = Character.getType(c);
+        if (type == Character.CONNECTOR_PUNCTUATION || type == Character.DASH_PUNCTUATION
+                || type == Character.OTHER_PUNCTUATION || type == Character.START_PUNCTUATION
+                || type == Character.END_PUNCTUATION || type == Character.INITIAL_QUOTE_PUNCTUATION
+                || type == Character.FINAL_QUOTE_PUNCTUATION) {
+            return 0;
+        }
+        return Character.toLowerCase(c);
+    }
+
+
+    private static boolean isSpace(char c) {
+        return Character.isWhitespace(c) || Character.isSpaceChar(c);
+    }
+
+
+    private static String normalizeTerm(String word) {
+        if (word == null) {
+            return "";
+        }
+        // 단어 안의 공백은 하나로 줄이고, 앞뒤 공백은 버린다.
+        StringBuilder builder = new StringBuilder(word.length());
+        boolean pendingSpace = false;
+        for (char c : word.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (isSpace(c)) {
+                pendingSpace = !builder.isEmpty();
+                continue;
+            }
+            char normalized = normalizeChar(c);
+            if (normalized != 0) {
+                if (pendingSpace) {
+                    builder.append(SPACE);
+                    pendingSpace = false;
+                }
+                builder.append(normalized);
+            }
+        }
+        return builder.toString();
+    }
+
+
+    private static boolean isAsciiWord(String normalized) {
+        for (char c : normalized.toCharArray()) {
+            if (c != SPACE && (c > 'z' || c < '0' || (c > '9' && c < 'a'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // 원문 위치가 본문 밖이거나 영문자/숫자가 아니라면 단어 경계
+    private static boolean isBoundary(CharSequence text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(index);
+        return !(c < 128 && Character.isLetterOrDigit(c));
+    }
+
+
+    // 어절 첫머리 여부 (앞 문자가 없거나, 문자/숫자가 아니라면 첫머리)
+    private static boolean isWordStart(CharSequence text, int start) {
+        return start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+    }
+
+
+    /**
+     * 일치 결과
+     * @param term 일치한 단어 (등록된 원본)
+     * @param start 원문 시작 위치 (포함)
+     * @param end 원문 끝 위치 (미포함)
+     */
+    public record Match(String term, int start, int end) {
+    }
+}
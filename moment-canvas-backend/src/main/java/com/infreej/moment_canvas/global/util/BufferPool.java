@@ -0,0 +1,70 @@
+package com.infreej.moment_canvas.global.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 크기의 byte 배열을 재사용하는 버퍼 풀
+ * - 전송마다 큰 배열을 새로 할당하지 않도록, 다 쓴 버퍼를 돌려받아 다음 전송에 사용한다.
+ * - 빌려줄 수 있는 버퍼 수가 제한되어 있어 동시 전송이 많아도 버퍼 메모리는 bufferSize * maxBuffers 를 넘지 않는다.
+ * - 버퍼는 처음 필요할 때 만든다.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final BlockingQueue<byte[]> idleBuffers;
+    private final Semaphore leases;
+
+    public BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.idleBuffers = new ArrayBlockingQueue<>(maxBuffers);
+        this.leases = new Semaphore(maxBuffers, true);
+    }
+
+
+    /**
+     * 버퍼를 빌리는 메서드
+     * - 모든 버퍼가 사용 중이라면 timeoutMillis 동안 반납을 기다린다.
+     * @return 버퍼 (시간 안에 빌리지 못했다면 null)
+     */
+    public byte[] acquire(long timeoutMillis) throws InterruptedException {
+
+        if (!leases.tryAcquire(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+
+        byte[] buffer = idleBuffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+
+    /**
+     * 다 쓴 버퍼를 반납하는 메서드 (acquire 로 빌린 버퍼만 반납해야 한다.)
+     */
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            idleBuffers.offer(buffer);
+        }
+        leases.release();
+    }
+
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+
+    // 지금 빌릴 수 있는 버퍼 수
+    public int available() {
+        return leases.availablePermits();
+    }
+}
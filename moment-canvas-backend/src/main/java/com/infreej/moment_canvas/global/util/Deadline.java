@@ -0,0 +1,140 @@
+package com.infreej.moment_canvas.global.util;
+
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 요청 처리 제한 시각(deadline)
+ * - 요청마다 DeadlineFilter 가 설정하고, 현재 스레드(ThreadLocal)를 통해 프롬프트 생성, 이미지 생성, 재시도, 이미지 다운로드까지 전달된다.
+ * - 각 단계는 남은 시간만큼만 기다리고(remainingMillis), 제한 시각이 지나면 COMMON_DEADLINE_EXCEEDED 로 중단한다.
+ * - 다른 스레드 풀로 작업을 넘길 때는 wrap 으로 감싸야 같은 제한 시각이 적용된다.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtMillis; // 제한 시각 (epoch millis)
+
+    private Deadline(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+
+    /**
+     * 지금부터 timeoutMillis 뒤를 제한 시각으로 생성
+     */
+    public static Deadline after(long timeoutMillis) {
+        return new Deadline(System.currentTimeMillis() + timeoutMillis);
+    }
+
+
+    /**
+     * 저장해 둔 제한 시각으로 생성 (작업 재개 시)
+     */
+    public static Deadline at(long expiresAtMillis) {
+        return new Deadline(expiresAtMillis);
+    }
+
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+
+    public long remainingMillis() {
+        return expiresAtMillis - System.currentTimeMillis();
+    }
+
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+
+    /**
+     * 현재 스레드의 제한 시각 (설정되지 않았다면 empty)
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+
+    /**
+     * 단계별 제한 시간을 남은 시간으로 줄이는 메서드
+     * @param limitMillis 단계별 제한 시간
+     * @return 제한 시각이 없다면 limitMillis, 있다면 limitMillis 와 남은 시간 중 작은 값 (지났다면 0 이하)
+     */
+    public static long remainingMillis(long limitMillis) {
+        Deadline deadline = CURRENT.get();
+        return deadline == null ? limitMillis : Math.min(limitMillis, deadline.remainingMillis());
+    }
+
+
+    /**
+     * 현재 스레드의 제한 시각이 지났다면 COMMON_DEADLINE_EXCEEDED 예외를 던진다.
+     */
+    public static void check() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new BusinessException(ErrorCode.COMMON_DEADLINE_EXCEEDED);
+        }
+    }
+
+
+    /**
+     * 현재 스레드에 제한 시각을 설정한다. 반환된 Scope 를 닫으면 이전 값으로 되돌린다. (try-with-resources 로 사용)
+     * @param deadline 제한 시각 (null 이면 제한 없음)
+     */
+    public static Scope open(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        set(deadline);
+        return () -> set(previous);
+    }
+
+
+    /**
+     * 제한 시각 없이 실행 (제한 시각이 지난 뒤의 정리 작업, 원격 작업 취소 요청 등)
+     */
+    public static void runWithout(Runnable task) {
+        try (Scope ignored = open(null)) {
+            task.run();
+        }
+    }
+
+
+    /**
+     * 현재 스레드의 제한 시각을 다른 스레드에서도 적용하도록 작업을 감싼다.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = open(deadline)) {
+                return task.get();
+            }
+        };
+    }
+
+
+    private static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+
+    /**
+     * 제한 시각 적용 범위 (닫으면 이전 제한 시각으로 되돌린다.)
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
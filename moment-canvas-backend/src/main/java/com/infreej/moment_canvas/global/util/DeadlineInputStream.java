@@ -0,0 +1,67 @@
+package com.infreej.moment_canvas.global.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+
+/**
+ * 처리 제한 시각(Deadline)까지만 읽을 수 있는 입력 스트림
+ * - 연결/읽기 타임아웃을 남은 시간으로 줄이고, 읽을 때마다 제한 시각을 확인한다.
+ * - 응답이 조금씩 계속 와서 읽기 타임아웃에 걸리지 않는 경우에도 제한 시각이 지나면 중단된다.
+ */
+public class DeadlineInputStream extends FilterInputStream {
+
+    private final Deadline deadline;
+
+    private DeadlineInputStream(InputStream in, Deadline deadline) {
+        super(in);
+        this.deadline = deadline;
+    }
+
+
+    /**
+     * URL 의 내용을 읽는 스트림을 연다.
+     * @param url 읽을 주소
+     * @param timeoutMillis 연결/읽기 타임아웃 (현재 요청의 남은 시간이 더 짧다면 남은 시간)
+     */
+    public static InputStream open(String url, long timeoutMillis) throws IOException {
+
+        long remainingMillis = Deadline.remainingMillis(timeoutMillis);
+        if (remainingMillis <= 0) {
+            throw new InterruptedIOException("요청 처리 제한 시각이 지나 다운로드하지 않습니다.");
+        }
+
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout((int) Math.min(Integer.MAX_VALUE, remainingMillis));
+        connection.setReadTimeout((int) Math.min(Integer.MAX_VALUE, remainingMillis));
+
+        InputStream in = connection.getInputStream();
+        return Deadline.current()
+                .<InputStream>map(deadline -> new DeadlineInputStream(in, deadline))
+                .orElse(in);
+    }
+
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        return super.read();
+    }
+
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkDeadline();
+        return super.read(b, off, len);
+    }
+
+
+    private void checkDeadline() throws InterruptedIOException {
+        if (deadline.isExpired()) {
+            throw new InterruptedIOException("요청 처리 제한 시각이 지나 다운로드를 중단합니다.");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.infreej.moment_canvas.global.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 전체 크기가 제한된 디스크 LRU 캐시
+ * - 키 하나가 디렉토리의 파일 하나이며, 전체 크기가 maxBytes 를 넘으면 가장 오래 사용하지 않은 파일부터 삭제한다.
+ * - 파일은 임시 파일에 끝까지 쓴 뒤 이름을 바꿔 넣으므로, 읽는 쪽은 완성된 파일만 본다.
+ * - 서버가 다시 시작되면 디렉토리의 파일을 수정 시각 순으로 다시 읽어 이어서 사용한다.
+ * - 삭제된 파일도 이미 열어 둔 스트림은 끝까지 읽을 수 있다. (POSIX)
+ *   응답으로 보낼 파일은 open 으로 캐시 잠금 안에서 열어야 삭제와 겹치지 않는다.
+ */
+@Slf4j
+public class DiskLruCache {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final Path directory;
+    private final Path tempDirectory;
+    private final long maxBytes;
+
+    // 키 -> 파일 크기 (접근 순서)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public DiskLruCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.tempDirectory = directory.resolve(TEMP_DIRECTORY);
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(tempDirectory);
+        clearTempFiles();
+        loadEntries();
+    }
+
+
+    /**
+     * 캐시된 파일 조회 (조회한 키는 가장 최근에 사용한 키가 된다.)
+     * @return 파일 경로 (없다면 null)
+     */
+    public synchronized Path get(String key) {
+
+        if (entries.get(key) == null) {
+            return null;
+        }
+
+        Path file = directory.resolve(key);
+        if (Files.notExists(file)) {
+            // 외부에서 삭제된 경우
+            totalBytes -= entries.remove(key);
+            return null;
+        }
+        return file;
+    }
+
+
+    /**
+     * 캐시된 파일을 여는 메서드 (조회한 키는 가장 최근에 사용한 키가 된다.)
+     * - 삭제와 같은 잠금 안에서 열기 때문에, 반환된 뒤에 삭제되더라도 끝까지 읽을 수 있다.
+     * @return 열어 둔 파일 (없다면 null, 다 읽은 뒤 닫아야 한다.)
+     */
+    public synchronized Snapshot open(String key) throws IOException {
+
+        Path file = get(key);
+        if (file == null) {
+            return null;
+        }
+
+        try {
+            return new Snapshot(key, entries.get(key), Files.newInputStream(file));
+        } catch (NoSuchFileException e) {
+            totalBytes -= entries.remove(key);
+            return null;
+        }
+    }
+
+
+    /**
+     * 새 파일을 쓸 임시 파일 생성 (다 쓴 뒤 put 으로 넣거나, 실패했다면 호출한 쪽에서 삭제한다.)
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(tempDirectory, "entry-", ".tmp");
+    }
+
+
+    /**
+     * 다 쓴 임시 파일을 키의 파일로 옮겨 넣는 메서드
+     * - 넣은 뒤 전체 크기가 maxBytes 를 넘으면 오래된 파일부터 삭제한다. (방금 넣은 파일은 삭제하지 않는다.)
+     * @return 캐시된 파일 경로
+     */
+    public synchronized Path put(String key, Path tempFile) throws IOException {
+
+        Path file = directory.resolve(key);
+        long size = Files.size(tempFile);
+        moveAtomically(tempFile, file);
+
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+
+        evict(key);
+        return file;
+    }
+
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    /**
+     * 열어 둔 캐시 파일
+     * @param key 캐시 키 (파일명)
+     * @param size 파일 크기 (bytes)
+     * @param inputStream 파일 내용
+     */
+    public record Snapshot(String key, long size, InputStream inputStream) implements Closeable {
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+
+    private void evict(String keep) {
+
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+
+            try {
+                Files.deleteIfExists(directory.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("캐시 파일 삭제 실패. key: {}, message: {}", eldest.getKey(), e.getMessage());
+            }
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    // 이전 실행에서 쓰다 만 임시 파일 삭제
+    private void clearTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tempDirectory)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+
+    // 디렉토리에 남아 있는 파일을 수정 시각 순(오래된 것 먼저)으로 다시 등록
+    private void loadEntries() throws IOException {
+
+        List<Map.Entry<Path, BasicFileAttributes>> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : stream) {
+                files.add(Map.entry(file, Files.readAttributes(file, BasicFileAttributes.class)));
+            }
+        }
+        files.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+
+        for (Map.Entry<Path, BasicFileAttributes> file : files) {
+            entries.put(file.getKey().getFileName().toString(), file.getValue().size());
+            totalBytes += file.getValue().size();
+        }
+        evict(null);
+
+        log.info("디스크 캐시 로드. directory: {}, entries: {}, bytes: {}", directory, entries.size(), totalBytes);
+    }
+}
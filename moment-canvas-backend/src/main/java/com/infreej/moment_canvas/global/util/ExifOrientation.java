@@ -0,0 +1,111 @@
+package com.infreej.moment_canvas.global.util;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JPEG 의 EXIF Orientation 태그(0x0112)를 읽는 유틸
+ * - 카메라 사진은 픽셀을 돌리지 않고 방향 정보만 기록하는 경우가 많아, 메타데이터를 지우기 전에 방향을 읽어 둔다.
+ * - 스트림 앞쪽의 APP1(Exif) 세그먼트까지만 읽는다. (이미지 데이터(SOS) 전에 멈춘다.)
+ * - 읽은 만큼 스트림을 소비하므로 호출한 쪽에서 mark/reset 으로 되돌려 사용한다.
+ */
+public final class ExifOrientation {
+
+    // 방향 정보가 없거나 읽을 수 없는 경우 (회전 없음)
+    public static final int NORMAL = 1;
+
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ExifOrientation() {
+    }
+
+
+    /**
+     * @param limit 읽을 수 있는 최대 바이트 수 (호출한 쪽의 mark 한도, 넘어야 한다면 방향 정보가 없는 것으로 본다.)
+     * @return Orientation 값 (1~8, 없다면 1)
+     */
+    public static int read(InputStream in, int limit) throws IOException {
+
+        DataInputStream data = new DataInputStream(in);
+        try {
+            if (data.readUnsignedShort() != 0xFFD8) {
+                return NORMAL; // JPEG 가 아님
+            }
+
+            long consumed = 2;
+            while (true) {
+                int marker = data.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return NORMAL; // 이미지 데이터 시작 또는 손상된 세그먼트
+                }
+
+                int length = data.readUnsignedShort() - 2;
+                consumed += 4 + length;
+                if (length < 0 || consumed > limit) {
+                    return NORMAL;
+                }
+                if (marker == 0xFFE1 && length >= 14) {
+                    byte[] segment = new byte[length];
+                    data.readFully(segment);
+                    if (isExif(segment)) {
+                        return readOrientation(segment, 6);
+                    }
+                } else {
+                    data.skipNBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return NORMAL;
+        }
+    }
+
+
+    private static boolean isExif(byte[] segment) {
+        return segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i' && segment[3] == 'f' && segment[4] == 0 && segment[5] == 0;
+    }
+
+
+    // TIFF 헤더(byte order, 42, IFD0 위치) 다음 IFD0 의 항목에서 Orientation 을 찾는다.
+    private static int readOrientation(byte[] segment, int tiffStart) {
+
+        boolean littleEndian = segment[tiffStart] == 'I' && segment[tiffStart + 1] == 'I';
+        if (!littleEndian && !(segment[tiffStart] == 'M' && segment[tiffStart + 1] == 'M')) {
+            return NORMAL;
+        }
+
+        long ifdOffset = readInt(segment, tiffStart + 4, littleEndian);
+        int ifdStart = tiffStart + (int) ifdOffset;
+        if (ifdOffset < 8 || ifdStart + 2 > segment.length) {
+            return NORMAL;
+        }
+
+        int entryCount = readShort(segment, ifdStart, littleEndian);
+        for (int i = 0; i < entryCount; i++) {
+            int entry = ifdStart + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                return NORMAL;
+            }
+            if (readShort(segment, entry, littleEndian) == ORIENTATION_TAG) {
+                int orientation = readShort(segment, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : NORMAL;
+            }
+        }
+        return NORMAL;
+    }
+
+
+    private static int readShort(byte[] bytes, int offset, boolean littleEndian) {
+        int b0 = bytes[offset] & 0xFF;
+        int b1 = bytes[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+
+    private static long readInt(byte[] bytes, int offset, boolean littleEndian) {
+        long high = readShort(bytes, offset + (littleEndian ? 2 : 0), littleEndian);
+        long low = readShort(bytes, offset + (littleEndian ? 0 : 2), littleEndian);
+        return (high << 16) | low;
+    }
+}
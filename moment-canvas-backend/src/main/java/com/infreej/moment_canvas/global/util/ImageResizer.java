@@ -0,0 +1,179 @@
+package com.infreej.moment_canvas.global.util;
+
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * 이미지 축소/인코딩 유틸 (이미지 변환본, 프로필 이미지 정규화)
+ * - 읽을 때부터 필요한 크기의 2배 정도로 줄여 읽어(subsampling) 디코딩 메모리와 시간을 줄인다.
+ * - 한 번에 크게 줄이면 계단 현상이 생기므로 절반씩 줄인 뒤 마지막에 목표 크기로 맞춘다.
+ * - JPEG 로 인코딩하며 메타데이터(EXIF 등)는 쓰지 않는다. 투명 영역은 흰색으로 채운다.
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+
+    /**
+     * 이미지를 읽는 메서드
+     * - 원본이 목표 크기의 2배 이상일 때만 정수 배로 줄여 읽는다. (목표 크기보다 작아지지 않는다.)
+     * @param targetWidth 목표 너비
+     * @param targetHeight 목표 높이 (0 이면 너비만 기준으로 한다.)
+     */
+    public static BufferedImage read(InputStream in, int targetWidth, int targetHeight) throws IOException {
+
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageInputStream == null ? null : ImageIO.getImageReaders(imageInputStream);
+            if (readers == null || !readers.hasNext()) {
+                throw new BusinessException(ErrorCode.IMAGE_EXTENSION_NOT_SUPPORTED);
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+
+                int subsampling = Math.max(1, reader.getWidth(0) / (targetWidth * 2));
+                if (targetHeight > 0) {
+                    subsampling = Math.max(1, Math.min(subsampling, reader.getHeight(0) / (targetHeight * 2)));
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+
+    /**
+     * width x height 로 줄이는 메서드 (비율은 호출한 쪽에서 맞춘다.)
+     */
+    public static BufferedImage resize(BufferedImage source, int width, int height) {
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() != width || current.getHeight() != height || current.getType() != BufferedImage.TYPE_INT_RGB) {
+            current = draw(current, width, height);
+        }
+        return current;
+    }
+
+
+    /**
+     * 너비를 targetWidth 로 줄이는 메서드 (원본이 더 작다면 크기 유지, 비율 유지)
+     */
+    public static BufferedImage resizeToWidth(BufferedImage source, int targetWidth) {
+
+        int width = Math.min(targetWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        return resize(source, width, height);
+    }
+
+
+    /**
+     * 가운데를 기준으로 정사각형으로 자르는 메서드 (복사하지 않는 부분 이미지)
+     */
+    public static BufferedImage cropSquare(BufferedImage source) {
+
+        int side = Math.min(source.getWidth(), source.getHeight());
+        return source.getSubimage((source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+    }
+
+
+    /**
+     * EXIF Orientation(1~8) 에 맞게 회전/반전하는 메서드
+     * - 메타데이터를 지우고 다시 인코딩하면 방향 정보도 사라지므로, 픽셀을 실제 방향으로 돌려 둔다.
+     */
+    public static BufferedImage orient(BufferedImage source, int orientation) {
+
+        if (orientation < 2 || orientation > 8) {
+            return source;
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean swap = orientation >= 5; // 90도 회전이 포함된 경우 가로/세로가 바뀐다.
+
+        // 원본 좌표 (x, y) -> 결과 좌표
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0); // 좌우 반전: (w - x, y)
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height); // 180도: (w - x, h - y)
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height); // 상하 반전: (x, h - y)
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0); // 대각선 반전: (y, x)
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0); // 시계 방향 90도: (h - y, x)
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width); // 반대 대각선 반전: (h - y, w - x)
+            default -> new AffineTransform(0, -1, 1, 0, 0, width); // 시계 방향 270도: (y, w - x)
+        };
+
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setBackground(Color.WHITE);
+            graphics.clearRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+
+    /**
+     * JPEG 인코딩 (메타데이터 없이)
+     * @param quality 인코딩 품질 (0 ~ 1)
+     */
+    public static void writeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setBackground(Color.WHITE);
+            graphics.clearRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,84 @@
+package com.infreej.moment_canvas.global.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Redis 토큰 버킷 rate limiter
+ * - Lua 스크립트로 조회, 충전, 차감을 한 번의 Redis 호출로 처리하므로 여러 서버에서도 정확하게 동작한다.
+ * - Redis 장애 시에는 요청을 허용한다. (rate limit 때문에 서비스 전체가 멈추지 않도록)
+ * - 버킷 크기나 충전 속도가 0 이하인 설정 오류는 허용하지 않고 예외로 알린다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenBucketRateLimiter {
+
+    private static final String KEY_PREFIX = "rateLimit:";
+
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = createScript();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+
+    /**
+     * 토큰 1개 사용 시도
+     * @param key 버킷 키 (정책 이름 + 사용자 식별값)
+     * @param capacity 버킷 크기
+     * @param refillPerMinute 1분에 충전되는 토큰 수
+     * @return 0 이면 허용, 0 보다 크면 다음 토큰까지 기다려야 하는 시간(ms)
+     */
+    public long tryConsume(String key, int capacity, int refillPerMinute) {
+        return tryConsume(key, capacity, refillPerMinute, 1);
+    }
+
+
+    /**
+     * 토큰 여러 개를 한 번에 사용 시도 (모자라면 하나도 사용하지 않는다.)
+     * @param permits 사용할 토큰 수 (버킷 크기보다 크면 버킷 크기만큼 사용)
+     * @return 0 이면 허용, 0 보다 크면 필요한 토큰이 모일 때까지 기다려야 하는 시간(ms)
+     * @throws IllegalArgumentException 버킷 크기나 충전 속도가 0 이하인 경우
+     */
+    public long tryConsume(String key, int capacity, int refillPerMinute, int permits) {
+
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("버킷 크기와 충전 속도는 1 이상이어야 합니다. key: " + key + ", capacity: " + capacity + ", refillPerMinute: " + refillPerMinute);
+        }
+
+        try {
+            List<?> result = stringRedisTemplate.execute(
+                    TOKEN_BUCKET_SCRIPT,
+                    List.of(KEY_PREFIX + key),
+                    String.valueOf(capacity),
+                    String.valueOf(refillPerMinute / 60000.0),
+                    String.valueOf(Math.max(1, permits))
+            );
+
+            if (result == null || result.size() < 2) {
+                return 0;
+            }
+
+            boolean allowed = ((Number) result.get(0)).longValue() == 1;
+            return allowed ? 0 : Math.max(1, ((Number) result.get(1)).longValue());
+        } catch (Exception e) {
+            log.warn("rate limit 확인 실패. 요청을 허용합니다. key: {}, message: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+
+    private static RedisScript<List> createScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/token-bucket.lua")));
+        script.setResultType(List.class);
+        return script;
+    }
+}
@@ -0,0 +1,9 @@
+-- 이미지 생성 중인 작업에만 미리보기 이미지를 기록 (최종 이미지와 동시에 생성되므로 최종 이미지 체크포인트를 덮어쓰지 않도록)
+-- KEYS[1]: 작업 키 (imageGenerationJob:{jobId})
+-- ARGV[1]: 이미지 생성 중 상태, ARGV[2]: 미리보기 완료 상태, ARGV[3]: 미리보기 이미지 URL
+-- 반환: 1 (기록), 0 (작업이 없거나 이미 최종 이미지가 있거나 다른 단계)
+if redis.call('HGET', KEYS[1], 'status') ~= ARGV[1] or redis.call('HEXISTS', KEYS[1], 'imageUrl') == 1 then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'status', ARGV[2], 'previewUrl', ARGV[3])
+return 1
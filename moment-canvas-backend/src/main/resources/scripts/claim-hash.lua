@@ -0,0 +1,11 @@
+-- @RedisHash 엔티티를 읽으면서 삭제 (webhook 과 폴링이 같은 항목을 동시에 처리하지 않도록)
+-- KEYS[1]: 엔티티 키 ({keyspace}:{id}), KEYS[2]: keyspace 인덱스 set, KEYS[3]: 만료 이벤트용 phantom 키
+-- ARGV[1]: 반환할 필드, ARGV[2]: 엔티티 id
+-- 반환: 필드 값 (없거나 이미 다른 쪽이 가져갔다면 nil)
+local value = redis.call('HGET', KEYS[1], ARGV[1])
+if not value then
+    return nil
+end
+redis.call('DEL', KEYS[1], KEYS[3])
+redis.call('SREM', KEYS[2], ARGV[2])
+return value
@@ -0,0 +1,27 @@
+-- 이미지 생성 작업 실행권 선점 (같은 작업이 큐에 두 번 들어가도 한 소비자만 실행하도록)
+-- KEYS[1]: 작업 키 (imageGenerationJob:{jobId})
+-- ARGV[1]: 실행 토큰, ARGV[2]: 실행권 유지 시간(ms), ARGV[3..]: 끝난 상태 목록
+-- 같은 토큰으로 다시 호출하면 실행권 유지 시간을 연장한다.
+-- 반환: 1 (선점 또는 연장), 0 (작업이 없거나 이미 끝났거나 다른 소비자가 실행 중)
+local status = redis.call('HGET', KEYS[1], 'status')
+if not status then
+    return 0
+end
+for i = 3, #ARGV do
+    if status == ARGV[i] then
+        return 0
+    end
+end
+
+-- 서버 간 시간 차이가 없도록 Redis 시간을 사용한다.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local lease = redis.call('HMGET', KEYS[1], 'runToken', 'runLeaseUntil')
+local leaseUntil = tonumber(lease[2])
+if lease[1] and lease[1] ~= ARGV[1] and leaseUntil and leaseUntil > now then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], 'runToken', ARGV[1], 'runLeaseUntil', string.format('%.0f', now + tonumber(ARGV[2])))
+return 1
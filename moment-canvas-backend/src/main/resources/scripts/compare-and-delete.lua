@@ -0,0 +1,7 @@
+-- 키의 값이 기대한 값과 같을 때만 삭제 (다른 작업이 차지한 키를 지우지 않도록)
+-- KEYS[1]: 삭제할 키
+-- ARGV[1]: 기대하는 값
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
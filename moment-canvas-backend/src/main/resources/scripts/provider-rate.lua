@@ -0,0 +1,105 @@
+-- 외부 AI 제공자 호출 속도 조절 (모든 서버가 같은 상태를 공유)
+-- KEYS[1]: 제공자 버킷 키
+-- ARGV[1]: 동작 ('acquire': 호출 허용 여부 확인, 'observe': 응답 결과 반영)
+--
+-- [acquire]
+-- ARGV[2]: 초기 허용 속도 (1ms 당 호출 수)
+-- ARGV[3]: 버킷 크기 (최대 연속 호출 수)
+-- ARGV[4]: 키 유지 시간(ms)
+-- 반환: { 허용 여부(1/0), 다시 시도할 때까지 남은 시간(ms) }
+--
+-- [observe]
+-- ARGV[2]: 초기 허용 속도 (1ms 당 호출 수)
+-- ARGV[3]: 키 유지 시간(ms)
+-- ARGV[4]: 제한 응답(429) 여부 (1/0)
+-- ARGV[5]: 호출을 멈출 시간(ms, Retry-After 또는 남은 호출 수 0 일 때의 reset, 없으면 0)
+-- ARGV[6]: 응답 헤더로 알게 된 허용 속도 (1ms 당 호출 수, 없으면 빈 문자열)
+-- ARGV[7]: 제한 응답 시 속도 감소 비율 (예: 0.5)
+-- ARGV[8]: 성공 응답 시 속도 증가량 (1ms 당 호출 수)
+-- ARGV[9]: 최소 속도, ARGV[10]: 최대 속도 (1ms 당 호출 수)
+-- 반환: { 현재 허용 속도(1초 당 호출 수, 문자열), 호출을 멈추는 시각까지 남은 시간(ms) }
+
+local key = KEYS[1]
+local op = ARGV[1]
+
+-- 서버 간 시간 차이가 없도록 Redis 시간을 사용한다.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', key, 'tokens', 'timestamp', 'rate', 'ceiling', 'blockedUntil')
+local tokens = tonumber(state[1])
+local timestamp = tonumber(state[2])
+local rate = tonumber(state[3]) or tonumber(ARGV[2])
+local ceiling = tonumber(state[4])
+local blockedUntil = tonumber(state[5]) or 0
+
+if op == 'acquire' then
+    local capacity = tonumber(ARGV[3])
+
+    -- Retry-After 등으로 호출을 멈춘 구간
+    if now < blockedUntil then
+        return { 0, blockedUntil - now }
+    end
+
+    if tokens == nil or timestamp == nil then
+        tokens = capacity
+        timestamp = now
+    end
+    tokens = math.min(capacity, tokens + math.max(0, now - timestamp) * rate)
+
+    local allowed = 0
+    local waitMillis = 0
+    if tokens >= 1 then
+        tokens = tokens - 1
+        allowed = 1
+    else
+        waitMillis = math.ceil((1 - tokens) / rate)
+    end
+
+    redis.call('HSET', key, 'tokens', tostring(tokens), 'timestamp', tostring(now), 'rate', tostring(rate))
+    redis.call('PEXPIRE', key, tonumber(ARGV[4]))
+    return { allowed, waitMillis }
+end
+
+-- observe
+local throttled = tonumber(ARGV[4]) == 1
+local blockMillis = tonumber(ARGV[5])
+local learnedRate = tonumber(ARGV[6])
+local decreaseFactor = tonumber(ARGV[7])
+local increase = tonumber(ARGV[8])
+local minRate = tonumber(ARGV[9])
+local maxRate = tonumber(ARGV[10])
+
+-- 응답 헤더로 알게 된 허용 속도를 상한으로 사용
+if learnedRate ~= nil then
+    ceiling = math.max(minRate, math.min(maxRate, learnedRate))
+end
+if ceiling == nil then
+    ceiling = maxRate
+end
+
+-- 제한 응답이면 속도를 줄이고, 성공하면 상한까지 조금씩 늘린다. (AIMD)
+if throttled then
+    rate = math.max(minRate, rate * decreaseFactor)
+else
+    rate = math.min(ceiling, rate + increase)
+end
+rate = math.min(rate, ceiling)
+
+if blockMillis > 0 and now + blockMillis > blockedUntil then
+    blockedUntil = now + blockMillis
+    tokens = 0
+    timestamp = blockedUntil
+end
+
+local fields = { 'rate', tostring(rate), 'ceiling', tostring(ceiling), 'blockedUntil', tostring(blockedUntil) }
+if tokens ~= nil and timestamp ~= nil then
+    table.insert(fields, 'tokens')
+    table.insert(fields, tostring(tokens))
+    table.insert(fields, 'timestamp')
+    table.insert(fields, tostring(timestamp))
+end
+redis.call('HSET', key, unpack(fields))
+redis.call('PEXPIRE', key, tonumber(ARGV[3]))
+
+return { tostring(rate * 1000), math.max(0, blockedUntil - now) }
@@ -0,0 +1,9 @@
+-- 이미지 생성 작업 실행권 반환 (토큰이 같을 때만, 재시도로 다른 소비자가 선점한 실행권은 지우지 않는다.)
+-- KEYS[1]: 작업 키 (imageGenerationJob:{jobId})
+-- ARGV[1]: 실행 토큰
+-- 반환: 1 (반환), 0 (작업이 없거나 다른 토큰)
+if redis.call('HGET', KEYS[1], 'runToken') ~= ARGV[1] then
+    return 0
+end
+redis.call('HDEL', KEYS[1], 'runToken', 'runLeaseUntil')
+return 1
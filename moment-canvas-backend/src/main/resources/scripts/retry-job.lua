@@ -0,0 +1,21 @@
+-- 실패한 이미지 생성 작업을 다시 대기 상태로 바꾼다. (동시에 들어온 재시도 요청 중 하나만 성공하도록)
+-- KEYS[1]: 작업 키 (imageGenerationJob:{jobId})
+-- ARGV[1]: 실패 상태, ARGV[2]: 대기 상태, ARGV[3]: 프롬프트 생성 완료 상태, ARGV[4]: 처리 제한 시각 (epoch millis, 없으면 빈 문자열)
+-- 프롬프트 체크포인트가 있다면 프롬프트 생성 완료 상태부터 다시 진행한다.
+-- 반환: 1 (변경), 0 (작업이 없거나 실패 상태가 아님)
+if redis.call('HGET', KEYS[1], 'status') ~= ARGV[1] then
+    return 0
+end
+
+local status = ARGV[2]
+if redis.call('HEXISTS', KEYS[1], 'prompt') == 1 then
+    status = ARGV[3]
+end
+redis.call('HSET', KEYS[1], 'status', status)
+redis.call('HDEL', KEYS[1], 'errorCode', 'runToken', 'runLeaseUntil')
+if ARGV[4] == '' then
+    redis.call('HDEL', KEYS[1], 'deadlineAt')
+else
+    redis.call('HSET', KEYS[1], 'deadlineAt', ARGV[4])
+end
+return 1
@@ -0,0 +1,48 @@
+-- 토큰 버킷 rate limit (한 번의 호출로 조회, 충전, 차감을 원자적으로 처리)
+-- KEYS[1]: 버킷 키
+-- ARGV[1]: 버킷 크기 (최대 토큰 수)
+-- ARGV[2]: 1ms 당 충전되는 토큰 수
+-- ARGV[3]: 사용할 토큰 수 (버킷 크기보다 크면 버킷 크기만큼 사용)
+-- 반환: { 허용 여부(1/0), 다음 토큰까지 남은 시간(ms) }
+
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refillPerMillis = tonumber(ARGV[2])
+
+-- 충전 속도가 0 이하면 대기 시간과 만료 시간을 계산할 수 없다. (0 으로 나누기)
+if capacity == nil or capacity < 1 or refillPerMillis == nil or refillPerMillis <= 0 then
+    return redis.error_reply('ERR invalid token bucket: capacity and refill rate must be positive')
+end
+
+local permits = math.min(tonumber(ARGV[3]) or 1, capacity)
+
+-- 서버 간 시간 차이가 없도록 Redis 시간을 사용한다.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', key, 'tokens', 'timestamp')
+local tokens = tonumber(bucket[1])
+local timestamp = tonumber(bucket[2])
+
+if tokens == nil or timestamp == nil then
+    tokens = capacity
+    timestamp = now
+end
+
+-- 지난 시간만큼 토큰 충전
+tokens = math.min(capacity, tokens + math.max(0, now - timestamp) * refillPerMillis)
+
+local allowed = 0
+local retryAfterMillis = 0
+if tokens >= permits then
+    tokens = tokens - permits
+    allowed = 1
+else
+    retryAfterMillis = math.ceil((permits - tokens) / refillPerMillis)
+end
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'timestamp', tostring(now))
+-- 버킷이 가득 찰 시간이 지나면 키 삭제 (가득 찬 버킷과 같은 상태)
+redis.call('PEXPIRE', key, math.ceil(capacity / refillPerMillis))
+
+return { allowed, retryAfterMillis }
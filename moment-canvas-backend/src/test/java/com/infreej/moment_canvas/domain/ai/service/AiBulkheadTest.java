@@ -0,0 +1,117 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.service.AiBulkhead.CallType;
+import com.infreej.moment_canvas.domain.user.entity.Role;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AI 호출 동시 실행 제한 테스트
+ */
+class AiBulkheadTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    void 소요_시간_평균은_호출_종류별로_따로_낸다() {
+
+        AiBulkhead bulkhead = new AiBulkhead(new SimpleMeterRegistry(), 1, 30_000, 100, 100, 100);
+
+        bulkhead.execute(Role.USER, CallType.RENDER, () -> sleep(300));
+
+        // 이미지 생성 시간이 프롬프트 생성 평균에 섞이지 않는다.
+        assertThat(bulkhead.averageServiceMillis(CallType.RENDER)).isGreaterThan(100);
+        assertThat(bulkhead.averageServiceMillis(CallType.PROMPT)).isEqualTo(100);
+        assertThat(bulkhead.averageServiceMillis(CallType.SUBMIT)).isEqualTo(100);
+    }
+
+
+    @Test
+    void 슬롯이_빌_때만_실행하는_호출의_소요_시간은_평균에_반영하지_않는다() {
+
+        AiBulkhead bulkhead = new AiBulkhead(new SimpleMeterRegistry(), 1, 30_000, 100, 100, 100);
+
+        assertThat(bulkhead.tryExecute(CallType.PROMPT, () -> sleep(300))).contains("done");
+
+        assertThat(bulkhead.averageServiceMillis(CallType.PROMPT)).isEqualTo(100);
+    }
+
+
+    @Test
+    void 실행_중인_호출_종류의_평균으로_예상_대기_시간을_계산한다() throws Exception {
+
+        // 이미지 생성은 평균 10초, 프롬프트 생성은 평균 20ms, 최대 대기 시간 1초
+        AiBulkhead bulkhead = new AiBulkhead(new SimpleMeterRegistry(), 1, 1_000, 10_000, 20, 20);
+
+        // 프롬프트 생성이 슬롯을 차지하고 있다면 뒤의 프롬프트 생성은 기다린다.
+        CountDownLatch promptRunning = new CountDownLatch(1);
+        CountDownLatch releasePrompt = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> bulkhead.execute(Role.USER, CallType.PROMPT, () -> {
+            promptRunning.countDown();
+            await(releasePrompt);
+            return "first";
+        }), executor);
+        assertThat(promptRunning.await(1, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> bulkhead.execute(Role.USER, CallType.PROMPT, () -> "second"), executor);
+        Thread.sleep(100);
+        assertThat(second).isNotDone();
+
+        releasePrompt.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("second");
+
+        // 이미지 생성이 슬롯을 차지하고 있다면 뒤의 프롬프트 생성은 바로 거절한다.
+        CountDownLatch renderRunning = new CountDownLatch(1);
+        CountDownLatch releaseRender = new CountDownLatch(1);
+        CompletableFuture<String> render = CompletableFuture.supplyAsync(() -> bulkhead.execute(Role.USER, CallType.RENDER, () -> {
+            renderRunning.countDown();
+            await(releaseRender);
+            return "render";
+        }), executor);
+        assertThat(renderRunning.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> bulkhead.execute(Role.USER, CallType.PROMPT, () -> "prompt"))
+                .isInstanceOf(BusinessException.class);
+
+        releaseRender.countDown();
+        assertThat(render.get(1, TimeUnit.SECONDS)).isEqualTo("render");
+    }
+
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
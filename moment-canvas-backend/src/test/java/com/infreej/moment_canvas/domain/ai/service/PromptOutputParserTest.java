@@ -0,0 +1,124 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryPromptJsonRequest;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.OpenAiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 프롬프트 생성 응답 변환 테스트
+ * - 자주 발생하는 형식 오류는 복구하고, 복구할 수 없는 응답(잘린 JSON 등)은 재시도 대상 예외로 처리하는지 확인한다.
+ */
+class PromptOutputParserTest {
+
+    private static final String JSON = """
+            {"safetyStatus": true, "reasoningFactualWeight": 0.5, "reasoningEmotionalWeight": 0.3, "reasoningMetaphorWeight": 0.2,
+             "ruleFactual": "a park", "ruleEmotional": "warm light", "ruleMetaphor": "none",
+             "userFeedback": "산책한 하루", "imagePrompt": "a dog walking in a sunny park, watercolor"}""";
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromptOutputParser parser;
+
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        parser = new PromptOutputParser(new ObjectMapper(), meterRegistry, true);
+    }
+
+
+    @Test
+    void 올바른_JSON_은_그대로_변환한다() {
+
+        DiaryPromptJsonRequest result = parser.parse(JSON);
+
+        assertThat(result.isSafetyStatus()).isTrue();
+        assertThat(result.getImagePrompt()).isEqualTo("a dog walking in a sunny park, watercolor");
+        assertThat(count("parsed")).isEqualTo(1);
+        assertThat(count("repaired")).isZero();
+    }
+
+
+    @Test
+    void 코드_블록과_앞뒤_설명은_걷어내고_변환한다() {
+
+        // 코드 블록만 있다면 변환기가 걷어낸다.
+        String fenced = "```json\n" + JSON + "\n```";
+        assertThat(parser.repair(fenced)).isEqualTo(JSON);
+        assertThat(parser.parse(fenced).getImagePrompt()).isEqualTo("a dog walking in a sunny park, watercolor");
+        assertThat(count("parsed")).isEqualTo(1);
+
+        String explained = "Here is the result:\n```json\n" + JSON + "\n```\nLet me know if you need anything else.";
+        assertThat(parser.repair(explained)).isEqualTo(JSON);
+        assertThat(parser.parse(explained).isSafetyStatus()).isTrue();
+        assertThat(count("repaired")).isEqualTo(1);
+    }
+
+
+    @Test
+    void 끝_쉼표는_지우고_변환한다() {
+
+        String trailingComma = JSON.replace("watercolor\"}", "watercolor\", }");
+
+        assertThat(parser.repair(trailingComma)).isEqualTo(JSON);
+        assertThat(parser.repair("{\"tags\": [\"a\", \"b\",], \"n\": 1,\n}")).isEqualTo("{\"tags\": [\"a\", \"b\"], \"n\": 1}");
+        assertThat(parser.parse(trailingComma).getImagePrompt()).isEqualTo("a dog walking in a sunny park, watercolor");
+        assertThat(count("repaired")).isEqualTo(1);
+    }
+
+
+    @Test
+    void 잘린_JSON_은_복구하지_않고_재시도_대상으로_처리한다() {
+
+        // 이미지 프롬프트 중간에서 잘린 응답 (일부만 남은 프롬프트로 이미지를 만들지 않는다.)
+        String truncated = JSON.substring(0, JSON.indexOf(" sunny"));
+        assertThat(parser.repair(truncated)).isEqualTo(truncated);
+        assertFailed(truncated);
+
+        // 이미지 프롬프트 전에 잘린 응답
+        assertFailed("```json\n" + JSON.substring(0, JSON.indexOf("\"imagePrompt\"")));
+        assertThat(count("failed")).isEqualTo(2);
+    }
+
+
+    @Test
+    void 복구할_수_없는_응답은_재시도_대상_예외로_처리한다() {
+
+        assertFailed(null);
+        assertFailed("   ");
+        assertFailed("I can't help with that.");
+        assertFailed("{\"safetyStatus\": false, \"imagePrompt\": \"\"}");
+        assertFailed(JSON.replace("\"none\",", "\"none\""));
+        assertFailed("{\"imagePrompt\": {\"text\": \"a dog\"}}");
+
+        assertThat(count("failed")).isEqualTo(6);
+        assertThat(count("parsed") + count("repaired")).isZero();
+    }
+
+
+    @Test
+    void 캐시_값은_복구하지_않는다() {
+
+        assertThat(parser.parseCached(parser.toJson(parser.parse(JSON)))).get()
+                .extracting(DiaryPromptJsonRequest::getImagePrompt).isEqualTo("a dog walking in a sunny park, watercolor");
+        assertThat(parser.parseCached(JSON.replace("watercolor\"}", "watercolor\", }"))).isEmpty();
+    }
+
+
+    private void assertFailed(String content) {
+        assertThatThrownBy(() -> parser.parse(content))
+                .isInstanceOf(OpenAiException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.AI_INVALID_RESPONSE);
+    }
+
+
+    private double count(String outcome) {
+        return meterRegistry.counter("ai.prompt.parse", "outcome", outcome).count();
+    }
+}
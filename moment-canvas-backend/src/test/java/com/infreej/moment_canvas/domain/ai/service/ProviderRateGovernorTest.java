@@ -0,0 +1,230 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.support.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 제공자 호출 속도 조절 테스트 (provider-rate.lua 는 내장 Redis 에서 실행)
+ */
+class ProviderRateGovernorTest {
+
+    private static final String CHAT_URL = "https://api.openai.com/v1/chat/completions";
+    private static final String IMAGES_URL = "https://api.openai.com/v1/images/generations";
+    private static final String REPLICATE_CREATE_URL = "https://api.replicate.com/v1/models/black-forest-labs/flux-schnell/predictions";
+
+    private EmbeddedRedis redis;
+    private ProviderRateGovernor governor;
+
+    private final AtomicInteger executed = new AtomicInteger();
+    private HttpStatus responseStatus = HttpStatus.OK;
+    private HttpHeaders responseHeaders = new HttpHeaders();
+
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = EmbeddedRedis.start();
+        // 초당 1회, 연속 2회, 쓰기는 100ms, 조회는 3초까지 기다린다.
+        governor = new ProviderRateGovernor(redis.template(), new SimpleMeterRegistry(),
+                true, 1, 0.2, 50, 0.1, 0.5, 2, 60_000, 1_000, 100, 3_000);
+    }
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redis.close();
+    }
+
+
+    @Test
+    void 엔드포인트와_모델별로_버킷을_나눈다() {
+
+        assertThat(governor.bucketOf(request(HttpMethod.POST, CHAT_URL))).isEqualTo("api.openai.com:chat:write");
+        assertThat(governor.bucketOf(request(HttpMethod.POST, IMAGES_URL))).isEqualTo("api.openai.com:images:write");
+        assertThat(governor.bucketOf(request(HttpMethod.POST, REPLICATE_CREATE_URL)))
+                .isEqualTo("api.replicate.com:models/black-forest-labs/flux-schnell:write");
+
+        // prediction id 는 버킷에 포함하지 않는다.
+        assertThat(governor.bucketOf(request(HttpMethod.GET, "https://api.replicate.com/v1/predictions/abc")))
+                .isEqualTo(governor.bucketOf(request(HttpMethod.GET, "https://api.replicate.com/v1/predictions/def")))
+                .isEqualTo("api.replicate.com:predictions:read");
+        assertThat(ProviderRateGovernor.endpointOf("/")).isEqualTo("root");
+        assertThat(ProviderRateGovernor.endpointOf("/v1")).isEqualTo("root");
+    }
+
+
+    @Test
+    void 버킷_크기만큼_보내고_토큰이_없다면_쓰기는_보내지_않고_429_로_처리한다() throws Exception {
+
+        governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution());
+        governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution());
+
+        assertThatThrownBy(() -> governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution()))
+                .isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+        assertThat(executed).hasValue(2);
+
+        // 다른 엔드포인트(이미지 생성)는 chat 호출과 토큰을 나누지 않는다.
+        governor.intercept(request(HttpMethod.POST, IMAGES_URL), new byte[0], execution());
+        assertThat(executed).hasValue(3);
+    }
+
+
+    @Test
+    void 기다리지_않는_쓰기_호출은_토큰이_없다면_바로_거절하고_조회는_기다린다() throws Exception {
+
+        governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution());
+        governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution());
+
+        assertThatThrownBy(() -> ProviderRateGovernor.withoutWaiting(() -> intercept(request(HttpMethod.POST, CHAT_URL))))
+                .isInstanceOf(HttpClientErrorException.TooManyRequests.class)
+                .matches(ProviderRateGovernor::isRejectedLocally);
+        assertThat(executed).hasValue(2);
+
+        // 조회는 이미 비용을 낸 작업의 결과이므로 기다린 뒤 보낸다.
+        String pollUrl = "https://api.replicate.com/v1/predictions/abc";
+        governor.intercept(request(HttpMethod.GET, pollUrl), new byte[0], execution());
+        governor.intercept(request(HttpMethod.GET, pollUrl), new byte[0], execution());
+        ProviderRateGovernor.withoutWaiting(() -> intercept(request(HttpMethod.GET, pollUrl)));
+        assertThat(executed).hasValue(5);
+
+        // 제공자가 보낸 429 는 이 서버의 거절이 아니다.
+        assertThat(ProviderRateGovernor.isRejectedLocally(
+                HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null))).isFalse();
+    }
+
+
+    @Test
+    void 제한_응답_후에는_쓰기는_거절하고_조회는_Retry_After_만큼_기다린_뒤_보낸다() throws Exception {
+
+        String pollUrl = "https://api.replicate.com/v1/predictions/abc";
+        responseStatus = HttpStatus.TOO_MANY_REQUESTS;
+        responseHeaders.set(HttpHeaders.RETRY_AFTER, "1");
+        governor.intercept(request(HttpMethod.GET, pollUrl), new byte[0], execution());
+
+        responseStatus = HttpStatus.OK;
+        responseHeaders = new HttpHeaders();
+
+        // 다른 서버가 보는 공유 상태에도 호출 중단과 줄어든 허용 속도가 남는다.
+        String state = "providerRate:api.replicate.com:predictions:read";
+        assertThat(Long.parseLong((String) redis.template().opsForHash().get(state, "blockedUntil"))).isGreaterThan(System.currentTimeMillis());
+        assertThat(Double.parseDouble((String) redis.template().opsForHash().get(state, "rate"))).isEqualTo(0.0005);
+
+        long startTime = System.nanoTime();
+        governor.intercept(request(HttpMethod.GET, pollUrl), new byte[0], execution());
+        assertThat((System.nanoTime() - startTime) / 1_000_000).isGreaterThanOrEqualTo(500);
+        assertThat(executed).hasValue(2);
+    }
+
+
+    @Test
+    void 남은_호출_수가_0_이라면_reset_까지_멈추고_limit_헤더로_상한을_배운다() throws Exception {
+
+        responseHeaders.set("x-ratelimit-limit-requests", "600");
+        responseHeaders.set("x-ratelimit-remaining-requests", "0");
+        responseHeaders.set("x-ratelimit-reset-requests", "20s");
+        governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution());
+
+        String state = "providerRate:api.openai.com:chat:write";
+        assertThat(Double.parseDouble((String) redis.template().opsForHash().get(state, "ceiling"))).isEqualTo(0.01); // 600회 / 60초
+        assertThatThrownBy(() -> governor.intercept(request(HttpMethod.POST, CHAT_URL), new byte[0], execution()))
+                .isInstanceOf(HttpClientErrorException.TooManyRequests.class)
+                .satisfies(e -> assertThat(((HttpClientErrorException) e).getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("19"));
+    }
+
+
+    @Test
+    void 우회_속성이_있는_요청은_속도를_조절하지_않는다() throws Exception {
+
+        for (int i = 0; i < 5; i++) {
+            MockClientHttpRequest cancel = request(HttpMethod.POST, "https://api.replicate.com/v1/predictions/abc/cancel");
+            cancel.getAttributes().put(ProviderRateGovernor.BYPASS_ATTRIBUTE, true);
+            governor.intercept(cancel, new byte[0], execution());
+        }
+
+        assertThat(executed).hasValue(5);
+        assertThat(redis.template().keys("providerRate:*")).isEmpty();
+    }
+
+
+    @Test
+    void Retry_After_는_초와_HTTP_날짜를_해석한다() {
+
+        assertThat(governor.retryAfterMillis(headers(HttpHeaders.RETRY_AFTER, "2"))).contains(2_000L);
+        assertThat(governor.retryAfterMillis(headers(HttpHeaders.RETRY_AFTER, " 0.5 "))).contains(500L);
+
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(30));
+        assertThat(governor.retryAfterMillis(headers(HttpHeaders.RETRY_AFTER, date)).orElseThrow()).isBetween(28_000L, 30_000L);
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusSeconds(30));
+        assertThat(governor.retryAfterMillis(headers(HttpHeaders.RETRY_AFTER, past))).contains(0L);
+
+        assertThat(governor.retryAfterMillis(new HttpHeaders())).isEmpty();
+        assertThat(governor.retryAfterMillis(headers(HttpHeaders.RETRY_AFTER, "soon"))).isEmpty();
+    }
+
+
+    @Test
+    void reset_은_남은_초_epoch_초_기간_형식을_해석하고_그_외는_기본값을_사용한다() {
+
+        assertThat(governor.resetMillis("1.5")).isEqualTo(1_500L);
+        assertThat(governor.resetMillis("6m0s")).isEqualTo(360_000L);
+        assertThat(governor.resetMillis("1h2m3.5s")).isEqualTo(3_723_500L);
+        assertThat(governor.resetMillis("20ms")).isEqualTo(20L);
+
+        long epochSeconds = System.currentTimeMillis() / 1000 + 10;
+        assertThat(governor.resetMillis(String.valueOf(epochSeconds))).isBetween(8_000L, 10_000L);
+
+        assertThat(governor.resetMillis(null)).isEqualTo(1_000L);
+        assertThat(governor.resetMillis("later")).isEqualTo(1_000L);
+    }
+
+
+    private ClientHttpResponse intercept(MockClientHttpRequest request) {
+        try {
+            return governor.intercept(request, new byte[0], execution());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    private ClientHttpRequestExecution execution() {
+        return (request, body) -> {
+            executed.incrementAndGet();
+            MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], responseStatus);
+            response.getHeaders().putAll(responseHeaders);
+            return response;
+        };
+    }
+
+
+    private MockClientHttpRequest request(HttpMethod method, String url) {
+        return new MockClientHttpRequest(method, URI.create(url));
+    }
+
+
+    private HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return headers;
+    }
+}
@@ -0,0 +1,204 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ReplicateDto;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Replicate 헤징 테스트
+ * - 최근 소요 시간의 p90 이 지나면 헤징하고, 예산이 없으면 헤징하지 않는지 확인한다.
+ * - 상태 조회 실패는 Prediction 마다 다시 시도하고, 모든 Prediction 이 실패했을 때만 실패로 처리하는지 확인한다.
+ * - 헤징 전에 원래 Prediction 이 실패하면 헤징하지 않고, 진 쪽 원래 Prediction 의 소요 시간도 기록하는지 확인한다.
+ */
+class ReplicateHedgedGeneratorTest {
+
+    private static final ReplicateDto.ReplicateInput INPUT = new ReplicateDto.ReplicateInput("a cozy home", "1:1", "webp", 80, true, "1", null);
+
+    private ReplicatePredictionClient replicatePredictionClient;
+    private SimpleMeterRegistry meterRegistry;
+
+    // predictionId -> 조회 횟수에 따른 응답 (예외를 던질 수 있다.)
+    private final Map<String, Function<Integer, ReplicateDto.ReplicateResponse>> behaviors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+
+    @BeforeEach
+    void setUp() {
+        replicatePredictionClient = mock(ReplicatePredictionClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        // p1, p2, p3 ... 순서로 생성된다.
+        given(replicatePredictionClient.createPrediction(any(), any(), anyBoolean()))
+                .willAnswer(invocation -> new ReplicateDto.ReplicateResponse("p" + created.incrementAndGet(), null, "starting", null));
+        given(replicatePredictionClient.getPrediction(anyString())).willAnswer(invocation -> {
+            String predictionId = invocation.getArgument(0);
+            int poll = polls.computeIfAbsent(predictionId, id -> new AtomicInteger()).incrementAndGet();
+            return behaviors.getOrDefault(predictionId, n -> processing(predictionId)).apply(poll);
+        });
+    }
+
+
+    @Test
+    void 샘플이_충분하면_최근_소요_시간의_p90_을_헤징_시점으로_쓴다() {
+
+        ReplicateHedgedGenerator generator = generator(1, 10);
+        assertThat(generator.hedgeDelayMillis()).isEqualTo(50); // 샘플 부족: 초기값
+
+        for (int i = 1; i <= 20; i++) {
+            generator.recordLatency(TimeUnit.MILLISECONDS.toNanos(i * 100L));
+        }
+        assertThat(generator.hedgeDelayMillis()).isEqualTo(1_800); // 20개 중 18번째
+    }
+
+
+    @Test
+    void 헤징_시점이_지나면_하나_더_만들고_먼저_끝난_쪽을_쓰고_예산이_없다면_헤징하지_않는다() {
+
+        // 예산 1 (요청마다 0.5 씩 쌓인다.)
+        ReplicateHedgedGenerator generator = generator(1, 10);
+
+        behaviors.put("p2", poll -> succeeded("p2"));
+        assertThat(generator.generate(INPUT).id()).isEqualTo("p2");
+        verify(replicatePredictionClient).cancelPrediction("p1");
+        assertThat(count("hedge-won")).isEqualTo(1);
+        assertThat(ReflectionTestUtils.getField(generator, "latencyCount")).isEqualTo(2); // 이긴 p2, 취소된 p1
+
+        // 남은 예산 0.5: 헤징 시점이 지나도 원래 Prediction 을 기다린다.
+        behaviors.put("p3", poll -> poll < 20 ? processing("p3") : succeeded("p3"));
+        assertThat(generator.generate(INPUT).id()).isEqualTo("p3");
+        assertThat(created).hasValue(3);
+        assertThat(count("budget-exhausted")).isEqualTo(1);
+        assertThat(count("no-hedge")).isEqualTo(1);
+    }
+
+
+    @Test
+    void 일시적인_조회_실패는_다음_폴링에서_다시_조회한다() {
+
+        ReplicateHedgedGenerator generator = generator(0, 3);
+
+        behaviors.put("p1", poll -> {
+            if (poll <= 2) throw new ResourceAccessException("Read timed out");
+            return succeeded("p1");
+        });
+
+        assertThat(generator.generate(INPUT).id()).isEqualTo("p1");
+        verify(replicatePredictionClient, never()).cancelPrediction(anyString());
+    }
+
+
+    @Test
+    void 한_Prediction_의_조회가_계속_실패하면_그_Prediction_만_포기하고_남은_쪽을_기다린다() {
+
+        ReplicateHedgedGenerator generator = generator(1, 3);
+
+        behaviors.put("p1", poll -> {
+            throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null);
+        });
+        behaviors.put("p2", poll -> poll < 5 ? processing("p2") : succeeded("p2"));
+
+        assertThat(generator.generate(INPUT).id()).isEqualTo("p2");
+        assertThat(polls.get("p1")).hasValue(3);
+        verify(replicatePredictionClient, times(1)).cancelPrediction("p1");
+    }
+
+
+    @Test
+    void 모든_Prediction_이_실패했을_때만_실패로_처리한다() {
+
+        ReplicateHedgedGenerator generator = generator(1, 2);
+
+        // 헤징 뒤에 헤징 쪽이 먼저 실패해도 원래 Prediction 을 기다리고, 모두 실패하면 실패로 처리한다.
+        behaviors.put("p1", poll -> poll < 30 ? processing("p1") : failed("p1"));
+        behaviors.put("p2", poll -> failed("p2"));
+        assertThatThrownBy(() -> generator.generate(INPUT))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.IMAGE_GENERATED_ERROR);
+        assertThat(polls.get("p1")).hasValue(30);
+        assertThat(created).hasValue(2);
+        assertThat(count("failed")).isEqualTo(1);
+
+        // 헤징 전에 원래 Prediction 의 조회를 포기하면 바로 헤징하고, 헤징도 조회가 계속 실패하면 조회 실패를 그대로 전달한다. (제공자 장애로 처리)
+        ReplicateHedgedGenerator unavailable = generator(1, 2);
+        behaviors.put("p3", poll -> {
+            throw new ResourceAccessException("Connection reset");
+        });
+        behaviors.put("p4", poll -> {
+            throw new ResourceAccessException("Connection reset");
+        });
+        assertThatThrownBy(() -> unavailable.generate(INPUT)).isInstanceOf(ResourceAccessException.class);
+        assertThat(created).hasValue(4);
+    }
+
+
+    @Test
+    void 헤징_전에_원래_Prediction_이_실패하면_헤징하지_않고_바로_실패로_처리한다() {
+
+        ReplicateHedgedGenerator generator = generator(1, 3);
+
+        behaviors.put("p1", poll -> failed("p1"));
+        assertThatThrownBy(() -> generator.generate(INPUT))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.IMAGE_GENERATED_ERROR);
+        assertThat(created).hasValue(1);
+        assertThat(count("failed")).isEqualTo(1);
+
+        // 헤징 예산은 그대로 남아 있다.
+        behaviors.put("p3", poll -> succeeded("p3"));
+        assertThat(generator.generate(INPUT).id()).isEqualTo("p3");
+        assertThat(count("hedge-won")).isEqualTo(1);
+    }
+
+
+    // 초기 헤징 시점 50ms, 5ms 마다 조회, 최대 5초 대기
+    private ReplicateHedgedGenerator generator(double maxBudget, int maxPollErrors) {
+        return new ReplicateHedgedGenerator(replicatePredictionClient, meterRegistry,
+                true, 0.9, 100, 20, 50, 0, 0.5, maxBudget, 5, maxPollErrors, 5_000);
+    }
+
+
+    private double count(String outcome) {
+        return meterRegistry.counter("ai.image.hedge", "outcome", outcome).count();
+    }
+
+
+    private static ReplicateDto.ReplicateResponse processing(String predictionId) {
+        return new ReplicateDto.ReplicateResponse(predictionId, null, "processing", null);
+    }
+
+
+    private static ReplicateDto.ReplicateResponse failed(String predictionId) {
+        return new ReplicateDto.ReplicateResponse(predictionId, null, "failed", "NSFW");
+    }
+
+
+    private static ReplicateDto.ReplicateResponse succeeded(String predictionId) {
+        return new ReplicateDto.ReplicateResponse(predictionId, List.of("https://replicate.delivery/" + predictionId + ".webp"), "succeeded", null);
+    }
+}
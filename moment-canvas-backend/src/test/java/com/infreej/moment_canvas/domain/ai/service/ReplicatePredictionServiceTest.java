@@ -0,0 +1,159 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infreej.moment_canvas.domain.ai.entity.ReplicatePrediction;
+import com.infreej.moment_canvas.domain.ai.repository.ReplicatePredictionClaimRepositoryImpl;
+import com.infreej.moment_canvas.domain.ai.repository.ReplicatePredictionRepository;
+import com.infreej.moment_canvas.domain.diary.service.ImageJobService;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Replicate webhook 처리 테스트
+ * - 서명(HMAC-SHA256) 검증과, 등록 전에 도착한 결과 반영, 연결 정보를 한 번만 꺼내는지 확인한다. (Redis 는 내장 서버)
+ */
+class ReplicatePredictionServiceTest {
+
+    private static final String SUCCEEDED = "{\"id\":\"p1\",\"output\":[\"https://replicate.delivery/p1.png\"],\"status\":\"succeeded\"}";
+
+    private EmbeddedRedis redis;
+    private ImageJobService imageJobService;
+    private ReplicatePredictionRepository replicatePredictionRepository;
+    private ReplicatePredictionClient replicatePredictionClient;
+    private ReplicatePredictionService service;
+
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = EmbeddedRedis.start();
+        imageJobService = mock(ImageJobService.class);
+        replicatePredictionRepository = mock(ReplicatePredictionRepository.class);
+        replicatePredictionClient = mock(ReplicatePredictionClient.class);
+
+        service = new ReplicatePredictionService(mock(ReplicateImageModel.class), mock(RoutingImageModel.class),
+                replicatePredictionClient, replicatePredictionRepository, new ObjectMapper(), redis.template(), imageJobService);
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        ReflectionTestUtils.setField(service, "webhookSecret", "whsec_" + Base64.getEncoder().encodeToString(secret));
+    }
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redis.close();
+    }
+
+
+    @Test
+    void 서명이_일치하면_결과를_반영한다() {
+
+        given(imageJobService.completePrediction(anyString(), anyString())).willReturn(true);
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+
+        // 키 교체 중에는 서명이 공백으로 구분되어 여러 개 온다.
+        service.handleWebhook("msg_1", timestamp, "v1,aW52YWxpZA== " + signature("msg_1", timestamp, SUCCEEDED), SUCCEEDED);
+
+        verify(imageJobService).completePrediction("p1", "https://replicate.delivery/p1.png");
+    }
+
+
+    @Test
+    void 서명이_다르거나_오래된_요청은_거절한다() {
+
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+        String tampered = SUCCEEDED.replace("p1.png", "other.png");
+        assertInvalid("msg_1", timestamp, signature("msg_1", timestamp, SUCCEEDED), tampered);
+        assertInvalid("msg_2", timestamp, signature("msg_1", timestamp, SUCCEEDED), SUCCEEDED);
+
+        String old = String.valueOf(Instant.now().minusSeconds(600).getEpochSecond());
+        assertInvalid("msg_1", old, signature("msg_1", old, SUCCEEDED), SUCCEEDED);
+
+        assertInvalid("msg_1", "not-a-number", signature("msg_1", timestamp, SUCCEEDED), SUCCEEDED);
+        assertInvalid("msg_1", timestamp, "v1,%%%", SUCCEEDED);
+        assertInvalid(null, timestamp, signature("msg_1", timestamp, SUCCEEDED), SUCCEEDED);
+
+        String signature = signature("msg_1", timestamp, SUCCEEDED);
+        ReflectionTestUtils.setField(service, "webhookSecret", "");
+        assertInvalid("msg_1", timestamp, signature, SUCCEEDED);
+
+        verify(imageJobService, never()).completePrediction(anyString(), anyString());
+    }
+
+
+    @Test
+    void 등록_전에_도착한_결과는_보관했다가_등록할_때_반영한다() {
+
+        // 처음에는 등록된 작업이 없고, 등록한 뒤에는 처리된다.
+        given(imageJobService.completePrediction(anyString(), anyString())).willReturn(false, true);
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+
+        service.handleWebhook("msg_1", timestamp, signature("msg_1", timestamp, SUCCEEDED), SUCCEEDED);
+        assertThat(redis.template().hasKey("replicatePredictionResult:p1")).isTrue();
+
+        service.register("p1", "job-1", null);
+
+        verify(replicatePredictionRepository).save(any(ReplicatePrediction.class));
+        verify(imageJobService, times(2)).completePrediction("p1", "https://replicate.delivery/p1.png");
+        assertThat(redis.template().hasKey("replicatePredictionResult:p1")).isFalse();
+    }
+
+
+    @Test
+    void 등록에_실패하면_Prediction_을_취소한다() {
+
+        given(replicatePredictionRepository.save(any(ReplicatePrediction.class))).willThrow(new IllegalStateException("redis down"));
+
+        assertThatThrownBy(() -> service.register("p1", "job-1", null)).isInstanceOf(IllegalStateException.class);
+        verify(replicatePredictionClient).cancelPrediction("p1");
+    }
+
+
+    @Test
+    void 연결_정보는_한_번만_꺼낼_수_있다() {
+
+        // @RedisHash 저장 형식 (엔티티 hash, keyspace 인덱스 set, 만료 이벤트용 phantom 키)
+        redis.template().opsForHash().put("replicatePrediction:p1", "jobId", "job-1");
+        redis.template().opsForHash().put("replicatePrediction:p1", "predictionId", "p1");
+        redis.template().opsForSet().add("replicatePrediction", "p1");
+        redis.template().opsForHash().put("replicatePrediction:p1:phantom", "jobId", "job-1");
+
+        ReplicatePredictionClaimRepositoryImpl claimRepository = new ReplicatePredictionClaimRepositoryImpl(redis.template());
+
+        assertThat(claimRepository.claimJobId("p1")).contains("job-1");
+        assertThat(claimRepository.claimJobId("p1")).isEmpty();
+        assertThat(redis.template().keys("replicatePrediction:p1*")).isEmpty();
+        assertThat(redis.template().opsForSet().isMember("replicatePrediction", "p1")).isFalse();
+    }
+
+
+    private void assertInvalid(String webhookId, String timestamp, String signature, String body) {
+        assertThatThrownBy(() -> service.handleWebhook(webhookId, timestamp, signature, body))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.AI_WEBHOOK_INVALID_SIGNATURE);
+    }
+
+
+    private String signature(String webhookId, String timestamp, String body) {
+        return "v1," + Base64.getEncoder().encodeToString(service.sign(webhookId + "." + timestamp + "." + body));
+    }
+}
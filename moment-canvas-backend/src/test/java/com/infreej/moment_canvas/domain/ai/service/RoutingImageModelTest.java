@@ -0,0 +1,132 @@
+package com.infreej.moment_canvas.domain.ai.service;
+
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.image.Image;
+import org.springframework.ai.image.ImageGeneration;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.openai.OpenAiImageModel;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 이미지 생성 제공자 전환 테스트
+ * - 제공자 장애만 서킷에 기록하고 다른 제공자로 넘어가는지 확인한다.
+ */
+class RoutingImageModelTest {
+
+    private static final ImagePrompt PROMPT = new ImagePrompt("a cozy home");
+
+    private ReplicateImageModel replicateImageModel;
+    private OpenAiImageModel openAiImageModel;
+    private SimpleMeterRegistry meterRegistry;
+    private RoutingImageModel routingImageModel;
+
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        replicateImageModel = mock(ReplicateImageModel.class);
+        openAiImageModel = mock(OpenAiImageModel.class);
+        ObjectProvider<ReplicateImageModel> replicateImageModelProvider = mock(ObjectProvider.class);
+        ObjectProvider<OpenAiImageModel> openAiImageModelProvider = mock(ObjectProvider.class);
+        given(replicateImageModelProvider.getIfAvailable()).willReturn(replicateImageModel);
+        given(openAiImageModelProvider.getIfAvailable()).willReturn(openAiImageModel);
+        given(openAiImageModel.call(any())).willReturn(new ImageResponse(List.of(new ImageGeneration(new Image("https://openai/image.png", null)))));
+
+        meterRegistry = new SimpleMeterRegistry();
+        // 실패 2회 중 50% 이상이면 서킷 OPEN
+        routingImageModel = new RoutingImageModel(replicateImageModelProvider, openAiImageModelProvider, meterRegistry,
+                "replicate", true, 50, 100, 30_000, 2, 2, 30_000, 1);
+    }
+
+
+    @Test
+    void 제공자_장애는_서킷에_기록하고_다른_제공자로_넘어간다() {
+
+        given(replicateImageModel.call(any()))
+                .willThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null))
+                .willThrow(new ResourceAccessException("Read timed out"));
+
+        assertThat(routingImageModel.route(PROMPT).provider()).isEqualTo(ImageProvider.OPENAI);
+        assertThat(routingImageModel.route(PROMPT).provider()).isEqualTo(ImageProvider.OPENAI);
+
+        assertThat(routingImageModel.isAvailable(ImageProvider.REPLICATE)).isFalse();
+        assertThat(meterRegistry.counter("ai.image.provider.calls", "provider", "replicate", "outcome", "failure").count()).isEqualTo(2);
+    }
+
+
+    @Test
+    void 요청_제한_429_는_제공자_장애로_본다() {
+
+        assertThat(RoutingImageModel.isProviderFailure(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null))).isTrue();
+        assertThat(RoutingImageModel.isProviderFailure(new NonTransientAiException("429 - {\"error\": \"rate_limit_exceeded\"}"))).isTrue();
+        assertThat(RoutingImageModel.isProviderFailure(new NonTransientAiException("400 - {\"error\": \"content_policy_violation\"}"))).isFalse();
+        assertThat(RoutingImageModel.isProviderFailure(new IllegalStateException("wrapped", new SocketTimeoutException()))).isTrue();
+    }
+
+
+    @Test
+    void 요청의_문제는_서킷에_기록하지_않고_다른_제공자로_넘기지_않는다() {
+
+        given(replicateImageModel.call(any()))
+                .willThrow(HttpClientErrorException.create(HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity", null, null, null))
+                .willThrow(new BusinessException(ErrorCode.IMAGE_POLICY_VIOLATION))
+                .willThrow(new NonTransientAiException("400 - invalid prompt"));
+
+        assertThatThrownBy(() -> routingImageModel.route(PROMPT)).isInstanceOf(HttpClientErrorException.UnprocessableEntity.class);
+        assertThatThrownBy(() -> routingImageModel.route(PROMPT)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> routingImageModel.route(PROMPT)).isInstanceOf(NonTransientAiException.class);
+
+        verify(openAiImageModel, never()).call(any());
+        assertThat(routingImageModel.isAvailable(ImageProvider.REPLICATE)).isTrue();
+        assertThat(meterRegistry.counter("ai.image.provider.calls", "provider", "replicate", "outcome", "rejected").count()).isEqualTo(3);
+    }
+
+
+    @Test
+    void 미리보기_결과도_서킷에_기록하고_다른_제공자로_전환_중이라면_만들지_않는다() {
+
+        given(replicateImageModel.call(any()))
+                .willThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, ProviderRateGovernor.REJECTED_STATUS_TEXT, null, null, null))
+                .willReturn(new ImageResponse(List.of(new ImageGeneration(new Image("https://replicate/preview.png", null)))))
+                .willThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null));
+
+        // 속도 조절기가 보내지 않고 거절한 미리보기는 제공자 장애가 아니다.
+        assertThatThrownBy(() -> routingImageModel.preview(PROMPT)).isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+        assertThat(meterRegistry.counter("ai.image.provider.calls", "provider", "replicate", "outcome", "preview-rejected").count()).isEqualTo(1);
+
+        // 미리보기의 성공 1회, 실패 1회로 실패율 50% 가 되어 서킷이 열린다.
+        assertThat(routingImageModel.preview(PROMPT)).get().extracting(RoutingImageModel.RoutedImageResponse::provider).isEqualTo(ImageProvider.REPLICATE);
+        assertThatThrownBy(() -> routingImageModel.preview(PROMPT)).isInstanceOf(HttpServerErrorException.class);
+        verify(openAiImageModel, never()).call(any());
+        assertThat(routingImageModel.isAvailable(ImageProvider.REPLICATE)).isFalse();
+
+        // 최종 이미지는 다른 제공자로 넘어가고, 미리보기는 만들지 않는다.
+        assertThat(routingImageModel.route(PROMPT).provider()).isEqualTo(ImageProvider.OPENAI);
+        assertThat(routingImageModel.preview(PROMPT)).isEmpty();
+        verify(replicateImageModel, times(3)).call(any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.infreej.moment_canvas.domain.diary.repository;
+
+import com.infreej.moment_canvas.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 작업 일부 필드 변경 테스트 (checkpoint-preview.lua, claim-job-run.lua, release-job-run.lua, retry-job.lua 는 내장 Redis 에서 실행)
+ */
+class ImageGenerationJobCheckpointRepositoryImplTest {
+
+    private static final String KEY = "imageGenerationJob:job-1";
+
+    private EmbeddedRedis redis;
+    private ImageGenerationJobCheckpointRepositoryImpl repository;
+
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = EmbeddedRedis.start();
+        repository = new ImageGenerationJobCheckpointRepositoryImpl(redis.template());
+    }
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redis.close();
+    }
+
+
+    @Test
+    void 이미지_생성_중인_작업에만_미리보기를_기록한다() {
+
+        redis.template().opsForHash().put(KEY, "status", "IMAGE_REQUESTED");
+
+        assertThat(repository.checkpointPreview("job-1", "https://replicate/preview.png")).isTrue();
+        assertThat(redis.template().opsForHash().get(KEY, "status")).isEqualTo("PREVIEW_READY");
+        assertThat(redis.template().opsForHash().get(KEY, "previewUrl")).isEqualTo("https://replicate/preview.png");
+
+        assertThat(repository.checkpointPreview("unknown", "https://replicate/preview.png")).isFalse();
+        assertThat(redis.template().hasKey("imageGenerationJob:unknown")).isFalse();
+    }
+
+
+    @Test
+    void 최종_이미지가_먼저_생성되었다면_기록하지_않는다() {
+
+        redis.template().opsForHash().put(KEY, "status", "IMAGE_REQUESTED");
+        redis.template().opsForHash().put(KEY, "imageUrl", "https://replicate/final.png");
+
+        assertThat(repository.checkpointPreview("job-1", "https://replicate/preview.png")).isFalse();
+        assertThat(redis.template().opsForHash().get(KEY, "status")).isEqualTo("IMAGE_REQUESTED");
+        assertThat(redis.template().opsForHash().hasKey(KEY, "previewUrl")).isFalse();
+
+        redis.template().opsForHash().put(KEY, "status", "COMPLETED");
+        redis.template().opsForHash().delete(KEY, "imageUrl");
+        assertThat(repository.checkpointPreview("job-1", "https://replicate/preview.png")).isFalse();
+    }
+
+
+    @Test
+    void 실행권은_한_소비자만_선점하고_같은_토큰으로만_연장하거나_반환한다() {
+
+        redis.template().opsForHash().put(KEY, "status", "PENDING");
+
+        assertThat(repository.claimRun("job-1", "token-a", 60_000)).isTrue();
+        assertThat(repository.claimRun("job-1", "token-b", 60_000)).isFalse();
+        assertThat(repository.claimRun("job-1", "token-a", 60_000)).isTrue(); // 연장
+
+        // 다른 토큰으로는 반환되지 않는다.
+        repository.releaseRun("job-1", "token-b");
+        assertThat(repository.claimRun("job-1", "token-b", 60_000)).isFalse();
+
+        repository.releaseRun("job-1", "token-a");
+        assertThat(redis.template().opsForHash().hasKey(KEY, "runToken")).isFalse();
+        assertThat(repository.claimRun("job-1", "token-b", 60_000)).isTrue();
+    }
+
+
+    @Test
+    void 실행권이_만료되었거나_끝난_작업이라면_다시_선점하지_않는다() throws Exception {
+
+        redis.template().opsForHash().put(KEY, "status", "IMAGE_REQUESTED");
+
+        // 만료된 실행권은 다른 소비자가 선점한다.
+        assertThat(repository.claimRun("job-1", "token-a", 1)).isTrue();
+        Thread.sleep(10);
+        assertThat(repository.claimRun("job-1", "token-b", 60_000)).isTrue();
+
+        redis.template().opsForHash().put(KEY, "status", "COMPLETED");
+        repository.releaseRun("job-1", "token-b");
+        assertThat(repository.claimRun("job-1", "token-c", 60_000)).isFalse();
+        assertThat(repository.claimRun("unknown", "token-c", 60_000)).isFalse();
+        assertThat(redis.template().hasKey("imageGenerationJob:unknown")).isFalse();
+    }
+
+
+    @Test
+    void 실패한_작업만_한_번_대기_상태로_바꾼다() {
+
+        redis.template().opsForHash().put(KEY, "status", "FAILED");
+        redis.template().opsForHash().put(KEY, "errorCode", "E5003");
+        redis.template().opsForHash().put(KEY, "prompt", "a watercolor painting");
+        redis.template().opsForHash().put(KEY, "runToken", "token-a");
+
+        assertThat(repository.retry("job-1", 1_700_000_000_000L)).isTrue();
+        assertThat(repository.retry("job-1", 1_700_000_000_000L)).isFalse();
+
+        // 프롬프트 체크포인트부터 다시 진행하고, 실패 코드와 이전 실행권은 지운다.
+        assertThat(redis.template().opsForHash().get(KEY, "status")).isEqualTo("PROMPT_BUILT");
+        assertThat(redis.template().opsForHash().get(KEY, "deadlineAt")).isEqualTo("1700000000000");
+        assertThat(redis.template().opsForHash().hasKey(KEY, "errorCode")).isFalse();
+        assertThat(redis.template().opsForHash().hasKey(KEY, "runToken")).isFalse();
+
+        // 프롬프트가 없다면 처음부터, 제한 시각이 없다면 제한 없이
+        redis.template().opsForHash().put(KEY, "status", "FAILED");
+        redis.template().opsForHash().delete(KEY, "prompt");
+        assertThat(repository.retry("job-1", null)).isTrue();
+        assertThat(redis.template().opsForHash().get(KEY, "status")).isEqualTo("PENDING");
+        assertThat(redis.template().opsForHash().hasKey(KEY, "deadlineAt")).isFalse();
+
+        assertThat(repository.retry("unknown", null)).isFalse();
+        assertThat(redis.template().hasKey("imageGenerationJob:unknown")).isFalse();
+    }
+}
@@ -0,0 +1,133 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.diary.entity.Diary;
+import com.infreej.moment_canvas.domain.diary.entity.DiaryImageCandidate;
+import com.infreej.moment_canvas.domain.diary.event.DiaryDeletedEvent;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryImageCandidateRepository;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryRepository;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 일기 이미지 후보 파일 정리 테스트 (정리 대상 목록은 내장 Redis)
+ * - 파일은 후보 삭제가 커밋된 뒤에만 삭제하는지, 후보로 보관되지 못한 파일만 골라 삭제하는지 확인한다.
+ */
+class DiaryImageCandidateCleanerTest {
+
+    private EmbeddedRedis redis;
+    private DiaryImageCandidateRepository diaryImageCandidateRepository;
+    private DiaryRepository diaryRepository;
+    private StoredCandidateImageTracker storedCandidateImageTracker;
+    private DiaryImageCandidateCleaner cleaner;
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    private final List<String> deletedFiles = new ArrayList<>();
+
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        redis = EmbeddedRedis.start();
+        diaryImageCandidateRepository = mock(DiaryImageCandidateRepository.class);
+        diaryRepository = mock(DiaryRepository.class);
+        storedCandidateImageTracker = new StoredCandidateImageTracker(redis.template());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+
+        // 트랜잭션 안에서 파일을 삭제하면 실패로 기록한다.
+        ImageService imageService = mock(ImageService.class);
+        willAnswer(invocation -> deletedFiles.add(inTransaction.get() ? "in-transaction" : invocation.getArgument(0)))
+                .given(imageService).deleteImage(anyString(), any(ImageType.class));
+
+        cleaner = new DiaryImageCandidateCleaner(diaryImageCandidateRepository, diaryRepository, imageService, storedCandidateImageTracker, transactionTemplate);
+        ReflectionTestUtils.setField(cleaner, "retentionMinutes", 60L);
+        ReflectionTestUtils.setField(cleaner, "orphanGraceMinutes", 0L);
+    }
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redis.close();
+    }
+
+
+    @Test
+    void 보관_기간이_지난_후보는_커밋_후에_선택되지_않은_파일만_삭제한다() {
+
+        Diary diary = Diary.builder().diaryId(10L).savedDiaryImageName("selected.webp").build();
+        given(diaryImageCandidateRepository.findAllStoredCreatedBefore(any())).willReturn(List.of(
+                DiaryImageCandidate.builder().diary(diary).savedImageName("selected.webp").build(),
+                DiaryImageCandidate.builder().diary(diary).savedImageName("unselected.webp").build()));
+        given(diaryImageCandidateRepository.deleteAllCreatedBefore(any())).willReturn(2);
+
+        cleaner.deleteExpiredCandidates();
+
+        assertThat(deletedFiles).containsExactly("unselected.webp");
+    }
+
+
+    @Test
+    void 후보로_보관되지_못한_파일만_삭제하고_정리_대상에서_뺀다() throws Exception {
+
+        storedCandidateImageTracker.track("orphan.webp");
+        storedCandidateImageTracker.track("candidate.webp");
+        storedCandidateImageTracker.track("diary.webp");
+        Thread.sleep(5);
+        given(diaryImageCandidateRepository.findAllSavedImageNamesIn(anyCollection())).willReturn(List.of("candidate.webp"));
+        given(diaryRepository.findAllSavedDiaryImageNamesIn(anyCollection())).willReturn(List.of("diary.webp"));
+
+        cleaner.deleteExpiredCandidates();
+
+        assertThat(deletedFiles).containsExactly("orphan.webp");
+        assertThat(redis.template().opsForZSet().size(StoredCandidateImageTracker.KEY)).isZero();
+    }
+
+
+    @Test
+    void 유예_시간이_지나지_않은_파일은_진행_중인_작업의_파일로_보고_남겨_둔다() {
+
+        ReflectionTestUtils.setField(cleaner, "orphanGraceMinutes", 10L);
+        storedCandidateImageTracker.track("storing.webp");
+
+        cleaner.deleteExpiredCandidates();
+
+        assertThat(deletedFiles).isEmpty();
+        assertThat(redis.template().opsForZSet().size(StoredCandidateImageTracker.KEY)).isEqualTo(1);
+    }
+
+
+    @Test
+    void 일기가_영구_삭제되면_함께_삭제된_후보의_파일을_삭제한다() {
+
+        cleaner.onDiaryDeleted(new DiaryDeletedEvent(10L, List.of("a.webp", "b.webp")));
+
+        assertThat(deletedFiles).containsExactly("a.webp", "b.webp");
+    }
+}
@@ -0,0 +1,347 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationResult;
+import com.infreej.moment_canvas.domain.ai.entity.ImageProvider;
+import com.infreej.moment_canvas.domain.ai.repository.ReplicatePredictionRepository;
+import com.infreej.moment_canvas.domain.ai.service.AiService;
+import com.infreej.moment_canvas.domain.ai.service.ImagePromptCache;
+import com.infreej.moment_canvas.domain.ai.service.PromptSafetyFilter;
+import com.infreej.moment_canvas.domain.ai.service.ReplicatePredictionService;
+import com.infreej.moment_canvas.domain.diary.dto.projection.DiaryContent;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.response.DiaryResponse;
+import com.infreej.moment_canvas.domain.diary.entity.Diary;
+import com.infreej.moment_canvas.domain.diary.entity.DiaryImageCandidate;
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import com.infreej.moment_canvas.domain.diary.entity.ImageJobStatus;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryImageCandidateRepository;
+import com.infreej.moment_canvas.domain.diary.repository.DiaryRepository;
+import com.infreej.moment_canvas.domain.diary.repository.ImageGenerationJobRepository;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageDownloadRequest;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageSaveRequest;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.domain.user.dto.projection.UserCharacteristic;
+import com.infreej.moment_canvas.domain.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 외부 AI 호출, 이미지 다운로드 중에 DB 커넥션을 잡고 있지 않는지 검증하는 테스트 (이미지 생성 작업 전체 포함)
+ * - 실제 트랜잭션 매니저(JPA)는 트랜잭션 시작 시 커넥션을 가져오므로,
+ *   외부 호출 시점에 열린 트랜잭션이 없다면 풀의 커넥션도 사용 중이 아니다.
+ */
+@SpringJUnitConfig
+class DiaryServiceImplTransactionTest {
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import({DiaryServiceImpl.class, ImageJobServiceImpl.class})
+    static class Config {
+
+        @Bean
+        ConnectionTrackingTransactionManager transactionManager() {
+            return new ConnectionTrackingTransactionManager();
+        }
+
+        @Bean
+        ThreadPoolTaskExecutor imageRenderExecutor() {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(2);
+            executor.initialize();
+            return executor;
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private ImageJobService imageJobService;
+
+    @Autowired
+    private ConnectionTrackingTransactionManager transactionManager;
+
+    @MockitoBean
+    private DiaryRepository diaryRepository;
+
+    @MockitoBean
+    private DiaryImageCandidateRepository diaryImageCandidateRepository;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private ImageService imageService;
+
+    @MockitoBean
+    private ImagePromptCache imagePromptCache;
+
+    @MockitoBean
+    private PromptSafetyFilter promptSafetyFilter;
+
+    @MockitoBean
+    private AiService aiService;
+
+    @MockitoBean
+    private ImageJobDeduplicator imageJobDeduplicator;
+
+    @MockitoBean
+    private ImageGenerationJobRepository imageGenerationJobRepository;
+
+    @MockitoBean
+    private ReplicatePredictionRepository replicatePredictionRepository;
+
+    @MockitoBean
+    private ReplicatePredictionService replicatePredictionService;
+
+    @MockitoBean
+    private ImageJobQueue imageJobQueue;
+
+    @MockitoBean
+    private StoredCandidateImageTracker storedCandidateImageTracker;
+
+    // 후보 이미지 다운로드는 imageRenderExecutor 에서 실행되므로 동시에 기록될 수 있다.
+    private final List<Integer> connectionsDuringExternalCall = new CopyOnWriteArrayList<>();
+    private final Map<String, ImageGenerationJob> jobs = new ConcurrentHashMap<>();
+
+
+    @BeforeEach
+    void setUp() {
+        transactionManager.reset();
+        connectionsDuringExternalCall.clear();
+
+        given(promptSafetyFilter.screenContent(any())).willAnswer(returnsFirstArg());
+        given(promptSafetyFilter.screenOption(any())).willAnswer(returnsFirstArg());
+
+        UserCharacteristic userCharacteristic = mock(UserCharacteristic.class);
+        given(userRepository.findByUserId(1L)).willReturn(Optional.of(userCharacteristic));
+
+        DiaryContent diaryContent = mock(DiaryContent.class);
+        given(diaryContent.getTitle()).willReturn("제목");
+        given(diaryContent.getContent()).willReturn("내용");
+        given(diaryContent.getMood()).willReturn(5);
+        given(diaryRepository.findDiaryContentByDiaryIdAndUser_UserId(10L, 1L)).willReturn(Optional.of(diaryContent));
+
+        jobs.clear();
+        given(imageGenerationJobRepository.findById(anyString())).willAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        given(imageGenerationJobRepository.save(any(ImageGenerationJob.class))).willAnswer(invocation -> {
+            ImageGenerationJob job = invocation.getArgument(0);
+            jobs.put(job.getJobId(), job);
+            return job;
+        });
+        given(imageGenerationJobRepository.claimRun(anyString(), anyString(), anyLong())).willReturn(true);
+    }
+
+
+    @Test
+    void runJob_프롬프트_생성과_이미지_생성_다운로드_중에는_커넥션을_잡지_않는다() throws Exception {
+
+        given(aiService.generateImagePrompt(any())).willAnswer(invocation -> {
+            recordConnectionsInUse();
+            return "a watercolor diary";
+        });
+        given(aiService.renderImage(anyString(), any(), any())).willAnswer(invocation -> {
+            recordConnectionsInUse();
+            return new ImageGenerationResult("https://example.com/image.webp", ImageProvider.REPLICATE);
+        });
+        given(imageService.downloadUrlImage(any())).willAnswer(invocation -> {
+            recordConnectionsInUse();
+            return new ImageSaveRequest("https://example.com/image.webp", "saved.webp");
+        });
+        given(diaryRepository.findByDiaryIdAndUser_UserId(10L, 1L)).willReturn(Optional.of(Diary.builder().diaryId(10L).build()));
+        given(diaryImageCandidateRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        imageJobService.runJob(pendingJob().getJobId());
+
+        assertThat(connectionsDuringExternalCall).containsExactly(0, 0, 0);
+        assertThat(jobs.get("job-1").getStatus()).isEqualTo(ImageJobStatus.COMPLETED);
+        assertThat(transactionManager.getActiveCount()).isZero();
+    }
+
+
+    @Test
+    void runJob_webhook_방식의_이미지_생성_요청_중에는_커넥션을_잡지_않는다() {
+
+        given(aiService.generateImagePrompt(any())).willReturn("a watercolor diary");
+        given(replicatePredictionService.isWebhookAvailable()).willReturn(true);
+        given(aiService.requestImagePrediction(anyString(), any(), any())).willAnswer(invocation -> {
+            recordConnectionsInUse();
+            return "prediction-id";
+        });
+
+        imageJobService.runJob(pendingJob().getJobId());
+
+        assertThat(connectionsDuringExternalCall).containsExactly(0);
+        assertThat(jobs.get("job-1").getStatus()).isEqualTo(ImageJobStatus.IMAGE_REQUESTED);
+        assertThat(transactionManager.getActiveCount()).isZero();
+    }
+
+
+    @Test
+    void createImageGenerationRequest_트랜잭션을_열어둔_채로_반환하지_않는다() {
+
+        ImageGenerationRequest imageGenerationRequest = diaryService.createImageGenerationRequest(1L, new DiaryImageGenerateRequest(10L, "수채화", "", null, null, null, false, null, null));
+
+        // 이후 AI 호출은 이 요청만으로 진행되므로, 반환 시점에 열린 트랜잭션이 없어야 한다.
+        assertThat(imageGenerationRequest.getUserRequest()).contains("수채화");
+        assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+        assertThat(transactionManager.getActiveCount()).isZero();
+    }
+
+
+    @Test
+    void diaryImageSave_다운로드_중에는_커넥션을_잡지_않고_이후_짧은_트랜잭션으로_저장한다() throws Exception {
+
+        Diary diary = Diary.builder()
+                .diaryId(10L)
+                .title("제목")
+                .content("내용")
+                .mood(5)
+                .targetDate(LocalDate.of(2025, 1, 1))
+                .build();
+        given(diaryRepository.findByDiaryIdAndUser_UserId(10L, 1L)).willReturn(Optional.of(diary));
+
+        given(imageService.downloadUrlImage(any())).willAnswer(invocation -> {
+            recordConnectionsInUse();
+            return new ImageSaveRequest("https://example.com/image.webp", "saved.webp");
+        });
+
+        DiaryResponse diaryResponse = diaryService.diaryImageSave(1L, 10L, new ImageDownloadRequest("https://example.com/image.webp", ImageType.Diary));
+
+        assertThat(connectionsDuringExternalCall).containsExactly(0);
+        assertThat(diaryResponse.getSavedDiaryImageName()).isEqualTo("saved.webp");
+        assertThat(transactionManager.getCommitCount()).isEqualTo(1);
+        assertThat(transactionManager.getActiveCount()).isZero();
+    }
+
+
+    @Test
+    void diaryImageSave_저장해_둔_후보를_선택하면_다운로드하지_않고_선택만_반영한다() throws Exception {
+
+        Diary diary = Diary.builder().diaryId(10L).build();
+        given(diaryRepository.findByDiaryIdAndUser_UserId(10L, 1L)).willReturn(Optional.of(diary));
+        DiaryImageCandidate candidate = DiaryImageCandidate.builder()
+                .candidateId(100L)
+                .diary(diary)
+                .imageUrl("https://example.com/image.webp")
+                .orgImageName("https://example.com/image.webp")
+                .savedImageName("stored.webp")
+                .build();
+        given(diaryImageCandidateRepository.findByCandidateIdAndDiary_DiaryIdAndDiary_User_UserIdAndCreatedAtAfter(eq(100L), eq(10L), eq(1L), any()))
+                .willReturn(Optional.of(candidate));
+
+        DiaryResponse diaryResponse = diaryService.diaryImageSave(1L, 10L, new ImageDownloadRequest(null, ImageType.Diary, 100L));
+
+        verify(imageService, never()).downloadUrlImage(any());
+        assertThat(diaryResponse.getSavedDiaryImageName()).isEqualTo("stored.webp");
+        assertThat(transactionManager.getCommitCount()).isEqualTo(1);
+    }
+
+
+    private ImageGenerationJob pendingJob() {
+        ImageGenerationJob job = ImageGenerationJob.builder()
+                .jobId("job-1")
+                .userId(1L)
+                .diaryId(10L)
+                .status(ImageJobStatus.PENDING)
+                .style("수채화")
+                .option("")
+                .build();
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+
+    private void recordConnectionsInUse() {
+        assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+        connectionsDuringExternalCall.add(transactionManager.getActiveCount());
+    }
+
+
+    /**
+     * 트랜잭션 시작 ~ 종료 사이를 커넥션 점유 구간으로 보고 개수를 세는 트랜잭션 매니저
+     */
+    static class ConnectionTrackingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final AtomicInteger activeCount = new AtomicInteger();
+        private final AtomicInteger commitCount = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            activeCount.incrementAndGet();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commitCount.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            activeCount.decrementAndGet();
+        }
+
+        int getActiveCount() {
+            return activeCount.get();
+        }
+
+        int getCommitCount() {
+            return commitCount.get();
+        }
+
+        void reset() {
+            activeCount.set(0);
+            commitCount.set(0);
+        }
+    }
+}
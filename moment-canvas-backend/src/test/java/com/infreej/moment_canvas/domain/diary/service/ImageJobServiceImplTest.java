@@ -0,0 +1,326 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.ai.repository.ReplicatePredictionRepository;
+import com.infreej.moment_canvas.domain.ai.service.AiService;
+import com.infreej.moment_canvas.domain.ai.service.PromptSafetyFilter;
+import com.infreej.moment_canvas.domain.diary.controller.DiaryController;
+import com.infreej.moment_canvas.domain.diary.dto.request.DiaryImageGenerateRequest;
+import com.infreej.moment_canvas.domain.diary.dto.response.ImageJobResponse;
+import com.infreej.moment_canvas.domain.diary.entity.ImageGenerationJob;
+import com.infreej.moment_canvas.domain.diary.entity.ImageJobStatus;
+import com.infreej.moment_canvas.domain.diary.repository.ImageGenerationJobRepository;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.domain.user.entity.User;
+import com.infreej.moment_canvas.global.aspect.RateLimitAspect;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.exception.RateLimitExceededException;
+import com.infreej.moment_canvas.global.security.CustomUserDetails;
+import com.infreej.moment_canvas.global.util.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 이미지 생성 작업 접수 테스트 (Redis 는 메모리 Map 으로 대신)
+ */
+class ImageJobServiceImplTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final Map<String, ImageGenerationJob> jobs = new ConcurrentHashMap<>();
+
+    private ImageJobQueue imageJobQueue;
+    private DiaryService diaryService;
+    private ReplicatePredictionRepository replicatePredictionRepository;
+    private ImageGenerationJobRepository imageGenerationJobRepository;
+    private ImageJobServiceImpl imageJobService;
+
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        given(stringRedisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .willAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        given(valueOperations.get(anyString())).willAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        willAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .given(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        // 진행 중 표시 해제 (값이 같을 때만 삭제)
+        given(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any()))
+                .willAnswer(invocation -> redis.remove(invocation.<List<String>>getArgument(1).get(0), invocation.getArgument(2)) ? 1L : 0L);
+
+        // 저장이 느린 경우에도 같은 요청이 두 번 실행되지 않아야 한다.
+        imageGenerationJobRepository = mock(ImageGenerationJobRepository.class);
+        given(imageGenerationJobRepository.save(any(ImageGenerationJob.class))).willAnswer(invocation -> {
+            Thread.sleep(50);
+            ImageGenerationJob job = invocation.getArgument(0);
+            jobs.put(job.getJobId(), job);
+            return job;
+        });
+        given(imageGenerationJobRepository.findById(anyString())).willAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        willAnswer(invocation -> jobs.remove(invocation.<String>getArgument(0))).given(imageGenerationJobRepository).deleteById(anyString());
+
+        imageJobQueue = mock(ImageJobQueue.class);
+        diaryService = mock(DiaryService.class);
+        replicatePredictionRepository = mock(ReplicatePredictionRepository.class);
+
+        imageJobService = new ImageJobServiceImpl(
+                diaryService,
+                mock(AiService.class),
+                mock(PromptSafetyFilter.class),
+                new ImageJobDeduplicator(stringRedisTemplate, new SimpleMeterRegistry()),
+                imageGenerationJobRepository,
+                replicatePredictionRepository,
+                mock(ObjectProvider.class),
+                imageJobQueue,
+                mock(ImageService.class),
+                mock(StoredCandidateImageTracker.class),
+                new ThreadPoolTaskExecutor());
+    }
+
+
+    @Test
+    void 동시에_들어온_같은_요청은_하나의_작업으로_합쳐진다() throws Exception {
+
+        int requests = 8;
+        CyclicBarrier barrier = new CyclicBarrier(requests);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<ImageJobResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return imageJobService.submit(1L, new DiaryImageGenerateRequest(10L, "수채화", "", null, null, null, false, null, null), null);
+                }));
+            }
+
+            List<String> jobIds = new ArrayList<>();
+            for (Future<ImageJobResponse> future : futures) {
+                jobIds.add(future.get().getJobId());
+            }
+
+            // 모두 같은 작업을 받고, 큐에는 한 번만 들어가며, 선점하지 못한 작업은 남지 않는다.
+            assertThat(jobIds).containsOnly(jobIds.get(0));
+            verify(imageJobQueue, times(1)).enqueue(anyString());
+            assertThat(jobs).containsOnlyKeys(jobIds.get(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void 기존_작업을_돌려주는_요청은_요청_횟수_제한을_차감하지_않는다() {
+
+        // 토큰 2개, 충전 없음
+        AtomicInteger tokens = new AtomicInteger(2);
+        TokenBucketRateLimiter tokenBucketRateLimiter = mock(TokenBucketRateLimiter.class);
+        given(tokenBucketRateLimiter.tryConsume(anyString(), anyInt(), anyInt(), anyInt())).willAnswer(invocation -> {
+            int permits = invocation.getArgument(3);
+            return tokens.getAndUpdate(remaining -> remaining >= permits ? remaining - permits : remaining) >= permits ? 0L : 60_000L;
+        });
+        DiaryController diaryController = rateLimited(new DiaryController(diaryService, imageJobService), tokenBucketRateLimiter);
+        CustomUserDetails customUserDetails = new CustomUserDetails(User.builder().userId(1L).build());
+
+        DiaryImageGenerateRequest request = new DiaryImageGenerateRequest(10L, "수채화", "", null, null, null, false, null, null);
+        String jobId = diaryController.generateDiaryImage(customUserDetails, request, "key-1").getJobId();
+        assertThat(tokens).hasValue(1);
+
+        // 같은 Idempotency-Key 재요청은 버킷 크기보다 많이 보내도 차감하지 않는다.
+        for (int i = 0; i < 5; i++) {
+            assertThat(diaryController.generateDiaryImage(customUserDetails, request, "key-1").getJobId()).isEqualTo(jobId);
+        }
+        // 진행 중인 같은 요청도 차감하지 않는다.
+        assertThat(diaryController.generateDiaryImage(customUserDetails, request, null).getJobId()).isEqualTo(jobId);
+        assertThat(tokens).hasValue(1);
+
+        // 새 작업은 차감하고, 토큰이 없다면 거절한다.
+        DiaryImageGenerateRequest other = new DiaryImageGenerateRequest(10L, "팝아트", "", null, null, null, false, null, null);
+        diaryController.generateDiaryImage(customUserDetails, other, "key-2");
+        assertThat(tokens).hasValue(0);
+        assertThatThrownBy(() -> diaryController.generateDiaryImage(customUserDetails,
+                new DiaryImageGenerateRequest(10L, "사이버펑크", "", null, null, null, false, null, null), "key-3"))
+                .isInstanceOf(RateLimitExceededException.class);
+        verify(imageJobQueue, times(2)).enqueue(anyString());
+    }
+
+
+    @Test
+    void Prediction_완료는_체크포인트만_기록하고_저장_단계는_큐에서_진행한다() {
+
+        String jobId = imageJobService.submit(1L, new DiaryImageGenerateRequest(10L, "수채화", "", null, null, null, false, null, null), null).getJobId();
+        given(replicatePredictionRepository.claimJobId("p1")).willReturn(Optional.of(jobId));
+
+        assertThat(imageJobService.completePrediction("p1", "https://replicate.delivery/p1.webp")).isTrue();
+
+        // webhook 요청 스레드에서는 저장하지 않는다.
+        verify(diaryService, never()).saveImageCandidates(anyLong(), anyLong(), anyString(), anyList(), anyList(), any());
+        verify(imageJobQueue, times(2)).enqueue(jobId);
+        assertThat(jobs.get(jobId).getImageUrls()).containsExactly("https://replicate.delivery/p1.webp");
+    }
+
+
+    @Test
+    void 결과를_큐에_넣지_못하면_작업을_실패_처리하고_중복_요청_키를_해제한다() {
+
+        String jobId = imageJobService.submit(1L, new DiaryImageGenerateRequest(10L, "수채화", "", null, null, null, false, null, null), null).getJobId();
+        assertThat(redis).containsValue(jobId);
+
+        given(replicatePredictionRepository.claimJobId("p1")).willReturn(Optional.of(jobId));
+        willThrow(new RedisConnectionFailureException("Unable to connect to Redis")).given(imageJobQueue).enqueue(jobId);
+
+        assertThat(imageJobService.completePrediction("p1", "https://replicate.delivery/p1.webp")).isTrue();
+
+        assertThat(jobs.get(jobId).getStatus()).isEqualTo(ImageJobStatus.FAILED);
+        assertThat(jobs.get(jobId).hasImage()).isTrue(); // 재시도하면 저장 단계부터 진행
+        assertThat(redis).doesNotContainValue(jobId);
+    }
+
+
+    @Test
+    void 동시에_들어온_재시도_요청은_한_번만_큐에_넣는다() throws Exception {
+
+        jobs.put("job-1", ImageGenerationJob.builder().jobId("job-1").userId(1L).status(ImageJobStatus.FAILED).errorCode("E5003").build());
+        // retry-job.lua 처럼 실패 상태일 때만 한 번에 바꾼다.
+        given(imageGenerationJobRepository.retry(anyString(), any())).willAnswer(invocation -> {
+            boolean[] changed = {false};
+            jobs.computeIfPresent(invocation.getArgument(0), (jobId, job) -> {
+                if (job.getStatus() == ImageJobStatus.FAILED) {
+                    job.updateStatus(ImageJobStatus.PENDING);
+                    changed[0] = true;
+                }
+                return job;
+            });
+            return changed[0];
+        });
+
+        int requests = 8;
+        CyclicBarrier barrier = new CyclicBarrier(requests);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<ImageJobResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return imageJobService.retry(1L, "job-1");
+                }));
+            }
+
+            int accepted = 0;
+            for (Future<ImageJobResponse> future : futures) {
+                try {
+                    assertThat(future.get().getStatus()).isEqualTo(ImageJobStatus.PENDING);
+                    accepted++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BusinessException.class)
+                            .extracting("errorCode").isEqualTo(ErrorCode.IMAGE_JOB_NOT_RETRYABLE);
+                }
+            }
+
+            assertThat(accepted).isEqualTo(1);
+            verify(imageJobQueue, times(1)).enqueue("job-1");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void 실행권을_선점하지_못한_작업은_실행하지_않는다() {
+
+        jobs.put("job-1", ImageGenerationJob.builder().jobId("job-1").userId(1L).diaryId(10L).status(ImageJobStatus.PENDING).build());
+        given(imageGenerationJobRepository.claimRun(anyString(), anyString(), anyLong())).willReturn(false);
+
+        imageJobService.runJob("job-1");
+
+        verify(diaryService, never()).createImageGenerationRequest(anyLong(), any());
+        verify(imageGenerationJobRepository, never()).releaseRun(anyString(), anyString());
+        assertThat(jobs.get("job-1").getStatus()).isEqualTo(ImageJobStatus.PENDING);
+    }
+
+
+    @Test
+    void 마지막_구독자가_끊기면_작업_상태를_더_조회하지_않는다() {
+
+        jobs.put("job-1", ImageGenerationJob.builder().jobId("job-1").userId(1L).status(ImageJobStatus.PENDING).build());
+
+        SseEmitter first = imageJobService.subscribe(1L, "job-1");
+        SseEmitter second = imageJobService.subscribe(1L, "job-1");
+        imageJobService.pushRemoteUpdates();
+        assertThat(emitters()).containsOnlyKeys("job-1");
+
+        ReflectionTestUtils.invokeMethod(imageJobService, "removeEmitter", "job-1", first);
+        assertThat(emitters()).containsOnlyKeys("job-1");
+
+        ReflectionTestUtils.invokeMethod(imageJobService, "removeEmitter", "job-1", second);
+        assertThat(emitters()).isEmpty();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(imageJobService, "lastSentStatus")).isEmpty();
+
+        // 구독자가 없는 작업은 조회하지 않는다. (구독 2회 + 갱신 1회)
+        imageJobService.pushRemoteUpdates();
+        verify(imageGenerationJobRepository, times(3)).findById("job-1");
+    }
+
+
+    // 요청 횟수 제한 Aspect 를 적용한 컨트롤러 (@imageJobServiceImpl 은 이 테스트의 서비스)
+    private DiaryController rateLimited(DiaryController diaryController, TokenBucketRateLimiter tokenBucketRateLimiter) {
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("imageJobServiceImpl", imageJobService);
+
+        RateLimitAspect aspect = new RateLimitAspect(tokenBucketRateLimiter, new MockEnvironment(), beanFactory);
+        ReflectionTestUtils.setField(aspect, "enabled", true);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(diaryController);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> emitters() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(imageJobService, "emitters");
+    }
+}
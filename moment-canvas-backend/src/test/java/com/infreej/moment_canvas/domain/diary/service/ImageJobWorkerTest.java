@@ -0,0 +1,213 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.diary.repository.ImageGenerationJobRepository;
+import com.infreej.moment_canvas.global.config.AsyncConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 이미지 생성 작업 소비자 테스트 (Redis 는 mock)
+ * - 읽은 작업이 동시 처리 수만큼 바로 실행되는지, 처리 중인 작업의 idle 시간을 갱신하는지, 종료 시 진행 중인 작업을 기다리는지 확인한다.
+ */
+class ImageJobWorkerTest {
+
+    private static final int CONCURRENCY = 3;
+
+    private ImageJobService imageJobService;
+    private StringRedisTemplate stringRedisTemplate;
+    private StreamOperations<String, Object, Object> streamOperations;
+    private ThreadPoolTaskExecutor imageGenerationExecutor;
+    private ImageJobWorker worker;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean delivered = new AtomicBoolean();
+
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        imageJobService = mock(ImageJobService.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        streamOperations = mock(StreamOperations.class);
+        doReturn(streamOperations).when(stringRedisTemplate).opsForStream();
+
+        AsyncConfig asyncConfig = new AsyncConfig();
+        ReflectionTestUtils.setField(asyncConfig, "imageJobConcurrency", CONCURRENCY);
+        imageGenerationExecutor = asyncConfig.imageGenerationExecutor();
+
+        worker = new ImageJobWorker(imageJobService, mock(ImageJobQueue.class), mock(ImageGenerationJobRepository.class),
+                stringRedisTemplate, new SimpleMeterRegistry(), imageGenerationExecutor);
+        ReflectionTestUtils.setField(worker, "concurrency", CONCURRENCY);
+        ReflectionTestUtils.setField(worker, "blockMillis", 50L);
+        ReflectionTestUtils.setField(worker, "claimIdleMillis", 90_000L);
+        ReflectionTestUtils.setField(worker, "claimIntervalMillis", 30_000L);
+        ReflectionTestUtils.setField(worker, "maxDeliveries", 3L);
+        ReflectionTestUtils.setField(worker, "drainTimeoutMillis", 5_000L);
+
+        // 처음 한 번만 작업 CONCURRENCY 개를 전달하고, 이후에는 새 작업이 없다.
+        given(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).willAnswer(invocation -> {
+            if (delivered.compareAndSet(false, true)) {
+                return List.of(record("1-0", "job-1"), record("2-0", "job-2"), record("3-0", "job-3"));
+            }
+            Thread.sleep(20);
+            return List.of();
+        });
+        given(streamOperations.pending(anyString(), anyString(), any(Range.class), anyLong()))
+                .willReturn(new PendingMessages(ImageJobQueue.CONSUMER_GROUP, List.of()));
+
+        willAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).given(imageJobService).runJob(anyString());
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        imageGenerationExecutor.shutdown();
+    }
+
+
+    @Test
+    void 작업_풀은_대기열_없이_동시_처리_수만큼_바로_실행한다() throws Exception {
+
+        CountDownLatch started = new CountDownLatch(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            imageGenerationExecutor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+        }
+
+        // core 크기만큼만 실행되고 나머지가 대기열에서 기다리지 않는다.
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+
+        // 자리가 없다면 대기열에 쌓지 않고 거절한다. (작업 소비자는 ACK 하지 않고 남겨 둔다.)
+        assertThatThrownBy(() -> imageGenerationExecutor.execute(() -> { }))
+                .isInstanceOf(TaskRejectedException.class);
+    }
+
+
+    @Test
+    void 읽은_작업을_모두_동시에_실행하고_처리_중인_작업의_idle_시간을_갱신한다() {
+
+        worker.start();
+        try {
+            verify(imageJobService, timeout(2_000).times(CONCURRENCY)).runJob(anyString());
+
+            // 처리 중인 작업은 전달 횟수를 늘리지 않고(JUSTID) 이 소비자에게 다시 claim 된다.
+            RedisConnection connection = mock(RedisConnection.class);
+            RedisStreamCommands streamCommands = mock(RedisStreamCommands.class);
+            given(connection.streamCommands()).willReturn(streamCommands);
+            given(stringRedisTemplate.execute(any(RedisCallback.class))).willAnswer(invocation ->
+                    invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+
+            worker.reclaimStalled();
+
+            ArgumentCaptor<XClaimOptions> options = ArgumentCaptor.forClass(XClaimOptions.class);
+            verify(streamCommands).xClaimJustId(any(byte[].class), eq(ImageJobQueue.CONSUMER_GROUP), anyString(), options.capture());
+            assertThat(options.getValue().getIds()).extracting(RecordId::getValue).containsExactlyInAnyOrder("1-0", "2-0", "3-0");
+        } finally {
+            release.countDown();
+            worker.stop();
+        }
+
+        verify(streamOperations, times(CONCURRENCY)).acknowledge(eq(ImageJobQueue.STREAM_KEY), eq(ImageJobQueue.CONSUMER_GROUP), any(RecordId[].class));
+    }
+
+
+    @Test
+    void 종료_시_새_작업을_읽지_않고_진행_중인_작업이_끝날_때까지_기다린다() throws Exception {
+
+        worker.start();
+        verify(imageJobService, timeout(2_000).times(CONCURRENCY)).runJob(anyString());
+
+        Thread stopper = new Thread(worker::stop);
+        stopper.start();
+        stopper.join(500);
+
+        // 작업이 끝나지 않았으므로 종료도 끝나지 않고, ACK 도 하지 않는다.
+        assertThat(stopper.isAlive()).isTrue();
+        assertThat(worker.isRunning()).isFalse();
+        verify(streamOperations, never()).acknowledge(anyString(), anyString(), any(RecordId[].class));
+
+        release.countDown();
+        stopper.join(5_000);
+
+        assertThat(stopper.isAlive()).isFalse();
+        verify(streamOperations, times(CONCURRENCY)).acknowledge(eq(ImageJobQueue.STREAM_KEY), eq(ImageJobQueue.CONSUMER_GROUP), any(RecordId[].class));
+    }
+
+
+    @Test
+    void 제한_시간_안에_끝나지_않은_작업은_ACK_하지_않고_갱신도_멈춘다() {
+
+        ReflectionTestUtils.setField(worker, "drainTimeoutMillis", 100L);
+        worker.start();
+        verify(imageJobService, timeout(2_000).times(CONCURRENCY)).runJob(anyString());
+
+        worker.stop();
+
+        // 다른 소비자가 이어서 처리하도록 ACK 되지 않은 채로 남는다.
+        verify(streamOperations, never()).acknowledge(anyString(), anyString(), any(RecordId[].class));
+
+        // 작업이 끝나면 처리 중인 작업 목록에서 빠져 더 이상 갱신하지 않는다.
+        release.countDown();
+        verify(streamOperations, timeout(2_000).times(CONCURRENCY)).acknowledge(eq(ImageJobQueue.STREAM_KEY), eq(ImageJobQueue.CONSUMER_GROUP), any(RecordId[].class));
+        worker.touchInFlight();
+        verify(stringRedisTemplate, times(1)).execute(any(RedisCallback.class)); // consumer group 생성만
+    }
+
+
+    private MapRecord<String, Object, Object> record(String recordId, String jobId) {
+        return MapRecord.<String, Object, Object>create(ImageJobQueue.STREAM_KEY, Map.of(ImageJobQueue.JOB_ID_FIELD, jobId))
+                .withId(RecordId.of(recordId));
+    }
+
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
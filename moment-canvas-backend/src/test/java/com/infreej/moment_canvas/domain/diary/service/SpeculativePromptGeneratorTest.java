@@ -0,0 +1,84 @@
+package com.infreej.moment_canvas.domain.diary.service;
+
+import com.infreej.moment_canvas.domain.ai.dto.ImageGenerationRequest;
+import com.infreej.moment_canvas.domain.ai.service.AiService;
+import com.infreej.moment_canvas.domain.ai.service.ImagePromptCache;
+import com.infreej.moment_canvas.domain.diary.event.DiaryContentChangedEvent;
+import com.infreej.moment_canvas.support.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 이미지 프롬프트 미리 생성 테스트 (하루 최대 호출 수는 내장 Redis)
+ */
+class SpeculativePromptGeneratorTest {
+
+    private EmbeddedRedis redis;
+    private AiService aiService;
+    private ThreadPoolTaskExecutor speculativePromptExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private SpeculativePromptGenerator generator;
+
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = EmbeddedRedis.start();
+        aiService = mock(AiService.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        DiaryService diaryService = mock(DiaryService.class);
+        given(diaryService.createImageGenerationRequest(anyLong(), any()))
+                .willReturn(ImageGenerationRequest.builder().promptCacheKey("imagePrompt:test").build());
+
+        speculativePromptExecutor = new ThreadPoolTaskExecutor();
+        speculativePromptExecutor.setCorePoolSize(1);
+        speculativePromptExecutor.initialize();
+
+        generator = new SpeculativePromptGenerator(diaryService, aiService, mock(ImagePromptCache.class),
+                redis.template(), speculativePromptExecutor, meterRegistry);
+        ReflectionTestUtils.setField(generator, "enabled", true);
+        ReflectionTestUtils.setField(generator, "dailyLimit", 1L);
+    }
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        speculativePromptExecutor.shutdown();
+        redis.close();
+    }
+
+
+    @Test
+    void AI_호출_슬롯이_없어_생성하지_못했다면_하루_최대_호출_수를_차감하지_않는다() throws Exception {
+
+        given(aiService.pregenerateImagePrompt(any(), any())).willReturn(false).willReturn(true);
+
+        generate();
+        assertThat(meterRegistry.counter("ai.prompt.speculative", "outcome", "busy").count()).isEqualTo(1);
+        assertThat(redis.template().opsForValue().get("speculativePrompt:budget:" + LocalDate.now())).isEqualTo("0");
+
+        // 돌려받은 호출 수로 다음 일기는 미리 생성한다.
+        generate();
+        assertThat(meterRegistry.counter("ai.prompt.speculative", "outcome", "generated").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("ai.prompt.speculative", "outcome", "budget-exhausted").count()).isZero();
+    }
+
+
+    private void generate() throws Exception {
+        generator.onDiaryContentChanged(new DiaryContentChangedEvent(1L, 1L));
+        speculativePromptExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,55 @@
+package com.infreej.moment_canvas.domain.image.dto.request;
+
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 업로드 이미지 형식 판단 테스트 (파일명이 아닌 앞부분 시그니처로 판단)
+ */
+class ImageFormatTest {
+
+    @Test
+    void 시그니처로_형식을_판단하고_읽은_앞부분은_스트림에_되돌린다() throws IOException {
+
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1, 1};
+        PushbackInputStream in = stream(jpeg);
+
+        assertThat(ImageFormat.detect(in)).isEqualTo(ImageFormat.JPEG);
+        assertThat(in.readAllBytes()).isEqualTo(jpeg);
+
+        assertThat(ImageFormat.detect(stream(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13}))).isEqualTo(ImageFormat.PNG);
+        assertThat(ImageFormat.detect(stream("GIF89a".getBytes(StandardCharsets.US_ASCII)))).isEqualTo(ImageFormat.GIF);
+        assertThat(ImageFormat.detect(stream("RIFF\u0000\u0000\u0000\u0000WEBPVP8 ".getBytes(StandardCharsets.ISO_8859_1)))).isEqualTo(ImageFormat.WEBP);
+    }
+
+
+    @Test
+    void 허용하지_않는_형식이나_너무_짧은_파일은_거절한다() {
+
+        assertUnsupported("<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.US_ASCII));
+        assertUnsupported("RIFF\u0000\u0000\u0000\u0000WAVE".getBytes(StandardCharsets.ISO_8859_1));
+        assertUnsupported(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        assertUnsupported(new byte[0]);
+    }
+
+
+    private void assertUnsupported(byte[] bytes) {
+        assertThatThrownBy(() -> ImageFormat.detect(stream(bytes)))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.IMAGE_EXTENSION_NOT_SUPPORTED);
+    }
+
+
+    private PushbackInputStream stream(byte[] bytes) {
+        return new PushbackInputStream(new ByteArrayInputStream(bytes), ImageFormat.SIGNATURE_LENGTH);
+    }
+}
@@ -0,0 +1,236 @@
+package com.infreej.moment_canvas.domain.image.service;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageVariantPreset;
+import com.infreej.moment_canvas.global.code.ErrorCode;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import com.infreej.moment_canvas.global.util.DiskLruCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 이미지 변환본 서비스 테스트 (원본 이미지는 mock, 캐시는 임시 디렉토리)
+ */
+class ImageVariantServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageService imageService;
+    private ThreadPoolTaskExecutor imageVariantExecutor;
+    private final CountDownLatch renderGate = new CountDownLatch(1);
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] source = jpeg(1200, 800);
+        imageService = mock(ImageService.class);
+        given(imageService.openImage(anyString(), any(ImageType.class))).willAnswer(invocation -> {
+            renderGate.await(5, TimeUnit.SECONDS);
+            return new ByteArrayInputStream(source);
+        });
+
+        imageVariantExecutor = new ThreadPoolTaskExecutor();
+        imageVariantExecutor.setCorePoolSize(2);
+        imageVariantExecutor.setMaxPoolSize(2);
+        imageVariantExecutor.setQueueCapacity(0);
+        imageVariantExecutor.initialize();
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        renderGate.countDown();
+        imageVariantExecutor.shutdown();
+    }
+
+
+    @Test
+    void 같은_변환본을_동시에_요청하면_한_번만_변환하고_끝난_변환은_목록에서_빠진다() throws Exception {
+
+        ImageVariantServiceImpl service = service(imageVariantExecutor, 10_000_000);
+        int requests = 6;
+        CyclicBarrier barrier = new CyclicBarrier(requests);
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(clients.submit(() -> {
+                    barrier.await();
+                    try (DiskLruCache.Snapshot snapshot = service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL)) {
+                        return snapshot.inputStream().readAllBytes();
+                    }
+                }));
+            }
+            Thread.sleep(100);
+            renderGate.countDown();
+
+            byte[] first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<byte[]> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(first);
+            }
+            assertThat(ImageIO.read(new ByteArrayInputStream(first)).getWidth()).isEqualTo(480);
+            verify(imageService, times(1)).openImage("a.jpg", ImageType.Diary);
+            assertThat(inFlight(service)).isEmpty();
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void 호출한_스레드에서_바로_끝난_변환도_목록에서_빠진다() throws Exception {
+
+        renderGate.countDown();
+        ThreadPoolTaskExecutor inline = new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+        ImageVariantServiceImpl service = service(inline, 10_000_000);
+
+        try (DiskLruCache.Snapshot snapshot = service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.THUMB)) {
+            assertThat(snapshot.size()).isPositive();
+        }
+        assertThat(inFlight(service)).isEmpty();
+    }
+
+
+    @Test
+    void 열어_둔_변환본은_캐시에서_삭제되어도_끝까지_읽을_수_있다() throws Exception {
+
+        renderGate.countDown();
+        // 변환본 하나만 들어가는 크기
+        ImageVariantServiceImpl service = service(imageVariantExecutor, 1);
+
+        try (DiskLruCache.Snapshot medium = service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.MEDIUM)) {
+            service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.THUMB).close();
+
+            assertThat(Files.exists(directory.resolve(medium.key()))).isFalse();
+            assertThat(ImageIO.read(medium.inputStream()).getWidth()).isEqualTo(960);
+        }
+    }
+
+
+    @Test
+    void 캐시_파일이_없어졌다면_다시_변환한다() throws Exception {
+
+        renderGate.countDown();
+        ImageVariantServiceImpl service = service(imageVariantExecutor, 10_000_000);
+
+        String key;
+        try (DiskLruCache.Snapshot snapshot = service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL)) {
+            key = snapshot.key();
+        }
+        Files.delete(directory.resolve(key));
+
+        try (DiskLruCache.Snapshot snapshot = service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL)) {
+            assertThat(snapshot.inputStream().readAllBytes()).isNotEmpty();
+        }
+        verify(imageService, times(2)).openImage("a.jpg", ImageType.Diary);
+    }
+
+
+    @Test
+    void 변환_풀이_가득_찼다면_503_으로_응답하고_다음_요청은_다시_변환한다() throws Exception {
+
+        renderGate.countDown();
+        ThreadPoolTaskExecutor rejecting = new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                throw new TaskRejectedException("full");
+            }
+        };
+        ImageVariantServiceImpl service = service(rejecting, 10_000_000);
+
+        assertThatThrownBy(() -> service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.COMMON_TEMPORARY_SERVER_ERROR);
+        assertThat(inFlight(service)).isEmpty();
+
+        // 저장된 이미지명 형식이 아니라면 404
+        assertThatThrownBy(() -> service.openVariant(ImageType.Diary, "../a.jpg", ImageVariantPreset.SMALL))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.IMAGE_NOT_FOUND);
+    }
+
+
+    @Test
+    void 변환본_키는_변환하지_않고_만들며_원본이_삭제되었다면_404_로_응답한다() throws Exception {
+
+        renderGate.countDown();
+        ImageVariantServiceImpl service = service(imageVariantExecutor, 10_000_000);
+        given(imageService.existsImage("a.jpg", ImageType.Diary)).willReturn(true);
+
+        String key = service.findVariantKey(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL);
+        verify(imageService, times(0)).openImage(anyString(), any(ImageType.class));
+        try (DiskLruCache.Snapshot snapshot = service.openVariant(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL)) {
+            assertThat(snapshot.key()).isEqualTo(key);
+        }
+
+        // 변환본이 캐시에 남아 있어도 원본이 삭제되었다면 응답하지 않는다.
+        given(imageService.existsImage("a.jpg", ImageType.Diary)).willReturn(false);
+        assertThatThrownBy(() -> service.findVariantKey(ImageType.Diary, "a.jpg", ImageVariantPreset.SMALL))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.IMAGE_NOT_FOUND);
+    }
+
+
+    private ImageVariantServiceImpl service(ThreadPoolTaskExecutor executor, long cacheMaxBytes) throws IOException {
+        return new ImageVariantServiceImpl(imageService, executor, new SimpleMeterRegistry(), directory.toString(), cacheMaxBytes, 5_000);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> inFlight(ImageVariantServiceImpl service) {
+        return (Map<String, ?>) ReflectionTestUtils.getField(service, "inFlight");
+    }
+
+
+    private byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,333 @@
+package com.infreej.moment_canvas.domain.image.service;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 길이를 모르는 스트림의 S3 업로드 테스트
+ * - 같은 프로세스에서 실행하는 S3 호환 스텁 서버(PUT, multipart upload)에 올린다.
+ * - benchmark 태그가 붙은 테스트는 기본 test 작업에서 제외된다. (./gradlew benchmark 로 실행)
+ */
+class S3StreamingUploaderTest {
+
+    private static final String BUCKET = "moment-canvas";
+    private static final int PART_SIZE = S3StreamingUploader.MIN_PART_SIZE;
+
+    private S3StandIn s3StandIn;
+    private AmazonS3 amazonS3;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3StandIn = new S3StandIn();
+        amazonS3 = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("test", "test")))
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(s3StandIn.endpoint(), "ap-northeast-2"))
+                .withPathStyleAccessEnabled(true)
+                .withChunkedEncodingDisabled(true) // S3Config 의 HTTPS 설정과 같이 aws-chunked 사용 안 함
+                .build();
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        amazonS3.shutdown();
+        s3StandIn.stop();
+    }
+
+
+    @Test
+    void 버퍼에_들어가는_이미지는_길이를_지정한_단일_PUT_으로_올린다() throws IOException {
+
+        S3StreamingUploader uploader = new S3StreamingUploader(amazonS3, PART_SIZE, 2, 1000);
+
+        byte[] small = randomBytes(300 * 1024, 1);
+        byte[] exact = randomBytes(PART_SIZE, 2);
+
+        assertThat(uploader.upload(BUCKET, "diary-images/small.jpg", new UnknownLengthInputStream(small), "image/jpeg")).isEqualTo(small.length);
+        assertThat(uploader.upload(BUCKET, "diary-images/exact.jpg", new UnknownLengthInputStream(exact), "image/jpeg")).isEqualTo(exact.length);
+
+        assertThat(s3StandIn.objects.get("diary-images/small.jpg")).isEqualTo(small);
+        assertThat(s3StandIn.objects.get("diary-images/exact.jpg")).isEqualTo(exact);
+        assertThat(s3StandIn.putCount.get()).isEqualTo(2);
+        assertThat(s3StandIn.partCount.get()).isZero();
+    }
+
+
+    @Test
+    void 버퍼보다_큰_이미지는_같은_버퍼를_다시_채우며_multipart_로_올린다() throws IOException {
+
+        S3StreamingUploader uploader = new S3StreamingUploader(amazonS3, PART_SIZE, 1, 1000);
+
+        byte[] large = randomBytes(PART_SIZE * 2 + 3, 3);
+        assertThat(uploader.upload(BUCKET, "diary-images/large.jpg", new UnknownLengthInputStream(large), "image/jpeg")).isEqualTo(large.length);
+
+        assertThat(s3StandIn.objects.get("diary-images/large.jpg")).isEqualTo(large);
+        assertThat(s3StandIn.partCount.get()).isEqualTo(3);
+        assertThat(s3StandIn.putCount.get()).isZero();
+
+        // 버퍼 하나로 다음 업로드도 가능 (버퍼 반납 확인)
+        assertThat(uploader.upload(BUCKET, "diary-images/next.jpg", new UnknownLengthInputStream(new byte[10]), "image/jpeg")).isEqualTo(10);
+    }
+
+
+    /**
+     * 기존 방식(길이 없는 putObject)과 버퍼 풀 업로드의 전송당 힙 할당량, 처리량 비교
+     * - 할당량은 업로드를 호출한 스레드 기준이다. (스텁 서버의 저장 비용 제외)
+     */
+    @Test
+    @Tag("benchmark")
+    void 전송당_힙_할당량과_처리량() throws IOException {
+
+        S3StreamingUploader uploader = new S3StreamingUploader(amazonS3, PART_SIZE, 4, 1000);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int size : new int[]{2 * 1024 * 1024, 8 * 1024 * 1024, 32 * 1024 * 1024}) {
+            byte[] image = randomBytes(size, size);
+            int iterations = 8;
+
+            // 워밍업 (JIT, 커넥션)
+            for (int i = 0; i < 2; i++) {
+                putWithoutLength("warmup.jpg", image);
+                uploader.upload(BUCKET, "warmup.jpg", new UnknownLengthInputStream(image), "image/jpeg");
+            }
+
+            long legacyAllocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            long legacyStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                putWithoutLength("legacy.jpg", image);
+            }
+            long legacyNanos = System.nanoTime() - legacyStart;
+            legacyAllocated = (threadMXBean.getThreadAllocatedBytes(threadId) - legacyAllocated) / iterations;
+
+            long streamingAllocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            long streamingStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                uploader.upload(BUCKET, "streaming.jpg", new UnknownLengthInputStream(image), "image/jpeg");
+            }
+            long streamingNanos = System.nanoTime() - streamingStart;
+            streamingAllocated = (threadMXBean.getThreadAllocatedBytes(threadId) - streamingAllocated) / iterations;
+
+            System.out.printf("이미지 %,dKB | 기존: 할당 %,dKB/전송, %.1fMB/s | 버퍼 풀: 할당 %,dKB/전송, %.1fMB/s%n",
+                    size / 1024,
+                    legacyAllocated / 1024, throughput(size, iterations, legacyNanos),
+                    streamingAllocated / 1024, throughput(size, iterations, streamingNanos));
+
+            assertThat(s3StandIn.objects.get("streaming.jpg")).isEqualTo(image);
+            // 버퍼 풀 업로드의 할당량은 이미지 크기에 비례하지 않는다.
+            assertThat(streamingAllocated).isLessThan(legacyAllocated);
+        }
+    }
+
+
+    /**
+     * 기존 방식: 길이를 지정하지 않은 putObject
+     * - SDK 는 길이를 알기 위해 스트림 전체를 메모리에 모았다가 되돌려 읽는다.
+     * - 모을 수 있는 크기(readLimit, 기본 128KB)보다 큰 스트림은 되돌리지 못해 실패하므로, 측정을 위해 이미지 크기로 늘린다.
+     */
+    private void putWithoutLength(String key, byte[] image) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType("image/jpeg");
+        PutObjectRequest request = new PutObjectRequest(BUCKET, key, new UnknownLengthInputStream(image), metadata);
+        request.getRequestClientOptions().setReadLimit(image.length + 1);
+        amazonS3.putObject(request);
+    }
+
+
+    private double throughput(int size, int iterations, long nanos) {
+        return (double) size * iterations / (1024 * 1024) / (nanos / 1_000_000_000.0);
+    }
+
+
+    private byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+
+    /**
+     * URL 스트림처럼 길이를 알 수 없는 입력 스트림 (available() 이 항상 0)
+     */
+    private static class UnknownLengthInputStream extends InputStream {
+
+        private final byte[] data;
+        private int position;
+
+        UnknownLengthInputStream(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length ? data[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= data.length) {
+                return -1;
+            }
+            // 네트워크 스트림처럼 한 번에 조금씩 읽힌다.
+            int count = Math.min(Math.min(len, 16 * 1024), data.length - position);
+            System.arraycopy(data, position, b, off, count);
+            position += count;
+            return count;
+        }
+    }
+
+
+    /**
+     * S3 호환 스텁 서버 (path-style, 단일 PUT 과 multipart upload 만 지원)
+     */
+    private static class S3StandIn {
+
+        private final HttpServer server;
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        private final AtomicInteger putCount = new AtomicInteger();
+        private final AtomicInteger partCount = new AtomicInteger();
+        private final AtomicInteger uploadSequence = new AtomicInteger();
+
+        S3StandIn() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        String endpoint() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                String method = exchange.getRequestMethod();
+                String query = exchange.getRequestURI().getRawQuery() == null ? "" : exchange.getRequestURI().getRawQuery();
+                String key = exchange.getRequestURI().getPath().substring(("/" + BUCKET + "/").length());
+                Map<String, String> params = parseQuery(query);
+                byte[] body = decodeAwsChunked(exchange, exchange.getRequestBody().readAllBytes());
+
+                if (method.equals("PUT") && params.containsKey("partNumber")) {
+                    uploads.get(params.get("uploadId")).put(Integer.parseInt(params.get("partNumber")), body);
+                    partCount.incrementAndGet();
+                    sendETag(exchange, body);
+                } else if (method.equals("PUT")) {
+                    objects.put(key, body);
+                    putCount.incrementAndGet();
+                    sendETag(exchange, body);
+                } else if (method.equals("POST") && params.containsKey("uploads")) {
+                    String uploadId = "upload-" + uploadSequence.incrementAndGet();
+                    uploads.put(uploadId, new TreeMap<>());
+                    sendXml(exchange, "<InitiateMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                            + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+                } else if (method.equals("POST") && params.containsKey("uploadId")) {
+                    ByteArrayOutputStream object = new ByteArrayOutputStream();
+                    for (byte[] part : uploads.remove(params.get("uploadId")).values()) {
+                        object.write(part);
+                    }
+                    objects.put(key, object.toByteArray());
+                    sendXml(exchange, "<CompleteMultipartUploadResult><Location>" + endpoint() + "/" + BUCKET + "/" + key
+                            + "</Location><Bucket>" + BUCKET + "</Bucket><Key>" + key + "</Key><ETag>\"multipart\"</ETag></CompleteMultipartUploadResult>");
+                } else if (method.equals("DELETE") && params.containsKey("uploadId")) {
+                    uploads.remove(params.get("uploadId"));
+                    exchange.sendResponseHeaders(204, -1);
+                } else {
+                    exchange.sendResponseHeaders(400, -1);
+                }
+            }
+        }
+
+        // 서명된 chunk 형식(aws-chunked)의 본문에서 데이터만 꺼낸다. ("크기;chunk-signature=...\r\n데이터\r\n" 반복)
+        private byte[] decodeAwsChunked(HttpExchange exchange, byte[] body) {
+            String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            if (contentSha256 == null || !contentSha256.startsWith("STREAMING-")) {
+                return body;
+            }
+
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            int position = 0;
+            while (position < body.length) {
+                int lineEnd = position;
+                while (body[lineEnd] != '\r') {
+                    lineEnd++;
+                }
+                String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+                int size = Integer.parseInt(header.substring(0, header.indexOf(';')), 16);
+                if (size == 0) {
+                    break;
+                }
+                decoded.write(body, lineEnd + 2, size);
+                position = lineEnd + 2 + size + 2;
+            }
+            return decoded.toByteArray();
+        }
+
+        private Map<String, String> parseQuery(String query) {
+            Map<String, String> params = new TreeMap<>();
+            for (String pair : query.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int separator = pair.indexOf('=');
+                params.put(separator < 0 ? pair : pair.substring(0, separator), separator < 0 ? "" : pair.substring(separator + 1));
+            }
+            return params;
+        }
+
+        private void sendETag(HttpExchange exchange, byte[] body) throws IOException {
+            exchange.getResponseHeaders().set("ETag", "\"" + md5Hex(body) + "\"");
+            exchange.sendResponseHeaders(200, -1);
+        }
+
+        private void sendXml(HttpExchange exchange, String xml) throws IOException {
+            byte[] response = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+        }
+
+        private String md5Hex(byte[] body) {
+            try {
+                StringBuilder hex = new StringBuilder();
+                for (byte b : MessageDigest.getInstance("MD5").digest(body)) {
+                    hex.append(String.format("%02x", b));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.infreej.moment_canvas.domain.user.service;
+
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.domain.user.event.ProfileImageUploadedEvent;
+import com.infreej.moment_canvas.domain.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.infreej.moment_canvas.support.JpegFixtures.exifSegment;
+import static com.infreej.moment_canvas.support.JpegFixtures.jpeg;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 프로필 이미지 정규화 테스트 (저장소는 메모리 Map, 작업은 호출한 스레드에서 바로 실행)
+ */
+class ProfileImageNormalizerTest {
+
+    private final Map<String, byte[]> storage = new ConcurrentHashMap<>();
+
+    private ImageService imageService;
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProfileImageNormalizer normalizer;
+
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        imageService = mock(ImageService.class);
+        given(imageService.openImage(anyString(), eq(ImageType.Profile)))
+                .willAnswer(invocation -> new ByteArrayInputStream(storage.get(invocation.<String>getArgument(0))));
+        willAnswer(invocation -> storage.put(invocation.getArgument(0), invocation.<InputStream>getArgument(2).readAllBytes()))
+                .given(imageService).storeImage(anyString(), eq(ImageType.Profile), any(InputStream.class), anyLong(), anyString());
+        willAnswer(invocation -> storage.remove(invocation.<String>getArgument(0)))
+                .given(imageService).deleteImage(anyString(), eq(ImageType.Profile));
+
+        userRepository = mock(UserRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ThreadPoolTaskExecutor inline = new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+
+        meterRegistry = new SimpleMeterRegistry();
+        normalizer = new ProfileImageNormalizer(imageService, userRepository, transactionTemplate, inline, meterRegistry);
+        ReflectionTestUtils.setField(normalizer, "enabled", true);
+        ReflectionTestUtils.setField(normalizer, "jpegQuality", 0.82f);
+    }
+
+
+    @Test
+    void 방향을_바로잡은_아바타로_교체하고_원본과_이전_이미지를_삭제한다() throws Exception {
+
+        // 가로 사진이지만 시계 방향 90도로 보여야 하는 사진 (왼쪽의 빨간 띠가 위로 간다.)
+        storage.put("original.jpg", jpeg(400, 300, exifSegment(true, 6)));
+        storage.put("previous_256.jpg", new byte[1]);
+        storage.put("previous_128.jpg", new byte[1]);
+        storage.put("previous_64.jpg", new byte[1]);
+        given(userRepository.swapSavedProfileImageName(eq(1L), eq("original.jpg"), anyString())).willReturn(1);
+
+        normalizer.onProfileImageUploaded(new ProfileImageUploadedEvent(1L, "original.jpg", "previous_256.jpg"));
+
+        assertThat(storage.keySet()).hasSize(3).allMatch(name -> name.matches("[0-9a-f-]{36}_(256|128|64)\\.jpg"));
+        BufferedImage avatar = ImageIO.read(new ByteArrayInputStream(storage.get(nameOf(256))));
+        assertThat(avatar.getWidth()).isEqualTo(256);
+        assertThat(avatar.getHeight()).isEqualTo(256);
+        assertThat(isRed(avatar.getRGB(128, 5))).isTrue();
+        assertThat(isRed(avatar.getRGB(5, 128))).isFalse();
+        assertThat(ImageIO.read(new ByteArrayInputStream(storage.get(nameOf(64)))).getWidth()).isEqualTo(64);
+
+        verify(userRepository).swapSavedProfileImageName(1L, "original.jpg", nameOf(256));
+        assertThat(meterRegistry.counter("user.profile-image.normalize", "outcome", "normalized").count()).isEqualTo(1);
+    }
+
+
+    @Test
+    void 정규화하는_사이_새_이미지를_올렸다면_정규화한_파일만_삭제한다() throws Exception {
+
+        storage.put("original.jpg", jpeg(300, 300, null));
+        given(userRepository.swapSavedProfileImageName(eq(1L), eq("original.jpg"), anyString())).willReturn(0);
+
+        normalizer.onProfileImageUploaded(new ProfileImageUploadedEvent(1L, "original.jpg", null));
+
+        assertThat(storage.keySet()).containsExactly("original.jpg");
+        verify(imageService, never()).deleteImage("original.jpg", ImageType.Profile);
+        assertThat(meterRegistry.counter("user.profile-image.normalize", "outcome", "superseded").count()).isEqualTo(1);
+    }
+
+
+    @Test
+    void 이전_이미지가_정규화된_이미지라면_모든_크기를_삭제_대상으로_본다() {
+
+        assertThat(ProfileImageNormalizer.storedNamesOf("abc_256.jpg")).containsExactly("abc_256.jpg", "abc_128.jpg", "abc_64.jpg");
+        assertThat(ProfileImageNormalizer.storedNamesOf("abc.png")).containsExactly("abc.png");
+        assertThat(ProfileImageNormalizer.storedNamesOf(null)).isEmpty();
+    }
+
+
+    private String nameOf(int size) {
+        return storage.keySet().stream().filter(name -> name.endsWith("_" + size + ".jpg")).findFirst().orElseThrow();
+    }
+
+
+    private boolean isRed(int rgb) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        return red > 200 && green < 80;
+    }
+}
@@ -0,0 +1,102 @@
+package com.infreej.moment_canvas.domain.user.service;
+
+import com.infreej.moment_canvas.domain.ai.service.ImagePromptCache;
+import com.infreej.moment_canvas.domain.email.repository.EmailRepository;
+import com.infreej.moment_canvas.domain.image.dto.request.ImageType;
+import com.infreej.moment_canvas.domain.image.service.ImageService;
+import com.infreej.moment_canvas.domain.user.entity.User;
+import com.infreej.moment_canvas.domain.user.event.ProfileImageUploadedEvent;
+import com.infreej.moment_canvas.domain.user.repository.UserRepository;
+import com.infreej.moment_canvas.global.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.infreej.moment_canvas.support.JpegFixtures.jpeg;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 프로필 이미지 업로드 테스트
+ * - 업로드는 트랜잭션 밖에서 하고, 짧은 트랜잭션 안에서 이미지명 변경과 이벤트 발행만 하는지 확인한다.
+ */
+class UserServiceImplTest {
+
+    private UserRepository userRepository;
+    private ImageService imageService;
+    private ApplicationEventPublisher applicationEventPublisher;
+    private TransactionTemplate transactionTemplate;
+    private UserServiceImpl userService;
+
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        imageService = mock(ImageService.class);
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        willAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+
+        userService = new UserServiceImpl(userRepository, mock(PasswordEncoder.class), imageService, mock(EmailRepository.class),
+                mock(ImagePromptCache.class), applicationEventPublisher, transactionTemplate);
+        ReflectionTestUtils.setField(userService, "profileImageMaxBytes", 10_485_760L);
+    }
+
+
+    @Test
+    void 원본을_업로드한_뒤_트랜잭션에서_이미지명을_바꾸고_이전_이미지를_알린다() throws Exception {
+
+        User user = User.builder().userId(1L).savedProfileImageName("previous_256.jpg").build();
+        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+
+        String savedImageName = userService.profileImageUpdate(1L, new MockMultipartFile("profileImage", "me.png", "image/png", jpeg(40, 30, null)));
+
+        assertThat(savedImageName).endsWith(".jpg");
+        assertThat(user.getSavedProfileImageName()).isEqualTo(savedImageName);
+
+        InOrder order = inOrder(imageService, transactionTemplate);
+        order.verify(imageService).storeImage(eq(savedImageName), eq(ImageType.Profile), any(InputStream.class), anyLong(), eq("image/jpeg"));
+        order.verify(transactionTemplate).executeWithoutResult(any());
+
+        ArgumentCaptor<ProfileImageUploadedEvent> event = ArgumentCaptor.forClass(ProfileImageUploadedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue()).isEqualTo(new ProfileImageUploadedEvent(1L, savedImageName, "previous_256.jpg"));
+    }
+
+
+    @Test
+    void 업로드_중_탈퇴하는_등_반영하지_못했다면_업로드한_원본을_삭제한다() throws Exception {
+
+        given(userRepository.findById(1L)).willReturn(Optional.of(User.builder().userId(1L).build()), Optional.empty());
+
+        assertThatThrownBy(() -> userService.profileImageUpdate(1L, new MockMultipartFile("profileImage", "me.jpg", "image/jpeg", jpeg(40, 30, null))))
+                .isInstanceOf(BusinessException.class);
+
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(imageService).storeImage(stored.capture(), eq(ImageType.Profile), any(InputStream.class), anyLong(), anyString());
+        verify(imageService).deleteImage(stored.getValue(), ImageType.Profile);
+    }
+}
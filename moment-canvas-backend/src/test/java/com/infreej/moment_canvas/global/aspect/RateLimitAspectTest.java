@@ -0,0 +1,159 @@
+package com.infreej.moment_canvas.global.aspect;
+
+import com.infreej.moment_canvas.global.annotation.RateLimit;
+import com.infreej.moment_canvas.global.exception.RateLimitExceededException;
+import com.infreej.moment_canvas.global.util.TokenBucketRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 요청 횟수 제한 Aspect 테스트
+ * - permits 표현식만큼 토큰을 사용하고, key 버킷도 함께 사용하며, skip 조건이 참이면 사용하지 않고, 0 이하의 한도 설정은 시작할 때 거절하는지 확인한다. (토큰 버킷은 mock)
+ */
+class RateLimitAspectTest {
+
+    private TokenBucketRateLimiter tokenBucketRateLimiter;
+    private Renderer renderer;
+
+
+    @BeforeEach
+    void setUp() {
+        tokenBucketRateLimiter = mock(TokenBucketRateLimiter.class);
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("renderCost", new RenderCost());
+
+        RateLimitAspect aspect = new RateLimitAspect(tokenBucketRateLimiter,
+                new MockEnvironment().withProperty("app.rate-limit.render.anonymous.capacity", "8"), beanFactory);
+        ReflectionTestUtils.setField(aspect, "enabled", true);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Renderer());
+        proxyFactory.addAspect(aspect);
+        renderer = proxyFactory.getProxy();
+    }
+
+
+    @Test
+    void permits_표현식만큼_토큰을_사용한다() {
+
+        renderer.render(3);
+        verify(tokenBucketRateLimiter).tryConsume("render:ip:unknown", 8, 5, 3);
+
+        // 빈 참조, 1보다 작은 값은 1
+        renderer.retry("job-1");
+        verify(tokenBucketRateLimiter).tryConsume("retry:ip:unknown", 5, 5, 2);
+        renderer.render(0);
+        verify(tokenBucketRateLimiter).tryConsume("render:ip:unknown", 8, 5, 1);
+
+        renderer.once();
+        verify(tokenBucketRateLimiter).tryConsume("once:ip:unknown", 5, 5, 1);
+    }
+
+
+    @Test
+    void 토큰이_모자라면_429_로_응답한다() {
+
+        given(tokenBucketRateLimiter.tryConsume(anyString(), anyInt(), anyInt(), anyInt())).willReturn(1_500L);
+
+        assertThatThrownBy(() -> renderer.render(4))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+    }
+
+
+    @Test
+    void key_가_있다면_요청자와_key_버킷을_모두_사용한다() {
+
+        renderer.send(" Victim@Example.com ");
+        verify(tokenBucketRateLimiter).tryConsume("send:ip:unknown", 5, 5, 1);
+        verify(tokenBucketRateLimiter).tryConsume("send:key:victim@example.com", 5, 5, 1);
+
+        // IP 를 바꿔도 같은 대상에 대한 요청은 key 버킷에서 거절된다.
+        given(tokenBucketRateLimiter.tryConsume("send:key:victim@example.com", 5, 5, 1)).willReturn(30_000L);
+        assertThatThrownBy(() -> renderer.send("victim@example.com"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting("retryAfterSeconds").isEqualTo(30L);
+
+        // 값이 비어 있다면 요청자 버킷만 사용한다.
+        renderer.send(null);
+        verify(tokenBucketRateLimiter, times(3)).tryConsume("send:ip:unknown", 5, 5, 1);
+        verify(tokenBucketRateLimiter, times(2)).tryConsume("send:key:victim@example.com", 5, 5, 1);
+    }
+
+
+    @Test
+    void skip_조건이_참이라면_토큰을_사용하지_않는다() {
+
+        renderer.replay("job-1");
+        verify(tokenBucketRateLimiter, never()).tryConsume(anyString(), anyInt(), anyInt(), anyInt());
+
+        renderer.replay("job-2");
+        verify(tokenBucketRateLimiter).tryConsume("replay:ip:unknown", 5, 5, 1);
+    }
+
+
+    @Test
+    void 한도_설정이_0_이하라면_시작하지_않는다() {
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.rate-limit.render.user.capacity", "5")
+                .withProperty("app.rate-limit.render.user.refill-per-minute", "5");
+        assertThatCode(new RateLimitAspect(tokenBucketRateLimiter, environment, new DefaultListableBeanFactory())::validateLimits)
+                .doesNotThrowAnyException();
+
+        environment.setProperty("app.rate-limit.render.vip.refill-per-minute", "0");
+        assertThatThrownBy(new RateLimitAspect(tokenBucketRateLimiter, environment, new DefaultListableBeanFactory())::validateLimits)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.rate-limit.render.vip.refill-per-minute");
+    }
+
+
+    static class Renderer {
+
+        @RateLimit(name = "render", permits = "#count")
+        public void render(int count) {
+        }
+
+        @RateLimit(name = "retry", permits = "@renderCost.of(#jobId)")
+        public void retry(String jobId) {
+        }
+
+        @RateLimit(name = "once")
+        public void once() {
+        }
+
+        @RateLimit(name = "send", key = "#email")
+        public void send(String email) {
+        }
+
+        @RateLimit(name = "replay", skip = "@renderCost.exists(#jobId)")
+        public void replay(String jobId) {
+        }
+    }
+
+
+    static class RenderCost {
+
+        public int of(String jobId) {
+            return 2;
+        }
+
+        public boolean exists(String jobId) {
+            return "job-1".equals(jobId);
+        }
+    }
+}
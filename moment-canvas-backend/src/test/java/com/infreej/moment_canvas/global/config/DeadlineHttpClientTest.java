@@ -0,0 +1,43 @@
+package com.infreej.moment_canvas.global.config;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineHttpClientTest {
+
+    @Test
+    void 감싼_클라이언트의_기본_요청_설정이_요청에_적용된다() throws Exception {
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(5_000))
+                .setResponseTimeout(Timeout.ofMilliseconds(60_000))
+                .build();
+        CloseableHttpClient pooledHttpClient = HttpClients.custom().setDefaultRequestConfig(requestConfig).build();
+
+        try (DeadlineHttpClient deadlineHttpClient = new DeadlineHttpClient(pooledHttpClient, 90_000)) {
+            assertThat(deadlineHttpClient.getConfig()).isSameAs(requestConfig);
+
+            // RestClient 가 사용하는 요청 팩토리는 Configurable 클라이언트의 설정을 요청 설정으로 사용한다. (RequestConfig.DEFAULT 가 아님)
+            ClientHttpRequest request = new HttpComponentsClientHttpRequestFactory(deadlineHttpClient)
+                    .createRequest(URI.create("http://localhost/predictions"), HttpMethod.GET);
+            HttpContext httpContext = (HttpContext) ReflectionTestUtils.getField(request, "httpContext");
+            RequestConfig effectiveConfig = HttpClientContext.castOrCreate(httpContext).getRequestConfig();
+
+            assertThat(effectiveConfig.getResponseTimeout()).isEqualTo(Timeout.ofMilliseconds(60_000));
+            assertThat(effectiveConfig.getConnectionRequestTimeout()).isEqualTo(Timeout.ofMilliseconds(5_000));
+        }
+    }
+}
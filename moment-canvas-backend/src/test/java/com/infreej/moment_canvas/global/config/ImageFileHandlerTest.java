@@ -0,0 +1,252 @@
+package com.infreej.moment_canvas.global.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 이미지 전송 핸들러 테스트
+ * - benchmark 태그가 붙은 테스트는 기본 test 작업에서 제외된다. (./gradlew benchmark 로 실행)
+ */
+class ImageFileHandlerTest {
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageFileHandler handler;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(directory.resolve("diary-images"));
+        meterRegistry = new SimpleMeterRegistry();
+        handler = new ImageFileHandler(directory, 48 * 1024, meterRegistry);
+    }
+
+
+    @Test
+    void UUID_이미지는_immutable_로_캐시하고_ETag_가_같다면_304_로_응답한다() throws Exception {
+
+        String name = UUID.randomUUID() + ".jpg";
+        byte[] image = writeImage(name, 100);
+
+        MockHttpServletResponse first = get("diary-images/" + name, null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getContentAsByteArray()).isEqualTo(image);
+        assertThat(first.getContentType()).isEqualTo("image/jpeg");
+        assertThat(first.getHeader("Cache-Control")).contains("max-age=31536000", "immutable");
+        assertThat(first.getHeader("ETag")).startsWith("\"");
+
+        MockHttpServletRequest revalidate = request("diary-images/" + name);
+        revalidate.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        handler.handleRequest(revalidate, second);
+
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentAsByteArray()).isEmpty();
+
+        // 파일이 If-Unmodified-Since 이후에 수정되었다면 412 로 응답하고 304 와 따로 센다.
+        MockHttpServletRequest conditionalUpdate = request("diary-images/" + name);
+        conditionalUpdate.addHeader("If-Unmodified-Since", "Thu, 01 Jan 1970 00:00:00 GMT");
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        handler.handleRequest(conditionalUpdate, third);
+
+        assertThat(third.getStatus()).isEqualTo(412);
+        assertThat(meterRegistry.counter("image.serve", "transfer", "not-modified").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("image.serve", "transfer", "precondition-failed").count()).isEqualTo(1);
+
+        // 저장 경로 밖, 숨김 파일, 없는 폴더는 404
+        assertThat(get("diary-images/../" + name, null).getStatus()).isEqualTo(404);
+        assertThat(get("diary-images/.upload-1.tmp", null).getStatus()).isEqualTo(404);
+        assertThat(get("other-images/" + name, null).getStatus()).isEqualTo(404);
+    }
+
+
+    @Test
+    void 하나의_범위_요청은_206_으로_범위를_벗어나면_416_으로_응답한다() throws Exception {
+
+        String name = UUID.randomUUID() + ".jpg";
+        byte[] image = writeImage(name, 100);
+
+        MockHttpServletResponse partial = get("diary-images/" + name, "bytes=10-19");
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes 10-19/100");
+        assertThat(partial.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(image, 10, 20));
+
+        MockHttpServletResponse suffix = get("diary-images/" + name, "bytes=-5");
+        assertThat(suffix.getHeader("Content-Range")).isEqualTo("bytes 95-99/100");
+        assertThat(suffix.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(image, 95, 100));
+
+        MockHttpServletResponse unsatisfiable = get("diary-images/" + name, "bytes=200-");
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader("Content-Range")).isEqualTo("bytes */100");
+    }
+
+
+    /**
+     * 기존 정적 리소스 핸들러(ResourceHttpRequestHandler)와 처리량 비교
+     * - 같은 프로세스의 Tomcat(NIO) 에 두 핸들러를 올리고, 동시에 여러 클라이언트가 같은 이미지를 받는다.
+     * - 재방문 시 요청 자체가 없어지는 효과(immutable 캐시)는 이 측정에 포함되지 않는다.
+     */
+    @Test
+    @Tag("benchmark")
+    void 기존_핸들러와_전송_처리량_비교() throws Exception {
+
+        ResourceHttpRequestHandler legacyHandler = new ResourceHttpRequestHandler();
+        legacyHandler.setLocations(List.of(new FileSystemResource(directory + "/")));
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createDirectories(directory.resolve("tomcat")).toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", directory.toString());
+        legacyHandler.setServletContext(context.getServletContext());
+        legacyHandler.afterPropertiesSet();
+        Tomcat.addServlet(context, "legacy", servlet(legacyHandler));
+        context.addServletMappingDecoded("/legacy/*", "legacy");
+        Tomcat.addServlet(context, "images", servlet(handler));
+        context.addServletMappingDecoded("/images/*", "images");
+        tomcat.start();
+
+        int clients = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            String baseUrl = "http://127.0.0.1:" + connector.getLocalPort();
+
+            for (int size : new int[]{16 * 1024, 300 * 1024, 4 * 1024 * 1024}) {
+                String name = UUID.randomUUID() + ".jpg";
+                byte[] image = writeImage(name, size);
+                URI legacyUri = URI.create(baseUrl + "/legacy/diary-images/" + name);
+                URI imageUri = URI.create(baseUrl + "/images/diary-images/" + name);
+
+                assertThat(httpClient.send(HttpRequest.newBuilder(legacyUri).build(), HttpResponse.BodyHandlers.ofByteArray()).body()).isEqualTo(image);
+                assertThat(httpClient.send(HttpRequest.newBuilder(imageUri).build(), HttpResponse.BodyHandlers.ofByteArray()).body()).isEqualTo(image);
+
+                int requests = Math.min(4_000, Math.max(64, (int) (256L * 1024 * 1024 / size)));
+
+                // 워밍업 (JIT, 커넥션)
+                fetch(httpClient, executor, clients, legacyUri, requests / 4);
+                fetch(httpClient, executor, clients, imageUri, requests / 4);
+
+                long legacyNanos = fetch(httpClient, executor, clients, legacyUri, requests);
+                long imageNanos = fetch(httpClient, executor, clients, imageUri, requests);
+
+                System.out.printf("이미지 %,dKB x %,d회 | 기존: %.1fMB/s, %,.0f req/s | 변경: %.1fMB/s, %,.0f req/s%n",
+                        size / 1024, requests,
+                        throughput(size, requests, legacyNanos), requests / (legacyNanos / 1_000_000_000.0),
+                        throughput(size, requests, imageNanos), requests / (imageNanos / 1_000_000_000.0));
+            }
+
+            // 큰 이미지는 sendfile 로 전송된다.
+            assertThat(meterRegistry.counter("image.serve", "transfer", "sendfile").count()).isPositive();
+        } finally {
+            executor.shutdownNow();
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+
+    // clients 개의 클라이언트가 나눠서 requests 번 받는 데 걸린 시간 (ns)
+    private long fetch(HttpClient httpClient, ExecutorService executor, int clients, URI uri, int requests) throws Exception {
+
+        HttpRequest request = HttpRequest.newBuilder(uri).build();
+        long startTime = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int client = 0; client < clients; client++) {
+            int share = requests / clients + (client < requests % clients ? 1 : 0);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < share; i++) {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertThat(response.statusCode()).isEqualTo(200);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return System.nanoTime() - startTime;
+    }
+
+
+    // 핸들러 매핑이 하는 것처럼 /{servlet}/ 다음 경로를 넘긴다.
+    private HttpServlet servlet(HttpRequestHandler requestHandler) {
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+                request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, request.getPathInfo().substring(1));
+                requestHandler.handleRequest(request, response);
+            }
+        };
+    }
+
+
+    private MockHttpServletResponse get(String path, String range) throws Exception {
+
+        MockHttpServletRequest request = request(path);
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        return response;
+    }
+
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        return request;
+    }
+
+
+    private byte[] writeImage(String name, int size) throws IOException {
+        byte[] image = new byte[size];
+        new Random(size).nextBytes(image);
+        Files.write(directory.resolve("diary-images").resolve(name), image);
+        return image;
+    }
+
+
+    private double throughput(int size, int requests, long nanos) {
+        return (double) size * requests / (1024 * 1024) / (nanos / 1_000_000_000.0);
+    }
+}
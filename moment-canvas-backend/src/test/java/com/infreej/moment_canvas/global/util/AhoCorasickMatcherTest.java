@@ -0,0 +1,149 @@
+package com.infreej.moment_canvas.global.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 이미지 생성 안전 필터에서 사용하는 금지어 매처 테스트
+ * - benchmark 태그가 붙은 테스트는 기본 test 작업에서 제외된다. (./gradlew benchmark 로 실행)
+ */
+class AhoCorasickMatcherTest {
+
+    private final AhoCorasickMatcher matcher = AhoCorasickMatcher.of(List.of("sex", "he", "she", "hers", "마약", "필로폰"));
+
+
+    @Test
+    void 문장부호를_건너뛰고_원문_위치를_반환한다() {
+
+        List<AhoCorasickMatcher.Match> matches = matcher.findAll("어제 마.약 이야기를 들었다. 필-로-폰");
+
+        assertThat(matches).extracting(AhoCorasickMatcher.Match::term).containsExactly("마약", "필로폰");
+        assertThat(matches.get(0).start()).isEqualTo(3);
+        assertThat(matches.get(0).end()).isEqualTo(6);
+    }
+
+
+    @Test
+    void 영문_단어는_다른_단어의_일부라면_일치로_보지_않는다() {
+
+        assertThat(matcher.findAll("Essex ushers")).isEmpty();
+        assertThat(matcher.findAll("S.E.X and she"))
+                .extracting(AhoCorasickMatcher.Match::term)
+                .containsExactly("sex", "she");
+    }
+
+
+    @Test
+    void 한글_단어는_어절을_넘어_찾지_않고_영문_단어는_공백을_건너뛴다() {
+
+        assertThat(matcher.findAll("필 로 폰")).isEmpty();
+        assertThat(matcher.findAll("마약 s e x"))
+                .extracting(AhoCorasickMatcher.Match::term)
+                .containsExactly("마약", "sex");
+
+        // 한글 뒤에 이어지는 영문 부분은 공백을 넘어 이어간다.
+        assertThat(matcher.findAll("약s e x")).extracting(AhoCorasickMatcher.Match::term).containsExactly("sex");
+
+        // 공백이 있는 단어는 본문의 공백과 일치한다. (연속된 공백은 하나)
+        AhoCorasickMatcher phrase = AhoCorasickMatcher.of(List.of("우리 집", "책을 읽"));
+        assertThat(phrase.findAll("우리  집에서 책을, 읽었다")).extracting(AhoCorasickMatcher.Match::term).containsExactly("우리 집", "책을 읽");
+        assertThat(phrase.findAll("우리집")).isEmpty();
+    }
+
+
+    @Test
+    void 기본_금지어_목록은_일상_문장에서_일치하지_않는다() throws IOException {
+
+        AhoCorasickMatcher safetyMatcher = AhoCorasickMatcher.of(loadTerms());
+
+        assertThat(safetyMatcher.findAll("오늘은 나 체육관에 가서 운동했다.")).isEmpty();
+        assertThat(safetyMatcher.findAll("모자 살까 말까 고민했다.")).isEmpty();
+        assertThat(safetyMatcher.findAll("완전 라면이 먹고 싶은 날이었다.")).isEmpty();
+        assertThat(safetyMatcher.findAll("전라도 여행, 전라남도 순천에 갔다.")).isEmpty();
+        assertThat(safetyMatcher.findAll("지금이 내 인생의 전성기다. 이성관계 고민도 없다.")).isEmpty();
+        assertThat(safetyMatcher.findAll("누드김밥과 고등어 토막, 고문 변호사 이야기")).isEmpty();
+
+        assertThat(safetyMatcher.findAll("자살 이야기, 나체 사진, 성기를 그린 그림, p o r n"))
+                .extracting(AhoCorasickMatcher.Match::term)
+                .containsExactly("자살", "나체", "성기", "porn");
+    }
+
+
+    @Test
+    void 첫머리_표시가_있는_단어는_어절_첫머리에서만_찾는다() {
+
+        AhoCorasickMatcher startOnly = AhoCorasickMatcher.of(List.of("^성기"));
+
+        assertThat(startOnly.findAll("전성기")).isEmpty();
+        assertThat(startOnly.findAll("성기를, (성기)")).extracting(AhoCorasickMatcher.Match::start).containsExactly(0, 6);
+    }
+
+
+    @Test
+    void 겹치는_단어를_모두_찾는다() {
+
+        AhoCorasickMatcher overlapping = AhoCorasickMatcher.of(List.of("대마", "대마초", "마초"));
+
+        assertThat(overlapping.findAll("대마초"))
+                .extracting(AhoCorasickMatcher.Match::term)
+                .containsExactlyInAnyOrder("대마", "대마초", "마초");
+    }
+
+
+    /**
+     * 긴 일기에서의 검사 비용 측정 (기본 금지어 목록 기준)
+     * - 외부 호출(수 초) 대비 무시할 수 있는 수준인지 확인한다.
+     */
+    @Test
+    @Tag("benchmark")
+    void 긴_일기_검사_비용() throws IOException {
+
+        AhoCorasickMatcher safetyMatcher = AhoCorasickMatcher.of(loadTerms());
+        String sentence = "오늘은 친구와 함께 한강 공원에서 자전거를 타고, 저녁에는 떡볶이를 먹으며 오랜만에 이야기를 나눴다. ";
+
+        for (int length : new int[]{1_000, 10_000, 100_000}) {
+            String diary = sentence.repeat(length / sentence.length() + 1).substring(0, length);
+
+            // 워밍업 (JIT)
+            for (int i = 0; i < 2_000; i++) {
+                safetyMatcher.findAll(diary.substring(0, Math.min(diary.length(), 1_000)));
+            }
+
+            int iterations = Math.max(20, 2_000_000 / length);
+            long[] samples = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long startTime = System.nanoTime();
+                safetyMatcher.findAll(diary);
+                samples[i] = System.nanoTime() - startTime;
+            }
+            Arrays.sort(samples);
+
+            long medianNanos = samples[iterations / 2];
+            long p99Nanos = samples[(int) (iterations * 0.99)];
+            System.out.printf("금지어 %d개, 일기 %,d자: median %,dns (%.1fns/자), p99 %,dns%n",
+                    safetyMatcher.size(), length, medianNanos, (double) medianNanos / length, p99Nanos);
+
+            // 글자당 1µs 미만 (실제로는 수십 ns 수준)
+            assertThat(medianNanos).isLessThan(length * 1_000L);
+        }
+    }
+
+
+    private List<String> loadTerms() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/safety/blocked-terms.txt")) {
+            assertThat(inputStream).isNotNull();
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+}
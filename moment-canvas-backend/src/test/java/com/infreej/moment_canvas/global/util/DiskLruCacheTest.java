@@ -0,0 +1,61 @@
+package com.infreej.moment_canvas.global.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 이미지 변환본 캐시에서 사용하는 디스크 LRU 캐시 테스트
+ */
+class DiskLruCacheTest {
+
+    @TempDir
+    Path directory;
+
+
+    @Test
+    void 최대_크기를_넘으면_가장_오래_사용하지_않은_파일부터_삭제한다() throws IOException {
+
+        DiskLruCache cache = new DiskLruCache(directory, 250);
+        put(cache, "a.jpg", 100);
+        put(cache, "b.jpg", 100);
+
+        // a 를 사용했으므로 다음에 넘치면 b 가 먼저 삭제된다.
+        assertThat(cache.get("a.jpg")).isNotNull();
+        put(cache, "c.jpg", 100);
+
+        assertThat(cache.get("b.jpg")).isNull();
+        assertThat(Files.exists(directory.resolve("b.jpg"))).isFalse();
+        assertThat(cache.get("a.jpg")).isNotNull();
+        assertThat(cache.get("c.jpg")).isNotNull();
+        assertThat(cache.getTotalBytes()).isEqualTo(200);
+    }
+
+
+    @Test
+    void 다시_시작하면_남아_있는_파일을_이어서_사용하고_쓰다_만_임시_파일은_삭제한다() throws IOException {
+
+        DiskLruCache cache = new DiskLruCache(directory, 1000);
+        put(cache, "a.jpg", 100);
+        Path unfinished = cache.createTempFile();
+
+        DiskLruCache reopened = new DiskLruCache(directory, 1000);
+
+        assertThat(reopened.get("a.jpg")).isNotNull();
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.getTotalBytes()).isEqualTo(100);
+        assertThat(Files.exists(unfinished)).isFalse();
+    }
+
+
+    private void put(DiskLruCache cache, String key, int size) throws IOException {
+        Path tempFile = cache.createTempFile();
+        Files.write(tempFile, new byte[size]);
+        cache.put(key, tempFile);
+    }
+}
@@ -0,0 +1,45 @@
+package com.infreej.moment_canvas.global.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.infreej.moment_canvas.support.JpegFixtures.exifSegment;
+import static com.infreej.moment_canvas.support.JpegFixtures.jpeg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 프로필 이미지 정규화에서 사용하는 EXIF 방향 정보 읽기 테스트
+ */
+class ExifOrientationTest {
+
+    @Test
+    void 바이트_순서와_관계없이_Orientation_을_읽는다() throws IOException {
+
+        assertThat(read(jpeg(40, 30, exifSegment(true, 6)), 64 * 1024)).isEqualTo(6);
+        assertThat(read(jpeg(40, 30, exifSegment(false, 3)), 64 * 1024)).isEqualTo(3);
+        assertThat(read(jpeg(40, 30, exifSegment(false, 8)), 64 * 1024)).isEqualTo(8);
+    }
+
+
+    @Test
+    void 방향_정보가_없거나_읽을_수_없다면_회전하지_않는다() throws IOException {
+
+        // EXIF 없음, 범위를 벗어난 값, JPEG 가 아님
+        assertThat(read(jpeg(40, 30, null), 64 * 1024)).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(read(jpeg(40, 30, exifSegment(true, 9)), 64 * 1024)).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(read(new byte[]{(byte) 0x89, 'P', 'N', 'G'}, 64 * 1024)).isEqualTo(ExifOrientation.NORMAL);
+
+        // 세그먼트 중간에서 끝난 파일, 읽을 수 있는 길이를 넘는 세그먼트
+        byte[] jpeg = jpeg(40, 30, exifSegment(true, 6));
+        assertThat(read(Arrays.copyOf(jpeg, 30), 64 * 1024)).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(read(jpeg, 24)).isEqualTo(ExifOrientation.NORMAL);
+    }
+
+
+    private int read(byte[] bytes, int limit) throws IOException {
+        return ExifOrientation.read(new ByteArrayInputStream(bytes), limit);
+    }
+}
@@ -0,0 +1,69 @@
+package com.infreej.moment_canvas.global.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXIF 방향에 맞게 픽셀을 돌리는 테스트
+ * - 3x2 이미지의 왼쪽 위 픽셀이 방향마다 어디로 가는지, 90도 회전이 포함되면 가로/세로가 바뀌는지 확인한다.
+ */
+class ImageResizerTest {
+
+    // 방향(1~8)별 결과 크기와 왼쪽 위 픽셀의 위치 {너비, 높이, x, y}
+    private static final int[][] EXPECTED = {
+            {3, 2, 0, 0}, // 1: 그대로
+            {3, 2, 2, 0}, // 2: 좌우 반전
+            {3, 2, 2, 1}, // 3: 180도
+            {3, 2, 0, 1}, // 4: 상하 반전
+            {2, 3, 0, 0}, // 5: 대각선 반전
+            {2, 3, 1, 0}, // 6: 시계 방향 90도
+            {2, 3, 1, 2}, // 7: 반대 대각선 반전
+            {2, 3, 0, 2}, // 8: 시계 방향 270도
+    };
+
+
+    @Test
+    void 방향마다_픽셀을_돌리고_90도_회전이면_가로_세로를_바꾼다() {
+
+        BufferedImage source = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 2; y++) {
+                source.setRGB(x, y, Color.WHITE.getRGB());
+            }
+        }
+        source.setRGB(0, 0, Color.RED.getRGB());
+
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            int[] expected = EXPECTED[orientation - 1];
+            BufferedImage oriented = ImageResizer.orient(source, orientation);
+
+            assertThat(oriented.getWidth()).as("orientation %d width", orientation).isEqualTo(expected[0]);
+            assertThat(oriented.getHeight()).as("orientation %d height", orientation).isEqualTo(expected[1]);
+            assertThat(oriented.getRGB(expected[2], expected[3]) & 0xFFFFFF).as("orientation %d", orientation).isEqualTo(0xFF0000);
+        }
+
+        // 알 수 없는 값은 그대로
+        assertThat(ImageResizer.orient(source, 0)).isSameAs(source);
+        assertThat(ImageResizer.orient(source, 9)).isSameAs(source);
+    }
+
+
+    @Test
+    void 가운데를_정사각형으로_자르고_목표_크기로_줄인다() {
+
+        BufferedImage source = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage square = ImageResizer.cropSquare(source);
+        assertThat(square.getWidth()).isEqualTo(300);
+        assertThat(square.getHeight()).isEqualTo(300);
+
+        BufferedImage resized = ImageResizer.resize(square, 64, 64);
+        assertThat(resized.getWidth()).isEqualTo(64);
+        assertThat(resized.getHeight()).isEqualTo(64);
+        assertThat(ImageResizer.resizeToWidth(source, 1000).getWidth()).isEqualTo(400);
+    }
+}
@@ -0,0 +1,102 @@
+package com.infreej.moment_canvas.global.util;
+
+import com.infreej.moment_canvas.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 토큰 버킷 테스트 (token-bucket.lua 는 내장 Redis 에서 실행)
+ */
+class TokenBucketRateLimiterTest {
+
+    private EmbeddedRedis redis;
+    private TokenBucketRateLimiter rateLimiter;
+
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = EmbeddedRedis.start();
+        rateLimiter = new TokenBucketRateLimiter(redis.template());
+    }
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redis.close();
+    }
+
+
+    @Test
+    void 버킷_크기만큼_허용하고_다음_토큰까지_남은_시간을_알려준다() {
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryConsume("image-generate:user:1", 3, 6)).isZero();
+        }
+
+        // 10초에 1개 충전
+        assertThat(rateLimiter.tryConsume("image-generate:user:1", 3, 6)).isBetween(9_000L, 10_000L);
+        assertThat(rateLimiter.tryConsume("image-generate:user:2", 3, 6)).isZero();
+
+        // 버킷이 가득 찰 시간(30초)이 지나면 키가 사라진다.
+        assertThat(redis.template().getExpire("rateLimit:image-generate:user:1")).isBetween(29L, 30L);
+    }
+
+
+    @Test
+    void 여러_개를_한_번에_사용하고_모자라면_하나도_사용하지_않는다() {
+
+        assertThat(rateLimiter.tryConsume("image-generate:user:1", 5, 6, 4)).isZero();
+
+        // 남은 1개로는 4개가 필요한 요청을 보낼 수 없고, 3개가 모일 때까지(약 30초) 기다려야 한다.
+        assertThat(rateLimiter.tryConsume("image-generate:user:1", 5, 6, 4)).isBetween(29_000L, 30_000L);
+        assertThat(rateLimiter.tryConsume("image-generate:user:1", 5, 6, 1)).isZero();
+        assertThat(rateLimiter.tryConsume("image-generate:user:1", 5, 6, 1)).isPositive();
+    }
+
+
+    @Test
+    void 버킷_크기보다_많이_요청하면_버킷_크기만큼_사용한다() {
+
+        assertThat(rateLimiter.tryConsume("image-generate:ip:127.0.0.1", 2, 6, 4)).isZero();
+        assertThat(rateLimiter.tryConsume("image-generate:ip:127.0.0.1", 2, 6, 1)).isPositive();
+    }
+
+
+    @Test
+    void 충전_속도가_0_이하라면_스크립트는_0_으로_나누지_않고_오류를_반환한다() {
+
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/token-bucket.lua")));
+        script.setResultType(List.class);
+
+        for (String refillPerMillis : List.of("0", "-0.0001", "not-a-number")) {
+            assertThatThrownBy(() -> redis.template().execute(script, List.of("rateLimit:broken"), "5", refillPerMillis, "1"))
+                    .isInstanceOf(RedisSystemException.class)
+                    .rootCause().hasMessageContaining("refill rate must be positive");
+        }
+        assertThatThrownBy(() -> redis.template().execute(script, List.of("rateLimit:broken"), "0", "0.001", "1"))
+                .isInstanceOf(RedisSystemException.class);
+        assertThat(redis.template().hasKey("rateLimit:broken")).isFalse();
+    }
+
+
+    @Test
+    void 버킷_크기나_충전_속도가_0_이하인_설정은_허용하지_않는다() {
+
+        assertThatThrownBy(() -> rateLimiter.tryConsume("image-generate:user:1", 5, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rateLimiter.tryConsume("image-generate:user:1", 0, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(redis.template().hasKey("rateLimit:image-generate:user:1")).isFalse();
+    }
+}
@@ -0,0 +1,50 @@
+package com.infreej.moment_canvas.support;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * Lua 스크립트 테스트용 Redis 서버 (테스트마다 빈 포트로 실행)
+ */
+public class EmbeddedRedis implements AutoCloseable {
+
+    private final RedisServer redisServer;
+    private final LettuceConnectionFactory connectionFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private EmbeddedRedis(int port) throws IOException {
+        this.redisServer = new RedisServer(port);
+        this.redisServer.start();
+
+        this.connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        this.connectionFactory.afterPropertiesSet();
+        this.connectionFactory.start();
+        this.stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+
+    public static EmbeddedRedis start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        return new EmbeddedRedis(port);
+    }
+
+
+    public StringRedisTemplate template() {
+        return stringRedisTemplate;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+}
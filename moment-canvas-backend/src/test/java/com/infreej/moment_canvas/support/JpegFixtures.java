@@ -0,0 +1,100 @@
+package com.infreej.moment_canvas.support;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * EXIF 방향 정보가 들어간 JPEG 테스트 데이터
+ */
+public final class JpegFixtures {
+
+    private JpegFixtures() {
+    }
+
+
+    /**
+     * 왼쪽 1/4 이 빨간색인 JPEG 에 EXIF(APP1) 세그먼트를 JFIF(APP0) 뒤에 넣는다.
+     */
+    public static byte[] jpeg(int width, int height, byte[] exifSegment) throws IOException {
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, width / 4, height);
+        graphics.dispose();
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", encoded);
+        byte[] bytes = encoded.toByteArray();
+        if (exifSegment == null) {
+            return bytes;
+        }
+
+        // SOI(2) + APP0(마커 2 + 길이)
+        int insertAt = 4 + (((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(bytes, 0, insertAt);
+        out.write(exifSegment);
+        out.write(bytes, insertAt, bytes.length - insertAt);
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Orientation 항목 하나만 있는 APP1(Exif) 세그먼트
+     * @param littleEndian TIFF 바이트 순서 (II / MM)
+     */
+    public static byte[] exifSegment(boolean littleEndian, int orientation) {
+
+        ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+        tiff.writeBytes(littleEndian ? new byte[]{'I', 'I'} : new byte[]{'M', 'M'});
+        writeShort(tiff, 42, littleEndian);
+        writeInt(tiff, 8, littleEndian); // IFD0 위치
+        writeShort(tiff, 1, littleEndian); // 항목 수
+        writeShort(tiff, 0x0112, littleEndian); // Orientation
+        writeShort(tiff, 3, littleEndian); // SHORT
+        writeInt(tiff, 1, littleEndian);
+        writeShort(tiff, orientation, littleEndian);
+        writeShort(tiff, 0, littleEndian);
+        writeInt(tiff, 0, littleEndian); // 다음 IFD 없음
+
+        byte[] body = tiff.toByteArray();
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        segment.write(0xFF);
+        segment.write(0xE1);
+        int length = 2 + 6 + body.length;
+        segment.write(length >> 8);
+        segment.write(length & 0xFF);
+        segment.writeBytes(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        segment.writeBytes(body);
+        return segment.toByteArray();
+    }
+
+
+    private static void writeShort(ByteArrayOutputStream out, int value, boolean littleEndian) {
+        if (littleEndian) {
+            out.write(value & 0xFF);
+            out.write((value >> 8) & 0xFF);
+        } else {
+            out.write((value >> 8) & 0xFF);
+            out.write(value & 0xFF);
+        }
+    }
+
+
+    private static void writeInt(ByteArrayOutputStream out, int value, boolean littleEndian) {
+        if (littleEndian) {
+            writeShort(out, value & 0xFFFF, true);
+            writeShort(out, value >>> 16, true);
+        } else {
+            writeShort(out, value >>> 16, false);
+            writeShort(out, value & 0xFFFF, false);
+        }
+    }
+}
@@ -34,14 +34,52 @@ export interface DiaryImageGenerateRequest {
   diaryId: number;
   style: string;
   option: string;
+  aspectRatio?: string; // 이미지 비율 (기본 16:9)
+  quality?: number; // 이미지 품질 1~100 (기본 80)
+  size?: 'SMALL' | 'LARGE'; // 이미지 크기 (기본 LARGE)
+  progressive?: boolean; // true 라면 미리보기 이미지를 먼저 생성
+  candidateCount?: number; // 같은 프롬프트로 생성할 이미지 후보 개수 1~4 (기본 1)
+  promptMode?: 'STANDARD' | 'FAST'; // 프롬프트 생성 방식 (FAST: LLM 없이 템플릿으로 빠르게 생성, 기본 STANDARD)
 }
 
+// 이미지 생성 작업 상태 (백엔드 ImageJobResponse 참조)
+export type ImageJobStatus = 'PENDING' | 'PROMPT_BUILT' | 'IMAGE_REQUESTED' | 'PREVIEW_READY' | 'COMPLETED' | 'FAILED';
+
+export interface ImageJobResponse {
+  jobId: string;
+  diaryId: number;
+  status: ImageJobStatus;
+  previewUrl?: string | null; // 미리보기 이미지 URL (progressive 요청 시)
+  imageUrl?: string | null;
+  provider?: 'REPLICATE' | 'OPENAI' | null; // 이미지를 생성한 제공자
+  imageUrls?: string[] | null; // 생성된 이미지 후보 URL 목록 (완료 시)
+  candidateIds?: number[] | null; // 이미지 후보 PK 목록 (완료 시, 이미지 저장 시 사용)
+  errorCode?: string | null;
+}
+
+// 일기 이미지 후보 (보관 기간 내에 생성된 이미지)
+export interface DiaryImageCandidateResponse {
+  candidateId: number;
+  jobId: string;
+  imageUrl: string;
+  savedImageName?: string | null; // 저장소에 저장된 이미지 이름 (생성 시점에 저장하지 못했다면 null)
+  provider?: 'REPLICATE' | 'OPENAI' | null;
+  createdAt: string;
+}
+
+// 작업 상태 확인 주기
+const IMAGE_JOB_POLL_INTERVAL_MS = 1500;
+
+// 이미지 생성 결과를 기다리는 최대 시간 (서버에도 X-Request-Timeout 헤더로 전달해 이 시간이 지나면 작업을 중단시킨다.)
+const IMAGE_JOB_TIMEOUT_MS = 120000;
+
 // 이미지 저장 요청 DTO
 export type ImageType = 'Diary' | 'Profile';
 
 export interface ImageDownloadRequest {
-  imageUrl: string;
+  imageUrl?: string;
   imageType: ImageType;
+  candidateId?: number; // 이미지 후보 PK (있다면 imageUrl 대신 후보의 이미지를 저장)
 }
 
 // 일기 수정 요청 DTO
@@ -108,10 +146,61 @@ export const diaryApi = {
     return response.data;
   },
 
+  // 일기 이미지 생성 작업 접수 (jobId 즉시 반환)
+  // 같은 idempotencyKey 로 다시 요청하면 새 작업을 만들지 않고 처음 접수된 작업을 반환
+  submitImageJob: async (data: DiaryImageGenerateRequest, idempotencyKey: string = crypto.randomUUID()) => {
+    const response = await httpClient.post<ApiResponse<ImageJobResponse>>('/diary/image-generate', data, {
+      headers: { 'Idempotency-Key': idempotencyKey, 'X-Request-Timeout': String(IMAGE_JOB_TIMEOUT_MS) },
+    });
+    return response.data.data;
+  },
+
+  // 일기 이미지 생성 작업 상태 조회
+  getImageJob: async (jobId: string) => {
+    const response = await httpClient.get<ApiResponse<ImageJobResponse>>(`/diary/image-generate/${jobId}`);
+    return response.data.data;
+  },
+
+  // 실패한 일기 이미지 생성 작업 재시도 (실패한 단계부터 이어서 진행)
+  retryImageJob: async (jobId: string) => {
+    const response = await httpClient.post<ApiResponse<ImageJobResponse>>(`/diary/image-generate/${jobId}/retry`);
+    return response.data.data;
+  },
+
   // 일기 이미지 생성 요청
-  generateImage: async (data: DiaryImageGenerateRequest) => {
-    const response = await httpClient.post<ApiResponse<string>>('/diary/image-generate', data);
-    // axios의 data(=ApiResponse) 안의 data(=이미지URL)를 반환
+  // 작업을 접수한 뒤 완료될 때까지 상태를 확인하고, 생성된 이미지 URL과 후보 PK를 반환 (최대 IMAGE_JOB_TIMEOUT_MS 까지)
+  // 이미지는 서버가 생성 시점에 저장해 두므로, 저장 요청에는 후보 PK를 보낸다.
+  // progressive 요청이라면 미리보기 이미지가 준비되는 즉시 onPreview 로 전달
+  generateImage: async (data: DiaryImageGenerateRequest, onPreview?: (previewUrl: string) => void) => {
+    const deadline = Date.now() + IMAGE_JOB_TIMEOUT_MS;
+    let job = await diaryApi.submitImageJob(data);
+    let previewSent = false;
+
+    while (job.status !== 'COMPLETED') {
+      if (job.status === 'FAILED') {
+        throw new Error(`이미지 생성 작업 실패: ${job.errorCode}`);
+      }
+      if (Date.now() > deadline) {
+        throw new Error('이미지 생성 시간이 초과되었습니다.');
+      }
+      if (job.previewUrl && !previewSent) {
+        onPreview?.(job.previewUrl);
+        previewSent = true;
+      }
+      await new Promise((resolve) => setTimeout(resolve, IMAGE_JOB_POLL_INTERVAL_MS));
+      job = await diaryApi.getImageJob(job.jobId);
+    }
+
+    return {
+      imageUrl: job.imageUrl as string,
+      candidateId: job.candidateIds?.[0],
+    };
+  },
+
+
+  // 보관 기간 내의 일기 이미지 후보 목록 조회 (최신순)
+  getImageCandidates: async (diaryId: number) => {
+    const response = await httpClient.get<ApiResponse<DiaryImageCandidateResponse[]>>(`/diary/${diaryId}/image-candidates`);
     return response.data.data;
   },
 
@@ -36,6 +36,7 @@ const ImageGenerationModal = ({ isOpen, onClose, diaryId, onImageSaved }: ImageG
 
    // 결과 상태
    const [generatedImageUrl, setGeneratedImageUrl] = useState<string | null>(null);
+   const [candidateId, setCandidateId] = useState<number | undefined>(undefined); // 이미지 후보 PK (저장 시 사용)
 
    // 저장 로딩 상태 추가
    const [isSaving, setIsSaving] = useState(false);
@@ -44,12 +45,13 @@ const ImageGenerationModal = ({ isOpen, onClose, diaryId, onImageSaved }: ImageG
    const handleGenerate = async () => {
       setStep('loading');
       try {
-         const imageUrl = await diaryApi.generateImage({
+         const { imageUrl, candidateId } = await diaryApi.generateImage({
             diaryId,
             style: selectedStyle,
             option: option,
          });
          setGeneratedImageUrl(imageUrl);
+         setCandidateId(candidateId);
          setStep('result');
       } catch (error) {
          console.error('이미지 생성 실패:', error);
@@ -61,6 +63,7 @@ const ImageGenerationModal = ({ isOpen, onClose, diaryId, onImageSaved }: ImageG
    // 재생성
    const handleRetry = () => {
       setGeneratedImageUrl(null);
+      setCandidateId(undefined);
       setStep('input');
    };
 
@@ -71,10 +74,11 @@ const ImageGenerationModal = ({ isOpen, onClose, diaryId, onImageSaved }: ImageG
       setIsSaving(true); // 로딩 시작
 
       try {
-         await diaryApi.saveImage(diaryId, {
-            imageUrl: generatedImageUrl,
-            imageType: 'Diary', // Enum: 'Diary' 고정
-         });
+         // 후보 PK가 있다면 서버에 저장된 이미지를 선택만 하고, 없다면 이미지 URL로 저장
+         await diaryApi.saveImage(diaryId, candidateId
+            ? { candidateId, imageType: 'Diary' }
+            : { imageUrl: generatedImageUrl, imageType: 'Diary' }, // Enum: 'Diary' 고정
+         );
 
          alert('그림이 일기에 저장되었습니다! 🖼️');
 
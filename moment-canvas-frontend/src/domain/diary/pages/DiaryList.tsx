@@ -2,7 +2,7 @@ import React, { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { Calendar, Image as ImageIcon, Plus, Loader2, ChevronLeft, ChevronRight, CalendarDays, Trash2, List } from 'lucide-react';
 import { diaryApi, type DiarySummary } from '../api/diaryApi';
-import { IMAGE_BASE_URL } from '../../../global/constans/image';
+import { IMAGE_BASE_URL, diaryImageVariantUrl } from '../../../global/constans/image';
 
 const DiaryList = () => {
    const navigate = useNavigate();
@@ -215,7 +215,18 @@ const DiaryList = () => {
                      <div className="relative aspect-video bg-gray-100 overflow-hidden">
                         {diary.savedDiaryImageName ? (
                            <img
-                              src={`${IMAGE_BASE_URL}/diary-images/${diary.savedDiaryImageName}`}
+                              // 카드 크기에 맞는 변환본을 사용하고, 변환본을 받지 못하면 원본으로 대체
+                              src={diaryImageVariantUrl(diary.savedDiaryImageName, 'small')}
+                              srcSet={`${diaryImageVariantUrl(diary.savedDiaryImageName, 'small')} 480w, ${diaryImageVariantUrl(diary.savedDiaryImageName, 'medium')} 960w`}
+                              sizes="(min-width: 1024px) 33vw, (min-width: 768px) 50vw, 100vw"
+                              loading="lazy"
+                              decoding="async"
+                              onError={(e) => {
+                                 const img = e.currentTarget;
+                                 img.onerror = null;
+                                 img.srcset = '';
+                                 img.src = `${IMAGE_BASE_URL}/diary-images/${diary.savedDiaryImageName}`;
+                              }}
                               alt={diary.title}
                               className={`w-full h-full object-cover transition-transform duration-500 group-hover:scale-105 ${isTrashMode ? 'grayscale' : ''}`}
                            />
@@ -4,7 +4,7 @@ import { User, Calendar, Smile, Save, Loader2, Camera, AlertCircle } from 'lucid
 import { useAppSelector, useAppDispatch } from '../../../global/store/hooks';
 import { logout, updateUser } from '../../../global/store/slices/authSlice';
 import { userApi, type UserDetail } from '../api/userApi';
-import {IMAGE_BASE_URL } from '../../../global/constans/image'
+import { profileImageUrl } from '../../../global/constans/image'
 
 // const IMAGE_BASE_URL = 'http://localhost:9090/images/profile-images';
 
@@ -241,7 +241,7 @@ const MyPage = () => {
                            <img
                               src={
                                  userInfo.savedProfileImageName
-                                    ? `${IMAGE_BASE_URL}/profile-images/${userInfo.savedProfileImageName}`
+                                    ? profileImageUrl(userInfo.savedProfileImageName, 256)
                                     : "https://api.dicebear.com/7.x/lorelei-neutral/svg?seed=Felix"
                               }
                               alt="Profile"
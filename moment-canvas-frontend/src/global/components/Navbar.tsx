@@ -6,7 +6,7 @@ import LoginForm from '../../domain/auth/pages/LoginForm';
 import { useAppSelector, useAppDispatch } from '../../global/store/hooks';
 import { closeLoginModal, logout, openLoginModal } from '../../global/store/slices/authSlice';
 import { authApi } from '../../global/api/authApi';
-import { IMAGE_BASE_URL } from '../constans/image';
+import { profileImageUrl } from '../constans/image';
 import logoImage from '../../assets/favicon.svg';
 
 const Navbar = () => {
@@ -167,7 +167,7 @@ const Navbar = () => {
                                  <img
                                     src={
                                        user?.savedProfileImageName
-                                          ? `${IMAGE_BASE_URL}/profile-images/${user.savedProfileImageName}`
+                                          ? profileImageUrl(user.savedProfileImageName, 64)
                                           : "https://api.dicebear.com/7.x/lorelei-neutral/svg?seed=Felix"
                                     }
                                     alt="User Avatar"
@@ -276,7 +276,7 @@ const Navbar = () => {
                               <img
                                  src={
                                     user?.savedProfileImageName
-                                       ? `${IMAGE_BASE_URL}/profile-images/${user.savedProfileImageName}`
+                                       ? profileImageUrl(user.savedProfileImageName, 64)
                                        : "https://api.dicebear.com/7.x/lorelei-neutral/svg?seed=Felix"
                                  }
                                  alt="Profile"
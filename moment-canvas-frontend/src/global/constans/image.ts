@@ -5,4 +5,23 @@ const S3_BUCKET_URL = 'https://moment-canvas.s3.ap-northeast-2.amazonaws.com';
 const LOCAL_IMAGE_URL = 'http://localhost:9090/images';
 
 // 현재 환경에 따라 자동으로 선택
-export const IMAGE_BASE_URL = import.meta.env.PROD ? S3_BUCKET_URL : LOCAL_IMAGE_URL;
\ No newline at end of file
+export const IMAGE_BASE_URL = import.meta.env.PROD ? S3_BUCKET_URL : LOCAL_IMAGE_URL;
+
+// 이미지 변환본(썸네일) 주소 (백엔드가 프리셋 크기로 줄여 캐시한 이미지)
+const VARIANT_BASE_URL = import.meta.env.PROD ? 'https://momentcanvas.site/api/images/variants' : 'http://localhost:9090/images/variants';
+
+// 프리셋: thumb(160px), small(480px), medium(960px)
+export type ImageVariantPreset = 'thumb' | 'small' | 'medium';
+
+// 일기 이미지 변환본 URL
+export const diaryImageVariantUrl = (savedDiaryImageName: string, preset: ImageVariantPreset) =>
+   `${VARIANT_BASE_URL}/${preset}/diary-images/${savedDiaryImageName}`;
+
+// 프로필 이미지 크기 (백엔드가 업로드 후 정규화한 아바타 크기)
+export type ProfileImageSize = 256 | 128 | 64;
+
+// 프로필 이미지 URL (정규화 전이라면 원본 주소)
+export const profileImageUrl = (savedProfileImageName: string, size: ProfileImageSize) =>
+   `${IMAGE_BASE_URL}/profile-images/${savedProfileImageName.endsWith('_256.jpg')
+      ? savedProfileImageName.replace(/_256\.jpg$/, `_${size}.jpg`)
+      : savedProfileImageName}`;